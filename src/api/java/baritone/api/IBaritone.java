@@ -24,6 +24,7 @@ import baritone.api.command.manager.ICommandManager;
 import baritone.api.event.listener.IEventBus;
 import baritone.api.pathing.calc.IPathingControlManager;
 import baritone.api.process.*;
+import baritone.api.utils.IBaritoneMetrics;
 import baritone.api.utils.IEntityContext;
 import baritone.api.utils.IInputOverrideHandler;
 import dev.onyxstudios.cca.api.v3.component.ComponentKey;
@@ -141,6 +142,12 @@ public interface IBaritone extends AutoSyncedComponent, ServerTickingComponent {
      */
     ICommandManager getCommandManager();
 
+    /**
+     * @return The {@link IBaritoneMetrics} of this instance alone
+     * @see IBaritoneMetrics
+     */
+    IBaritoneMetrics getMetrics();
+
     /**
      * Send a message to chat only if chatDebug is on
      *
@@ -35,6 +35,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -355,6 +356,15 @@ public final class Settings {
 
     public final Setting<Integer> mobAvoidanceRadius = new Setting<>(8);
 
+    /**
+     * How far, in blocks, to look for hostile mobs to avoid and dropped items to pick up while mining, or -1 for no
+     * limit
+     * <p>
+     * With a limit, only entities in the chunk sections around the bot are looked at, instead of every entity in the
+     * world. Without one, every loaded entity is considered, like before this setting existed.
+     */
+    public final Setting<Integer> entityScanRadius = new Setting<>(-1);
+
     /**
      * When running a goto towards a container block (chest, ender chest, furnace, etc),
      * right click and open it once you arrive.
@@ -423,6 +433,72 @@ public final class Settings {
      */
     public final Setting<Float> pathingMapLoadFactor = new Setting<>(0.75f);
 
+    /**
+     * Store the nodes of a path calculation in flat primitive arrays instead of one object per node
+     * <p>
+     * Same paths, much less garbage for the GC to collect on big searches
+     */
+    public final Setting<Boolean> primitiveNodeStore = new Setting<>(false);
+
+    /**
+     * Spread a path calculation towards a specific block over several threads, which calculate the costs of the
+     * movements out of the next few best nodes at the same time
+     * <p>
+     * Paths can come out slightly different from a single threaded search, since nodes are expanded in batches
+     */
+    public final Setting<Boolean> parallelPathing = new Setting<>(false);
+
+    /**
+     * How many nodes {@link #parallelPathing} expands at once
+     */
+    public final Setting<Integer> parallelPathingBatchSize = new Setting<>(64);
+
+    /**
+     * How many threads {@link #parallelPathing} spreads a calculation over, including the one it runs on
+     * <p>
+     * Values below 2 mean "half the available processors". Only read from the global settings, on first use.
+     */
+    public final Setting<Integer> parallelPathingThreads = new Setting<>(0);
+
+    /**
+     * Share the paths found to a goal with every bot of the world, so that a bot heading to the same goal from a
+     * position along one of them takes the rest of it instead of searching again
+     * <p>
+     * A shared path is only taken by bots that can make the same movements, after checking that they still cost about
+     * the same, and is forgotten as soon as a block next to it changes
+     */
+    public final Setting<Boolean> sharedPathCache = new Setting<>(false);
+
+    /**
+     * How many paths each world remembers for {@link #sharedPathCache}. Only read from the global settings.
+     */
+    public final Setting<Integer> sharedPathCacheSize = new Setting<>(64);
+
+    /**
+     * The biggest number of nodes a worker thread keeps room for between two path calculations
+     * <p>
+     * Calculations that go over this still work, they just don't leave their extra memory behind
+     */
+    public final Setting<Integer> pathingArenaMaxNodes = new Setting<>(1 << 18);
+
+    /**
+     * How long a worker thread keeps its path calculation memory around without using it, in milliseconds
+     */
+    public final Setting<Long> pathingArenaIdleTimeoutMS = new Setting<>(30000L);
+
+    /**
+     * Keep the search graph of the last path calculation, and repair it around the blocks that changed since
+     * instead of searching from scratch when the path has to be recalculated towards the same goal
+     * <p>
+     * Only works along with {@link #primitiveNodeStore}
+     */
+    public final Setting<Boolean> incrementalReplanning = new Setting<>(false);
+
+    /**
+     * Search graphs bigger than this many nodes are not kept for {@link #incrementalReplanning}
+     */
+    public final Setting<Integer> incrementalReplanningMaxNodes = new Setting<>(1 << 16);
+
     /**
      * How far are you allowed to fall onto solid ground (without a water bucket)?
      * 3 won't deal any damage. But if you just want to get down the mountain quickly and you have
@@ -454,6 +530,27 @@ public final class Settings {
      */
     public final Setting<Boolean> simplifyUnloadedYCoord = new Setting<>(true);
 
+    /**
+     * Plan long trips through the regions that can be walked in each chunk section first, then only search the next
+     * few regions of that route block by block, instead of searching towards the goal blindly
+     * <p>
+     * Regions are found from loaded chunks, and from cached ones with {@link #chunkCaching}
+     */
+    public final Setting<Boolean> hierarchicalPathing = new Setting<>(false);
+
+    /**
+     * How many regions the route search of {@link #hierarchicalPathing} looks at before settling for the closest one,
+     * at most 1024 since that is about as many as the region graph keeps around at once
+     * <p>
+     * The route search also settles early if it takes more than half of {@link #primaryTimeoutMS}
+     */
+    public final Setting<Integer> hierarchicalPathingMaxRegions = new Setting<>(1024);
+
+    /**
+     * How many regions of the route of {@link #hierarchicalPathing} each path segment covers, a region being up to 16 blocks
+     */
+    public final Setting<Integer> hierarchicalPathingRefineRegions = new Setting<>(8);
+
     /**
      * Whenever a block changes, repack the whole chunk that it's in
      */
@@ -488,6 +585,41 @@ public final class Settings {
      */
     public final Setting<Long> planAheadFailureTimeoutMS = new Setting<>(5000L);
 
+    /**
+     * How many worker threads are shared by all Automatone instances for path calculations and world scans
+     * <p>
+     * Values below 1 mean "number of available processors minus one". Only read from the global settings, on first use.
+     */
+    public final Setting<Integer> pathingThreads = new Setting<>(0);
+
+    /**
+     * How many milliseconds of each server tick all Automatone instances together may spend before expensive work
+     * that can wait, like rescanning for blocks or verifying the costs of upcoming movements, gets put off to later
+     * ticks. Following paths is never put off.
+     * <p>
+     * Values of 0 or less mean no budget. Only read from the global settings.
+     */
+    public final Setting<Double> tickBudgetMS = new Setting<>(0D);
+
+    /**
+     * The most ticks in a row an Automatone instance can have its expensive work put off by {@link #tickBudgetMS},
+     * after which it does it regardless. Only read from the global settings.
+     */
+    public final Setting<Integer> tickBudgetMaxDeferTicks = new Setting<>(20);
+
+    /**
+     * Make path calculations read from a copy of the chunks around the bot, taken on the server thread,
+     * instead of reading the live world from another thread
+     */
+    public final Setting<Boolean> pathingChunkSnapshots = new Setting<>(true);
+
+    /**
+     * The radius, in chunks, of the area copied for path calculations when {@link #pathingChunkSnapshots} is on
+     * <p>
+     * Values below 1 mean the view distance of the server
+     */
+    public final Setting<Integer> pathingSnapshotRadius = new Setting<>(0);
+
     /**
      * For debugging, consider nodes much much slower
      */
@@ -503,8 +635,29 @@ public final class Settings {
      */
     public final Setting<Long> slowPathTimeoutMS = new Setting<>(40000L);
 
+    /**
+     * For debugging, record the last nodes every path calculation expanded and what became of each movement out of
+     * them, and write them to automatone/traces in the game directory when the calculation fails or is slow
+     * <p>
+     * Calculations that are traced don't use {@link #parallelPathing}
+     */
+    public final Setting<Boolean> searchTrace = new Setting<>(false);
+
+    /**
+     * How many events a {@link #searchTrace} keeps, the oldest ones being forgotten first
+     */
+    public final Setting<Integer> searchTraceEvents = new Setting<>(1 << 16);
+
+    /**
+     * Calculations that take longer than this many milliseconds get their {@link #searchTrace} written even though
+     * they found a path. Negative to only write the traces of calculations that fail.
+     */
+    public final Setting<Long> searchTraceSlowMS = new Setting<>(1000L);
+
     /**
      * The big one. Download all chunks in simplified 2-bit format and save them for better very-long-distance pathing.
+     * <p>
+     * Only the worlds where a bot was pathing in the last few minutes are cached.
      */
     public final Setting<Boolean> chunkCaching = new Setting<>(true);
 
@@ -541,6 +694,11 @@ public final class Settings {
      */
     public final Setting<Boolean> syncWithOps = new Setting<>(false);
 
+    /**
+     * Minimum amount of ticks between two path render updates sent to players. Segment changes are always sent right away.
+     */
+    public final Setting<Integer> pathSyncIntervalTicks = new Setting<>(4);
+
     /**
      * Render the path
      */
@@ -1139,6 +1297,27 @@ public final class Settings {
      */
     public final Setting<Boolean> notificationOnMineFail = new Setting<>(true);
 
+    private static final AtomicInteger CHANGE_COUNT = new AtomicInteger();
+
+    /**
+     * Whether this is a {@link #snapshot()}
+     */
+    private boolean frozen;
+
+    private volatile @Nullable Settings snapshot;
+
+    /**
+     * For snapshots, the {@link #changeCount()} at the time they were taken
+     */
+    private int snapshotChangeCount;
+
+    /**
+     * @return A number that changes every time a setting of any {@link Settings} instance is set or reset
+     */
+    public static int changeCount() {
+        return CHANGE_COUNT.get();
+    }
+
     /**
      * A map of lowercase setting field names to their respective setting
      */
@@ -1156,6 +1335,10 @@ public final class Settings {
         private @Nullable T value;
         public final T defaultValue;
         private String name;
+        /**
+         * The setting of the same name in the global settings, resolved on first use
+         */
+        private @Nullable Setting<T> globalSetting;
 
         private Setting(T value) {
             if (value == null) {
@@ -1166,8 +1349,14 @@ public final class Settings {
         }
 
         public T defaultValue() {
-            if (Settings.this == BaritoneAPI.getGlobalSettings()) return this.defaultValue;
-            @SuppressWarnings("unchecked") Setting<T> globalSetting = (Setting<T>) BaritoneAPI.getGlobalSettings().byLowerName.get(this.name.toLowerCase(Locale.ROOT));
+            Setting<T> globalSetting = this.globalSetting;
+            if (globalSetting == null) {
+                if (Settings.this == BaritoneAPI.getGlobalSettings()) return this.defaultValue;
+                // racing threads resolve the same object, no need to synchronize
+                //noinspection unchecked
+                globalSetting = (Setting<T>) BaritoneAPI.getGlobalSettings().byLowerName.get(this.name.toLowerCase(Locale.ROOT));
+                this.globalSetting = globalSetting;
+            }
             return globalSetting.get();
         }
 
@@ -1179,7 +1368,9 @@ public final class Settings {
         }
 
         public final void set(T value) {
+            checkMutable();
             this.value = value;
+            CHANGE_COUNT.incrementAndGet();
         }
 
         public final String getName() {
@@ -1200,12 +1391,20 @@ public final class Settings {
          * Reset this setting to its default value
          */
         public void reset() {
+            checkMutable();
             this.value = null;
+            CHANGE_COUNT.incrementAndGet();
         }
 
         public final Type getType() {
             return settingTypes.get(this);
         }
+
+        private void checkMutable() {
+            if (frozen) {
+                throw new UnsupportedOperationException("Cannot change " + name + " in a settings snapshot");
+            }
+        }
     }
 
     // here be dragons
@@ -1240,6 +1439,48 @@ public final class Settings {
         settingTypes = Collections.unmodifiableMap(tmpSettingTypes);
     }
 
+    /**
+     * Returns a copy of these settings where every value is resolved once, including the ones that fall back to
+     * the global settings. Reading a snapshot is a plain field read, and its values don't change halfway through
+     * a path calculation. Setting or resetting anything in a snapshot throws.
+     * <p>
+     * The same snapshot is handed out until any setting changes.
+     *
+     * @return An immutable copy of these settings
+     */
+    public Settings snapshot() {
+        if (frozen) {
+            return this;
+        }
+        int changeCount = changeCount();
+        Settings snapshot = this.snapshot;
+        if (snapshot == null || snapshot.snapshotChangeCount != changeCount) {
+            snapshot = new Settings();
+            for (Setting<?> setting : allSettings) {
+                copyValue(setting, snapshot.byLowerName.get(setting.name.toLowerCase(Locale.ROOT)));
+            }
+            snapshot.frozen = true;
+            snapshot.snapshotChangeCount = changeCount;
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Lists and maps are copied, and can't be changed through the snapshot, so that neither side sees what is done
+     * to the other's. Other values are immutable already.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void copyValue(Setting<T> from, Setting<?> to) {
+        Object value = from.get();
+        if (value instanceof List) {
+            value = Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+        } else if (value instanceof Map) {
+            value = Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) value));
+        }
+        ((Setting<T>) to).value = (T) value;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> List<Setting<T>> getAllValuesByType(Class<T> cla$$) {
         List<Setting<T>> result = new ArrayList<>();
@@ -17,6 +17,8 @@
 
 package baritone.api.cache;
 
+import baritone.api.utils.IBaritoneMetrics;
+
 /**
  * @author Brady
  * @since 9/24/2018
@@ -42,4 +44,9 @@ public interface IWorldData {
      * @see IContainerMemory
      */
     IContainerMemory getContainerMemory();
+
+    /**
+     * @return The {@link IBaritoneMetrics} of every {@link baritone.api.IBaritone} in this world, added together
+     */
+    IBaritoneMetrics getMetrics();
 }
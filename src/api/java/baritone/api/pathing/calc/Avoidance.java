@@ -21,6 +21,8 @@ import baritone.api.utils.BetterBlockPos;
 import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.Objects;
+
 public class Avoidance {
 
     private final int centerX;
@@ -43,6 +45,36 @@ public class Avoidance {
         this.radiusSq = radius * radius;
     }
 
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterY() {
+        return centerY;
+    }
+
+    public int getCenterZ() {
+        return centerZ;
+    }
+
+    public double getCoefficient() {
+        return coefficient;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return Whether the given position is within the sphere of this avoidance
+     */
+    public boolean contains(int x, int y, int z) {
+        int xDiff = x - centerX;
+        int yDiff = y - centerY;
+        int zDiff = z - centerZ;
+        return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff <= radiusSq;
+    }
+
     public double coefficient(int x, int y, int z) {
         int xDiff = x - centerX;
         int yDiff = y - centerY;
@@ -50,6 +82,28 @@ public class Avoidance {
         return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff <= radiusSq ? coefficient : 1.0D;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Avoidance avoidance = (Avoidance) o;
+        return centerX == avoidance.centerX && centerY == avoidance.centerY && centerZ == avoidance.centerZ
+                && Double.compare(coefficient, avoidance.coefficient) == 0 && radius == avoidance.radius;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(centerX, centerY, centerZ, coefficient, radius);
+    }
+
+    /**
+     * Writes this avoidance into every block of its sphere. Prefer evaluating {@link #coefficient(int, int, int)}
+     * on demand, this does radius cubed map writes.
+     */
     public void applySpherical(Long2DoubleOpenHashMap map) {
         for (int x = -radius; x <= radius; x++) {
             for (int y = -radius; y <= radius; y++) {
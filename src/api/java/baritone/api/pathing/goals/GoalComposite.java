@@ -17,12 +17,21 @@
 
 package baritone.api.pathing.goals;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A composite of many goals, any one of which satisfies the composite.
  * For example, a GoalComposite of block goals for every oak log in loaded chunks
  * would result in it pathing to the easiest oak log to get to
+ * <p>
+ * Large composites put their {@link PointGoal}s in a {@link PointGoalIndex}, so that the cost of
+ * {@link #isInGoal(int, int, int)} and {@link #heuristic(int, int, int)} grows with the log of the number of goals
+ * rather than linearly.
  *
  * @author avecowa
  */
@@ -33,28 +42,70 @@ public class GoalComposite implements Goal {
      */
     private final Goal[] goals;
 
+    /**
+     * Below this many point goals, looking at all of them is about as fast as using an index
+     */
+    private static final int INDEX_THRESHOLD = 64;
+
+    /**
+     * The point goals, or null if there are too few of them to bother
+     */
+    private final PointGoalIndex index;
+
+    /**
+     * The goals that have to be asked every time, all of them when there is no index
+     */
+    private final Goal[] unindexed;
+
+    /**
+     * Computed once, composites get compared every tick by {@code PathingControlManager} and can be huge
+     */
+    private final int hashCode;
+
     public GoalComposite(Goal... goals) {
         this.goals = goals;
+        List<PointGoal> points = new ArrayList<>();
+        List<Goal> others = new ArrayList<>();
+        for (Goal goal : goals) {
+            if (goal instanceof PointGoal) {
+                points.add((PointGoal) goal);
+            } else {
+                others.add(goal);
+            }
+        }
+        if (points.size() >= INDEX_THRESHOLD) {
+            this.index = new PointGoalIndex(points);
+            this.unindexed = others.toArray(new Goal[0]);
+        } else {
+            this.index = null;
+            this.unindexed = goals;
+        }
+        int hash = 0;
+        for (Goal goal : goals) {
+            // a sum doesn't care about the order, the mix keeps duplicates from cancelling out
+            hash += HashCommon.mix(goal.hashCode());
+        }
+        this.hashCode = hash;
     }
 
     @Override
     public boolean isInGoal(int x, int y, int z) {
-        for (Goal goal : goals) {
+        for (Goal goal : unindexed) {
             if (goal.isInGoal(x, y, z)) {
                 return true;
             }
         }
-        return false;
+        return index != null && index.isInGoal(x, y, z);
     }
 
     @Override
     public double heuristic(int x, int y, int z) {
         double min = Double.MAX_VALUE;
-        for (Goal g : goals) {
+        for (Goal g : unindexed) {
             // TODO technically this isn't admissible...?
             min = Math.min(min, g.heuristic(x, y, z)); // whichever is closest
         }
-        return min;
+        return index == null ? min : index.heuristic(x, y, z, min);
     }
 
     @Override
@@ -67,6 +118,42 @@ public class GoalComposite implements Goal {
         return min;
     }
 
+    /**
+     * Two composites are equal if they hold the same goals, in any order
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalComposite goal = (GoalComposite) o;
+        if (hashCode != goal.hashCode || goals.length != goal.goals.length) {
+            return false;
+        }
+        if (Arrays.equals(goals, goal.goals)) {
+            return true; // same order, by far the most common case
+        }
+        Object2IntOpenHashMap<Goal> counts = new Object2IntOpenHashMap<>(goals.length);
+        for (Goal g : goals) {
+            counts.addTo(g, 1);
+        }
+        for (Goal g : goal.goals) {
+            if (counts.addTo(g, -1) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     @Override
     public String toString() {
         return "GoalComposite" + Arrays.toString(goals);
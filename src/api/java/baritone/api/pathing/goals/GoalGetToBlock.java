@@ -17,8 +17,8 @@
 
 package baritone.api.pathing.goals;
 
+import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.SettingsUtil;
-import baritone.api.utils.interfaces.IGoalRenderPos;
 import net.minecraft.util.math.BlockPos;
 
 
@@ -27,7 +27,7 @@ import net.minecraft.util.math.BlockPos;
  *
  * @author avecowa
  */
-public class GoalGetToBlock implements Goal, IGoalRenderPos {
+public class GoalGetToBlock implements PointGoal {
 
     public final int x;
     public final int y;
@@ -60,6 +60,31 @@ public class GoalGetToBlock implements Goal, IGoalRenderPos {
         return GoalBlock.calculate(xDiff, yDiff < 0 ? yDiff + 1 : yDiff, zDiff);
     }
 
+    @Override
+    public int getReach() {
+        return 2; // standing two below counts too, with the head next to the block
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalGetToBlock goal = (GoalGetToBlock) o;
+        return x == goal.x
+                && y == goal.y
+                && z == goal.z;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) BetterBlockPos.longHash(x, y, z) * -49639096;
+    }
+
     @Override
     public String toString() {
         return String.format(
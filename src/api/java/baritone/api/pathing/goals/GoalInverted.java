@@ -17,6 +17,8 @@
 
 package baritone.api.pathing.goals;
 
+import java.util.Objects;
+
 /**
  * Invert any goal.
  * <p>
@@ -50,6 +52,24 @@ public class GoalInverted implements Goal {
         return Double.NEGATIVE_INFINITY;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalInverted goal = (GoalInverted) o;
+        return Objects.equals(origin, goal.origin);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(origin) * 495796690;
+    }
+
     @Override
     public String toString() {
         return String.format("GoalInverted{%s}", origin.toString());
@@ -23,6 +23,7 @@ import it.unimi.dsi.fastutil.doubles.DoubleIterator;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Useful for automated combat (retreating specifically)
@@ -37,6 +38,8 @@ public class GoalRunAway implements Goal {
 
     private final Integer maintainY;
 
+    private final int hashCode;
+
     public GoalRunAway(double distance, BlockPos... from) {
         this(distance, null, from);
     }
@@ -48,6 +51,7 @@ public class GoalRunAway implements Goal {
         this.from = from;
         this.distanceSq = (int) (distance * distance);
         this.maintainY = maintainY;
+        this.hashCode = (Arrays.hashCode(from) * 31 + distanceSq) * 31 + Objects.hashCode(maintainY);
     }
 
     @Override
@@ -124,6 +128,27 @@ public class GoalRunAway implements Goal {
         return maxInside;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalRunAway goal = (GoalRunAway) o;
+        return hashCode == goal.hashCode
+                && distanceSq == goal.distanceSq
+                && Objects.equals(maintainY, goal.maintainY)
+                && Arrays.equals(from, goal.from);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     @Override
     public String toString() {
         if (maintainY != null) {
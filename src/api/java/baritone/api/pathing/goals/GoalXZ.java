@@ -64,6 +64,27 @@ public class GoalXZ implements Goal {
         return calculate(xDiff, zDiff);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalXZ goal = (GoalXZ) o;
+        return x == goal.x && z == goal.z;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1791873246;
+        hash = hash * 222601791 + x;
+        hash = hash * -1331679453 + z;
+        return hash;
+    }
+
     @Override
     public String toString() {
         return String.format(
@@ -0,0 +1,48 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.goals;
+
+import baritone.api.utils.interfaces.IGoalRenderPos;
+
+/**
+ * A goal that can only be satisfied close to a single position, which lets a large {@link GoalComposite}
+ * look up the relevant goals instead of asking every one of them.
+ * <p>
+ * Implementations promise two things, which subclasses that override {@link #isInGoal(int, int, int)} or
+ * {@link #heuristic(int, int, int)} must keep true:
+ * <ul>
+ *     <li>{@link #isInGoal(int, int, int)} is only ever true at most {@link #getReach()} blocks away from
+ *     {@link #getGoalPos()} on every axis</li>
+ *     <li>{@link #heuristic(int, int, int)} is never lower than {@link #getHeuristicOffset()} plus
+ *     {@link GoalXZ#calculate(double, double)} of the horizontal distance to {@link #getGoalPos()}</li>
+ * </ul>
+ */
+public interface PointGoal extends Goal, IGoalRenderPos {
+
+    /**
+     * @return How far from the goal position, on each axis, this goal can be satisfied
+     */
+    int getReach();
+
+    /**
+     * @return The lowest value that this goal adds on top of the distance based part of its heuristic
+     */
+    default double getHeuristicOffset() {
+        return 0;
+    }
+}
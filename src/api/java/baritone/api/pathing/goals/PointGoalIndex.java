@@ -0,0 +1,232 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.goals;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A k-d tree over the positions of many {@link PointGoal}s, used by {@link GoalComposite}.
+ * <p>
+ * The heuristic is found with a branch and bound nearest neighbour search, using the lower bound that every
+ * {@link PointGoal} promises, so it gives exactly the same answer as asking every goal. {@link #isInGoal(int, int, int)}
+ * only asks the goals whose reach covers the position.
+ */
+final class PointGoalIndex {
+
+    private static final int LEAF_SIZE = 8;
+
+    /*
+     * The goals, in tree order, along with their position and reach
+     */
+    private final PointGoal[] goals;
+    private final int[] goalX;
+    private final int[] goalY;
+    private final int[] goalZ;
+    private final int[] goalReach;
+
+    /*
+     * Per node: the range of goals below it, its children (-1 for leaves),
+     * the box around the positions of those goals, the biggest reach and the lowest offset among them
+     */
+    private final int[] from;
+    private final int[] to;
+    private final int[] left;
+    private final int[] right;
+    private final int[] minX;
+    private final int[] minY;
+    private final int[] minZ;
+    private final int[] maxX;
+    private final int[] maxY;
+    private final int[] maxZ;
+    private final int[] maxReach;
+    private final double[] minOffset;
+    private int nodeCount;
+
+    PointGoalIndex(List<PointGoal> pointGoals) {
+        int n = pointGoals.size();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] z = new int[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            BlockPos pos = pointGoals.get(i).getGoalPos();
+            x[i] = pos.getX();
+            y[i] = pos.getY();
+            z[i] = pos.getZ();
+            order[i] = i;
+        }
+        // leaves hold at least LEAF_SIZE / 2 goals, so this is plenty
+        int maxNodes = 2 * (n / (LEAF_SIZE / 2) + 1);
+        this.from = new int[maxNodes];
+        this.to = new int[maxNodes];
+        this.left = new int[maxNodes];
+        this.right = new int[maxNodes];
+        this.minX = new int[maxNodes];
+        this.minY = new int[maxNodes];
+        this.minZ = new int[maxNodes];
+        this.maxX = new int[maxNodes];
+        this.maxY = new int[maxNodes];
+        this.maxZ = new int[maxNodes];
+        this.maxReach = new int[maxNodes];
+        this.minOffset = new double[maxNodes];
+
+        build(order, x, y, z, 0, n);
+
+        this.goals = new PointGoal[n];
+        this.goalX = new int[n];
+        this.goalY = new int[n];
+        this.goalZ = new int[n];
+        this.goalReach = new int[n];
+        for (int i = 0; i < n; i++) {
+            int index = order[i];
+            PointGoal goal = pointGoals.get(index);
+            goals[i] = goal;
+            goalX[i] = x[index];
+            goalY[i] = y[index];
+            goalZ[i] = z[index];
+            goalReach[i] = goal.getReach();
+        }
+        // node ranges and bounds were computed through the permutation, fill in reach and offset now that the goals are in place
+        for (int node = 0; node < nodeCount; node++) {
+            int reach = 0;
+            double offset = Double.POSITIVE_INFINITY;
+            for (int i = from[node]; i < to[node]; i++) {
+                reach = Math.max(reach, goalReach[i]);
+                offset = Math.min(offset, goals[i].getHeuristicOffset());
+            }
+            maxReach[node] = reach;
+            minOffset[node] = offset;
+        }
+    }
+
+    private int build(Integer[] order, int[] x, int[] y, int[] z, int start, int end) {
+        int node = nodeCount++;
+        from[node] = start;
+        to[node] = end;
+        int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, loZ = Integer.MAX_VALUE;
+        int hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE, hiZ = Integer.MIN_VALUE;
+        for (int i = start; i < end; i++) {
+            int index = order[i];
+            loX = Math.min(loX, x[index]);
+            loY = Math.min(loY, y[index]);
+            loZ = Math.min(loZ, z[index]);
+            hiX = Math.max(hiX, x[index]);
+            hiY = Math.max(hiY, y[index]);
+            hiZ = Math.max(hiZ, z[index]);
+        }
+        minX[node] = loX;
+        minY[node] = loY;
+        minZ[node] = loZ;
+        maxX[node] = hiX;
+        maxY[node] = hiY;
+        maxZ[node] = hiZ;
+        if (end - start <= LEAF_SIZE) {
+            left[node] = -1;
+            right[node] = -1;
+            return node;
+        }
+        // split along the longest side of the box
+        int[] axis;
+        int spanX = hiX - loX, spanY = hiY - loY, spanZ = hiZ - loZ;
+        if (spanX >= spanY && spanX >= spanZ) {
+            axis = x;
+        } else if (spanZ >= spanY) {
+            axis = z;
+        } else {
+            axis = y;
+        }
+        Arrays.sort(order, start, end, Comparator.comparingInt(index -> axis[index]));
+        int mid = (start + end) >>> 1;
+        left[node] = build(order, x, y, z, start, mid);
+        right[node] = build(order, x, y, z, mid, end);
+        return node;
+    }
+
+    boolean isInGoal(int x, int y, int z) {
+        return isInGoal(0, x, y, z);
+    }
+
+    private boolean isInGoal(int node, int x, int y, int z) {
+        int reach = maxReach[node];
+        if (x < minX[node] - reach || x > maxX[node] + reach
+                || y < minY[node] - reach || y > maxY[node] + reach
+                || z < minZ[node] - reach || z > maxZ[node] + reach) {
+            return false;
+        }
+        if (left[node] < 0) {
+            for (int i = from[node]; i < to[node]; i++) {
+                int r = goalReach[i];
+                if (Math.abs(x - goalX[i]) <= r && Math.abs(y - goalY[i]) <= r && Math.abs(z - goalZ[i]) <= r
+                        && goals[i].isInGoal(x, y, z)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return isInGoal(left[node], x, y, z) || isInGoal(right[node], x, y, z);
+    }
+
+    /**
+     * @param best A value that the result can't be higher than, the heuristic of the goals that aren't indexed
+     * @return The lowest heuristic of the indexed goals, or {@code best} if none is lower
+     */
+    double heuristic(int x, int y, int z, double best) {
+        return heuristic(0, x, y, z, best);
+    }
+
+    private double heuristic(int node, int x, int y, int z, double best) {
+        if (left[node] < 0) {
+            for (int i = from[node]; i < to[node]; i++) {
+                best = Math.min(best, goals[i].heuristic(x, y, z));
+            }
+            return best;
+        }
+        int first = left[node];
+        int second = right[node];
+        double firstBound = lowerBound(first, x, z);
+        double secondBound = lowerBound(second, x, z);
+        if (secondBound < firstBound) {
+            // closest first, it makes the other one more likely to be skipped
+            int tmp = first;
+            first = second;
+            second = tmp;
+            double tmpBound = firstBound;
+            firstBound = secondBound;
+            secondBound = tmpBound;
+        }
+        if (firstBound < best) {
+            best = heuristic(first, x, y, z, best);
+        }
+        if (secondBound < best) {
+            best = heuristic(second, x, y, z, best);
+        }
+        return best;
+    }
+
+    private double lowerBound(int node, int x, int z) {
+        return minOffset[node] + GoalXZ.calculate(distance(x, minX[node], maxX[node]), distance(z, minZ[node], maxZ[node]));
+    }
+
+    private static int distance(int value, int min, int max) {
+        return value < min ? min - value : value > max ? value - max : 0;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.utils;
+
+import baritone.api.IBaritone;
+import baritone.api.cache.IWorldData;
+
+/**
+ * How much pathing work was done and how much tick time it took, either by a single {@link IBaritone} or by all of
+ * those in a world. Every value is a running total since the instance was created, to be sampled periodically.
+ *
+ * @see IBaritone#getMetrics()
+ * @see IWorldData#getMetrics()
+ */
+public interface IBaritoneMetrics {
+
+    /**
+     * @return The number of path calculations that finished, whatever their result
+     */
+    long getSearchCount();
+
+    /**
+     * @param type The result of the calculations to count
+     * @return The number of path calculations that finished with the given result
+     */
+    long getSearchCount(PathCalculationResult.Type type);
+
+    /**
+     * @return The number of nodes taken out of the open set by path calculations
+     */
+    long getNodesExpanded();
+
+    /**
+     * @return The number of movements whose cost path calculations calculated
+     */
+    long getMovementsConsidered();
+
+    /**
+     * @return The time path calculations took, in nanoseconds, not counting the time they spent queued
+     */
+    long getSearchNanos();
+
+    /**
+     * @return The number of times a path was found while standing still, waiting for one
+     */
+    long getFirstSegmentCount();
+
+    /**
+     * @return The total time between asking for a path while standing still and starting to follow one, in
+     * nanoseconds, including the time the calculations spent queued
+     */
+    long getFirstSegmentNanos();
+
+    /**
+     * @return The number of times a path was cancelled, for any reason
+     */
+    long getCancellations();
+
+    /**
+     * @param reason The reason for the cancellations to count
+     * @return The number of times a path was cancelled for the given reason
+     */
+    long getCancellations(CancelReason reason);
+
+    /**
+     * @return The time spent following paths during server ticks, in nanoseconds
+     */
+    long getExecutorTickNanos();
+
+    /**
+     * @return The time processes spent deciding what to do during server ticks, in nanoseconds
+     */
+    long getProcessTickNanos();
+
+    /**
+     * @return The number of bytes written to keep clients up to date with paths
+     */
+    long getSyncBytes();
+
+    /**
+     * @return The time spent in server ticks, in nanoseconds, everything included
+     */
+    long getTickNanos();
+
+    /**
+     * @return The number of times expensive work was put off to a later tick to stay within the tick budget
+     * @see baritone.api.Settings#tickBudgetMS
+     */
+    long getDeferrals();
+
+    enum CancelReason {
+        /**
+         * Something asked for the path being followed to stop, like a command or a process
+         */
+        REQUESTED,
+        /**
+         * A search was started from a position that the entity is no longer going to be at
+         */
+        OUTDATED_SEARCH,
+        /**
+         * The entity got too far from the path it was following
+         */
+        OFF_PATH,
+        /**
+         * A movement of the path became impossible, usually because of a block change
+         */
+        MOVEMENT_IMPOSSIBLE,
+        /**
+         * A movement of the path became much more expensive than when the path was calculated
+         */
+        COST_INCREASE,
+        /**
+         * A movement failed while it was being executed
+         */
+        MOVEMENT_FAILED,
+        /**
+         * A movement took much longer than it was expected to
+         */
+        MOVEMENT_TIMEOUT
+    }
+}
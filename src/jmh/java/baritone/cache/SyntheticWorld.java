@@ -0,0 +1,185 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.tag.FluidTags;
+import net.minecraft.tag.RequiredTagListRegistry;
+import net.minecraft.tag.Tag;
+import net.minecraft.tag.TagGroup;
+import net.minecraft.tag.TagManager;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A square of generated chunks starting at chunk 0,0, for benchmarks that run without a server
+ * <p>
+ * Everything outside of it is air, and isn't part of its {@linkplain #snapshot() snapshot}.
+ */
+public final class SyntheticWorld implements BlockView {
+
+    public static final int HEIGHT = 64;
+
+    @FunctionalInterface
+    public interface Generator {
+        BlockState generate(int x, int y, int z);
+    }
+
+    private final int chunks;
+    private final Generator generator;
+
+    /**
+     * @param chunks How many chunks the world spans along each axis
+     */
+    public SyntheticWorld(int chunks, Generator generator) {
+        this.chunks = chunks;
+        this.generator = generator;
+    }
+
+    private static boolean bootstrapped;
+
+    /**
+     * Gets Minecraft ready enough for block states, movement costs and goal heuristics
+     * <p>
+     * There is no data pack to load tags from, so the few tags movement costs read are filled in by hand, and
+     * every other tag is empty. There is no game directory either, so the global settings, which heuristics read, are
+     * loaded from an empty temporary one.
+     */
+    public static synchronized void bootstrap() {
+        if (bootstrapped) {
+            return;
+        }
+        bootstrapped = true;
+        try {
+            // only set by the launcher, and the settings loader asks for the config directory under it
+            Object loader = FabricLoader.getInstance();
+            Method setGameDir = loader.getClass().getDeclaredMethod("setGameDir", Path.class);
+            setGameDir.setAccessible(true);
+            setGameDir.invoke(loader, Files.createTempDirectory("automatone-jmh"));
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new IllegalStateException("Could not give the loader a game directory", e);
+        }
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        TagManager.Builder tags = new TagManager.Builder();
+        tags.add(Registry.BLOCK_KEY, TagGroup.create(Map.of(
+                BlockTags.CLIMBABLE.getId(), Tag.of(Set.of(Blocks.LADDER, Blocks.VINE, Blocks.SCAFFOLDING))
+        )));
+        tags.add(Registry.FLUID_KEY, TagGroup.create(Map.of(
+                FluidTags.WATER.getId(), Tag.of(Set.of(Fluids.WATER, Fluids.FLOWING_WATER)),
+                FluidTags.LAVA.getId(), Tag.of(Set.of(Fluids.LAVA, Fluids.FLOWING_LAVA))
+        )));
+        RequiredTagListRegistry.updateTagManager(tags.build());
+    }
+
+    public boolean contains(int x, int z) {
+        return x >= 0 && z >= 0 && x >> 4 < chunks && z >> 4 < chunks;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        if (!contains(pos.getX(), pos.getZ()) || isOutOfHeightLimit(pos.getY())) {
+            return Blocks.AIR.getDefaultState();
+        }
+        return generator.generate(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    @Override
+    public int getBottomY() {
+        return 0;
+    }
+
+    /**
+     * @return Every chunk of the world, as {@link ChunkSnapshotCache#capture} would have copied them
+     */
+    public WorldSnapshot snapshot() {
+        Long2ObjectOpenHashMap<ChunkSnapshot> snapshots = new Long2ObjectOpenHashMap<>();
+        for (int chunkX = 0; chunkX < chunks; chunkX++) {
+            for (int chunkZ = 0; chunkZ < chunks; chunkZ++) {
+                @SuppressWarnings("unchecked")
+                PalettedContainer<BlockState>[] sections = new PalettedContainer[countVerticalSections()];
+                for (int i = 0; i < sections.length; i++) {
+                    sections[i] = section(chunkX, i, chunkZ);
+                }
+                snapshots.put(ChunkPos.toLong(chunkX, chunkZ), new ChunkSnapshot(chunkX, chunkZ, sections));
+            }
+        }
+        int center = chunks / 2;
+        return new WorldSnapshot(snapshots, new Long2ObjectOpenHashMap<>(), new Long2ObjectOpenHashMap<>(), center, center, center, 0, System.currentTimeMillis());
+    }
+
+    /**
+     * @return The block states of a section, null if it is only air
+     */
+    public @Nullable PalettedContainer<BlockState> section(int chunkX, int sectionIndex, int chunkZ) {
+        PalettedContainer<BlockState> section = new PalettedContainer<>(Block.STATE_IDS, Blocks.AIR.getDefaultState(), PalettedContainer.PaletteProvider.BLOCK_STATE);
+        int minY = sectionIndexToCoord(sectionIndex) << 4;
+        boolean empty = true;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState state = getBlockState(pos.set(chunkX << 4 | x, minY + y, chunkZ << 4 | z));
+                    if (!state.isAir()) {
+                        section.swapUnsafe(x, y, z, state);
+                        empty = false;
+                    }
+                }
+            }
+        }
+        return empty ? null : section;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.cache;
+
+import baritone.utils.accessor.PalettedContainerDataAccessor;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.collection.PaletteStorage;
+import net.minecraft.world.chunk.Palette;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WorldScanner} looking for an ore through a chunk of random blocks, with few enough different blocks for a
+ * small local palette, a big local palette or the global palette
+ * <p>
+ * The filter is shared by every invocation, like it is by every chunk of a scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldScannerBenchmark {
+
+    /**
+     * One block in this many is the ore
+     */
+    private static final int ORE_RARITY = 500;
+
+    @Param({"8", "128", "1024"})
+    public int states;
+
+    private PalettedContainerDataAccessor<BlockState>[] sections;
+    private WorldScanner.PaletteFilter filter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws ReflectiveOperationException {
+        SyntheticWorld.bootstrap();
+        BlockState ore = Blocks.DIAMOND_ORE.getDefaultState();
+        BlockState[] others = new BlockState[states - 1];
+        for (int id = 1, i = 0; i < others.length; id++) { // 0 is air
+            BlockState state = Block.STATE_IDS.get(id);
+            if (state != ore) {
+                others[i++] = state;
+            }
+        }
+        Random random = new Random(42);
+        SyntheticWorld world = new SyntheticWorld(1, (x, y, z) -> random.nextInt(ORE_RARITY) == 0 ? ore : others[random.nextInt(others.length)]);
+        sections = new PalettedContainerDataAccessor[world.countVerticalSections()];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = data(world.section(0, i, 0));
+        }
+        filter = new WorldScanner.PaletteFilter(state -> state == ore);
+    }
+
+    /**
+     * What {@code MixinPalettedContainer} gives, mixins aren't applied outside of the game
+     */
+    @SuppressWarnings("unchecked")
+    private static PalettedContainerDataAccessor<BlockState> data(PalettedContainer<BlockState> container) throws ReflectiveOperationException {
+        Field field = PalettedContainer.class.getDeclaredField("data");
+        field.setAccessible(true);
+        Object data = field.get(container);
+        Method paletteAccessor = data.getClass().getDeclaredMethod("palette");
+        Method storageAccessor = data.getClass().getDeclaredMethod("storage");
+        paletteAccessor.setAccessible(true);
+        storageAccessor.setAccessible(true);
+        Palette<BlockState> palette = (Palette<BlockState>) paletteAccessor.invoke(data);
+        PaletteStorage storage = (PaletteStorage) storageAccessor.invoke(data);
+        return new PalettedContainerDataAccessor<>() {
+            @Override
+            public Palette<BlockState> automatone$getPalette() {
+                return palette;
+            }
+
+            @Override
+            public PaletteStorage automatone$getStorage() {
+                return storage;
+            }
+        };
+    }
+
+    @Benchmark
+    public int scanChunk() {
+        LongArrayList hits = new LongArrayList();
+        for (int i = 0; i < sections.length; i++) {
+            WorldScanner.scanSection(sections[i], filter, 0, i << 4, 0, hits);
+        }
+        return hits.size();
+    }
+}
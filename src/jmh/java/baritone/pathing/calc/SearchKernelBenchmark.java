@@ -0,0 +1,110 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.cache.SyntheticWorld;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.OfflineContexts;
+import baritone.utils.pathing.Favoring;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path finders across a {@link SyntheticTerrain}, reading blocks from a snapshot like they do on the pathing
+ * thread
+ * <p>
+ * Each invocation is a whole search from one corner of the world to the other, movement costs included, and returns
+ * how many nodes it expanded. The bot has no items, so nothing is ever broken or placed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchKernelBenchmark {
+
+    /**
+     * Far longer than any of these searches takes, so that they all end at their goal
+     */
+    private static final long TIMEOUT_MS = 60_000;
+
+    public enum Finder {
+        OBJECT {
+            @Override
+            AbstractNodeCostSearch create(int x, int y, int z, Goal goal, Favoring favoring, CalculationContext context) {
+                return new AStarPathFinder(x, y, z, goal, favoring, context);
+            }
+        },
+        PRIMITIVE {
+            @Override
+            AbstractNodeCostSearch create(int x, int y, int z, Goal goal, Favoring favoring, CalculationContext context) {
+                return new PrimitiveAStarPathFinder(x, y, z, goal, favoring, context);
+            }
+        },
+        PARALLEL {
+            @Override
+            AbstractNodeCostSearch create(int x, int y, int z, Goal goal, Favoring favoring, CalculationContext context) {
+                return new ParallelAStarPathFinder(x, y, z, goal, favoring, context);
+            }
+        };
+
+        abstract AbstractNodeCostSearch create(int x, int y, int z, Goal goal, Favoring favoring, CalculationContext context);
+    }
+
+    @Param({"FLAT", "FOREST", "OCEAN", "CAVE"})
+    public SyntheticTerrain terrain;
+
+    @Param({"OBJECT", "PRIMITIVE", "PARALLEL"})
+    public Finder finder;
+
+    private CalculationContext context;
+    private Favoring favoring;
+    private Goal goal;
+    private int startX, startY, startZ;
+
+    @Setup
+    public void setup() {
+        SyntheticWorld.bootstrap();
+        SyntheticWorld world = terrain.world();
+        context = OfflineContexts.create(world);
+        favoring = new Favoring(null, context);
+        startX = 2;
+        startZ = 2;
+        startY = terrain.standableY(startX, startZ, 24);
+        int goalX = SyntheticTerrain.SIZE - 3;
+        int goalZ = SyntheticTerrain.SIZE - 3;
+        goal = new GoalBlock(goalX, terrain.standableY(goalX, goalZ, 24), goalZ);
+    }
+
+    @Benchmark
+    public int search() {
+        AbstractNodeCostSearch search = finder.create(startX, startY, startZ, goal, favoring, context);
+        SearchArena arena = SearchArena.acquire(context.settings);
+        try {
+            search.calculate0(arena, TIMEOUT_MS, TIMEOUT_MS);
+        } finally {
+            arena.release();
+        }
+        return search.getNumNodesExpanded();
+    }
+}
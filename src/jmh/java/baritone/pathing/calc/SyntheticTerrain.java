@@ -0,0 +1,107 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.cache.SyntheticWorld;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Small deterministic worlds of air, water, stone and logs, for benchmarks that can't have a server running
+ * <p>
+ * Blocks are only touched once {@link SyntheticWorld#bootstrap()} was called.
+ */
+public enum SyntheticTerrain {
+    FLAT {
+        @Override
+        BlockState generate(int x, int y, int z) {
+            return y <= 32 ? Blocks.STONE.getDefaultState() : Blocks.AIR.getDefaultState();
+        }
+    },
+    FOREST {
+        @Override
+        BlockState generate(int x, int y, int z) {
+            int ground = 32 + (int) Math.round(3 * Math.sin(x * 0.1) * Math.cos(z * 0.13));
+            if (y <= ground) {
+                return Blocks.STONE.getDefaultState();
+            }
+            // trunks, sparse enough to walk around
+            return y <= ground + 5 && Math.floorMod(x * 31 + z * 17 + x * z, 23) == 0 ? Blocks.OAK_LOG.getDefaultState() : Blocks.AIR.getDefaultState();
+        }
+    },
+    OCEAN {
+        @Override
+        BlockState generate(int x, int y, int z) {
+            int seabed = 20 + (int) Math.round(2 * Math.sin(x * 0.07 + z * 0.05));
+            return y <= seabed ? Blocks.STONE.getDefaultState() : y <= 40 ? Blocks.WATER.getDefaultState() : Blocks.AIR.getDefaultState();
+        }
+    },
+    CAVE {
+        @Override
+        BlockState generate(int x, int y, int z) {
+            if (y < 4 || y > 44) {
+                return y > 48 ? Blocks.AIR.getDefaultState() : Blocks.STONE.getDefaultState();
+            }
+            double tunnels = Math.sin(x * 0.21) + Math.sin(z * 0.17) + Math.sin(y * 0.33 + x * 0.05) + Math.sin((x + z) * 0.11);
+            return tunnels > 1.2 ? Blocks.AIR.getDefaultState() : Blocks.STONE.getDefaultState();
+        }
+    };
+
+    /**
+     * How many chunks each world spans along each axis
+     */
+    public static final int CHUNKS = 8;
+    public static final int SIZE = CHUNKS * 16;
+
+    private final SyntheticWorld world = new SyntheticWorld(CHUNKS, this::generate);
+
+    abstract BlockState generate(int x, int y, int z);
+
+    public SyntheticWorld world() {
+        return world;
+    }
+
+    private boolean isSolid(int x, int y, int z) {
+        BlockState state = world.getBlockState(new BlockPos(x, y, z));
+        return !state.isAir() && state.getFluidState().isEmpty();
+    }
+
+    private boolean canStand(int x, int y, int z) {
+        if (isSolid(x, y, z) || isSolid(x, y + 1, z)) {
+            return false;
+        }
+        return isSolid(x, y - 1, z) || !world.getBlockState(new BlockPos(x, y, z)).getFluidState().isEmpty();
+    }
+
+    /**
+     * @return The standable position closest to the given height in the given column
+     */
+    public int standableY(int x, int z, int preferredY) {
+        for (int dy = 0; dy < SyntheticWorld.HEIGHT; dy++) {
+            if (canStand(x, preferredY - dy, z)) {
+                return preferredY - dy;
+            }
+            if (canStand(x, preferredY + dy, z)) {
+                return preferredY + dy;
+            }
+        }
+        throw new IllegalStateException("Nowhere to stand at " + x + "," + z + " in " + this);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.PathNode;
+import baritone.pathing.calc.PrimitiveNodeStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same mix of operations on every open set: insert every node, lower the cost of half of them, then remove them
+ * all, the way A* uses them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenSetBenchmark {
+
+    /**
+     * Not an existing goal, because they read the settings, which need Minecraft to be running
+     */
+    private static final Goal NO_GOAL = new Goal() {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return 0;
+        }
+    };
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private double[] costs;
+    private double[] updatedCosts;
+    private PathNode[] nodes;
+    private PrimitiveNodeStore store;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        costs = new double[size];
+        updatedCosts = new double[size];
+        for (int i = 0; i < size; i++) {
+            costs[i] = random.nextDouble() * 1000;
+            updatedCosts[i] = costs[i] * random.nextDouble();
+        }
+        nodes = new PathNode[size];
+        store = new PrimitiveNodeStore(size);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new PathNode(i, 64, 0, NO_GOAL);
+            nodes[i].combinedCost = costs[i];
+        }
+        store.clear();
+        for (int i = 0; i < size; i++) {
+            int id = store.getOrCreate(i, 64, 0, BetterBlockPos.longHash(i, 64, 0), NO_GOAL);
+            store.combinedCost[id] = costs[i];
+        }
+    }
+
+    @Benchmark
+    public void binaryHeap(Blackhole blackhole) {
+        run(new BinaryHeapOpenSet(), blackhole);
+    }
+
+    @Benchmark
+    public void linkedList(Blackhole blackhole) {
+        run(new LinkedListOpenSet(), blackhole);
+    }
+
+    @Benchmark
+    public void primitiveBinaryHeap(Blackhole blackhole) {
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(store);
+        for (int i = 0; i < size; i++) {
+            openSet.insert(i);
+        }
+        for (int i = 0; i < size; i += 2) {
+            store.combinedCost[i] = updatedCosts[i];
+            openSet.update(i);
+        }
+        while (!openSet.isEmpty()) {
+            blackhole.consume(openSet.removeLowest());
+        }
+    }
+
+    private void run(IOpenSet openSet, Blackhole blackhole) {
+        for (PathNode node : nodes) {
+            openSet.insert(node);
+        }
+        for (int i = 0; i < size; i += 2) {
+            nodes[i].combinedCost = updatedCosts[i];
+            openSet.update(nodes[i]);
+        }
+        while (!openSet.isEmpty()) {
+            blackhole.consume(openSet.removeLowest());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.goals;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.goals.GoalComposite;
+import baritone.api.pathing.goals.GoalGetToBlock;
+import baritone.api.pathing.goals.GoalNear;
+import baritone.cache.SyntheticWorld;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GoalComposite#isInGoal(int, int, int)} and {@link GoalComposite#heuristic(int, int, int)} are called on every
+ * node a search considers, with as many goals as there are blocks to mine or build
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GoalCompositeBenchmark {
+
+    /**
+     * How many positions each invocation asks about, so that the loop overhead doesn't dominate small composites
+     */
+    private static final int QUERIES = 1024;
+
+    @Param({"4", "64", "1024", "16384"})
+    public int goals;
+
+    private GoalComposite composite;
+    private Goal[] separate;
+    private int[] queries;
+
+    @Setup
+    public void setup() {
+        // the heuristics read the global settings
+        SyntheticWorld.bootstrap();
+        Random random = new Random(42);
+        separate = new Goal[goals];
+        for (int i = 0; i < goals; i++) {
+            BlockPos pos = new BlockPos(random.nextInt(256) - 128, random.nextInt(64), random.nextInt(256) - 128);
+            // what mining and building processes make
+            switch (i % 3) {
+                case 0:
+                    separate[i] = new GoalBlock(pos);
+                    break;
+                case 1:
+                    separate[i] = new GoalGetToBlock(pos);
+                    break;
+                default:
+                    separate[i] = new GoalNear(pos, 2);
+                    break;
+            }
+        }
+        composite = new GoalComposite(separate);
+        queries = new int[QUERIES * 3];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = i % 3 == 1 ? random.nextInt(64) : random.nextInt(256) - 128;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int composite() {
+        int hits = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            if (composite.isInGoal(queries[i], queries[i + 1], queries[i + 2])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * What a composite without an index does, for comparison
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int linearScan() {
+        int hits = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            for (Goal goal : separate) {
+                if (goal.isInGoal(queries[i], queries[i + 1], queries[i + 2])) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double heuristic() {
+        double sum = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            sum += composite.heuristic(queries[i], queries[i + 1], queries[i + 2]);
+        }
+        return sum;
+    }
+
+    /**
+     * What a composite without an index does, for comparison
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double linearHeuristic() {
+        double sum = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            double min = Double.MAX_VALUE;
+            for (Goal goal : separate) {
+                min = Math.min(min, goal.heuristic(queries[i], queries[i + 1], queries[i + 2]));
+            }
+            sum += min;
+        }
+        return sum;
+    }
+}
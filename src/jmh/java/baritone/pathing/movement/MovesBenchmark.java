@@ -0,0 +1,88 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.cache.SyntheticWorld;
+import baritone.pathing.calc.SyntheticTerrain;
+import baritone.utils.pathing.MutableMoveResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost function of each of the {@link Moves}, which a search calls for every move out of every node it expands
+ * <p>
+ * Each invocation asks for the cost of one move from a few positions a bot could stand on, spread over a
+ * {@link SyntheticTerrain}. Without a list of values, JMH runs every constant of {@link Moves}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovesBenchmark {
+
+    /**
+     * How many positions each invocation asks about, so that the loop overhead doesn't dominate the cheap moves
+     */
+    private static final int QUERIES = 1024;
+
+    @Param({"FLAT", "FOREST", "OCEAN", "CAVE"})
+    public SyntheticTerrain terrain;
+
+    @Param
+    public Moves move;
+
+    private CalculationContext context;
+    private final MutableMoveResult result = new MutableMoveResult();
+    private int[] queries;
+
+    @Setup
+    public void setup() {
+        SyntheticWorld.bootstrap();
+        context = OfflineContexts.create(terrain.world());
+        Random random = new Random(42);
+        queries = new int[QUERIES * 3];
+        for (int i = 0; i < queries.length; i += 3) {
+            // away from the edges, where the world ends
+            int x = 4 + random.nextInt(SyntheticTerrain.SIZE - 8);
+            int z = 4 + random.nextInt(SyntheticTerrain.SIZE - 8);
+            queries[i] = x;
+            queries[i + 1] = terrain.standableY(x, z, 24);
+            queries[i + 2] = z;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double cost() {
+        double sum = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            result.reset();
+            move.apply(context, queries[i], queries[i + 1], queries[i + 2], result);
+            // impossible moves cost COST_INF, which would drown out the rest of the sum
+            if (result.cost < ActionCosts.COST_INF) {
+                sum += result.cost;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.api.Settings;
+import baritone.cache.SyntheticWorld;
+
+/**
+ * Calculation contexts over a {@link SyntheticWorld}, for the benchmarks outside of this package
+ */
+public final class OfflineContexts {
+
+    private OfflineContexts() {}
+
+    /**
+     * @return A context with the default settings, for a bot without any item, over every chunk of the world
+     */
+    public static CalculationContext create(SyntheticWorld world) {
+        return new CalculationContext(new Settings(), world, world.snapshot());
+    }
+}
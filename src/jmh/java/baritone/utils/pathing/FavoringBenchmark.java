@@ -0,0 +1,151 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.utils.pathing;
+
+import baritone.api.pathing.calc.Avoidance;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.movement.IMovement;
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.SyntheticWorld;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.OfflineContexts;
+import net.minecraft.block.Blocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link Favoring} for a search that follows up on a previous path with mobs around, and the cost
+ * multipliers the search then asks it for, on the way of the previous path and next to it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FavoringBenchmark {
+
+    private static final int PATH_LENGTH = 1000;
+    private static final int QUERIES = 4096;
+
+    @Param({"0", "32", "512"})
+    public int avoidances;
+
+    @Param({"8", "32"})
+    public int radius;
+
+    private CalculationContext context;
+    private IPath previous;
+    private List<Avoidance> avoided;
+    private Favoring favoring;
+    private int[] queries;
+
+    @Setup
+    public void setup() {
+        SyntheticWorld.bootstrap();
+        // only the settings of the context are read
+        SyntheticWorld world = new SyntheticWorld(0, (x, y, z) -> Blocks.AIR.getDefaultState());
+        context = OfflineContexts.create(world);
+        Random random = new Random(42);
+        List<BetterBlockPos> positions = new ArrayList<>(PATH_LENGTH);
+        int x = 0, y = 64, z = 0;
+        for (int i = 0; i < PATH_LENGTH; i++) {
+            positions.add(new BetterBlockPos(x, y, z));
+            switch (random.nextInt(3)) {
+                case 0:
+                    x++;
+                    break;
+                case 1:
+                    z++;
+                    break;
+                default:
+                    y += random.nextInt(3) - 1;
+                    break;
+            }
+        }
+        previous = new PositionsOnly(positions);
+        avoided = new ArrayList<>(avoidances);
+        for (int i = 0; i < avoidances; i++) {
+            // around the path, where the bot would have seen them
+            BetterBlockPos near = positions.get(random.nextInt(PATH_LENGTH));
+            avoided.add(new Avoidance(near.x + random.nextInt(33) - 16, near.y + random.nextInt(9) - 4, near.z + random.nextInt(33) - 16, 2, radius));
+        }
+        favoring = new Favoring(previous, context, avoided);
+        queries = new int[QUERIES * 3];
+        for (int i = 0; i < QUERIES; i++) {
+            // the neighbours of the path the search looks at
+            BetterBlockPos on = positions.get(i * PATH_LENGTH / QUERIES);
+            queries[i * 3] = on.x + random.nextInt(3) - 1;
+            queries[i * 3 + 1] = on.y + random.nextInt(3) - 1;
+            queries[i * 3 + 2] = on.z + random.nextInt(3) - 1;
+        }
+    }
+
+    @Benchmark
+    public Favoring construct() {
+        return new Favoring(previous, context, avoided);
+    }
+
+    @Benchmark
+    public double calculate() {
+        double sum = 0;
+        for (int i = 0; i < queries.length; i += 3) {
+            sum += favoring.calculate(queries[i], queries[i + 1], queries[i + 2]);
+        }
+        return sum;
+    }
+
+    /**
+     * Favoring only reads the positions of the previous path
+     */
+    private static final class PositionsOnly implements IPath {
+
+        private final List<BetterBlockPos> positions;
+
+        private PositionsOnly(List<BetterBlockPos> positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public List<IMovement> movements() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<BetterBlockPos> positions() {
+            return positions;
+        }
+
+        @Override
+        public Goal getGoal() {
+            return new GoalBlock(positions.get(positions.size() - 1));
+        }
+
+        @Override
+        public int getNumNodesConsidered() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package baritone.launch.mixins;
+
+import baritone.utils.accessor.PalettedContainerDataAccessor;
+import net.minecraft.util.collection.PaletteStorage;
+import net.minecraft.world.chunk.Palette;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(targets = "net.minecraft.world.chunk.PalettedContainer$Data")
+public abstract class MixinPalettedContainerData<T> implements PalettedContainerDataAccessor<T> {
+    @Override
+    @Accessor("palette")
+    public abstract Palette<T> automatone$getPalette();
+
+    @Override
+    @Accessor("storage")
+    public abstract PaletteStorage automatone$getStorage();
+}
@@ -34,6 +34,6 @@ public abstract class MixinUtil {
 
     @Inject(method = "shutdownExecutors", at = @At("RETURN"))
     private static void shutdownBaritoneExecutor(CallbackInfo ci) {
-        attemptShutdown(Automatone.getExecutor());
+        attemptShutdown(Automatone.getScheduler().getExecutor());
     }
 }
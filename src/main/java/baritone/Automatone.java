@@ -17,22 +17,31 @@
 
 package baritone;
 
+import baritone.api.BaritoneAPI;
+import baritone.api.IBaritone;
+import baritone.api.cache.IWorldProvider;
+import baritone.behavior.PathingBehavior;
+import baritone.cache.WorldData;
 import baritone.command.defaults.DefaultCommands;
 import baritone.command.manager.BaritoneArgumentType;
+import baritone.utils.PathingScheduler;
+import baritone.utils.TickGovernor;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.api.tag.TagRegistry;
 import net.minecraft.command.argument.ArgumentTypes;
 import net.minecraft.command.argument.serialize.ConstantArgumentSerializer;
+import net.minecraft.entity.Entity;
 import net.minecraft.item.Item;
 import net.minecraft.tag.Tag;
 import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @KeepName
 public final class Automatone implements ModInitializer {
@@ -42,24 +51,58 @@ public final class Automatone implements ModInitializer {
     public static final Tag<Item> EMPTY_BUCKETS = TagRegistry.item(id("empty_buckets"));
     public static final Tag<Item> WATER_BUCKETS = TagRegistry.item(id("water_buckets"));
 
-    private static final ThreadPoolExecutor threadPool;
-
-    static {
-        AtomicInteger threadCounter = new AtomicInteger(0);
-        threadPool = new ThreadPoolExecutor(4, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> new Thread(r, "Automatone Worker " + threadCounter.incrementAndGet()));
-    }
+    private static volatile PathingScheduler scheduler;
+    private static final TickGovernor tickGovernor = new TickGovernor();
 
     public static Identifier id(String path) {
         return new Identifier(MOD_ID, path);
     }
 
-    public static ThreadPoolExecutor getExecutor() {
-        return threadPool;
+    public static PathingScheduler getScheduler() {
+        PathingScheduler s = scheduler;
+        if (s == null) {
+            synchronized (Automatone.class) {
+                s = scheduler;
+                if (s == null) {
+                    // created lazily so that the global settings have been loaded by then
+                    scheduler = s = new PathingScheduler(BaritoneAPI.getGlobalSettings().pathingThreads.get());
+                }
+            }
+        }
+        return s;
+    }
+
+    public static TickGovernor getTickGovernor() {
+        return tickGovernor;
     }
 
     @Override
     public void onInitialize() {
         DefaultCommands.registerAll();
         ArgumentTypes.register("automatone:command", BaritoneArgumentType.class, new ConstantArgumentSerializer<>(BaritoneArgumentType::baritone));
+        ServerTickEvents.START_SERVER_TICK.register(server -> tickGovernor.startTick());
+        ServerTickEvents.END_WORLD_TICK.register(world -> getWorldData(world).chunkSnapshots.tick());
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> getWorldData(world).cachedWorld.onChunkLoad(chunk));
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            WorldData worldData = getWorldData(world);
+            worldData.cachedWorld.onChunkUnload(chunk);
+            worldData.blockIndex.onChunkUnload(chunk);
+        });
+        // saves only start writing the cache, the last one has to be done before the world goes away
+        ServerWorldEvents.UNLOAD.register((server, world) -> getWorldData(world).cachedWorld.saveNow());
+        ServerPlayNetworking.registerGlobalReceiver(PathingBehavior.RESYNC_PACKET_ID, (server, player, handler, buf, responseSender) -> {
+            int entityId = buf.readVarInt();
+            server.execute(() -> {
+                Entity entity = player.getWorld().getEntityById(entityId);
+                IBaritone baritone = entity == null ? null : IBaritone.KEY.getNullable(entity);
+                if (baritone != null) {
+                    ((PathingBehavior) baritone.getPathingBehavior()).resync(player);
+                }
+            });
+        });
+    }
+
+    private static WorldData getWorldData(World world) {
+        return (WorldData) IWorldProvider.KEY.get(world).getCurrentWorld();
     }
 }
@@ -42,11 +42,15 @@ import baritone.process.FollowProcess;
 import baritone.process.GetToBlockProcess;
 import baritone.process.MineProcess;
 import baritone.render.ClientPathingBehaviour;
+import baritone.utils.BaritoneMetrics;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.InputOverrideHandler;
 import baritone.utils.PathingControlManager;
+import baritone.utils.TickGovernor;
+import baritone.utils.ToolSet;
 import baritone.utils.player.EntityContext;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.MinecraftServer;
@@ -59,6 +63,11 @@ import org.jetbrains.annotations.Nullable;
  */
 public class Baritone implements IBaritone {
 
+    /**
+     * Bump this whenever the format of {@link #writeSyncPacket(PacketByteBuf, ServerPlayerEntity)} changes
+     */
+    private static final byte SYNC_PROTOCOL_VERSION = 2;
+
     private final Settings settings;
     private final GameEventHandler gameEventHandler;
 
@@ -83,6 +92,9 @@ public class Baritone implements IBaritone {
 
     private final IEntityContext playerContext;
     private final WorldProvider worldProvider;
+    private final BaritoneMetrics metrics;
+    private final TickGovernor.Account tickAccount = new TickGovernor.Account();
+    private volatile @Nullable ToolSet toolSet;
 
     private final @Nullable ClientPathingBehaviour clientPathingBehaviour;
 
@@ -117,6 +129,7 @@ public class Baritone implements IBaritone {
         }
 
         this.worldProvider = (WorldProvider) IWorldProvider.KEY.get(player.world);
+        this.metrics = new BaritoneMetrics(this.worldProvider.getCurrentWorld().metrics);
         this.commandManager = new BaritoneCommandManager(this);
         this.execControlProcess = DefaultCommands.controlCommands.registerProcess(this);
         this.clientPathingBehaviour = player.world.isClient ? new ClientPathingBehaviour(player) : null;
@@ -207,6 +220,37 @@ public class Baritone implements IBaritone {
         return this.commandManager;
     }
 
+    @Override
+    public BaritoneMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return Whether expensive work that can wait may be done this tick, without going over the tick budget
+     * @see TickGovernor
+     */
+    public boolean tryExpensiveWork() {
+        if (Automatone.getTickGovernor().tryExpensiveWork(this.tickAccount)) {
+            return true;
+        }
+        this.metrics.recordDeferral();
+        return false;
+    }
+
+    /**
+     * Called on the server thread, path calculations get the tool set from their {@link baritone.pathing.movement.CalculationContext}
+     *
+     * @return The tools of this bot, shared by path calculations and the path executor, or null if it has no inventory
+     */
+    public @Nullable ToolSet getToolSet() {
+        if (!(this.playerContext.entity() instanceof PlayerEntity player)) {
+            return null;
+        }
+        ToolSet toolSet = this.toolSet;
+        this.toolSet = toolSet = toolSet == null ? new ToolSet(player, this.settings) : toolSet.refresh();
+        return toolSet;
+    }
+
     public IBaritoneProcess getExecControlProcess() {
         return execControlProcess;
     }
@@ -259,19 +303,28 @@ public class Baritone implements IBaritone {
 
     @Override
     public boolean shouldSyncWith(ServerPlayerEntity player) {
-        return player == this.playerContext.entity()
-                || (settings.syncWithOps.get() && player.server.getPermissionLevel(player.getGameProfile()) >= 2);
+        return (player == this.playerContext.entity()
+                || (settings.syncWithOps.get() && player.server.getPermissionLevel(player.getGameProfile()) >= 2))
+                && this.pathingBehavior.needsSync(player); // don't even serialize anything if that player is up to date
     }
 
     @Override
     public void writeSyncPacket(PacketByteBuf buf, ServerPlayerEntity recipient) {
+        int start = buf.writerIndex();
+        buf.writeByte(SYNC_PROTOCOL_VERSION);
         buf.writeBoolean(this.isActive());
-        this.pathingBehavior.writeToPacket(buf);
+        this.pathingBehavior.writeToPacket(buf, recipient);
+        this.metrics.recordSync(buf.writerIndex() - start);
     }
 
     @Override
     public void applySyncPacket(PacketByteBuf buf) {
         assert this.clientPathingBehaviour != null : "applySyncPacket called on a server world";
+        byte version = buf.readByte();
+        if (version != SYNC_PROTOCOL_VERSION) {
+            Automatone.LOGGER.warn("Ignoring Automatone sync packet with protocol version {} (expected {})", version, SYNC_PROTOCOL_VERSION);
+            return;
+        }
         boolean active = buf.readBoolean();
         if (active) {
             AutomatoneClient.renderList.add(this);
@@ -283,6 +336,13 @@ public class Baritone implements IBaritone {
 
     @Override
     public void serverTick() {
+        long start = System.nanoTime();
+        if (this.isActive()) {
+            this.worldProvider.getCurrentWorld().cachedWorld.onBotActive();
+        }
         this.getGameEventHandler().onTickServer();
+        long nanos = System.nanoTime() - start;
+        Automatone.getTickGovernor().spend(nanos);
+        this.metrics.recordTick(nanos);
     }
 }
@@ -25,28 +25,47 @@ import baritone.api.event.events.PathEvent;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalXZ;
+import baritone.api.pathing.movement.IMovement;
 import baritone.api.process.PathingCommand;
 import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.IBaritoneMetrics.CancelReason;
 import baritone.api.utils.PathCalculationResult;
 import baritone.api.utils.interfaces.IGoalRenderPos;
 import baritone.pathing.calc.AStarPathFinder;
+import baritone.pathing.calc.ParallelAStarPathFinder;
+import baritone.pathing.calc.PrimitiveAStarPathFinder;
 import baritone.pathing.calc.AbstractNodeCostSearch;
+import baritone.pathing.calc.RetainedSearch;
+import baritone.pathing.calc.hierarchy.GoalCorridor;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.path.PathExecutor;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.PathingScheduler;
 import baritone.utils.pathing.Favoring;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.entity.LivingEntity;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.WeakHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 public final class PathingBehavior extends Behavior implements IPathingBehavior {
 
+    /**
+     * Sent by a client that missed a segment of a bot, with the entity id of the bot, see {@link #resync}
+     */
+    public static final Identifier RESYNC_PACKET_ID = Automatone.id("path_resync");
+
     private PathExecutor current;
     private PathExecutor next;
 
@@ -67,12 +86,31 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
     private volatile AbstractNodeCostSearch inProgress;
     private final Object pathCalcLock = new Object();
 
+    /**
+     * The graph of the last finished search, for the next one to pick up from. Guarded by pathCalcLock.
+     */
+    private RetainedSearch retainedSearch;
+
+    /**
+     * The region route the last segment followed, for the next one to carry on along
+     */
+    private volatile GoalCorridor lastCorridor;
+
     private final Object pathPlanLock = new Object();
 
     private BetterBlockPos expectedSegmentStart;
 
     private final LinkedBlockingQueue<PathEvent> toDispatch = new LinkedBlockingQueue<>();
 
+    /**
+     * What each player was last sent about this bot's path
+     */
+    private final Map<ServerPlayerEntity, SyncState> syncStates = new WeakHashMap<>();
+    private int ticksSinceSync;
+    private PathExecutor syncedCurrent;
+    private PathExecutor syncedNext;
+    private boolean syncedActive;
+
     public PathingBehavior(Baritone baritone) {
         super(baritone);
     }
@@ -98,14 +136,39 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
         tickPath();
         ticksElapsedSoFar++;
         dispatchEvents();
-        // Fuck it, synchronizing every tick for now
-        // TODO try not to synchronize every tick
-        IBaritone.KEY.sync(this.baritone.getPlayerContext().entity());
+        syncIfNeeded();
+    }
+
+    private void syncIfNeeded() {
+        LivingEntity entity = ctx.entity();
+        if (!syncStates.isEmpty()) {
+            // players that stop tracking this entity get everything again if they ever come back
+            Collection<ServerPlayerEntity> tracking = PlayerLookup.tracking(entity);
+            syncStates.keySet().removeIf(p -> p != entity && !tracking.contains(p));
+        }
+        PathExecutor current = this.current;
+        PathExecutor next = this.next;
+        boolean active = baritone.isActive();
+        boolean segmentChanged = current != syncedCurrent || next != syncedNext || active != syncedActive;
+        if (segmentChanged || ++ticksSinceSync >= baritone.settings().pathSyncIntervalTicks.get()) {
+            ticksSinceSync = 0;
+            syncedCurrent = current;
+            syncedNext = next;
+            syncedActive = active;
+            // recipients that are already up to date get filtered out by needsSync
+            IBaritone.KEY.sync(entity);
+        }
     }
 
     public void shutdown() {
         secretInternalSegmentCancel();
         baritone.getPathingControlManager().cancelEverything();
+        // queued work will never be wanted again, don't let it take a worker
+        Automatone.getScheduler().dropAll(baritone);
+        synchronized (pathCalcLock) {
+            inProgress = null;
+            setRetainedSearch(null);
+        }
         IBaritone.KEY.sync(this.baritone.getPlayerContext().entity());
     }
 
@@ -139,13 +202,14 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
                     ) {
                         // when it was *just* started, currentBest will be empty so we need to also check calcFrom since that's always present
                         inProgress.cancel(); // cancellation doesn't dispatch any events
+                        baritone.getMetrics().recordCancellation(CancelReason.OUTDATED_SEARCH);
                     }
                 }
             }
             if (current == null) {
                 return;
             }
-            safeToCancel = current.onTick();
+            safeToCancel = tickCurrent();
             if (current.failed() || current.finished()) {
                 current = null;
                 if (goal == null || goal.isInGoal(ctx.feetPos())) {
@@ -173,7 +237,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
                     queuePathEvent(PathEvent.CONTINUING_ONTO_PLANNED_NEXT);
                     current = next;
                     next = null;
-                    current.onTick(); // don't waste a tick doing nothing, get started right away
+                    tickCurrent(); // don't waste a tick doing nothing, get started right away
                     return;
                 }
                 // at this point, current just ended, but we aren't in the goal and have no plan for the future
@@ -195,7 +259,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
                 queuePathEvent(PathEvent.SPLICING_ONTO_NEXT_EARLY);
                 current = next;
                 next = null;
-                current.onTick();
+                tickCurrent();
                 return;
             }
             if (baritone.settings().splicePath.get()) {
@@ -229,6 +293,13 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
         }
     }
 
+    private boolean tickCurrent() {
+        long start = System.nanoTime();
+        boolean safe = current.onTick();
+        baritone.getMetrics().recordExecutorTick(System.nanoTime() - start);
+        return safe;
+    }
+
     public void secretInternalSetGoal(Goal goal) {
         this.goal = goal;
     }
@@ -322,6 +393,9 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
             if (!isSafeToCancel()) {
                 return;
             }
+            if (current != null) {
+                baritone.getMetrics().recordCancellation(CancelReason.REQUESTED);
+            }
             current = null;
             next = null;
         }
@@ -335,6 +409,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
         synchronized (pathPlanLock) {
             getInProgress().ifPresent(AbstractNodeCostSearch::cancel);
             if (current != null) {
+                baritone.getMetrics().recordCancellation(CancelReason.REQUESTED);
                 current = null;
                 next = null;
                 baritone.getInputOverrideHandler().clearAllKeys();
@@ -470,16 +545,33 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
             failureTimeout = baritone.settings().planAheadFailureTimeoutMS.get();
         }
         AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context);
-        if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if simplification didn't happen
-            logDebug("Simplifying " + goal.getClass() + " to GoalXZ due to distance");
+        if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if no transformation happened
+            logDebug("Searching for " + pathfinder.getGoal().getClass().getSimpleName() + " instead of " + goal.getClass().getSimpleName());
         }
         inProgress = pathfinder;
-        Automatone.getExecutor().execute(() -> {
+        long requested = System.nanoTime();
+        // the first segment gets priority, the bot is standing still until it's done
+        PathingScheduler.Priority priority = current == null ? PathingScheduler.Priority.URGENT : PathingScheduler.Priority.NORMAL;
+        Automatone.getScheduler().submit(baritone, "path", priority, () -> {
             if (talkAboutIt) {
                 logDebug("Starting to search for path from " + start + " to " + goal);
             }
 
-            PathCalculationResult calcResult = pathfinder.calculate(primaryTimeout, failureTimeout);
+            long searchStart = System.nanoTime();
+            GoalCorridor corridor = pathfinder.getGoal() instanceof GoalCorridor ? (GoalCorridor) pathfinder.getGoal() : null;
+            long planned = 0;
+            if (corridor != null) {
+                // the route comes out of the time budget of the calculation, half of the primary timeout at most
+                long planStart = System.currentTimeMillis();
+                corridor.plan(start.getX(), start.getY(), start.getZ(), context, lastCorridor, planStart + primaryTimeout / 2, pathfinder::isCancelled);
+                planned = System.currentTimeMillis() - planStart;
+            }
+            PathCalculationResult calcResult = pathfinder.calculate(Math.max(0, primaryTimeout - planned), Math.max(0, failureTimeout - planned));
+            baritone.getMetrics().recordSearch(calcResult.getType(), pathfinder.getNumNodesExpanded(), pathfinder.getNumMovementsConsidered(), System.nanoTime() - searchStart);
+            if (corridor != null) {
+                // the next segment only carries on along this route if this one got somewhere
+                lastCorridor = calcResult.getPath().isPresent() ? corridor : null;
+            }
             synchronized (pathPlanLock) {
                 Optional<PathExecutor> executor = calcResult.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
                 if (current == null) {
@@ -488,6 +580,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
                             queuePathEvent(PathEvent.CALC_FINISHED_NOW_EXECUTING);
                             current = executor.get();
                             resetEstimatedTicksToGoal(start);
+                            baritone.getMetrics().recordFirstSegment(System.nanoTime() - requested);
                         } else {
                             logDebug("Warning: discarding orphan path segment with incorrect start");
                         }
@@ -523,21 +616,74 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
                     }
                 }
                 synchronized (pathCalcLock) {
+                    if (pathfinder instanceof PrimitiveAStarPathFinder) {
+                        RetainedSearch retained = ((PrimitiveAStarPathFinder) pathfinder).takeRetainedSearch();
+                        if (inProgress == pathfinder) {
+                            setRetainedSearch(retained);
+                        } else if (retained != null) {
+                            // forcefully cancelled or shut down in the meantime
+                            retained.dispose();
+                        }
+                    }
                     inProgress = null;
                 }
             }
         });
     }
 
-    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
+    /**
+     * Lets the next search know that a movement of the current path stopped working, in case the search graph it
+     * would pick up from missed the block changes that broke it
+     */
+    public void onMovementInvalidated(IMovement movement) {
+        synchronized (pathCalcLock) {
+            if (retainedSearch != null) {
+                BetterBlockPos src = movement.getSrc();
+                BetterBlockPos dest = movement.getDest();
+                retainedSearch.markDirty(src.x, src.y, src.z);
+                retainedSearch.markDirty(dest.x, dest.y, dest.z);
+            }
+        }
+    }
+
+    private void setRetainedSearch(RetainedSearch retained) {
+        // this must be called with synchronization on pathCalcLock
+        if (retainedSearch != null && retainedSearch != retained) {
+            retainedSearch.dispose();
+        }
+        retainedSearch = retained;
+    }
+
+    private AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
         Goal transformed = goal;
-        if (context.baritone.settings().simplifyUnloadedYCoord.get() && goal instanceof IGoalRenderPos) {
+        if (context.settings.simplifyUnloadedYCoord.get() && goal instanceof IGoalRenderPos) {
             BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
             if (!context.bsi.worldContainsLoadedChunk(pos.getX(), pos.getZ())) {
                 transformed = new GoalXZ(pos.getX(), pos.getZ());
             }
         }
+        if (context.settings.hierarchicalPathing.get()) {
+            transformed = new GoalCorridor(transformed);
+        }
         Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context);
+        // only worth it for the long searches towards a specific block
+        // traces are recorded by a single thread
+        boolean parallel = context.settings.parallelPathing.get() && !context.settings.searchTrace.get() && goal instanceof IGoalRenderPos && context.canFork();
+        RetainedSearch resumed = retainedSearch;
+        retainedSearch = null;
+        if (resumed != null && !(!parallel && context.settings.primitiveNodeStore.get() && resumed.canResume(transformed, context, favoring))) {
+            resumed.dispose();
+            resumed = null;
+        }
+        if (parallel) {
+            return new ParallelAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        }
+        if (context.settings.primitiveNodeStore.get()) {
+            if (resumed != null) {
+                context.baritone.logDebug("Repairing the previous search graph instead of searching from scratch");
+            }
+            return new PrimitiveAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, resumed);
+        }
         return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
     }
 
@@ -545,8 +691,32 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior
         this.baritone.logDebug(message);
     }
 
-    public void writeToPacket(PacketByteBuf buf) {
-        PathExecutor.writeToPacket(this.current, buf);
-        PathExecutor.writeToPacket(this.next, buf);
+    public boolean needsSync(ServerPlayerEntity recipient) {
+        SyncState state = syncStates.get(recipient);
+        return state == null
+                || state.active != baritone.isActive()
+                || !state.current.isUpToDate(this.current)
+                || !state.next.isUpToDate(this.next);
+    }
+
+    /**
+     * Forgets what the given player was sent, so that they get every segment in full with the next sync. Asked for
+     * by clients that missed a segment.
+     */
+    public void resync(ServerPlayerEntity recipient) {
+        syncStates.remove(recipient);
+    }
+
+    public void writeToPacket(PacketByteBuf buf, ServerPlayerEntity recipient) {
+        SyncState state = syncStates.computeIfAbsent(recipient, p -> new SyncState());
+        state.active = baritone.isActive();
+        PathExecutor.writeToPacket(this.current, buf, state.current, state.next);
+        PathExecutor.writeToPacket(this.next, buf, state.next, null);
+    }
+
+    private static final class SyncState {
+        private boolean active;
+        private final PathExecutor.SyncState current = new PathExecutor.SyncState();
+        private final PathExecutor.SyncState next = new PathExecutor.SyncState();
     }
 }
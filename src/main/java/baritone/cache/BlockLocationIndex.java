@@ -0,0 +1,352 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.api.utils.BlockOptionalMetaLookup;
+import baritone.utils.accessor.PalettedContainerAccessor;
+import baritone.utils.accessor.PalettedContainerDataAccessor;
+import baritone.utils.accessor.ServerChunkManagerAccessor;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Where the blocks that bots look for are in the loaded chunks of a world, shared by every bot.
+ * <p>
+ * Every filter that gets asked about has a bitmap of matching positions per chunk section. Chunks are scanned the
+ * first time a query reaches them, then kept up to date by block changes until they unload, so ten bots mining the
+ * same ore in the same area scan each chunk once between them. Filters nobody asked about for
+ * {@link #FILTER_EXPIRY_MS} are dropped.
+ * <p>
+ * Queries can come from any thread, block changes and chunk unloads come from the server thread.
+ *
+ * @see WorldData#blockIndex
+ */
+public final class BlockLocationIndex {
+
+    private static final long FILTER_EXPIRY_MS = 5 * 60 * 1000L;
+    /**
+     * Below this many chunks to scan at a given distance, handing them to other threads costs more than it saves
+     */
+    private static final int MIN_PARALLEL_CHUNKS = 4;
+
+    /**
+     * Filters are created anew on every rescan, so they are told apart by what they match
+     */
+    private final Map<String, FilterIndex> filters = new ConcurrentHashMap<>();
+
+    /**
+     * @param center         The position to measure distances from
+     * @param max            How many positions to return at most
+     * @param maxChunkRadius How far from the chunk of the center to look, in chunks
+     * @return The positions closest to the center that match the filter, closest first, in loaded chunks
+     */
+    public List<BlockPos> nearest(ServerWorld world, BlockOptionalMetaLookup filter, BlockPos center, int max, int maxChunkRadius) {
+        if (filter.blocks().isEmpty() || max <= 0) {
+            return new ArrayList<>();
+        }
+        long now = System.currentTimeMillis();
+        filters.values().removeIf(index -> now - index.lastQueried > FILTER_EXPIRY_MS);
+        FilterIndex index = filters.computeIfAbsent(filter.toString(), key -> new FilterIndex(filter));
+        index.lastQueried = now;
+
+        ServerChunkManagerAccessor chunkProvider = (ServerChunkManagerAccessor) world.getChunkManager();
+        int centerChunkX = center.getX() >> 4;
+        int centerChunkZ = center.getZ() >> 4;
+        int bottomY = world.getBottomY();
+        Nearest nearest = new Nearest(max, center);
+        List<WorldChunk> unindexed = new ArrayList<>();
+        for (int radius = 0; radius <= maxChunkRadius; radius++) {
+            // every block of this ring is at least that far from the center
+            long ringDistance = Math.max(0, radius - 1) * 16L;
+            if (nearest.isFull() && nearest.farthestSq() <= ringDistance * ringDistance) {
+                break;
+            }
+            boolean allUnloaded = true;
+            unindexed.clear();
+            for (int xoff = -radius; xoff <= radius; xoff++) {
+                for (int zoff = -radius; zoff <= radius; zoff++) {
+                    if (Math.abs(xoff) != radius && Math.abs(zoff) != radius) {
+                        continue;
+                    }
+                    WorldChunk chunk = chunkProvider.automatone$getChunkNow(centerChunkX + xoff, centerChunkZ + zoff);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    allUnloaded = false;
+                    if (!index.collect(chunk.getPos(), bottomY, nearest)) {
+                        unindexed.add(chunk);
+                    }
+                }
+            }
+            if (allUnloaded) {
+                break;
+            }
+            IntStream chunks = IntStream.range(0, unindexed.size());
+            if (unindexed.size() >= MIN_PARALLEL_CHUNKS) {
+                chunks = chunks.parallel();
+            }
+            long[][][] scanned = new long[unindexed.size()][][];
+            chunks.forEach(i -> scanned[i] = index.scan(unindexed.get(i)));
+            for (int i = 0; i < scanned.length; i++) {
+                // collected before the server thread can see it, even if the index discards it as out of date
+                collect(scanned[i], unindexed.get(i).getPos(), bottomY, nearest);
+                index.add(unindexed.get(i).getPos(), scanned[i]);
+            }
+        }
+        return nearest.sorted();
+    }
+
+    /**
+     * Called on the server thread whenever a block of this world changes
+     */
+    public void onBlockChange(World world, int x, int y, int z) {
+        long chunk = ChunkPos.toLong(x >> 4, z >> 4);
+        BlockState state = null;
+        for (FilterIndex index : filters.values()) {
+            synchronized (index) {
+                long[][] sections = index.chunks.get(chunk);
+                if (sections == null) {
+                    if (index.scanning.containsKey(chunk)) {
+                        index.outdated.add(chunk);
+                    }
+                    continue;
+                }
+                if (state == null) {
+                    state = world.getBlockState(new BlockPos(x, y, z));
+                }
+                int sectionIndex = world.getSectionIndex(y);
+                if (sectionIndex < 0 || sectionIndex >= sections.length) {
+                    continue;
+                }
+                int i = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+                long[] bits = sections[sectionIndex];
+                if (index.filter.has(state)) {
+                    if (bits == null) {
+                        sections[sectionIndex] = bits = new long[64];
+                    }
+                    bits[i >>> 6] |= 1L << i;
+                } else if (bits != null) {
+                    bits[i >>> 6] &= ~(1L << i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called on the server thread when a chunk of this world unloads
+     */
+    public void onChunkUnload(WorldChunk chunk) {
+        long key = chunk.getPos().toLong();
+        for (FilterIndex index : filters.values()) {
+            synchronized (index) {
+                index.chunks.remove(key);
+                if (index.scanning.containsKey(key)) {
+                    index.outdated.add(key);
+                }
+            }
+        }
+    }
+
+    private static void collect(long[][] sections, ChunkPos pos, int bottomY, Nearest nearest) {
+        int chunkX = pos.x << 4;
+        int chunkZ = pos.z << 4;
+        for (int s = 0; s < sections.length; s++) {
+            long[] bits = sections[s];
+            if (bits == null) {
+                continue;
+            }
+            int sectionY = bottomY + (s << 4);
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    int i = w << 6 | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    nearest.offer(chunkX | (i & 15), sectionY | (i >>> 8), chunkZ | ((i >>> 4) & 15));
+                }
+            }
+        }
+    }
+
+    private static final class FilterIndex {
+        private final BlockOptionalMetaLookup filter;
+        private final WorldScanner.PaletteFilter paletteFilter;
+        /**
+         * Chunk position to a bitmap of matching positions per section, null for sections without any
+         */
+        private final Long2ObjectOpenHashMap<long[][]> chunks = new Long2ObjectOpenHashMap<>();
+        /**
+         * How many scans of each chunk are running, changes to those chunks make the scans out of date
+         */
+        private final Long2IntOpenHashMap scanning = new Long2IntOpenHashMap();
+        private final LongOpenHashSet outdated = new LongOpenHashSet();
+        private volatile long lastQueried;
+
+        private FilterIndex(BlockOptionalMetaLookup filter) {
+            this.filter = filter;
+            this.paletteFilter = new WorldScanner.PaletteFilter(filter);
+        }
+
+        /**
+         * @return Whether the chunk is indexed, in which case its positions were given to {@code nearest}
+         */
+        private synchronized boolean collect(ChunkPos pos, int bottomY, Nearest nearest) {
+            long[][] sections = chunks.get(pos.toLong());
+            if (sections == null) {
+                scanning.addTo(pos.toLong(), 1);
+                return false;
+            }
+            BlockLocationIndex.collect(sections, pos, bottomY, nearest);
+            return true;
+        }
+
+        /**
+         * Must follow a call to {@link #collect(ChunkPos, int, Nearest)} that returned false for that chunk
+         */
+        private long[][] scan(WorldChunk chunk) {
+            ChunkSection[] sectionArray = chunk.getSectionArray();
+            long[][] sections = new long[sectionArray.length][];
+            for (int s = 0; s < sectionArray.length; s++) {
+                ChunkSection section = sectionArray[s];
+                if (section == null || section.isEmpty()) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                PalettedContainerDataAccessor<BlockState> data = ((PalettedContainerAccessor<BlockState>) section.getBlockStateContainer()).automatone$getData();
+                long[] paletteMask = paletteFilter.mask(data.automatone$getPalette());
+                if (paletteMask == null) {
+                    continue;
+                }
+                long[] bits = new long[64];
+                WorldScanner.scanStorage(data.automatone$getStorage(), paletteMask, i -> bits[i >>> 6] |= 1L << i);
+                sections[s] = bits;
+            }
+            return sections;
+        }
+
+        /**
+         * Keeps the result of a {@linkplain #scan(WorldChunk) scan}, unless the chunk changed or unloaded meanwhile
+         */
+        private synchronized void add(ChunkPos pos, long[][] sections) {
+            long key = pos.toLong();
+            boolean outdated = this.outdated.contains(key);
+            if (scanning.addTo(key, -1) <= 1) {
+                scanning.remove(key);
+                this.outdated.remove(key);
+            }
+            if (!outdated && !chunks.containsKey(key)) {
+                chunks.put(key, sections);
+            }
+        }
+    }
+
+    /**
+     * The closest positions offered so far, in a heap with the farthest one on top
+     */
+    private static final class Nearest {
+        private final long[] positions;
+        private final long[] distances;
+        private final int centerX;
+        private final int centerY;
+        private final int centerZ;
+        private int size;
+
+        private Nearest(int max, BlockPos center) {
+            this.positions = new long[max];
+            this.distances = new long[max];
+            this.centerX = center.getX();
+            this.centerY = center.getY();
+            this.centerZ = center.getZ();
+        }
+
+        private boolean isFull() {
+            return size == positions.length;
+        }
+
+        private long farthestSq() {
+            return distances[0];
+        }
+
+        private void offer(int x, int y, int z) {
+            long dx = x - centerX;
+            long dy = y - centerY;
+            long dz = z - centerZ;
+            long distance = dx * dx + dy * dy + dz * dz;
+            if (size < positions.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    positions[i] = positions[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                positions[i] = BlockPos.asLong(x, y, z);
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    positions[i] = positions[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                positions[i] = BlockPos.asLong(x, y, z);
+                distances[i] = distance;
+            }
+        }
+
+        private List<BlockPos> sorted() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(distances[a], distances[b]));
+            List<BlockPos> ret = new ArrayList<>(size);
+            for (int i : order) {
+                ret.add(BlockPos.fromLong(positions[i]));
+            }
+            return ret;
+        }
+    }
+}
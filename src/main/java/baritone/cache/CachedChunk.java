@@ -17,16 +17,60 @@
 
 package baritone.cache;
 
+import baritone.utils.pathing.PathingBlockType;
 import com.google.common.collect.ImmutableSet;
 import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
+ * A heavily simplified copy of a chunk, that outlives the chunk itself.
+ * <p>
+ * Every block is reduced to a {@link PathingBlockType}, packed in 2 bits. Sections are stored separately,
+ * and sections made of a single type share one array, so empty sky and solid underground cost next to nothing.
+ * The positions of the blocks in {@link #BLOCKS_TO_KEEP_TRACK_OF} are kept as well.
+ * <p>
+ * Instances are immutable once packed, and can be read from any thread.
+ *
  * @author Brady
  * @since 8/3/2018
  */
 public final class CachedChunk {
 
+    /**
+     * The number of longs needed to hold the 2 bit types of the 4096 blocks of a section
+     */
+    static final int SECTION_LONGS = 16 * 16 * 16 * 2 / 64;
+
+    /**
+     * Sections made of a single type, indexed by the raw bits of that type
+     */
+    private static final long[][] UNIFORM_SECTIONS = new long[4][];
+
+    static {
+        for (PathingBlockType type : PathingBlockType.values()) {
+            long[] section = new long[SECTION_LONGS];
+            long word = 0;
+            for (int i = 0; i < 32; i++) {
+                word |= (long) type.getRawBits() << (i << 1);
+            }
+            Arrays.fill(section, word);
+            UNIFORM_SECTIONS[type.getRawBits()] = section;
+        }
+    }
+
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final BlockState WATER = Blocks.WATER.getDefaultState();
+    private static final BlockState AVOID = Blocks.LAVA.getDefaultState();
+    private static final BlockState SOLID = Blocks.STONE.getDefaultState();
+
     public static final ImmutableSet<Block> BLOCKS_TO_KEEP_TRACK_OF = ImmutableSet.of(
             Blocks.ENDER_CHEST,
             Blocks.FURNACE,
@@ -99,4 +143,99 @@ public final class CachedChunk {
             Blocks.VINE
     );
 
+    public final int x;
+    public final int z;
+
+    /**
+     * The section coordinate of the lowest section of the world this chunk came from
+     */
+    final int bottomSectionY;
+
+    /**
+     * The packed types of each section, see {@link #getType(int, int, int)} for the layout
+     */
+    final long[][] sections;
+
+    /**
+     * Block name to every position of that block in this chunk, for the blocks in {@link #BLOCKS_TO_KEEP_TRACK_OF}
+     */
+    final Map<String, List<BlockPos>> specialBlockLocations;
+
+    /**
+     * The time at which this chunk was packed, in milliseconds since the epoch
+     */
+    public final long cacheTimestamp;
+
+    CachedChunk(int x, int z, int bottomSectionY, long[][] sections, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
+        this.x = x;
+        this.z = z;
+        this.bottomSectionY = bottomSectionY;
+        this.sections = sections;
+        this.specialBlockLocations = specialBlockLocations;
+        this.cacheTimestamp = cacheTimestamp;
+    }
+
+    /**
+     * @return The shared section in which every block is of the given type
+     */
+    static long[] uniformSection(PathingBlockType type) {
+        return UNIFORM_SECTIONS[type.getRawBits()];
+    }
+
+    /**
+     * @return The type of the whole section if it is made of a single type, null otherwise
+     */
+    static @Nullable PathingBlockType uniformType(long[] section) {
+        for (int i = 0; i < UNIFORM_SECTIONS.length; i++) {
+            if (section == UNIFORM_SECTIONS[i]) {
+                return PathingBlockType.fromRawBits(i);
+            }
+        }
+        return null;
+    }
+
+    static void setType(long[] section, int x, int y, int z, PathingBlockType type) {
+        int bit = ((y & 15) << 8 | (z & 15) << 4 | (x & 15)) << 1;
+        section[bit >>> 6] |= (long) type.getRawBits() << (bit & 63);
+    }
+
+    /**
+     * @param x The block x coordinate, in the world
+     * @param y The block y coordinate, in the world
+     * @param z The block z coordinate, in the world
+     * @return The type of the block, blocks outside of the cached height are air
+     */
+    public PathingBlockType getType(int x, int y, int z) {
+        int sectionIndex = (y >> 4) - bottomSectionY;
+        if (sectionIndex < 0 || sectionIndex >= sections.length) {
+            return PathingBlockType.AIR;
+        }
+        long[] section = sections[sectionIndex];
+        int bit = ((y & 15) << 8 | (z & 15) << 4 | (x & 15)) << 1;
+        return PathingBlockType.fromRawBits((int) (section[bit >>> 6] >>> (bit & 63)));
+    }
+
+    /**
+     * @return A block state standing for the type of the block at the given position
+     */
+    public BlockState getBlock(int x, int y, int z) {
+        switch (getType(x, y, z)) {
+            case WATER:
+                return WATER;
+            case AVOID:
+                return AVOID;
+            case SOLID:
+                return SOLID;
+            default:
+                return AIR;
+        }
+    }
+
+    /**
+     * @param block The name of the block, as given by {@link baritone.api.utils.BlockUtils#blockToString(Block)}
+     * @return The positions of that block in this chunk
+     */
+    public List<BlockPos> getSpecialBlockLocations(String block) {
+        return specialBlockLocations.getOrDefault(block, Collections.emptyList());
+    }
 }
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Automatone;
+import baritone.utils.pathing.PathingBlockType;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 32 by 32 {@link CachedChunk}s, the unit in which the cache is loaded and saved.
+ *
+ * @author Brady
+ * @since 8/3/2018
+ */
+public final class CachedRegion {
+
+    /**
+     * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Automatone
+     */
+    private static final int CACHED_REGION_MAGIC = 0x41544D43;
+
+    /**
+     * Tag of sections that are not made of a single type, uniform sections are tagged with the raw bits of their type
+     */
+    private static final int MIXED_SECTION = 4;
+
+    private final CachedChunk[] chunks = new CachedChunk[32 * 32];
+
+    public final int x;
+    public final int z;
+
+    private boolean hasUnsavedChanges;
+
+    /**
+     * Whether what was saved of this region is still being read, see {@link #load(Path, long)}
+     */
+    private boolean loading;
+
+    CachedRegion(int x, int z) {
+        this.x = x;
+        this.z = z;
+    }
+
+    /**
+     * @param chunkX The chunk x coordinate, in the world
+     * @param chunkZ The chunk z coordinate, in the world
+     */
+    public synchronized @Nullable CachedChunk getChunk(int chunkX, int chunkZ) {
+        return chunks[index(chunkX, chunkZ)];
+    }
+
+    public synchronized void updateCachedChunk(CachedChunk chunk) {
+        chunks[index(chunk.x, chunk.z)] = chunk;
+        hasUnsavedChanges = true;
+    }
+
+    public synchronized List<BlockPos> getLocationsOf(String block) {
+        List<BlockPos> res = new ArrayList<>();
+        for (CachedChunk chunk : chunks) {
+            if (chunk != null) {
+                res.addAll(chunk.getSpecialBlockLocations(block));
+            }
+        }
+        return res;
+    }
+
+    public synchronized boolean hasUnsavedChanges() {
+        return hasUnsavedChanges;
+    }
+
+    /**
+     * Keeps the region from being saved until {@link #load(Path, long)} is done, saving it before would write over
+     * the file with only what was cached since
+     */
+    synchronized void markLoading() {
+        loading = true;
+    }
+
+    private static int index(int chunkX, int chunkZ) {
+        return (chunkX & 31) << 5 | (chunkZ & 31);
+    }
+
+    static Path getRegionFile(Path directory, int regionX, int regionZ) {
+        return directory.resolve("r." + regionX + "." + regionZ + ".bcr");
+    }
+
+    /**
+     * Hands out what has to be saved, and counts it as saved. The copy is written with {@link #write(Path, CachedChunk[])}
+     * without holding the lock of the region, cached chunks never change once made.
+     *
+     * @return The chunks of this region, or null if nothing changed since the last save
+     */
+    synchronized @Nullable CachedChunk[] takeUnsavedChunks() {
+        if (!hasUnsavedChanges || loading) {
+            return null;
+        }
+        hasUnsavedChanges = false;
+        return chunks.clone();
+    }
+
+    /**
+     * Writes chunks taken from {@link #takeUnsavedChunks()}, marking the region as unsaved again if that fails
+     */
+    void write(Path directory, CachedChunk[] chunks) {
+        try {
+            Files.createDirectories(directory);
+            Path regionFile = getRegionFile(directory, x, z);
+            Path tmp = regionFile.resolveSibling(regionFile.getFileName() + ".tmp");
+            try (OutputStream fileOut = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut, 16384), 32768))) {
+                out.writeInt(CACHED_REGION_MAGIC);
+                for (CachedChunk chunk : chunks) {
+                    out.writeBoolean(chunk != null);
+                    if (chunk != null) {
+                        writeChunk(out, chunk);
+                    }
+                }
+            }
+            Files.move(tmp, regionFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Automatone.LOGGER.error("Failed to save cached region {},{}", x, z, e);
+            synchronized (this) {
+                hasUnsavedChanges = true;
+            }
+        }
+    }
+
+    /**
+     * The file is read without holding the lock of the region, which can be used in the meantime. Chunks cached while
+     * it was being read are newer than the saved ones, and are kept over them.
+     *
+     * @param expiryMillis Chunks cached longer ago than this are dropped, negative to keep everything
+     */
+    public void load(Path directory, long expiryMillis) {
+        Path regionFile = getRegionFile(directory, x, z);
+        CachedChunk[] loaded = new CachedChunk[chunks.length];
+        boolean expired = false;
+        if (Files.exists(regionFile)) {
+            long now = System.currentTimeMillis();
+            try (InputStream fileIn = Files.newInputStream(regionFile);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn, 32768)))) {
+                if (in.readInt() != CACHED_REGION_MAGIC) {
+                    throw new IOException("Bad magic value");
+                }
+                for (int i = 0; i < loaded.length; i++) {
+                    if (in.readBoolean()) {
+                        CachedChunk chunk = readChunk(in, (x << 5) | (i >> 5), (z << 5) | (i & 31));
+                        if (expiryMillis < 0 || now - chunk.cacheTimestamp <= expiryMillis) {
+                            loaded[i] = chunk;
+                        } else {
+                            expired = true;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                Automatone.LOGGER.error("Failed to load cached region {},{}, ignoring it", x, z, e);
+                Arrays.fill(loaded, null);
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < chunks.length; i++) {
+                if (chunks[i] == null) {
+                    chunks[i] = loaded[i];
+                }
+            }
+            if (expired) {
+                hasUnsavedChanges = true; // so that the expired chunk also goes away on disk
+            }
+            loading = false;
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, CachedChunk chunk) throws IOException {
+        out.writeLong(chunk.cacheTimestamp);
+        out.writeInt(chunk.bottomSectionY);
+        out.writeShort(chunk.sections.length);
+        for (long[] section : chunk.sections) {
+            PathingBlockType uniform = CachedChunk.uniformType(section);
+            if (uniform != null) {
+                out.writeByte(uniform.getRawBits());
+            } else {
+                out.writeByte(MIXED_SECTION);
+                for (long word : section) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        out.writeShort(chunk.specialBlockLocations.size());
+        for (Map.Entry<String, List<BlockPos>> entry : chunk.specialBlockLocations.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (BlockPos pos : entry.getValue()) {
+                out.writeByte((pos.getX() & 15) << 4 | (pos.getZ() & 15));
+                out.writeInt(pos.getY());
+            }
+        }
+    }
+
+    private static CachedChunk readChunk(DataInputStream in, int chunkX, int chunkZ) throws IOException {
+        long timestamp = in.readLong();
+        int bottomSectionY = in.readInt();
+        long[][] sections = new long[in.readUnsignedShort()][];
+        for (int i = 0; i < sections.length; i++) {
+            int tag = in.readUnsignedByte();
+            if (tag == MIXED_SECTION) {
+                long[] section = new long[CachedChunk.SECTION_LONGS];
+                for (int j = 0; j < section.length; j++) {
+                    section[j] = in.readLong();
+                }
+                sections[i] = section;
+            } else if (tag < MIXED_SECTION) {
+                sections[i] = CachedChunk.uniformSection(PathingBlockType.fromRawBits(tag));
+            } else {
+                throw new IOException("Bad section tag " + tag);
+            }
+        }
+        int specialCount = in.readUnsignedShort();
+        Map<String, List<BlockPos>> special = new HashMap<>();
+        for (int i = 0; i < specialCount; i++) {
+            String block = in.readUTF();
+            int count = in.readInt();
+            List<BlockPos> locations = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                int xz = in.readUnsignedByte();
+                locations.add(new BlockPos(chunkX << 4 | xz >> 4, in.readInt(), chunkZ << 4 | xz & 15));
+            }
+            special.put(block, locations);
+        }
+        return new CachedChunk(chunkX, chunkZ, bottomSectionY, sections, special, timestamp);
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Automatone;
+import baritone.api.BaritoneAPI;
+import baritone.api.Settings;
+import baritone.api.cache.ICachedWorld;
+import baritone.utils.PathingScheduler;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The simplified copy of every chunk that was ever loaded in a world, see {@link CachedChunk}.
+ * <p>
+ * Chunks are packed when they get unloaded, and when they get loaded for the first time, on worker threads. Only worlds
+ * where a bot was active in the last few minutes are cached, see {@link #onBotActive()}.
+ * Regions are saved along with the world, written in the background, under {@code automatone/cache} in the dimension folder,
+ * and loaded back lazily on worker threads the first time something asks about them. Until a region is done loading,
+ * the chunks it held on disk read as never cached.
+ *
+ * @author Brady
+ * @since 8/4/2018
+ */
+public final class CachedWorld implements ICachedWorld {
+
+    /**
+     * On save, regions further than this from every player are dropped from memory, see {@link Settings#pruneRegionsFromRAM}
+     */
+    private static final int PRUNE_DISTANCE = 1024;
+
+    /**
+     * How long after the last active bot left chunks are still cached
+     */
+    private static final long BOT_IDLE_MS = 5 * 60_000L;
+
+    /**
+     * One thread for the writes of every world, so that the saves of a region are written in order
+     */
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Automatone cache saving");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final World world;
+    private final Long2ObjectOpenHashMap<CachedRegion> cachedRegions = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Chunks copied and waiting to be packed, a chunk copied again before it was packed replaces the older copy
+     */
+    private final Long2ObjectLinkedOpenHashMap<ChunkPacker.Copy> toPack = new Long2ObjectLinkedOpenHashMap<>();
+
+    private volatile long lastBotActive;
+    private @Nullable Path directory;
+    private boolean directoryResolved;
+
+    CachedWorld(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public boolean isCached(int blockX, int blockZ) {
+        return getChunk(blockX >> 4, blockZ >> 4) != null;
+    }
+
+    @Override
+    public ArrayList<BlockPos> getLocationsOf(String block, int maximum, int centerX, int centerZ, int maxRegionDistanceSq) {
+        ArrayList<BlockPos> res = new ArrayList<>();
+        int centerRegionX = centerX >> 9;
+        int centerRegionZ = centerZ >> 9;
+
+        int searchRadius = 0;
+        while (searchRadius <= maxRegionDistanceSq) {
+            for (int xoff = -searchRadius; xoff <= searchRadius; xoff++) {
+                for (int zoff = -searchRadius; zoff <= searchRadius; zoff++) {
+                    int distance = xoff * xoff + zoff * zoff;
+                    if (distance != searchRadius) {
+                        continue;
+                    }
+                    res.addAll(getOrLoadRegion(centerRegionX + xoff, centerRegionZ + zoff).getLocationsOf(block));
+                }
+            }
+            if (res.size() >= maximum) {
+                return res;
+            }
+            searchRadius++;
+        }
+        return res;
+    }
+
+    /**
+     * @return The cached copy of the given chunk, or null if it was never cached
+     */
+    public @Nullable CachedChunk getChunk(int chunkX, int chunkZ) {
+        return getOrLoadRegion(chunkX >> 5, chunkZ >> 5).getChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * @return A block state standing for the cached type of the block at the given position, or null if it was never cached
+     */
+    public @Nullable BlockState getBlock(int x, int y, int z) {
+        CachedChunk chunk = getChunk(x >> 4, z >> 4);
+        return chunk == null ? null : chunk.getBlock(x, y, z);
+    }
+
+    public void onChunkLoad(WorldChunk chunk) {
+        // the chunk is known already, it is packed again when it unloads
+        if (isEnabled() && getChunk(chunk.getPos().x, chunk.getPos().z) == null) {
+            queueForPacking(chunk);
+        }
+    }
+
+    public void onChunkUnload(WorldChunk chunk) {
+        if (isEnabled()) {
+            queueForPacking(chunk);
+        }
+    }
+
+    /**
+     * Keeps this world cached for a while, called every tick a bot is active in it
+     */
+    public void onBotActive() {
+        lastBotActive = System.currentTimeMillis();
+    }
+
+    private void queueForPacking(WorldChunk chunk) {
+        ChunkPacker.Copy copy = ChunkPacker.copy(chunk);
+        synchronized (toPack) {
+            toPack.put(chunk.getPos().toLong(), copy);
+        }
+        // a pending pack replaces the previous one, any of them packs everything that is queued
+        Automatone.getScheduler().submit(this, "pack", PathingScheduler.Priority.NORMAL, this::packQueued);
+    }
+
+    private void packQueued() {
+        while (true) {
+            ChunkPacker.Copy copy;
+            synchronized (toPack) {
+                if (toPack.isEmpty()) {
+                    return;
+                }
+                copy = toPack.removeFirst();
+            }
+            CachedChunk packed = copy.pack();
+            getOrLoadRegion(packed.x >> 5, packed.z >> 5).updateCachedChunk(packed);
+        }
+    }
+
+    /**
+     * Copies every region with unsaved changes and writes them on the cache I/O thread, then drops far away regions
+     * from memory if {@link Settings#pruneRegionsFromRAM} is on. Called when the world saves.
+     */
+    public void save() {
+        flush();
+    }
+
+    /**
+     * Like {@link #save()}, but waits for every region to be written, including the ones of earlier saves.
+     * Called when the world unloads, nothing would be left to write them otherwise.
+     */
+    public void saveNow() {
+        Future<?> flush = flush();
+        if (flush == null) {
+            return;
+        }
+        try {
+            flush.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Automatone.LOGGER.error("Failed to save the cached regions of {}", world.getRegistryKey().getValue(), e.getCause());
+        }
+    }
+
+    private @Nullable Future<?> flush() {
+        Path dir = getDirectory();
+        if (dir == null) {
+            return null;
+        }
+        List<CachedRegion> regions;
+        synchronized (cachedRegions) {
+            regions = new ArrayList<>(cachedRegions.values());
+        }
+        List<CachedRegion> toWrite = new ArrayList<>();
+        List<CachedChunk[]> contents = new ArrayList<>();
+        for (CachedRegion region : regions) {
+            CachedChunk[] chunks = region.takeUnsavedChunks();
+            if (chunks != null) {
+                toWrite.add(region);
+                contents.add(chunks);
+            }
+        }
+        // where the players are is only safe to read from the server thread
+        List<Vec3d> players = new ArrayList<>();
+        boolean prune = BaritoneAPI.getGlobalSettings().pruneRegionsFromRAM.get() && world instanceof ServerWorld;
+        if (prune) {
+            for (ServerPlayerEntity player : ((ServerWorld) world).getPlayers()) {
+                players.add(player.getPos());
+            }
+        }
+        return SAVE_EXECUTOR.submit(() -> {
+            for (int i = 0; i < toWrite.size(); i++) {
+                toWrite.get(i).write(dir, contents.get(i));
+            }
+            // only once written, a pruned region is read back from its file
+            if (prune) {
+                synchronized (cachedRegions) {
+                    cachedRegions.values().removeIf(region -> !region.hasUnsavedChanges() && isFarFromEveryone(region, players));
+                }
+            }
+        });
+    }
+
+    private static boolean isFarFromEveryone(CachedRegion region, List<Vec3d> players) {
+        // distance to the center of the region
+        double regionX = (region.x << 9) + 256;
+        double regionZ = (region.z << 9) + 256;
+        for (Vec3d player : players) {
+            double dx = player.x - regionX;
+            double dz = player.z - regionZ;
+            if (dx * dx + dz * dz <= PRUNE_DISTANCE * PRUNE_DISTANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CachedRegion getOrLoadRegion(int regionX, int regionZ) {
+        long key = ChunkPos.toLong(regionX, regionZ);
+        Path dir = getDirectory();
+        CachedRegion region;
+        synchronized (cachedRegions) {
+            region = cachedRegions.get(key);
+            if (region != null) {
+                return region;
+            }
+            // put in place right away, so that the file is only read once and nobody waits on it under the lock
+            region = new CachedRegion(regionX, regionZ);
+            if (dir != null) {
+                region.markLoading();
+            }
+            cachedRegions.put(key, region);
+        }
+        if (dir != null) {
+            CachedRegion loading = region;
+            long expirySeconds = BaritoneAPI.getGlobalSettings().cachedChunksExpirySeconds.get();
+            Automatone.getScheduler().submit(this, "load region " + regionX + "," + regionZ, PathingScheduler.Priority.NORMAL,
+                    () -> loading.load(dir, expirySeconds < 0 ? -1 : expirySeconds * 1000L));
+        }
+        return region;
+    }
+
+    private boolean isEnabled() {
+        return BaritoneAPI.getGlobalSettings().chunkCaching.get() && System.currentTimeMillis() - lastBotActive < BOT_IDLE_MS;
+    }
+
+    /**
+     * Resolved lazily, the server of the world is not necessarily known yet when this is created
+     */
+    private synchronized @Nullable Path getDirectory() {
+        if (!directoryResolved) {
+            if (world instanceof ServerWorld) {
+                Path root = ((ServerWorld) world).getServer().getSavePath(WorldSavePath.ROOT);
+                directory = DimensionType.getSaveDirectory(world.getRegistryKey(), root).resolve("automatone").resolve("cache");
+            }
+            directoryResolved = true;
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.api.utils.BlockUtils;
+import baritone.pathing.movement.MovementHelper;
+import baritone.utils.pathing.PathingBlockType;
+import net.minecraft.block.AirBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FernBlock;
+import net.minecraft.block.FlowerBlock;
+import net.minecraft.block.TallPlantBlock;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns chunks into {@link CachedChunk}s.
+ * <p>
+ * Packing is split in two, {@link #copy(WorldChunk)} grabs the block states on the server thread,
+ * then {@link Copy#pack()} does the actual work wherever is convenient.
+ *
+ * @author Brady
+ * @since 8/3/2018
+ */
+public final class ChunkPacker {
+
+    private ChunkPacker() {}
+
+    /**
+     * Copies the sections of a chunk, must be called from the server thread.
+     */
+    @SuppressWarnings("unchecked")
+    public static Copy copy(WorldChunk chunk) {
+        ChunkSection[] chunkSections = chunk.getSectionArray();
+        PalettedContainer<BlockState>[] sections = new PalettedContainer[chunkSections.length];
+        for (int i = 0; i < sections.length; i++) {
+            ChunkSection section = chunkSections[i];
+            sections[i] = section.isEmpty() ? null : section.getBlockStateContainer().copy();
+        }
+        return new Copy(chunk.getPos().x, chunk.getPos().z, chunk.getBottomSectionCoord(), sections, System.currentTimeMillis());
+    }
+
+    public static PathingBlockType getPathingBlockType(BlockState state) {
+        Block block = state.getBlock();
+        if (MovementHelper.isWater(state)) {
+            // only still water can be swum in safely, flowing water pushes you around
+            return MovementHelper.possiblyFlowing(state) ? PathingBlockType.AVOID : PathingBlockType.WATER;
+        }
+        if (MovementHelper.avoidWalkingInto(state)) {
+            return PathingBlockType.AVOID;
+        }
+        if (block instanceof AirBlock || block instanceof FernBlock || block instanceof TallPlantBlock || block instanceof FlowerBlock) {
+            return PathingBlockType.AIR;
+        }
+        return PathingBlockType.SOLID;
+    }
+
+    public static final class Copy {
+
+        private final int x;
+        private final int z;
+        private final int bottomSectionY;
+        private final PalettedContainer<BlockState>[] sections;
+        private final long timestamp;
+
+        private Copy(int x, int z, int bottomSectionY, PalettedContainer<BlockState>[] sections, long timestamp) {
+            this.x = x;
+            this.z = z;
+            this.bottomSectionY = bottomSectionY;
+            this.sections = sections;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Packs the copied chunk, safe to call from any thread.
+         */
+        public CachedChunk pack() {
+            long[][] packed = new long[sections.length][];
+            Map<String, List<BlockPos>> special = new HashMap<>();
+            for (int i = 0; i < sections.length; i++) {
+                PalettedContainer<BlockState> section = sections[i];
+                if (section == null) {
+                    packed[i] = CachedChunk.uniformSection(PathingBlockType.AIR);
+                    continue;
+                }
+                // the palette tells us which states are in there, most sections turn out to be a single type
+                PathingBlockType[] uniform = new PathingBlockType[1];
+                boolean[] mixed = new boolean[1];
+                boolean[] hasSpecial = new boolean[1];
+                section.count((state, count) -> {
+                    PathingBlockType type = getPathingBlockType(state);
+                    if (uniform[0] == null) {
+                        uniform[0] = type;
+                    } else if (uniform[0] != type) {
+                        mixed[0] = true;
+                    }
+                    if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(state.getBlock())) {
+                        hasSpecial[0] = true;
+                    }
+                });
+                if (!mixed[0] && !hasSpecial[0]) {
+                    packed[i] = CachedChunk.uniformSection(uniform[0] == null ? PathingBlockType.AIR : uniform[0]);
+                    continue;
+                }
+                packed[i] = mixed[0] ? new long[CachedChunk.SECTION_LONGS] : CachedChunk.uniformSection(uniform[0]);
+                int baseY = (bottomSectionY + i) << 4;
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            BlockState state = section.get(x, y, z);
+                            if (mixed[0]) {
+                                CachedChunk.setType(packed[i], x, y, z, getPathingBlockType(state));
+                            }
+                            Block block = state.getBlock();
+                            if (hasSpecial[0] && CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
+                                special.computeIfAbsent(BlockUtils.blockToString(block), k -> new ArrayList<>())
+                                        .add(new BlockPos((this.x << 4) | x, baseY | y, (this.z << 4) | z));
+                            }
+                        }
+                    }
+                }
+            }
+            return new CachedChunk(x, z, bottomSectionY, packed, special, timestamp);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.world.chunk.PalettedContainer;
+
+/**
+ * A copy of the block states of a chunk, taken on the server thread, that can be read from any thread.
+ * <p>
+ * Sections are shared between snapshots of the same chunk as long as they don't change,
+ * see {@link ChunkSnapshotCache}.
+ */
+public final class ChunkSnapshot {
+
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    public final int x;
+    public final int z;
+
+    /**
+     * The block states of each section, null for empty sections
+     */
+    private final PalettedContainer<BlockState>[] sections;
+
+    ChunkSnapshot(int x, int z, PalettedContainer<BlockState>[] sections) {
+        this.x = x;
+        this.z = z;
+        this.sections = sections;
+    }
+
+    /**
+     * @param sectionIndex The index of the section, as given by {@link net.minecraft.world.HeightLimitView#getSectionIndex(int)}
+     */
+    public BlockState get(int sectionIndex, int x, int y, int z) {
+        PalettedContainer<BlockState> section = sections[sectionIndex];
+        if (section == null) {
+            return AIR;
+        }
+        return section.get(x & 15, y & 15, z & 15);
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.utils.accessor.ServerChunkManagerAccessor;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Copy-on-write snapshots of the loaded chunks of a world, for use by path calculations on worker threads.
+ * <p>
+ * Each section is copied the first time a snapshot needs it and then shared by every later snapshot,
+ * until a block change in that section marks it stale. Snapshots are taken on the server thread, which only copies
+ * the chunks right around the entity at that point. The other chunks are copied a few every tick, nearest first, see
+ * {@link PendingChunk}; they show the world as it is when they are copied.
+ */
+public final class ChunkSnapshotCache {
+
+    /**
+     * Chunks that no snapshot needed for this long are forgotten
+     */
+    private static final long EXPIRY_MS = 60_000L;
+
+    /**
+     * How long a snapshot can be handed out again if nothing changed, protection is recomputed after that
+     */
+    private static final long REUSE_MS = 1000L;
+
+    /**
+     * Chunks this close to the entity are copied when the snapshot is taken, unless they are copied already
+     */
+    private static final int EAGER_RADIUS = 2;
+
+    /**
+     * How many chunks left over by snapshots are copied at the end of every world tick
+     */
+    private static final int CHUNKS_PER_TICK = 16;
+
+    /**
+     * Past this many chunks waiting, the ones of the oldest snapshots are only copied when a worker asks for them
+     */
+    private static final int MAX_QUEUED = 4096;
+
+    private final Long2ObjectOpenHashMap<Entry> entries = new Long2ObjectOpenHashMap<>();
+    private final ArrayDeque<PendingChunk> queue = new ArrayDeque<>();
+    private final Map<Entity, WorldSnapshot> latest = new WeakHashMap<>();
+    private int modCount;
+    private long lastSweep;
+
+    /**
+     * Takes a snapshot of the loaded chunks around an entity.
+     *
+     * @param world  The world of the entity
+     * @param entity The entity that will path through the snapshot
+     * @param radius The radius, in chunks, around the entity to include
+     * @return A snapshot that is safe to read from any thread
+     */
+    public synchronized WorldSnapshot capture(World world, Entity entity, int radius) {
+        int centerX = entity.getChunkPos().x;
+        int centerZ = entity.getChunkPos().z;
+        long now = System.currentTimeMillis();
+        WorldSnapshot previous = latest.get(entity);
+        if (previous != null && previous.modCount == modCount && previous.centerX == centerX && previous.centerZ == centerZ
+                && previous.radius == radius && now - previous.captureTime < REUSE_MS) {
+            return previous;
+        }
+        if (now - lastSweep > EXPIRY_MS) {
+            entries.values().removeIf(e -> e.source.get() == null || now - e.lastUsed > EXPIRY_MS);
+            lastSweep = now;
+        }
+        ServerChunkManagerAccessor chunkManager = (ServerChunkManagerAccessor) world.getChunkManager();
+        PlayerEntity player = entity instanceof PlayerEntity ? (PlayerEntity) entity : null;
+        Long2ObjectOpenHashMap<ChunkSnapshot> chunks = new Long2ObjectOpenHashMap<>();
+        Long2ObjectOpenHashMap<long[]> protectedColumns = new Long2ObjectOpenHashMap<>();
+        Long2ObjectOpenHashMap<PendingChunk> pending = new Long2ObjectOpenHashMap<>();
+        List<PendingChunk> later = new ArrayList<>();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int chunkX = centerX - radius; chunkX <= centerX + radius; chunkX++) {
+            for (int chunkZ = centerZ - radius; chunkZ <= centerZ + radius; chunkZ++) {
+                WorldChunk chunk = chunkManager.automatone$getChunkNow(chunkX, chunkZ);
+                if (chunk == null || chunk.isEmpty()) {
+                    continue;
+                }
+                long key = ChunkPos.toLong(chunkX, chunkZ);
+                Entry entry = entries.get(key);
+                boolean near = Math.abs(chunkX - centerX) <= EAGER_RADIUS && Math.abs(chunkZ - centerZ) <= EAGER_RADIUS;
+                if (!near && (entry == null || entry.source.get() != chunk || entry.snapshot == null)) {
+                    // would have to be copied, left for later
+                    PendingChunk chunkLater = new PendingChunk(this, world, player, entity.getBlockY(), chunkX, chunkZ);
+                    pending.put(key, chunkLater);
+                    later.add(chunkLater);
+                    continue;
+                }
+                chunks.put(key, copy(chunk, key, now));
+                if (player != null) {
+                    long[] columns = computeProtection(world, player, chunkX, chunkZ, entity.getBlockY(), pos);
+                    if (columns != null) {
+                        protectedColumns.put(key, columns);
+                    }
+                }
+            }
+        }
+        // the newest snapshot is the one about to be searched, so its chunks go to the front of the queue, nearest first
+        later.sort(Comparator.comparingInt(c -> -distanceSq(c, centerX, centerZ)));
+        for (PendingChunk chunkLater : later) {
+            queue.addFirst(chunkLater);
+        }
+        while (queue.size() > MAX_QUEUED) {
+            queue.removeLast();
+        }
+        WorldSnapshot snapshot = new WorldSnapshot(chunks, protectedColumns, pending, centerX, centerZ, radius, modCount, now);
+        latest.put(entity, snapshot);
+        return snapshot;
+    }
+
+    private static int distanceSq(PendingChunk chunk, int centerX, int centerZ) {
+        int dx = chunk.chunkX - centerX;
+        int dz = chunk.chunkZ - centerZ;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Copies some of the chunks that snapshots left for later, called at the end of every world tick
+     */
+    public synchronized void tick() {
+        int copied = 0;
+        while (copied < CHUNKS_PER_TICK && !queue.isEmpty()) {
+            PendingChunk next = queue.removeFirst();
+            if (!next.copy.isDone()) {
+                fill(next);
+                copied++;
+            }
+        }
+    }
+
+    private ChunkSnapshot copy(WorldChunk chunk, long key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.source.get() != chunk) {
+            entry = new Entry(chunk);
+            entries.put(key, entry);
+        }
+        entry.lastUsed = now;
+        return entry.snapshot(chunk);
+    }
+
+    /**
+     * Copies a chunk left for later, on the server thread
+     */
+    private synchronized void fill(PendingChunk pending) {
+        if (pending.copy.isDone()) {
+            return;
+        }
+        WorldChunk chunk = ((ServerChunkManagerAccessor) pending.world.getChunkManager()).automatone$getChunkNow(pending.chunkX, pending.chunkZ);
+        if (chunk == null || chunk.isEmpty()) {
+            // unloaded since
+            pending.copy.complete(null);
+            return;
+        }
+        ChunkSnapshot snapshot = copy(chunk, ChunkPos.toLong(pending.chunkX, pending.chunkZ), System.currentTimeMillis());
+        if (pending.player != null) {
+            pending.protectedColumns = computeProtection(pending.world, pending.player, pending.chunkX, pending.chunkZ, pending.y, new BlockPos.Mutable());
+        }
+        pending.copy.complete(snapshot);
+    }
+
+    /**
+     * Marks the section containing the given block as stale, called whenever a block changes.
+     */
+    public synchronized void onBlockChange(World world, int x, int y, int z) {
+        Entry entry = entries.get(ChunkPos.toLong(x >> 4, z >> 4));
+        if (entry != null) {
+            entry.markStale(world.getSectionIndex(y));
+            modCount++;
+        }
+    }
+
+    /**
+     * Protection is checked for every block column, at the height of the entity. Protection that changes along a
+     * column, like claims limited to some heights, is taken to be the same as at that height.
+     *
+     * @return The protected column bits, or null if the whole chunk can be modified
+     */
+    private static long @Nullable [] computeProtection(World world, PlayerEntity player, int chunkX, int chunkZ, int y, BlockPos.Mutable pos) {
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        long[] columns = null;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                if (!world.canPlayerModifyAt(player, pos.set(baseX + x, y, baseZ + z))) {
+                    if (columns == null) {
+                        columns = new long[4];
+                    }
+                    int index = x << 4 | z;
+                    columns[index >> 6] |= 1L << index;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * A chunk of a snapshot that wasn't copied when the snapshot was taken. A worker that needs it before the server
+     * thread got to it doesn't wait: it asks the server thread to copy it right away, and the chunk stays unloaded for
+     * that snapshot, so that a search sees the same world all the way through. Later snapshots reuse the copy.
+     */
+    static final class PendingChunk {
+
+        private final ChunkSnapshotCache cache;
+        private final World world;
+        private final @Nullable PlayerEntity player;
+        private final int y;
+        private final int chunkX;
+        private final int chunkZ;
+        private final CompletableFuture<ChunkSnapshot> copy = new CompletableFuture<>();
+        /**
+         * Written before {@link #copy} completes
+         */
+        private volatile long @Nullable [] protectedColumns;
+        /**
+         * Set once a worker needed the chunk before it was copied, from then on this snapshot goes without it
+         */
+        private volatile boolean missed;
+
+        private PendingChunk(ChunkSnapshotCache cache, World world, @Nullable PlayerEntity player, int y, int chunkX, int chunkZ) {
+            this.cache = cache;
+            this.world = world;
+            this.player = player;
+            this.y = y;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        /**
+         * @return The copy of the chunk, or null if it was unloaded or not copied yet
+         */
+        @Nullable ChunkSnapshot get() {
+            if (missed) {
+                return null;
+            }
+            if (copy.isDone()) {
+                return copy.getNow(null);
+            }
+            MinecraftServer server = world.getServer();
+            if (server != null && server.isOnThread()) {
+                cache.fill(this);
+                return copy.getNow(null);
+            }
+            missed = true;
+            if (server != null) {
+                server.execute(() -> cache.fill(this));
+            }
+            return null;
+        }
+
+        /**
+         * @return The protected column bits, see {@link WorldSnapshot#isProtected(int, int)}
+         */
+        long @Nullable [] getProtectedColumns() {
+            return get() == null ? null : protectedColumns;
+        }
+    }
+
+    private static final class Entry {
+
+        private final WeakReference<WorldChunk> source;
+        private final PalettedContainer<BlockState>[] sections;
+        private final boolean[] stale;
+        private @Nullable ChunkSnapshot snapshot;
+        private long lastUsed;
+
+        @SuppressWarnings("unchecked")
+        private Entry(WorldChunk chunk) {
+            this.source = new WeakReference<>(chunk);
+            this.sections = new PalettedContainer[chunk.getSectionArray().length];
+            this.stale = new boolean[sections.length];
+            Arrays.fill(stale, true);
+        }
+
+        private void markStale(int sectionIndex) {
+            if (sectionIndex >= 0 && sectionIndex < stale.length) {
+                stale[sectionIndex] = true;
+                snapshot = null;
+            }
+        }
+
+        private ChunkSnapshot snapshot(WorldChunk chunk) {
+            if (snapshot == null) {
+                ChunkSection[] chunkSections = chunk.getSectionArray();
+                for (int i = 0; i < sections.length; i++) {
+                    if (stale[i]) {
+                        ChunkSection section = chunkSections[i];
+                        sections[i] = section.isEmpty() ? null : section.getBlockStateContainer().copy();
+                        stale[i] = false;
+                    }
+                }
+                // the array is copied so that older snapshots keep their sections when one goes stale
+                snapshot = new ChunkSnapshot(chunk.getPos().x, chunk.getPos().z, sections.clone());
+            }
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.mob.EndermanEntity;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.entity.mob.SpiderEntity;
+import net.minecraft.entity.mob.ZombifiedPiglinEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Entity lookups shared by every bot in a world.
+ * <p>
+ * Area queries go through the section based entity lookup of the world rather than iterating every entity,
+ * and every result is kept until the world time changes, so a hundred bots standing in the same area
+ * only pay for one lookup per tick. Queries are snapped to chunk sections, which means a result may contain
+ * entities up to a section further than requested; callers that care about the exact distance check it themselves.
+ * <p>
+ * This is only meant to be used from the server thread.
+ *
+ * @see WorldData#entityQueries
+ */
+public final class EntityQueries {
+
+    private final Map<Query, List<? extends Entity>> cache = new HashMap<>();
+    private List<Entity> allEntities;
+    private long cachedTime = Long.MIN_VALUE;
+
+    /**
+     * @param world  The world to look in
+     * @param center The point around which to look
+     * @param radius The distance from {@code center} in blocks, on each axis, or -1 for no limit
+     * @return The mobs around the given point that a bot should stay away from
+     */
+    @SuppressWarnings("unchecked")
+    public List<MobEntity> hostilesNear(ServerWorld world, BlockPos center, int radius) {
+        return (List<MobEntity>) query(world, new Query(Kind.HOSTILE, center, radius));
+    }
+
+    /**
+     * @param world  The world to look in
+     * @param center The point around which to look
+     * @param radius The distance from {@code center} in blocks, on each axis, or -1 for no limit
+     * @param filter Which items to keep, applied to the shared result
+     * @return The dropped items around the given point that match the filter
+     */
+    @SuppressWarnings("unchecked")
+    public List<ItemEntity> itemsNear(ServerWorld world, BlockPos center, int radius, Predicate<? super ItemEntity> filter) {
+        List<ItemEntity> items = (List<ItemEntity>) query(world, new Query(Kind.ITEM, center, radius));
+        List<ItemEntity> ret = new ArrayList<>();
+        for (ItemEntity item : items) {
+            if (filter.test(item)) {
+                ret.add(item);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Entities that can be followed are not bound to an area, so this walks a per tick copy of the entities of the world.
+     *
+     * @param world  The world to look in
+     * @param filter Which entities to keep
+     * @return Every living entity of the world matching the filter
+     */
+    public List<Entity> matching(ServerWorld world, Predicate<? super Entity> filter) {
+        refresh(world);
+        List<Entity> ret = new ArrayList<>();
+        for (Entity entity : allEntities(world)) {
+            if (filter.test(entity)) {
+                ret.add(entity);
+            }
+        }
+        return ret;
+    }
+
+    private List<? extends Entity> query(ServerWorld world, Query query) {
+        refresh(world);
+        List<? extends Entity> result = cache.get(query);
+        if (result == null) {
+            if (query.radius < 0) {
+                result = Collections.unmodifiableList(everywhere(world, query.kind));
+            } else {
+                result = Collections.unmodifiableList(query.kind == Kind.HOSTILE
+                        ? world.getEntitiesByClass(MobEntity.class, query.box(), EntityQueries::isHostile)
+                        : world.getEntitiesByClass(ItemEntity.class, query.box(), Entity::isAlive));
+            }
+            cache.put(query, result);
+        }
+        return result;
+    }
+
+    /**
+     * Without a radius, the per tick copy of the entities of the world is filtered instead
+     */
+    private List<Entity> everywhere(ServerWorld world, Kind kind) {
+        List<Entity> ret = new ArrayList<>();
+        for (Entity entity : allEntities(world)) {
+            if (kind == Kind.HOSTILE ? entity instanceof MobEntity && isHostile((MobEntity) entity) : entity instanceof ItemEntity) {
+                ret.add(entity);
+            }
+        }
+        return ret;
+    }
+
+    private List<Entity> allEntities(ServerWorld world) {
+        if (allEntities == null) {
+            List<Entity> entities = new ArrayList<>();
+            for (Entity entity : world.iterateEntities()) {
+                if (entity.isAlive()) {
+                    entities.add(entity);
+                }
+            }
+            allEntities = entities;
+        }
+        return allEntities;
+    }
+
+    private void refresh(ServerWorld world) {
+        long time = world.getTime();
+        if (time != cachedTime) {
+            cachedTime = time;
+            cache.clear();
+            allEntities = null;
+        }
+    }
+
+    private static boolean isHostile(MobEntity entity) {
+        if (entity instanceof SpiderEntity && entity.getBrightnessAtEyes() >= 0.5) {
+            return false;
+        }
+        if (entity instanceof ZombifiedPiglinEntity && entity.getAttacker() == null) {
+            return false;
+        }
+        return !(entity instanceof EndermanEntity) || ((EndermanEntity) entity).isAngry();
+    }
+
+    private enum Kind {
+        HOSTILE,
+        ITEM
+    }
+
+    private static final class Query {
+        private final Kind kind;
+        private final int sectionX;
+        private final int sectionY;
+        private final int sectionZ;
+        private final int radius;
+
+        private Query(Kind kind, BlockPos center, int radius) {
+            this.kind = kind;
+            // without a radius the center doesn't matter, every bot shares the same result
+            boolean bounded = radius >= 0;
+            this.sectionX = bounded ? ChunkSectionPos.getSectionCoord(center.getX()) : 0;
+            this.sectionY = bounded ? ChunkSectionPos.getSectionCoord(center.getY()) : 0;
+            this.sectionZ = bounded ? ChunkSectionPos.getSectionCoord(center.getZ()) : 0;
+            this.radius = bounded ? radius : -1;
+        }
+
+        private Box box() {
+            // the whole center section, grown by the radius
+            return new Box(
+                    ChunkSectionPos.getBlockCoord(sectionX) - radius,
+                    ChunkSectionPos.getBlockCoord(sectionY) - radius,
+                    ChunkSectionPos.getBlockCoord(sectionZ) - radius,
+                    ChunkSectionPos.getBlockCoord(sectionX + 1) + radius,
+                    ChunkSectionPos.getBlockCoord(sectionY + 1) + radius,
+                    ChunkSectionPos.getBlockCoord(sectionZ + 1) + radius
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Query query = (Query) o;
+            return kind == query.kind && sectionX == query.sectionX && sectionY == query.sectionY && sectionZ == query.sectionZ && radius == query.radius;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, sectionX, sectionY, sectionZ, radius);
+        }
+    }
+}
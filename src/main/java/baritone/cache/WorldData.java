@@ -17,14 +17,19 @@
 
 package baritone.cache;
 
-import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IContainerMemory;
 import baritone.api.cache.IWaypointCollection;
 import baritone.api.cache.IWorldData;
+import baritone.pathing.calc.PathCache;
+import baritone.pathing.calc.hierarchy.SectionGraph;
+import baritone.utils.BaritoneMetrics;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.registry.RegistryKey;
 import net.minecraft.world.World;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Data about a world, from baritone's point of view. Includes cached chunks, waypoints, and map data.
  *
@@ -34,13 +39,50 @@ public class WorldData implements IWorldData {
 
     private final WaypointCollection waypoints;
     private final ContainerMemory containerMemory;
+    public final ChunkSnapshotCache chunkSnapshots;
+    public final EntityQueries entityQueries;
+    public final BlockLocationIndex blockIndex;
+    public final CachedWorld cachedWorld;
+    public final SectionGraph sectionGraph;
+    public final PathCache pathCache;
+    public final BaritoneMetrics metrics;
     //public final MapData map;
     public final RegistryKey<World> dimension;
+    private final List<BlockChangeListener> blockChangeListeners = new CopyOnWriteArrayList<>();
 
-    WorldData(RegistryKey<World> dimension) {
+    WorldData(World world) {
         this.waypoints = new WaypointCollection();
         this.containerMemory = new ContainerMemory();
-        this.dimension = dimension;
+        this.chunkSnapshots = new ChunkSnapshotCache();
+        this.entityQueries = new EntityQueries();
+        this.blockIndex = new BlockLocationIndex();
+        this.cachedWorld = new CachedWorld(world);
+        this.sectionGraph = new SectionGraph(this);
+        this.pathCache = new PathCache(this);
+        this.metrics = new BaritoneMetrics(null);
+        this.dimension = world.getRegistryKey();
+    }
+
+    /**
+     * Called on the server thread whenever a block of this world changes
+     */
+    public void onBlockChange(World world, int x, int y, int z) {
+        this.chunkSnapshots.onBlockChange(world, x, y, z);
+        this.blockIndex.onBlockChange(world, x, y, z);
+        for (BlockChangeListener listener : blockChangeListeners) {
+            listener.onBlockChange(x, y, z);
+        }
+    }
+
+    /**
+     * Listeners are called on the server thread, and must be removed once they are not needed anymore
+     */
+    public void addBlockChangeListener(BlockChangeListener listener) {
+        this.blockChangeListeners.add(listener);
+    }
+
+    public void removeBlockChangeListener(BlockChangeListener listener) {
+        this.blockChangeListeners.remove(listener);
     }
 
     public void readFromNbt(NbtCompound tag) {
@@ -51,11 +93,13 @@ public class WorldData implements IWorldData {
     public void writeToNbt(NbtCompound tag) {
         tag.put("containers", containerMemory.toNbt());
         tag.put("waypoints", waypoints.toNbt());
+        // the cache lives in its own files, but it gets saved along with everything else
+        this.cachedWorld.save();
     }
 
     @Override
-    public ICachedWorld getCachedWorld() {
-        throw new UnsupportedOperationException();
+    public CachedWorld getCachedWorld() {
+        return this.cachedWorld;
     }
 
     @Override
@@ -67,4 +111,14 @@ public class WorldData implements IWorldData {
     public IContainerMemory getContainerMemory() {
         return this.containerMemory;
     }
+
+    @Override
+    public BaritoneMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @FunctionalInterface
+    public interface BlockChangeListener {
+        void onBlockChange(int x, int y, int z);
+    }
 }
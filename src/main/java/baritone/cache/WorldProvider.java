@@ -29,7 +29,7 @@ public class WorldProvider implements IWorldProvider {
     private final WorldData currentWorld;
 
     public WorldProvider(World world) {
-        this.currentWorld = new WorldData(world.getRegistryKey());
+        this.currentWorld = new WorldData(world);
     }
 
     @Override
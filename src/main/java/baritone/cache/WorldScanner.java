@@ -21,46 +21,80 @@ import baritone.api.cache.IWorldScanner;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.BlockOptionalMetaLookup;
 import baritone.api.utils.IEntityContext;
+import baritone.utils.accessor.PalettedContainerAccessor;
+import baritone.utils.accessor.PalettedContainerDataAccessor;
 import baritone.utils.accessor.ServerChunkManagerAccessor;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.block.BlockState;
 import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.collection.PaletteStorage;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.*;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
+/**
+ * Finds blocks in loaded chunks without asking every position for its block state
+ * <p>
+ * A section stores the index of each block state in its palette, so the filter is tested once per palette entry, and
+ * the packed indices are then tested against the resulting bitmask. Chunks at the same distance from the player are
+ * scanned in parallel, and hits are kept as {@linkplain BlockPos#asLong() packed positions} until they are returned.
+ */
 public enum WorldScanner implements IWorldScanner {
 
     INSTANCE;
 
     public static final int SECTION_HEIGHT = 16;
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+    /**
+     * Below this many chunks at a given distance, handing them to other threads costs more than it saves
+     */
+    private static final int MIN_PARALLEL_CHUNKS = 4;
     private static final int[] DEFAULT_COORDINATE_ITERATION_ORDER = IntStream.range(0, 16).toArray();
 
     @Override
     public List<BlockPos> scanChunkRadius(IEntityContext ctx, BlockOptionalMetaLookup filter, int max, int yLevelThreshold, int maxSearchRadius) {
-        ArrayList<BlockPos> res = new ArrayList<>();
+        return unpack(scanChunkRadiusPacked(ctx, filter, max, yLevelThreshold, maxSearchRadius));
+    }
+
+    /**
+     * {@link #scanChunkRadius(IEntityContext, BlockOptionalMetaLookup, int, int, int)}, without creating a
+     * {@link BlockPos} for every hit
+     *
+     * @return The positions that were found, {@linkplain BlockPos#asLong() packed}
+     */
+    public LongArrayList scanChunkRadiusPacked(IEntityContext ctx, BlockOptionalMetaLookup filter, int max, int yLevelThreshold, int maxSearchRadius) {
+        LongArrayList res = new LongArrayList();
 
         if (filter.blocks().isEmpty()) {
             return res;
         }
         ServerChunkManagerAccessor chunkProvider = (ServerChunkManagerAccessor) ctx.world().getChunkManager();
+        PaletteFilter paletteFilter = new PaletteFilter(filter);
 
         int maxSearchRadiusSq = maxSearchRadius * maxSearchRadius;
         int playerChunkX = ctx.feetPos().getX() >> 4;
         int playerChunkZ = ctx.feetPos().getZ() >> 4;
         int playerY = ctx.feetPos().getY();
 
-        int playerYBlockStateContainerIndex = playerY >> 4;
+        int playerYBlockStateContainerIndex = (playerY >> 4) - ctx.world().getBottomSectionCoord();
         int[] coordinateIterationOrder = streamSectionY(ctx.world()).boxed().sorted(Comparator.comparingInt(y -> Math.abs(y - playerYBlockStateContainerIndex))).mapToInt(x -> x).toArray();
 
+        List<Chunk> ring = new ArrayList<>();
         int searchRadiusSq = 0;
         boolean foundWithinY = false;
         while (true) {
             boolean allUnloaded = true;
             boolean foundChunks = false;
+            ring.clear();
+            // chunks are looked up here, only the scanning is handed out
             for (int xoff = -searchRadiusSq; xoff <= searchRadiusSq; xoff++) {
                 for (int zoff = -searchRadiusSq; zoff <= searchRadiusSq; zoff++) {
                     int distance = xoff * xoff + zoff * zoff;
@@ -68,16 +102,24 @@ public enum WorldScanner implements IWorldScanner {
                         continue;
                     }
                     foundChunks = true;
-                    int chunkX = xoff + playerChunkX;
-                    int chunkZ = zoff + playerChunkZ;
-                    Chunk chunk = chunkProvider.automatone$getChunkNow(chunkX, chunkZ);
+                    Chunk chunk = chunkProvider.automatone$getChunkNow(xoff + playerChunkX, zoff + playerChunkZ);
                     if (chunk == null) {
                         continue;
                     }
                     allUnloaded = false;
-                    if (scanChunkInto(chunkX << 4, chunkZ << 4, chunk, filter, res, max, yLevelThreshold, playerY, coordinateIterationOrder)) {
-                        foundWithinY = true;
-                    }
+                    ring.add(chunk);
+                }
+            }
+            LongArrayList[] hits = new LongArrayList[ring.size()];
+            IntStream chunks = IntStream.range(0, hits.length);
+            if (hits.length >= MIN_PARALLEL_CHUNKS) {
+                chunks = chunks.parallel();
+            }
+            chunks.forEach(i -> hits[i] = scanSections(ring.get(i), paletteFilter, coordinateIterationOrder));
+            // merged in the order the chunks were found, so that the result is the same as scanning them one by one
+            for (LongArrayList chunkHits : hits) {
+                if (addHits(chunkHits, res, max, yLevelThreshold, playerY)) {
+                    foundWithinY = true;
                 }
             }
             if ((allUnloaded && foundChunks)
@@ -104,15 +146,33 @@ public enum WorldScanner implements IWorldScanner {
             return Collections.emptyList();
         }
 
-        ArrayList<BlockPos> res = new ArrayList<>();
-        scanChunkInto(pos.x << 4, pos.z << 4, chunk, filter, res, max, yLevelThreshold, playerY, streamSectionY(ctx.world()).toArray());
-        return res;
+        LongArrayList res = new LongArrayList();
+        addHits(scanSections(chunk, new PaletteFilter(filter), streamSectionY(ctx.world()).toArray()), res, max, yLevelThreshold, playerY);
+        return unpack(res);
+    }
+
+    /**
+     * Scans a single chunk without any cutoff, for callers that go through chunks at their own pace
+     *
+     * @param filter The filter to scan for, which can be shared by every chunk of a search
+     * @return Every position of the chunk that matches, {@linkplain BlockPos#asLong() packed}, bottom section first
+     */
+    public LongArrayList scanChunkPacked(Chunk chunk, PaletteFilter filter) {
+        return scanSections(chunk, filter, IntStream.range(0, chunk.getSectionArray().length).toArray());
     }
 
     private IntStream streamSectionY(ServerWorld world) {
         return IntStream.range(0, world.getHeight() / SECTION_HEIGHT);
     }
 
+    private static List<BlockPos> unpack(LongArrayList packed) {
+        List<BlockPos> res = new ArrayList<>(packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            res.add(BlockPos.fromLong(packed.getLong(i)));
+        }
+        return res;
+    }
+
     @Override
     public int repack(IEntityContext ctx) {
         return this.repack(ctx, 40);
@@ -146,48 +206,167 @@ public enum WorldScanner implements IWorldScanner {
         return queued;
     }
 
-    private boolean scanChunkInto(int chunkX, int chunkZ, Chunk chunk, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder) {
-        ChunkSection[] chunkInternalStorageArray = chunk.getSectionArray();
+    /**
+     * Adds the hits of a chunk to the result, stopping once the result is full and the chunk has had hits both within
+     * and outside the Y level threshold
+     *
+     * @return Whether a hit within the Y level threshold was found after the result was full
+     */
+    private static boolean addHits(LongArrayList hits, LongArrayList result, int max, int yLevelThreshold, int playerY) {
         boolean foundWithinY = false;
+        for (int i = 0; i < hits.size(); i++) {
+            long hit = hits.getLong(i);
+            if (result.size() >= max) {
+                if (Math.abs(BlockPos.unpackLongY(hit) - playerY) < yLevelThreshold) {
+                    foundWithinY = true;
+                } else {
+                    if (foundWithinY) {
+                        // have found within Y in this chunk, so don't need to consider outside Y
+                        // TODO continue iteration to one more sorted Y coordinate block
+                        return true;
+                    }
+                }
+            }
+            result.add(hit);
+        }
+        return foundWithinY;
+    }
+
+    /**
+     * @return Every position of the chunk that matches the filter, section by section in the given order
+     */
+    private static LongArrayList scanSections(Chunk chunk, PaletteFilter filter, int[] coordinateIterationOrder) {
+        ChunkSection[] chunkInternalStorageArray = chunk.getSectionArray();
         if (chunkInternalStorageArray.length != coordinateIterationOrder.length) {
             throw new IllegalStateException("Unexpected number of sections in chunk (expected " + coordinateIterationOrder.length + ", got " + chunkInternalStorageArray.length + ")");
         }
-        for (int yIndex = 0; yIndex < chunkInternalStorageArray.length; yIndex++) {
-            int y0 = coordinateIterationOrder[yIndex];
+        int chunkX = chunk.getPos().x << 4;
+        int chunkZ = chunk.getPos().z << 4;
+        LongArrayList hits = new LongArrayList();
+        for (int y0 : coordinateIterationOrder) {
             ChunkSection section = chunkInternalStorageArray[y0];
             if (section == null || section.isEmpty()) {
                 continue;
             }
+            // palette and storage are replaced together when the palette grows, so they are read at once
+            @SuppressWarnings("unchecked")
+            PalettedContainerDataAccessor<BlockState> data = ((PalettedContainerAccessor<BlockState>) section.getBlockStateContainer()).automatone$getData();
+            scanSection(data, filter, chunkX, section.getYOffset(), chunkZ, hits);
+        }
+        return hits;
+    }
+
+    /**
+     * Adds every position of a section that matches the filter to the hits
+     *
+     * @param data     The palette and storage of the section, read at once
+     * @param chunkX   The lowest X coordinate of the section
+     * @param sectionY The lowest Y coordinate of the section
+     * @param chunkZ   The lowest Z coordinate of the section
+     */
+    static void scanSection(PalettedContainerDataAccessor<BlockState> data, PaletteFilter filter, int chunkX, int sectionY, int chunkZ, LongArrayList hits) {
+        long[] paletteMask = filter.mask(data.automatone$getPalette());
+        if (paletteMask == null) {
             // No need to waste CPU cycles if the section does not contain any block of the right kind
-            // PERF: maybe check the size of the palette too ? Like if there are as many states as positions in the chunk, scanning both is redundant
-            if (!section.hasAny(filter::has)) {
-                continue;
+            return;
+        }
+        scanStorage(data.automatone$getStorage(), paletteMask, i -> hits.add(pack(chunkX, sectionY, chunkZ, i)));
+    }
+
+    /**
+     * Tests every palette index of a section against the mask of the palette entries that match
+     * <p>
+     * Indices are ordered by Y, then Z, then X, and in 1.18 they never straddle two longs of the packed array, so every
+     * long holds {@code 64 / bits} of them starting from its lowest bit.
+     *
+     * @param storage     The storage read along with the palette of the mask
+     * @param paletteMask The mask {@linkplain PaletteFilter#mask(Palette) built} for that palette
+     * @param hits        Given the index of every position that matches
+     */
+    static void scanStorage(PaletteStorage storage, long[] paletteMask, IntConsumer hits) {
+        int bits = storage.getElementBits();
+        if (bits == 0) {
+            // a single block state, which matched or the section would have been skipped
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                hits.accept(i);
             }
-            int yReal = y0 << 4;
-            PalettedContainer<BlockState> bsc = section.getBlockStateContainer();
-            for (int yy = 0; yy < 16; yy++) {
-                for (int z = 0; z < 16; z++) {
-                    for (int x = 0; x < 16; x++) {
-                        BlockState state = bsc.get(x, yy, z);
-                        if (filter.has(state)) {
-                            int y = yReal | yy;
-                            if (result.size() >= max) {
-                                if (Math.abs(y - playerY) < yLevelThreshold) {
-                                    foundWithinY = true;
-                                } else {
-                                    if (foundWithinY) {
-                                        // have found within Y in this chunk, so don't need to consider outside Y
-                                        // TODO continue iteration to one more sorted Y coordinate block
-                                        return true;
-                                    }
-                                }
-                            }
-                            result.add(new BlockPos(chunkX | x, y, chunkZ | z));
-                        }
+        } else if (storage instanceof PackedIntegerArray) {
+            long[] words = storage.getData();
+            int perWord = 64 / bits;
+            long elementMask = (1L << bits) - 1;
+            int i = 0;
+            for (long word : words) {
+                for (int j = 0; j < perWord && i < SECTION_VOLUME; j++, i++) {
+                    int id = (int) (word & elementMask);
+                    word >>>= bits;
+                    if ((paletteMask[id >>> 6] & (1L << id)) != 0) {
+                        hits.accept(i);
                     }
                 }
             }
+        } else {
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                int id = storage.get(i);
+                if ((paletteMask[id >>> 6] & (1L << id)) != 0) {
+                    hits.accept(i);
+                }
+            }
+        }
+    }
+
+    private static long pack(int chunkX, int sectionY, int chunkZ, int index) {
+        return BlockPos.asLong(chunkX | (index & 15), sectionY | (index >>> 8), chunkZ | ((index >>> 4) & 15));
+    }
+
+    /**
+     * A filter turned into bitmasks of palette entries, one section at a time
+     * <p>
+     * Sections using the global palette all share the same mask, which is only built if one of them is scanned.
+     */
+    public static final class PaletteFilter {
+        private final Predicate<BlockState> filter;
+        private volatile long[] globalMask;
+
+        public PaletteFilter(BlockOptionalMetaLookup filter) {
+            this(filter::has);
+        }
+
+        PaletteFilter(Predicate<BlockState> filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * @return Which entries of the palette match the filter, or {@code null} if none does
+         */
+        @Nullable long[] mask(Palette<BlockState> palette) {
+            if (palette instanceof IdListPalette) {
+                long[] mask = this.globalMask;
+                if (mask == null) {
+                    // racing threads build the same mask
+                    this.globalMask = mask = build(palette);
+                }
+                return mask.length == 0 ? null : mask;
+            }
+            long[] mask = build(palette);
+            return mask.length == 0 ? null : mask;
+        }
+
+        /**
+         * @return The mask, empty if no entry matches
+         */
+        private long[] build(Palette<BlockState> palette) {
+            int size = palette.getSize();
+            // room for every index of a local palette, which may grow while its section is being scanned
+            long[] mask = new long[Math.max(256 >>> 6, (size + 63) >>> 6)];
+            boolean any = false;
+            for (int id = 0; id < size; id++) {
+                BlockState state = palette.get(id);
+                if (state != null && filter.test(state)) {
+                    mask[id >>> 6] |= 1L << id;
+                    any = true;
+                }
+            }
+            return any ? mask : new long[0];
         }
-        return foundWithinY;
     }
 }
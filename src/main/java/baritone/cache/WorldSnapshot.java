@@ -0,0 +1,89 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable view of the chunks around an entity, along with whether it is allowed to modify each block column,
+ * so that a path calculation never has to touch the live world from its worker thread.
+ *
+ * @see ChunkSnapshotCache#capture
+ */
+public final class WorldSnapshot {
+
+    private final Long2ObjectOpenHashMap<ChunkSnapshot> chunks;
+
+    /**
+     * One bit per block column of each chunk that has at least one protected column, indexed by {@code (x & 15) << 4 | (z & 15)}
+     */
+    private final Long2ObjectOpenHashMap<long[]> protectedColumns;
+
+    /**
+     * The loaded chunks that weren't copied yet when this was taken, none of them is in the maps above
+     */
+    private final Long2ObjectOpenHashMap<ChunkSnapshotCache.PendingChunk> pending;
+
+    final int centerX;
+    final int centerZ;
+    final int radius;
+    final int modCount;
+    final long captureTime;
+
+    WorldSnapshot(Long2ObjectOpenHashMap<ChunkSnapshot> chunks, Long2ObjectOpenHashMap<long[]> protectedColumns, Long2ObjectOpenHashMap<ChunkSnapshotCache.PendingChunk> pending, int centerX, int centerZ, int radius, int modCount, long captureTime) {
+        this.chunks = chunks;
+        this.protectedColumns = protectedColumns;
+        this.pending = pending;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.modCount = modCount;
+        this.captureTime = captureTime;
+    }
+
+    /**
+     * Chunks that weren't copied yet count as not loaded, see {@link ChunkSnapshotCache.PendingChunk}
+     *
+     * @return The snapshot of the chunk at the given chunk coordinates, or null if it was not loaded, not copied yet or too far away
+     */
+    public @Nullable ChunkSnapshot getChunk(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        ChunkSnapshot chunk = chunks.get(key);
+        if (chunk == null) {
+            ChunkSnapshotCache.PendingChunk later = pending.get(key);
+            return later == null ? null : later.get();
+        }
+        return chunk;
+    }
+
+    public boolean isProtected(int x, int z) {
+        long key = ChunkPos.toLong(x >> 4, z >> 4);
+        long[] columns = protectedColumns.get(key);
+        if (columns == null) {
+            ChunkSnapshotCache.PendingChunk later = pending.get(key);
+            columns = later == null ? null : later.getProtectedColumns();
+        }
+        if (columns == null) {
+            return false;
+        }
+        int index = (x & 15) << 4 | (z & 15);
+        return (columns[index >> 6] & (1L << index)) != 0;
+    }
+}
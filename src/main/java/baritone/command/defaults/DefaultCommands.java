@@ -71,6 +71,7 @@ public final class DefaultCommands {
                 new PathCommand(),
                 new ProcCommand(),
                 new ETACommand(),
+                new StatsCommand(),
                 new VersionCommand(),
                 new RepackCommand(),
                 new BuildCommand(),
@@ -17,31 +17,146 @@
 
 package baritone.command.defaults;
 
+import baritone.Automatone;
 import baritone.api.IBaritone;
 import baritone.api.command.Command;
+import baritone.api.command.argument.IArgConsumer;
 import baritone.api.command.datatypes.BlockById;
 import baritone.api.command.exception.CommandException;
-import baritone.api.command.argument.IArgConsumer;
+import baritone.api.command.exception.CommandInvalidStateException;
+import baritone.api.command.helpers.Paginator;
+import baritone.api.command.helpers.TabCompleteHelper;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.BlockOptionalMetaLookup;
+import baritone.api.utils.BlockUtils;
+import baritone.cache.WorldScanner;
+import baritone.utils.PathingScheduler;
+import baritone.utils.accessor.ServerChunkManagerAccessor;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import net.minecraft.block.Block;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.BaseText;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.HoverEvent;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.WorldChunk;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Stream;
 
+import static baritone.api.command.IBaritoneChatControl.FORCE_COMMAND_PREFIX;
+
 public class FindCommand extends Command {
 
+    private static final int DEFAULT_RADIUS = 128;
+    private static final int DEFAULT_LIMIT = 256;
+    /**
+     * Past this, the chunks are not going to be loaded anyway, a bigger radius would only have the search go around
+     * empty rings
+     */
+    private static final int MAX_RADIUS = 1024;
+    private static final int PAGE_SIZE = 8;
+    /**
+     * How many chunk positions a worker goes through, loaded or not, before the rest of the search goes back to the
+     * scheduler, so that it takes turns with path calculations
+     */
+    private static final int CHUNKS_PER_STEP = 64;
+
+    /**
+     * The last search of every bot, kept once done so that its results can be paged through
+     */
+    private final Map<IBaritone, Search> searches = Collections.synchronizedMap(new WeakHashMap<>());
+
     public FindCommand() {
         super("find");
     }
 
     @Override
     public void execute(ServerCommandSource source, String label, IArgConsumer args, IBaritone baritone) throws CommandException {
-        throw new UnsupportedOperationException();
+        args.requireMin(1);
+        String action = args.peekString();
+        if (action.equalsIgnoreCase("cancel")) {
+            args.get();
+            args.requireMax(0);
+            Search search = searches.get(baritone);
+            if (search == null || search.isDone()) {
+                throw new CommandInvalidStateException("No search is running");
+            }
+            // kept, what it found before being cancelled can still be listed
+            search.cancel();
+            logDirect(source, "Search cancelled");
+            return;
+        }
+        if (action.equalsIgnoreCase("page")) {
+            args.get();
+            Search search = searches.get(baritone);
+            if (search == null) {
+                throw new CommandInvalidStateException("Nothing was searched for yet");
+            }
+            Paginator.paginate(
+                    args,
+                    new Paginator<>(source, search.getResults()).setPageSize(PAGE_SIZE),
+                    () -> logDirect(source, search.describe()),
+                    this::toComponent,
+                    String.format("%s%s page", FORCE_COMMAND_PREFIX, label)
+            );
+            return;
+        }
+        Block block = args.getDatatypeFor(BlockById.INSTANCE);
+        int radius = args.getAsOrDefault(Integer.class, DEFAULT_RADIUS);
+        int limit = args.getAsOrDefault(Integer.class, DEFAULT_LIMIT);
+        args.requireMax(0);
+        if (radius < 1 || limit < 1) {
+            throw new CommandInvalidStateException("The radius and the limit must be positive");
+        }
+        radius = Math.min(radius, MAX_RADIUS);
+        ServerWorld world = baritone.getPlayerContext().world();
+        Search search = new Search(source, label, world, block, baritone.getPlayerContext().feetPos(), radius, limit);
+        Search previous = searches.put(baritone, search);
+        if (previous != null) {
+            previous.cancel();
+        }
+        logDirect(source, String.format("Looking for %s within %d blocks", BlockUtils.blockToString(block), radius));
+        search.submit();
+    }
+
+    private Text toComponent(BetterBlockPos pos) {
+        BaseText component = new LiteralText(String.format("%d %d %d", pos.x, pos.y, pos.z));
+        component.setStyle(component.getStyle()
+                .withFormatting(Formatting.GRAY)
+                .withHoverEvent(new HoverEvent(
+                        HoverEvent.Action.SHOW_TEXT,
+                        new LiteralText("Click to go there")
+                ))
+                .withClickEvent(new ClickEvent(
+                        ClickEvent.Action.RUN_COMMAND,
+                        String.format("%sgoto %d %d %d", FORCE_COMMAND_PREFIX, pos.x, pos.y, pos.z)
+                )));
+        return component;
     }
 
     @Override
-    public Stream<String> tabComplete(String label, IArgConsumer args) {
-        return args.tabCompleteDatatype(BlockById.INSTANCE);
+    public Stream<String> tabComplete(String label, IArgConsumer args) throws CommandException {
+        if (args.hasExactlyOne()) {
+            return Stream.concat(
+                    new TabCompleteHelper()
+                            .append("page", "cancel")
+                            .filterPrefix(args.peekString())
+                            .stream(),
+                    args.tabCompleteDatatype(BlockById.INSTANCE)
+            );
+        }
+        return Stream.empty();
     }
 
     @Override
@@ -52,10 +167,205 @@ public class FindCommand extends Command {
     @Override
     public List<String> getLongDesc() {
         return Arrays.asList(
+                "The find command looks for a block in the loaded chunks around the bot, nearest chunks first.",
                 "",
+                "The search runs in the background, results show up as they are found. Click one to go there.",
                 "",
                 "Usage:",
-                "> "
+                "> find <block> - Find up to " + DEFAULT_LIMIT + " positions of a block within " + DEFAULT_RADIUS + " blocks.",
+                "> find <block> <radius> [limit] - Find up to limit positions of a block within radius blocks, at most " + MAX_RADIUS + ".",
+                "> find page [page] - List what the last search found so far.",
+                "> find cancel - Stop the running search."
         );
     }
+
+    /**
+     * A search that goes around the start position a ring of chunks at a time, a few chunks per turn on the
+     * scheduler, and hands what it finds to the server thread to be shown
+     */
+    private final class Search {
+        private final ServerCommandSource source;
+        private final String label;
+        private final ServerWorld world;
+        private final String blockName;
+        private final WorldScanner.PaletteFilter filter;
+        private final BetterBlockPos center;
+        private final int radius;
+        private final int radiusChunks;
+        private final int limit;
+        private final LongArrayList results = new LongArrayList();
+        /**
+         * Where the search is at, the {@code chunkIndex}th chunk going around the {@code ring}th ring
+         */
+        private int ring;
+        private int chunkIndex;
+        /**
+         * Whether any chunk of the current ring was loaded, a ring with none means the loaded area ends there
+         */
+        private boolean ringLoaded;
+        private int shown;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Search(ServerCommandSource source, String label, ServerWorld world, Block block, BetterBlockPos center, int radius, int limit) {
+            this.source = source;
+            this.label = label;
+            this.world = world;
+            this.blockName = BlockUtils.blockToString(block);
+            this.filter = new WorldScanner.PaletteFilter(new BlockOptionalMetaLookup(world, block));
+            this.center = center;
+            this.radius = radius;
+            this.radiusChunks = (radius >> 4) + 1;
+            this.limit = limit;
+        }
+
+        private void submit() {
+            Automatone.getScheduler().submit(this, "find", PathingScheduler.Priority.NORMAL, this::step);
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+        }
+
+        private boolean isDone() {
+            return done || cancelled;
+        }
+
+        /**
+         * Runs on a worker thread, chunks are looked up without going through the server thread like the scanners do
+         */
+        private void step() {
+            if (cancelled) {
+                return;
+            }
+            ServerChunkManagerAccessor chunkProvider = (ServerChunkManagerAccessor) world.getChunkManager();
+            int centerChunkX = center.x >> 4;
+            int centerChunkZ = center.z >> 4;
+            long radiusSq = (long) radius * radius;
+            int remaining;
+            synchronized (results) {
+                remaining = limit - results.size();
+            }
+            LongArrayList found = new LongArrayList();
+            int visited = 0;
+            boolean outOfLoaded = false;
+            while (ring <= radiusChunks && visited < CHUNKS_PER_STEP && found.size() < remaining && !outOfLoaded && !cancelled) {
+                visited++;
+                int side = ring == 0 ? 0 : chunkIndex / (2 * ring);
+                int along = ring == 0 ? 0 : chunkIndex % (2 * ring);
+                int xoff;
+                int zoff;
+                switch (side) {
+                    case 0:
+                        xoff = -ring + along;
+                        zoff = -ring;
+                        break;
+                    case 1:
+                        xoff = ring;
+                        zoff = -ring + along;
+                        break;
+                    case 2:
+                        xoff = ring - along;
+                        zoff = ring;
+                        break;
+                    default:
+                        xoff = -ring;
+                        zoff = ring - along;
+                        break;
+                }
+                WorldChunk chunk = chunkProvider.automatone$getChunkNow(centerChunkX + xoff, centerChunkZ + zoff);
+                if (++chunkIndex >= Math.max(1, 8 * ring)) {
+                    outOfLoaded = !ringLoaded && chunk == null;
+                    ring++;
+                    chunkIndex = 0;
+                    ringLoaded = false;
+                } else if (chunk != null) {
+                    ringLoaded = true;
+                }
+                if (chunk == null) {
+                    continue;
+                }
+                LongArrayList hits = WorldScanner.INSTANCE.scanChunkPacked(chunk, filter);
+                for (int i = 0; i < hits.size() && found.size() < remaining; i++) {
+                    long hit = hits.getLong(i);
+                    long dx = BlockPos.unpackLongX(hit) - center.x;
+                    long dz = BlockPos.unpackLongZ(hit) - center.z;
+                    if (dx * dx + dz * dz <= radiusSq) {
+                        found.add(hit);
+                    }
+                }
+            }
+            if (cancelled) {
+                return;
+            }
+            // chunks of a ring are not in order of distance, the positions they hold can at least be
+            LongArrays.quickSort(found.elements(), 0, found.size(), (a, b) -> Long.compare(distanceSq(a), distanceSq(b)));
+            boolean finished = ring > radiusChunks || found.size() >= remaining || outOfLoaded;
+            synchronized (results) {
+                results.addAll(found);
+            }
+            if (finished) {
+                done = true;
+            } else {
+                submit();
+            }
+            if (!found.isEmpty() || finished) {
+                source.getServer().execute(() -> report(found, finished));
+            }
+        }
+
+        private long distanceSq(long pos) {
+            long dx = BlockPos.unpackLongX(pos) - center.x;
+            long dy = BlockPos.unpackLongY(pos) - center.y;
+            long dz = BlockPos.unpackLongZ(pos) - center.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        /**
+         * Runs on the server thread, shows the first page as it fills up and nothing more than a summary after that
+         */
+        private void report(LongArrayList found, boolean finished) {
+            if (cancelled) {
+                return;
+            }
+            for (int i = 0; i < found.size() && shown < PAGE_SIZE; i++, shown++) {
+                logDirect(source, toComponent(BetterBlockPos.from(BlockPos.fromLong(found.getLong(i)))));
+            }
+            if (finished) {
+                int count;
+                synchronized (results) {
+                    count = results.size();
+                }
+                if (count <= shown) {
+                    logDirect(source, describe());
+                } else {
+                    BaseText more = new LiteralText(describe() + ", click to list them all");
+                    more.setStyle(more.getStyle().withClickEvent(new ClickEvent(
+                            ClickEvent.Action.RUN_COMMAND,
+                            String.format("%s%s page", FORCE_COMMAND_PREFIX, label)
+                    )));
+                    logDirect(source, more);
+                }
+            }
+        }
+
+        private String describe() {
+            int count;
+            synchronized (results) {
+                count = results.size();
+            }
+            String state = cancelled ? " (cancelled)" : done ? "" : " so far";
+            return String.format("Found %d %s within %d blocks of %s%s", count, blockName, radius, center, state);
+        }
+
+        private List<BetterBlockPos> getResults() {
+            List<BetterBlockPos> ret = new ArrayList<>();
+            synchronized (results) {
+                for (int i = 0; i < results.size(); i++) {
+                    ret.add(BetterBlockPos.from(BlockPos.fromLong(results.getLong(i))));
+                }
+            }
+            return ret;
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.command.defaults;
+
+import baritone.api.IBaritone;
+import baritone.api.command.Command;
+import baritone.api.command.argument.IArgConsumer;
+import baritone.api.command.exception.CommandException;
+import baritone.api.command.exception.CommandInvalidTypeException;
+import baritone.api.command.helpers.TabCompleteHelper;
+import baritone.api.utils.IBaritoneMetrics;
+import baritone.api.utils.PathCalculationResult;
+import net.minecraft.server.command.ServerCommandSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class StatsCommand extends Command {
+
+    public StatsCommand() {
+        super("stats");
+    }
+
+    @Override
+    public void execute(ServerCommandSource source, String label, IArgConsumer args, IBaritone baritone) throws CommandException {
+        args.requireMax(1);
+        IBaritoneMetrics metrics = baritone.getMetrics();
+        String scope = "this bot";
+        if (args.hasAny()) {
+            if (args.getString().equalsIgnoreCase("world")) {
+                metrics = baritone.getWorldProvider().getCurrentWorld().getMetrics();
+                scope = "every bot in this world";
+            } else {
+                throw new CommandInvalidTypeException(args.consumed(), "either \"world\" or nothing");
+            }
+        }
+        long searches = metrics.getSearchCount();
+        long firstSegments = metrics.getFirstSegmentCount();
+        StringBuilder cancellations = new StringBuilder();
+        for (IBaritoneMetrics.CancelReason reason : IBaritoneMetrics.CancelReason.values()) {
+            long count = metrics.getCancellations(reason);
+            if (count > 0) {
+                cancellations.append(String.format("\n\t%s: %d", reason.name().toLowerCase(), count));
+            }
+        }
+        logDirect(source, String.format(
+                "Stats for %s\n" +
+                "Searches: %d (%d to goal, %d segments, %d failed, %d cancelled, %d errors)\n" +
+                "Nodes expanded: %d, movements considered: %d\n" +
+                "Search time: %.1fms total, %.1fms average\n" +
+                "Time to first segment: %.1fms average over %d\n" +
+                "Cancellations: %d%s\n" +
+                "Tick time: %.1fms, deferred work: %d\n" +
+                "Executor tick time: %.1fms\n" +
+                "Process tick time: %.1fms\n" +
+                "Sync: %d bytes",
+                scope,
+                searches,
+                metrics.getSearchCount(PathCalculationResult.Type.SUCCESS_TO_GOAL),
+                metrics.getSearchCount(PathCalculationResult.Type.SUCCESS_SEGMENT),
+                metrics.getSearchCount(PathCalculationResult.Type.FAILURE),
+                metrics.getSearchCount(PathCalculationResult.Type.CANCELLATION),
+                metrics.getSearchCount(PathCalculationResult.Type.EXCEPTION),
+                metrics.getNodesExpanded(),
+                metrics.getMovementsConsidered(),
+                millis(metrics.getSearchNanos()),
+                searches == 0 ? 0 : millis(metrics.getSearchNanos()) / searches,
+                firstSegments == 0 ? 0 : millis(metrics.getFirstSegmentNanos()) / firstSegments,
+                firstSegments,
+                metrics.getCancellations(),
+                cancellations,
+                millis(metrics.getTickNanos()),
+                metrics.getDeferrals(),
+                millis(metrics.getExecutorTickNanos()),
+                millis(metrics.getProcessTickNanos()),
+                metrics.getSyncBytes()
+        ));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+
+    @Override
+    public Stream<String> tabComplete(String label, IArgConsumer args) throws CommandException {
+        if (args.hasExactlyOne()) {
+            return new TabCompleteHelper()
+                    .append("world")
+                    .filterPrefix(args.getString())
+                    .stream();
+        }
+        return Stream.empty();
+    }
+
+    @Override
+    public String getShortDesc() {
+        return "View pathing and tick time stats";
+    }
+
+    @Override
+    public List<String> getLongDesc() {
+        return Arrays.asList(
+                "The stats command shows how much pathing work was done and how much server tick time it took,",
+                "since the bot or the world was loaded.",
+                "",
+                "Usage:",
+                "> stats - View the stats of this bot",
+                "> stats world - View the stats of every bot in this world, added together"
+        );
+    }
+}
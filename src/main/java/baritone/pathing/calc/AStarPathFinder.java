@@ -29,6 +29,7 @@ import baritone.pathing.movement.Moves;
 import baritone.utils.pathing.BetterWorldBorder;
 import baritone.utils.pathing.Favoring;
 import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
 import java.util.Optional;
 
@@ -42,6 +43,17 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
     private final Favoring favoring;
     private final CalculationContext calcContext;
 
+    /**
+     * @see <a href="https://github.com/cabaletta/baritone/issues/107">Issue #107</a>
+     */
+    private Long2ObjectOpenHashMap<PathNode> map;
+
+    private PathNode startNode;
+
+    private PathNode mostRecentConsidered;
+
+    private final PathNode[] bestSoFar = new PathNode[COEFFICIENTS.length];
+
     public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
         super(startX, startY, startZ, goal, context);
         this.favoring = favoring;
@@ -49,25 +61,26 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
     }
 
     @Override
-    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+    protected Optional<IPath> calculate0(SearchArena arena, long primaryTimeout, long failureTimeout) {
+        map = arena.nodeMap();
         startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
         startNode.cost = 0;
         startNode.oxygenCost = calcContext.breathTime - calcContext.startingBreathTime;
         startNode.combinedCost = startNode.estimatedCostToGoal;
-        BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
+        BinaryHeapOpenSet openSet = arena.openSet();
         openSet.insert(startNode);
         double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
         for (int i = 0; i < bestHeuristicSoFar.length; i++) {
             bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
             bestSoFar[i] = startNode;
         }
-        MutableMoveResult res = new MutableMoveResult();
-        BetterWorldBorder worldBorder = new BetterWorldBorder(calcContext.world.getWorldBorder());
+        MutableMoveResult res = arena.moveResult();
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
         long startTime = System.currentTimeMillis();
-        Settings settings = calcContext.getBaritone().settings();
+        Settings settings = calcContext.settings;
         boolean slowPath = settings.slowPath.get();
         if (slowPath) {
-            calcContext.baritone.logDebug("slowPath is on, path timeout will be " + settings.slowPathTimeoutMS.get() + "ms instead of " + primaryTimeout + "ms");
+            calcContext.logDebug("slowPath is on, path timeout will be " + settings.slowPathTimeoutMS.get() + "ms instead of " + primaryTimeout + "ms");
         }
         long primaryTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : primaryTimeout);
         long failureTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : failureTimeout);
@@ -80,6 +93,7 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
         int pathingMaxChunkBorderFetch = settings.pathingMaxChunkBorderFetch.get(); // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
         double minimumImprovement = settings.minimumImprovementRepropagation.get() ? MIN_IMPROVEMENT : 0;
         Moves[] allMoves = Moves.values();
+        SearchTrace trace = this.trace;
         while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
             if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
                 long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
@@ -97,8 +111,12 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
             PathNode currentNode = openSet.removeLowest();
             mostRecentConsidered = currentNode;
             numNodes++;
+            if (trace != null) {
+                trace.expanded(currentNode.x, currentNode.y, currentNode.z, currentNode.cost);
+            }
             if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
-                calcContext.baritone.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                recordWork(numNodes, numMovementsConsidered);
                 return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
             }
             for (Moves moves : allMoves) {
@@ -109,22 +127,40 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                     if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
                         numEmptyChunk++;
                     }
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.UNLOADED_CHUNK, moves, newX, currentNode.y + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
                     continue;
                 }
                 if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.WORLD_BORDER, moves, newX, currentNode.y + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
                     continue;
                 }
                 if (currentNode.y + moves.yOffset > calcContext.worldTop || currentNode.y + moves.yOffset < calcContext.worldBottom) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.OUT_OF_HEIGHT, moves, newX, currentNode.y + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
                     continue;
                 }
                 res.reset();
+                long applyStart = trace == null ? 0 : System.nanoTime();
                 moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+                long applyNanos = trace == null ? 0 : System.nanoTime() - applyStart;
                 numMovementsConsidered++;
                 double actionCost = res.cost;
                 if (actionCost >= ActionCosts.COST_INF) {
+                    if (trace != null) {
+                        // the result may not even have a destination
+                        trace.movement(SearchTrace.Event.IMPOSSIBLE, moves, newX, currentNode.y + moves.yOffset, newZ, actionCost, applyNanos);
+                    }
                     continue;
                 }
                 if (res.oxygenCost + currentNode.oxygenCost >= calcContext.breathTime) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.OUT_OF_BREATH, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                    }
                     continue;
                 }
                 if (actionCost <= 0 || Double.isNaN(actionCost)) {
@@ -132,6 +168,9 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 }
                 // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
                 if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.WORLD_BORDER, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                    }
                     continue;
                 }
                 if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
@@ -143,10 +182,13 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
                 if (isFavoring) {
                     // see issue #18
-                    actionCost *= favoring.calculate(hashCode);
+                    actionCost *= favoring.calculate(res.x, res.y, res.z);
                 }
                 PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
                 double tentativeCost = currentNode.cost + actionCost;
+                if (trace != null) {
+                    trace.movement(neighbor.cost - tentativeCost > minimumImprovement ? SearchTrace.Event.IMPROVED : SearchTrace.Event.NOT_IMPROVED, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                }
                 if (neighbor.cost - tentativeCost > minimumImprovement) {
                     neighbor.previous = currentNode;
                     neighbor.cost = tentativeCost;
@@ -164,7 +206,7 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                             if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
                                 bestHeuristicSoFar[i] = heuristic;
                                 bestSoFar[i] = neighbor;
-                                if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                if (failing && getDistFromStartSq(neighbor.x, neighbor.y, neighbor.z) > MIN_DIST_PATH * MIN_DIST_PATH) {
                                     failing = false;
                                 }
                             }
@@ -173,17 +215,65 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 }
             }
         }
+        recordWork(numNodes, numMovementsConsidered);
         if (cancelRequested) {
             return Optional.empty();
         }
         Automatone.LOGGER.debug(numMovementsConsidered + " movements considered");
         Automatone.LOGGER.debug("Open set size: " + openSet.size());
-        Automatone.LOGGER.debug("PathNode map size: " + mapSize());
+        Automatone.LOGGER.debug("PathNode map size: " + map.size());
         Automatone.LOGGER.debug((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
         Optional<IPath> result = bestSoFar(true, numNodes);
         if (result.isPresent()) {
-            calcContext.baritone.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+            calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
         }
         return result;
     }
+
+    /**
+     * Attempts to search the block position hashCode long to {@link PathNode} map
+     * for the node mapped to the specified pos. If no node is found,
+     * a new node is created.
+     *
+     * @param x        The x position of the node
+     * @param y        The y position of the node
+     * @param z        The z position of the node
+     * @param hashCode The hash code of the node, provided by {@link BetterBlockPos#longHash(int, int, int)}
+     * @return The associated node
+     * @see <a href="https://github.com/cabaletta/baritone/issues/107">Issue #107</a>
+     */
+    private PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
+        PathNode node = map.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, goal);
+            map.put(hashCode, node);
+        }
+        return node;
+    }
+
+    @Override
+    protected boolean mayReuseCachedPath() {
+        return favoring.isEmpty();
+    }
+
+    @Override
+    protected boolean hasStarted() {
+        return startNode != null;
+    }
+
+    @Override
+    protected double bestSoFarDistFromStartSq(int coefficient) {
+        PathNode node = bestSoFar[coefficient];
+        return node == null ? -1 : getDistFromStartSq(node.x, node.y, node.z);
+    }
+
+    @Override
+    protected IPath pathToBestSoFar(int coefficient, int numNodes) {
+        return new Path(startNode, bestSoFar[coefficient], numNodes, goal, calcContext);
+    }
+
+    @Override
+    public Optional<IPath> pathToMostRecentNodeConsidered() {
+        return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, calcContext));
+    }
 }
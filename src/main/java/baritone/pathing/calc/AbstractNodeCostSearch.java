@@ -27,8 +27,11 @@ import baritone.api.utils.PathCalculationResult;
 import baritone.pathing.movement.CalculationContext;
 import baritone.utils.NotificationHelper;
 import baritone.utils.pathing.PathBase;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
@@ -46,20 +49,20 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
 
     private final CalculationContext context;
 
-    /**
-     * @see <a href="https://github.com/cabaletta/baritone/issues/107">Issue #107</a>
-     */
-    private final Long2ObjectOpenHashMap<PathNode> map;
-
-    protected PathNode startNode;
-
-    protected PathNode mostRecentConsidered;
+    private volatile boolean isFinished;
 
-    protected final PathNode[] bestSoFar = new PathNode[COEFFICIENTS.length];
+    protected volatile boolean cancelRequested;
 
-    private volatile boolean isFinished;
+    /*
+     * How much work calculate0 did, zero if a cached path was reused instead
+     */
+    private volatile int numNodesExpanded;
+    private volatile int numMovementsConsidered;
 
-    protected boolean cancelRequested;
+    /**
+     * Where calculate0 records what it does when {@link Settings#searchTrace} is on, null otherwise
+     */
+    protected @Nullable SearchTrace trace;
 
     /**
      * This is really complicated and hard to explain. I wrote a comment in the old version of MineBot but it was so
@@ -89,21 +92,46 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
         this.startZ = startZ;
         this.goal = goal;
         this.context = context;
-        this.map = new Long2ObjectOpenHashMap<>(context.baritone.settings().pathingMapDefaultSize.get(), context.baritone.settings().pathingMapLoadFactor.get());
     }
 
     public void cancel() {
         cancelRequested = true;
     }
 
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
     @Override
     public synchronized PathCalculationResult calculate(long primaryTimeout, long failureTimeout) {
         if (isFinished) {
             throw new IllegalStateException("Path finder cannot be reused!");
         }
-        cancelRequested = false;
+        // don't reset cancelRequested here, the search may have been canceled while it was still queued
+        PathCache pathCache = context.settings.sharedPathCache.get() && PathCache.canShare(context) && mayReuseCachedPath()
+                ? context.worldData.pathCache
+                : null;
         try {
-            IPath path = calculate0(primaryTimeout, failureTimeout).map(IPath::postProcess).orElse(null);
+            IPath path = pathCache == null ? null : pathCache.find(startX, startY, startZ, goal, context);
+            boolean reused = path != null;
+            if (!reused) {
+                SearchArena arena = SearchArena.acquire(context.settings);
+                try {
+                    if (context.settings.searchTrace.get()) {
+                        trace = arena.trace(context.settings.searchTraceEvents.get());
+                        trace.start(startX, startY, startZ, goal.toString());
+                    }
+                    long start = System.nanoTime();
+                    Optional<IPath> found = calculate0(arena, primaryTimeout, failureTimeout);
+                    if (trace != null) {
+                        writeTrace(trace, found.isPresent(), System.nanoTime() - start);
+                    }
+                    path = found.map(IPath::postProcess).orElse(null);
+                } finally {
+                    trace = null;
+                    arena.release();
+                }
+            }
 
             if (cancelRequested) {
                 return new PathCalculationResult(PathCalculationResult.Type.CANCELLATION);
@@ -114,7 +142,7 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
             }
 
             int previousLength = path.length();
-            Settings settings = context.getBaritone().settings();
+            Settings settings = context.settings;
             path = ((PathBase) path).cutoffAtLoadedChunks(context.bsi, settings);
 
             if (path.length() < previousLength) {
@@ -132,6 +160,9 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
             }
 
             if (goal.isInGoal(path.getDest())) {
+                if (pathCache != null && !reused) {
+                    pathCache.put(goal, path, context);
+                }
                 return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_TO_GOAL, path);
             } else {
                 return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_SEGMENT, path);
@@ -146,49 +177,87 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
         }
     }
 
-    protected abstract Optional<IPath> calculate0(long primaryTimeout, long failureTimeout);
+    private void writeTrace(SearchTrace trace, boolean found, long nanos) {
+        trace.finish(nanos);
+        long slowMS = context.settings.searchTraceSlowMS.get();
+        if (cancelRequested || (found && (slowMS < 0 || nanos < slowMS * 1_000_000L))) {
+            return;
+        }
+        Path file = FabricLoader.getInstance().getGameDir().resolve("automatone").resolve("traces").resolve(System.currentTimeMillis() + "-" + context.baritone.getPlayerContext().entity().getUuidAsString() + ".trace");
+        try {
+            trace.write(file);
+            context.baritone.logDebug("Wrote the trace of this search to " + file);
+        } catch (IOException e) {
+            Automatone.LOGGER.error("Failed to write search trace {}", file, e);
+        }
+    }
+
+    /**
+     * @param arena The reusable data structures to run the search with. They are cleared as soon as this returns,
+     *              so anything that must outlive the search (like the returned path) cannot reference them.
+     */
+    protected abstract Optional<IPath> calculate0(SearchArena arena, long primaryTimeout, long failureTimeout);
+
+    /**
+     * Remembers how much work the search did, for {@link baritone.utils.BaritoneMetrics}. Called by {@link #calculate0}
+     * once the search loop is over.
+     */
+    protected void recordWork(int numNodesExpanded, int numMovementsConsidered) {
+        this.numNodesExpanded = numNodesExpanded;
+        this.numMovementsConsidered = numMovementsConsidered;
+    }
+
+    public int getNumNodesExpanded() {
+        return numNodesExpanded;
+    }
+
+    public int getNumMovementsConsidered() {
+        return numMovementsConsidered;
+    }
+
+    /**
+     * @return Whether a path found earlier by another search can be taken instead of searching, which isn't the case
+     * when this search would have been biased towards or away from some positions
+     * @see PathCache
+     */
+    protected boolean mayReuseCachedPath() {
+        return false;
+    }
 
     /**
-     * Determines the distance squared from the specified node to the start
+     * Determines the distance squared from the specified position to the start
      * node. Intended for use in distance comparison, rather than anything that
      * considers the real distance value, hence the "sq".
      *
-     * @param n A node
+     * @param x The x position of a node
+     * @param y The y position of a node
+     * @param z The z position of a node
      * @return The distance, squared
      */
-    protected double getDistFromStartSq(PathNode n) {
-        int xDiff = n.x - startX;
-        int yDiff = n.y - startY;
-        int zDiff = n.z - startZ;
+    protected double getDistFromStartSq(int x, int y, int z) {
+        int xDiff = x - startX;
+        int yDiff = y - startY;
+        int zDiff = z - startZ;
         return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
     }
 
     /**
-     * Attempts to search the block position hashCode long to {@link PathNode} map
-     * for the node mapped to the specified pos. If no node is found,
-     * a new node is created.
-     *
-     * @param x        The x position of the node
-     * @param y        The y position of the node
-     * @param z        The z position of the node
-     * @param hashCode The hash code of the node, provided by {@link BetterBlockPos#longHash(int, int, int)}
-     * @return The associated node
-     * @see <a href="https://github.com/cabaletta/baritone/issues/107">Issue #107</a>
+     * @return Whether the search has created its start node yet
      */
+    protected abstract boolean hasStarted();
 
-    protected PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
-        PathNode node = map.get(hashCode);
-        if (node == null) {
-            node = new PathNode(x, y, z, goal);
-            map.put(hashCode, node);
-        }
-        return node;
-    }
+    /**
+     * @param coefficient The index of the coefficient in {@link #COEFFICIENTS}
+     * @return The distance squared from the best node so far for that coefficient to the start, or -1 if there is none
+     */
+    protected abstract double bestSoFarDistFromStartSq(int coefficient);
 
-    @Override
-    public Optional<IPath> pathToMostRecentNodeConsidered() {
-        return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
-    }
+    /**
+     * @param coefficient The index of the coefficient in {@link #COEFFICIENTS}
+     * @param numNodes    The number of nodes considered so far
+     * @return The path from the start to the best node so far for that coefficient
+     */
+    protected abstract IPath pathToBestSoFar(int coefficient, int numNodes);
 
     @Override
     public Optional<IPath> bestPathSoFar() {
@@ -196,15 +265,15 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
     }
 
     protected Optional<IPath> bestSoFar(boolean logInfo, int numNodes) {
-        if (startNode == null) {
+        if (!hasStarted()) {
             return Optional.empty();
         }
         double bestDist = 0;
         for (int i = 0; i < COEFFICIENTS.length; i++) {
-            if (bestSoFar[i] == null) {
+            double dist = bestSoFarDistFromStartSq(i);
+            if (dist < 0) {
                 continue;
             }
-            double dist = getDistFromStartSq(bestSoFar[i]);
             if (dist > bestDist) {
                 bestDist = dist;
             }
@@ -218,7 +287,7 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
                     Automatone.LOGGER.info("Path goes for " + Math.sqrt(dist) + " blocks");
                     context.baritone.logDebug("A* cost coefficient " + COEFFICIENTS[i]);
                 }
-                return Optional.of(new Path(startNode, bestSoFar[i], numNodes, goal, context));
+                return Optional.of(pathToBestSoFar(i, numNodes));
             }
         }
         // instead of returning bestSoFar[0], be less misleading
@@ -226,7 +295,7 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
         if (logInfo) {
             context.baritone.logDebug("Even with a cost coefficient of " + COEFFICIENTS[COEFFICIENTS.length - 1] + ", I couldn't get more than " + Math.sqrt(bestDist) + " blocks");
             context.baritone.logDebug("No path found =(");
-            if (context.baritone.settings().desktopNotifications.get()) {
+            if (context.settings.desktopNotifications.get()) {
                 NotificationHelper.notify("No path found =(", true);
             }
         }
@@ -246,8 +315,4 @@ public abstract class AbstractNodeCostSearch implements IPathFinder {
     public BetterBlockPos getStart() {
         return new BetterBlockPos(startX, startY, startZ);
     }
-
-    protected int mapSize() {
-        return map.size();
-    }
 }
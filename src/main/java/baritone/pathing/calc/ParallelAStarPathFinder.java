@@ -0,0 +1,439 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Automatone;
+import baritone.api.BaritoneAPI;
+import baritone.api.Settings;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The same A* as {@link AStarPathFinder}, spread over several threads.
+ * <p>
+ * Instead of expanding the single best node, each step takes the best few nodes out of the open set, calculates the
+ * costs of all their movements on several threads at once, each with its own {@linkplain CalculationContext#fork()
+ * copy of the context}, then relaxes the neighbors on the calculating thread in the order the nodes came out. Movement
+ * costs are most of the time a search takes, the open set and node map stay single threaded.
+ * <p>
+ * A node of a batch may get a better cost from one that came out before it in the same batch. It is then put back in
+ * the open set and expanded again later, the same way nodes already are when a better way to them is found.
+ *
+ * @see Settings#parallelPathing
+ */
+public final class ParallelAStarPathFinder extends AbstractNodeCostSearch {
+
+    /**
+     * Below this many nodes per thread, handing them out costs more than it saves
+     */
+    private static final int MIN_NODES_PER_TASK = 4;
+
+    private static volatile ExecutorService helpers;
+    private static int threadCount;
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+
+    private Long2ObjectOpenHashMap<PathNode> map;
+
+    private PathNode startNode;
+
+    private PathNode mostRecentConsidered;
+
+    private final PathNode[] bestSoFar = new PathNode[COEFFICIENTS.length];
+
+    /**
+     * @param context A context that {@linkplain CalculationContext#canFork() can be forked}
+     */
+    public ParallelAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        super(startX, startY, startZ, goal, context);
+        if (!context.canFork()) {
+            throw new IllegalArgumentException(context.getClass().getName() + " can't be used on several threads");
+        }
+        this.favoring = favoring;
+        this.calcContext = context;
+    }
+
+    /**
+     * The threads that help calculations along, shared by every bot, created on first use
+     */
+    private static ExecutorService getHelpers() {
+        ExecutorService h = helpers;
+        if (h == null) {
+            synchronized (ParallelAStarPathFinder.class) {
+                h = helpers;
+                if (h == null) {
+                    int threads = BaritoneAPI.getGlobalSettings().parallelPathingThreads.get();
+                    if (threads < 2) {
+                        threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+                    }
+                    AtomicInteger threadCounter = new AtomicInteger(0);
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads - 1, threads - 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "Automatone Path Helper " + threadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.allowCoreThreadTimeOut(true);
+                    threadCount = threads;
+                    helpers = h = executor;
+                }
+            }
+        }
+        return h;
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(SearchArena arena, long primaryTimeout, long failureTimeout) {
+        ExecutorService helpers = getHelpers();
+        map = arena.nodeMap();
+        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        startNode.cost = 0;
+        startNode.oxygenCost = calcContext.breathTime - calcContext.startingBreathTime;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        BinaryHeapOpenSet openSet = arena.openSet();
+        openSet.insert(startNode);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+            bestSoFar[i] = startNode;
+        }
+        long startTime = System.currentTimeMillis();
+        Settings settings = calcContext.settings;
+        boolean slowPath = settings.slowPath.get();
+        if (slowPath) {
+            calcContext.logDebug("slowPath is on, path timeout will be " + settings.slowPathTimeoutMS.get() + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : failureTimeout);
+        boolean failing = true;
+        int numNodes = 0;
+        int numEmptyChunk = 0;
+        boolean isFavoring = !favoring.isEmpty();
+        int pathingMaxChunkBorderFetch = settings.pathingMaxChunkBorderFetch.get(); // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = settings.minimumImprovementRepropagation.get() ? MIN_IMPROVEMENT : 0;
+        int batchSize = Math.max(1, settings.parallelPathingBatchSize.get());
+        Moves[] allMoves = Moves.values();
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
+        Expander[] expanders = new Expander[threadCount];
+        expanders[0] = new Expander(calcContext, allMoves, worldBorder);
+        for (int i = 1; i < expanders.length; i++) {
+            expanders[i] = new Expander(calcContext.fork(), allMoves, worldBorder);
+        }
+        Batch batch = new Batch(batchSize, allMoves.length);
+        List<Future<?>> pending = new ArrayList<>(expanders.length);
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            // once per batch, which is about as often as AStarPathFinder does it
+            long now = System.currentTimeMillis();
+            if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                break;
+            }
+            if (slowPath) {
+                try {
+                    // Not busy waiting, only artificially slowing the loop down
+                    //noinspection BusyWait
+                    Thread.sleep(settings.slowPathTimeDelayMS.get());
+                } catch (InterruptedException ignored) {}
+            }
+            int count = 0;
+            while (count < batchSize && !openSet.isEmpty()) {
+                PathNode currentNode = openSet.removeLowest();
+                mostRecentConsidered = currentNode;
+                numNodes++;
+                if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                    calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + movementsConsidered(expanders) + " movements considered");
+                    recordWork(numNodes, movementsConsidered(expanders));
+                    return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+                }
+                batch.nodes[count] = currentNode;
+                batch.nodeCost[count] = currentNode.cost;
+                batch.nodeOxygenCost[count] = currentNode.oxygenCost;
+                count++;
+            }
+            int size = count;
+            int tasks = Math.max(1, Math.min(expanders.length, size / MIN_NODES_PER_TASK));
+            for (int t = 1; t < tasks; t++) {
+                Expander expander = expanders[t];
+                int first = t;
+                pending.add(helpers.submit(() -> expander.expand(batch, size, first, tasks)));
+            }
+            expanders[0].expand(batch, size, 0, tasks);
+            for (Future<?> future : pending) {
+                await(future);
+            }
+            pending.clear();
+            numEmptyChunk = 0;
+            for (Expander expander : expanders) {
+                numEmptyChunk += expander.emptyChunks;
+            }
+
+            int moveCount = allMoves.length;
+            for (int i = 0; i < size; i++) {
+                PathNode currentNode = batch.nodes[i];
+                batch.nodes[i] = null;
+                for (int slot = i * moveCount, end = slot + moveCount; slot < end; slot++) {
+                    double actionCost = batch.cost[slot];
+                    if (actionCost >= ActionCosts.COST_INF) {
+                        continue;
+                    }
+                    int x = batch.x[slot];
+                    int y = batch.y[slot];
+                    int z = batch.z[slot];
+                    if (isFavoring) {
+                        // see issue #18
+                        actionCost *= favoring.calculate(x, y, z);
+                    }
+                    PathNode neighbor = getNodeAtPosition(x, y, z, BetterBlockPos.longHash(x, y, z));
+                    double tentativeCost = batch.nodeCost[i] + actionCost;
+                    if (neighbor.cost - tentativeCost > minimumImprovement) {
+                        double oxygenCost = batch.oxygenCost[slot];
+                        neighbor.previous = currentNode;
+                        neighbor.cost = tentativeCost;
+                        neighbor.oxygenCost = Math.max(0, batch.nodeOxygenCost[i] + oxygenCost);
+                        neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                        if (neighbor.isOpen()) {
+                            openSet.update(neighbor);
+                        } else {
+                            openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                        }
+                        // never leave a path dangling in the middle of water, best way to drown
+                        if (oxygenCost <= 0 || goal.isInGoal(neighbor.x, neighbor.y, neighbor.z)) {
+                            for (int c = 0; c < COEFFICIENTS.length; c++) {
+                                double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[c];
+                                if (bestHeuristicSoFar[c] - heuristic > minimumImprovement) {
+                                    bestHeuristicSoFar[c] = heuristic;
+                                    bestSoFar[c] = neighbor;
+                                    if (failing && getDistFromStartSq(neighbor.x, neighbor.y, neighbor.z) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                        failing = false;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        recordWork(numNodes, movementsConsidered(expanders));
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        Automatone.LOGGER.debug(movementsConsidered(expanders) + " movements considered on " + expanders.length + " threads");
+        Automatone.LOGGER.debug("Open set size: " + openSet.size());
+        Automatone.LOGGER.debug("PathNode map size: " + map.size());
+        Automatone.LOGGER.debug((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + movementsConsidered(expanders) + " movements considered");
+        }
+        return result;
+    }
+
+    private static int movementsConsidered(Expander[] expanders) {
+        int total = 0;
+        for (Expander expander : expanders) {
+            total += expander.movementsConsidered;
+        }
+        return total;
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for movement costs", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
+        PathNode node = map.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, goal);
+            map.put(hashCode, node);
+        }
+        return node;
+    }
+
+    @Override
+    protected boolean mayReuseCachedPath() {
+        return favoring.isEmpty();
+    }
+
+    @Override
+    protected boolean hasStarted() {
+        return startNode != null;
+    }
+
+    @Override
+    protected double bestSoFarDistFromStartSq(int coefficient) {
+        PathNode node = bestSoFar[coefficient];
+        return node == null ? -1 : getDistFromStartSq(node.x, node.y, node.z);
+    }
+
+    @Override
+    protected IPath pathToBestSoFar(int coefficient, int numNodes) {
+        return new Path(startNode, bestSoFar[coefficient], numNodes, goal, calcContext);
+    }
+
+    @Override
+    public Optional<IPath> pathToMostRecentNodeConsidered() {
+        return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, calcContext));
+    }
+
+    /**
+     * The nodes being expanded, and the results of every movement out of them, at {@code node * moves + move}
+     */
+    private static final class Batch {
+
+        private final PathNode[] nodes;
+        /*
+         * The costs of the nodes as they came out of the open set, which the merge may change before their turn
+         */
+        private final double[] nodeCost;
+        private final double[] nodeOxygenCost;
+
+        private final int[] x;
+        private final int[] y;
+        private final int[] z;
+        private final double[] cost;
+        private final double[] oxygenCost;
+
+        private Batch(int size, int moves) {
+            this.nodes = new PathNode[size];
+            this.nodeCost = new double[size];
+            this.nodeOxygenCost = new double[size];
+            this.x = new int[size * moves];
+            this.y = new int[size * moves];
+            this.z = new int[size * moves];
+            this.cost = new double[size * moves];
+            this.oxygenCost = new double[size * moves];
+        }
+    }
+
+    /**
+     * Calculates movement costs on one thread, with its own context and scratch result
+     */
+    private static final class Expander {
+
+        private final CalculationContext calcContext;
+        private final Moves[] allMoves;
+        private final BetterWorldBorder worldBorder;
+        private final MutableMoveResult res = new MutableMoveResult();
+        private int movementsConsidered;
+        private int emptyChunks;
+
+        private Expander(CalculationContext calcContext, Moves[] allMoves, BetterWorldBorder worldBorder) {
+            this.calcContext = calcContext;
+            this.allMoves = allMoves;
+            this.worldBorder = worldBorder;
+        }
+
+        /**
+         * Expands every {@code stride}th node of the batch, starting at {@code first}
+         */
+        private void expand(Batch batch, int count, int first, int stride) {
+            for (int i = first; i < count; i += stride) {
+                PathNode currentNode = batch.nodes[i];
+                double currentOxygenCost = batch.nodeOxygenCost[i];
+                int slot = i * allMoves.length;
+                for (Moves moves : allMoves) {
+                    batch.cost[slot] = calculate(currentNode, currentOxygenCost, moves);
+                    if (batch.cost[slot] < ActionCosts.COST_INF) {
+                        batch.x[slot] = res.x;
+                        batch.y[slot] = res.y;
+                        batch.z[slot] = res.z;
+                        batch.oxygenCost[slot] = res.oxygenCost;
+                    }
+                    slot++;
+                }
+            }
+        }
+
+        /**
+         * The checks of {@link AStarPathFinder} on a single movement, leaving its destination in {@link #res}
+         *
+         * @return The cost of the movement, or {@link ActionCosts#COST_INF} if it can't be taken
+         */
+        private double calculate(PathNode currentNode, double currentOxygenCost, Moves moves) {
+            int newX = currentNode.x + moves.xOffset;
+            int newZ = currentNode.z + moves.zOffset;
+            if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+                if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                    emptyChunks++;
+                }
+                return ActionCosts.COST_INF;
+            }
+            if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                return ActionCosts.COST_INF;
+            }
+            if (currentNode.y + moves.yOffset > calcContext.worldTop || currentNode.y + moves.yOffset < calcContext.worldBottom) {
+                return ActionCosts.COST_INF;
+            }
+            res.reset();
+            moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+            movementsConsidered++;
+            double actionCost = res.cost;
+            if (actionCost >= ActionCosts.COST_INF) {
+                return ActionCosts.COST_INF;
+            }
+            if (res.oxygenCost + currentOxygenCost >= calcContext.breathTime) {
+                return ActionCosts.COST_INF;
+            }
+            if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+            }
+            // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+            if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                return ActionCosts.COST_INF;
+            }
+            if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+                throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+            }
+            if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
+                throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
+            }
+            return actionCost;
+        }
+    }
+}
@@ -29,8 +29,8 @@ import baritone.pathing.path.CutoffPath;
 import baritone.utils.pathing.PathBase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -58,7 +58,11 @@ class Path extends PathBase {
 
     private final List<Movement> movements;
 
-    private final List<PathNode> nodes;
+    /**
+     * The cost of getting to each position of the path from the start, as the search found it, or null if it
+     * wasn't found by a search
+     */
+    private final double[] costs;
 
     private final Goal goal;
 
@@ -75,21 +79,61 @@ class Path extends PathBase {
         this.movements = new ArrayList<>();
         this.goal = goal;
         this.context = context;
+        // walk the PathNode pseudo linked list once to know how long it is, then fill it in backwards
+        int length = 0;
+        for (PathNode current = end; current != null; current = current.previous) {
+            length++;
+        }
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
         PathNode current = end;
-        LinkedList<BetterBlockPos> tempPath = new LinkedList<>();
-        LinkedList<PathNode> tempNodes = new LinkedList<>();
-        // Repeatedly inserting to the beginning of an arraylist is O(n^2)
-        // Instead, do it into a linked list, then convert at the end
-        while (current != null) {
-            tempNodes.addFirst(current);
-            tempPath.addFirst(new BetterBlockPos(current.x, current.y, current.z));
+        for (int i = length - 1; i >= 0; i--) {
+            positions[i] = new BetterBlockPos(current.x, current.y, current.z);
+            costs[i] = current.cost;
             current = current.previous;
         }
-        // Can't directly convert from the PathNode pseudo linked list to an array because we don't know how long it is
-        // inserting into a LinkedList<E> keeps track of length, then when we addall (which calls .toArray) it's able
-        // to performantly do that conversion since it knows the length.
-        this.path = new ArrayList<>(tempPath);
-        this.nodes = new ArrayList<>(tempNodes);
+        this.path = Arrays.asList(positions);
+    }
+
+    Path(PrimitiveNodeStore nodes, int start, int end, int numNodes, Goal goal, CalculationContext context) {
+        this.start = new BetterBlockPos(nodes.x[start], nodes.y[start], nodes.z[start]);
+        this.end = new BetterBlockPos(nodes.x[end], nodes.y[end], nodes.z[end]);
+        this.numNodes = numNodes;
+        this.movements = new ArrayList<>();
+        this.goal = goal;
+        this.context = context;
+        int length = 0;
+        for (int current = end; current != PrimitiveNodeStore.NO_NODE; current = nodes.previous[current]) {
+            if (++length > nodes.size()) {
+                // can only happen when reading the nodes while another search is reusing them
+                throw new IllegalStateException("Node chain has a cycle");
+            }
+        }
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
+        int current = end;
+        for (int i = length - 1; i >= 0; i--) {
+            positions[i] = new BetterBlockPos(nodes.x[current], nodes.y[current], nodes.z[current]);
+            costs[i] = nodes.cost[current];
+            current = nodes.previous[current];
+        }
+        this.path = Arrays.asList(positions);
+    }
+
+    /**
+     * A path that was found before, with movements calculated again from scratch
+     *
+     * @see PathCache
+     */
+    Path(List<BetterBlockPos> positions, Goal goal, CalculationContext context) {
+        this.start = positions.get(0);
+        this.end = positions.get(positions.size() - 1);
+        this.numNodes = 0;
+        this.movements = new ArrayList<>();
+        this.goal = goal;
+        this.context = context;
+        this.costs = null;
+        this.path = positions;
     }
 
     @Override
@@ -102,7 +146,7 @@ class Path extends PathBase {
             throw new IllegalStateException();
         }
         for (int i = 0; i < path.size() - 1; i++) {
-            double cost = nodes.get(i + 1).cost - nodes.get(i).cost;
+            double cost = costs == null ? Double.POSITIVE_INFINITY : costs[i + 1] - costs[i];
             Movement move = runBackwards(path.get(i), path.get(i + 1), cost);
             if (move == null) {
                 return true;
@@ -0,0 +1,252 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.BaritoneAPI;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.pathing.movement.IMovement;
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.WorldData;
+import baritone.pathing.calc.hierarchy.GoalCorridor;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.path.CutoffPath;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The paths to their goal recently found in a world, for other searches with the same goal to reuse instead of
+ * searching again.
+ * <p>
+ * A path is reused by a search whose start is any position of it, and whose context has the same capabilities as the
+ * one it was found with. Its movements are then calculated again with the context of the new search, and the path is
+ * only reused if none became impossible or much more expensive. Paths are forgotten as soon as a block changes next to
+ * one of their movements, or when too many paths are remembered.
+ *
+ * @see baritone.api.Settings#sharedPathCache
+ */
+public final class PathCache implements WorldData.BlockChangeListener {
+
+    /**
+     * How much more expensive a path can have become for another bot before it isn't worth reusing
+     */
+    private static final double MAX_COST_INCREASE = 1.1;
+
+    /**
+     * Oldest first
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    public PathCache(WorldData worldData) {
+        worldData.addBlockChangeListener(this);
+    }
+
+    /**
+     * @return Whether paths found with the given context can be shared with others
+     */
+    static boolean canShare(CalculationContext context) {
+        // subclasses change costs in ways the capabilities below don't capture
+        return context.canFork();
+    }
+
+    /**
+     * Everything about an entity that changes which movements it can take at all, as opposed to how much they cost
+     */
+    private static int capabilities(CalculationContext context) {
+        return Objects.hash(
+                context.canSprint,
+                context.allowBreak,
+                context.hasThrowaway,
+                context.hasWaterBucket,
+                context.allowParkour,
+                context.allowParkourPlace,
+                context.allowParkourAscend,
+                context.allowJumpAt256,
+                context.allowDiagonalDescend,
+                context.allowDiagonalAscend,
+                context.allowDownward,
+                context.assumeWalkOnWater,
+                context.allowSwimming,
+                context.maxFallHeightNoWater,
+                context.maxFallHeightBucket,
+                context.width,
+                context.height,
+                context.requiredSideSpace
+        );
+    }
+
+    /**
+     * Remembers a path that was found to its goal
+     */
+    void put(Goal goal, IPath path, CalculationContext context) {
+        if (goal instanceof GoalCorridor || path.movements().isEmpty()) {
+            return; // corridors are never equal to each other
+        }
+        List<BetterBlockPos> positions = path.positions();
+        List<IMovement> movements = path.movements();
+        double[] costs = new double[positions.size()];
+        for (int i = 0; i < movements.size(); i++) {
+            costs[i + 1] = costs[i] + movements.get(i).getCost();
+        }
+        Entry entry = new Entry(goal, capabilities(context), positions.toArray(new BetterBlockPos[0]), costs);
+        int maxEntries = BaritoneAPI.getGlobalSettings().sharedPathCacheSize.get();
+        synchronized (entries) {
+            entries.removeIf(e -> e.capabilities == entry.capabilities && e.goal.equals(goal) && e.index.containsKey(BetterBlockPos.longHash(positions.get(0))));
+            entries.add(entry);
+            while (entries.size() > Math.max(0, maxEntries)) {
+                entries.remove(0);
+            }
+        }
+    }
+
+    /**
+     * Looks for a remembered path that goes from the given start to the given goal, and checks that it is still worth
+     * taking with the given context
+     *
+     * @return The rest of the path from the start, post processed, or null if there is none to reuse
+     */
+    @Nullable IPath find(int startX, int startY, int startZ, Goal goal, CalculationContext context) {
+        long start = BetterBlockPos.longHash(startX, startY, startZ);
+        int capabilities = capabilities(context);
+        Entry entry = null;
+        int from = -1;
+        synchronized (entries) {
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                Entry e = entries.get(i);
+                if (e.capabilities == capabilities && e.goal.equals(goal)) {
+                    from = e.index.get(start);
+                    if (from >= 0 && from < e.positions.length - 1) {
+                        entry = e;
+                        // most recently used last
+                        entries.remove(i);
+                        entries.add(e);
+                        break;
+                    }
+                }
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        Path path = new Path(Arrays.asList(entry.positions).subList(from, entry.positions.length), goal, context);
+        IPath processed = path.postProcess();
+        if (processed instanceof CutoffPath) {
+            return null; // one of the movements is impossible for this entity, maybe it has no pickaxe
+        }
+        double cost = 0;
+        for (IMovement movement : processed.movements()) {
+            cost += movement.getCost();
+        }
+        double cachedCost = entry.costs[entry.costs.length - 1] - entry.costs[from];
+        if (cost >= ActionCosts.COST_INF || cost > cachedCost * MAX_COST_INCREASE) {
+            return null;
+        }
+        context.baritone.logDebug("Reusing a path found earlier, " + processed.movements().size() + " movements");
+        return processed;
+    }
+
+    @Override
+    public void onBlockChange(int x, int y, int z) {
+        synchronized (entries) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+                if (it.next().touches(x, y, z)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Goal goal;
+        private final int capabilities;
+        private final BetterBlockPos[] positions;
+
+        /**
+         * The cost of getting to each position from the first one
+         */
+        private final double[] costs;
+
+        /**
+         * The index of each position, by {@link BetterBlockPos#longHash(BetterBlockPos)}
+         */
+        private final Long2IntOpenHashMap index;
+
+        /*
+         * The box around every block the movements of the path look at
+         */
+        private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+        private Entry(Goal goal, int capabilities, BetterBlockPos[] positions, double[] costs) {
+            this.goal = goal;
+            this.capabilities = capabilities;
+            this.positions = positions;
+            this.costs = costs;
+            this.index = new Long2IntOpenHashMap(positions.length);
+            this.index.defaultReturnValue(-1);
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+            for (int i = 0; i < positions.length; i++) {
+                BetterBlockPos pos = positions[i];
+                index.putIfAbsent(BetterBlockPos.longHash(pos), i);
+                minX = Math.min(minX, pos.x);
+                minY = Math.min(minY, pos.y);
+                minZ = Math.min(minZ, pos.z);
+                maxX = Math.max(maxX, pos.x);
+                maxY = Math.max(maxY, pos.y);
+                maxZ = Math.max(maxZ, pos.z);
+            }
+            this.minX = minX - 1;
+            this.minY = minY - 1;
+            this.minZ = minZ - 1;
+            this.maxX = maxX + 1;
+            this.maxY = maxY + 2;
+            this.maxZ = maxZ + 1;
+        }
+
+        /**
+         * @return Whether a block at the given position could change the cost of a movement of the path
+         */
+        private boolean touches(int x, int y, int z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                return false;
+            }
+            // the same margins as the whole box, around each movement
+            for (int i = 0; i < positions.length - 1; i++) {
+                BetterBlockPos src = positions[i];
+                BetterBlockPos dest = positions[i + 1];
+                if (x >= Math.min(src.x, dest.x) - 1 && x <= Math.max(src.x, dest.x) + 1
+                        && y >= Math.min(src.y, dest.y) - 1 && y <= Math.max(src.y, dest.y) + 2
+                        && z >= Math.min(src.z, dest.z) - 1 && z <= Math.max(src.z, dest.z) + 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
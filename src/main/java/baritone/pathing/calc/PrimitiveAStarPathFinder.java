@@ -0,0 +1,395 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Automatone;
+import baritone.api.Settings;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.PrimitiveBinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static baritone.pathing.calc.PrimitiveNodeStore.NO_NODE;
+
+/**
+ * The exact same search as {@link AStarPathFinder}, but with nodes stored in a {@link PrimitiveNodeStore}
+ * instead of as {@link PathNode} objects, so that it barely allocates anything while running.
+ *
+ * @see baritone.api.Settings#primitiveNodeStore
+ */
+public final class PrimitiveAStarPathFinder extends AbstractNodeCostSearch {
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+
+    /**
+     * How often the paths other threads can see are published, in milliseconds
+     */
+    private static final long PUBLISH_INTERVAL_MS = 50;
+
+    private PrimitiveNodeStore nodes;
+
+    private int startNode = NO_NODE;
+
+    private int mostRecentConsidered = NO_NODE;
+
+    /*
+     * What other threads get of the search, which can't read the nodes while the search grows them
+     */
+    private volatile Optional<IPath> publishedBest = Optional.empty();
+    private volatile Optional<IPath> publishedMostRecent = Optional.empty();
+
+    private final int[] bestSoFar = new int[COEFFICIENTS.length];
+
+    /**
+     * The graph of a previous search to pick up from, consumed by this search
+     */
+    private @Nullable RetainedSearch resumed;
+
+    /**
+     * The graph of this search, if it was kept for the next one
+     */
+    private volatile @Nullable RetainedSearch retained;
+
+    public PrimitiveAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        this(startX, startY, startZ, goal, favoring, context, null);
+    }
+
+    /**
+     * @param resumed The graph of a previous search to repair and pick up from, see {@link RetainedSearch#canResume(Goal, CalculationContext, Favoring)}
+     */
+    public PrimitiveAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, @Nullable RetainedSearch resumed) {
+        super(startX, startY, startZ, goal, context);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.resumed = resumed;
+        Arrays.fill(bestSoFar, NO_NODE);
+    }
+
+    /**
+     * @return The graph of this search if it was kept, to be handed to the next search or disposed by the caller
+     */
+    public @Nullable RetainedSearch takeRetainedSearch() {
+        RetainedSearch retained = this.retained;
+        this.retained = null;
+        return retained;
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(SearchArena arena, long primaryTimeout, long failureTimeout) {
+        try {
+            return search(arena, primaryTimeout, failureTimeout);
+        } finally {
+            // if the graph wasn't kept again, nobody else is going to stop it from listening
+            if (resumed != null && retained != resumed) {
+                resumed.dispose();
+            }
+        }
+    }
+
+    private Optional<IPath> search(SearchArena arena, long primaryTimeout, long failureTimeout) {
+        PrimitiveNodeStore nodes = null;
+        PrimitiveBinaryHeapOpenSet openSet = null;
+        int startNode = NO_NODE;
+        if (resumed != null) {
+            nodes = resumed.nodes;
+            openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+            startNode = resumed.repair(startX, startY, startZ, calcContext.breathTime - calcContext.startingBreathTime, openSet);
+            if (startNode == NO_NODE) {
+                calcContext.logDebug("Previous search graph can't be repaired, searching from scratch");
+                resumed.dispose();
+                resumed = null;
+            }
+        }
+        if (startNode == NO_NODE) {
+            nodes = arena.nodeStore();
+            openSet = arena.primitiveOpenSet();
+        }
+        this.nodes = nodes;
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        boolean failing = true;
+        if (startNode == NO_NODE) {
+            startNode = nodes.getOrCreate(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ), goal);
+            nodes.cost[startNode] = 0;
+            nodes.oxygenCost[startNode] = calcContext.breathTime - calcContext.startingBreathTime;
+            nodes.combinedCost[startNode] = nodes.estimatedCostToGoal[startNode];
+            openSet.insert(startNode);
+        }
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = nodes.estimatedCostToGoal[startNode];
+            bestSoFar[i] = startNode;
+        }
+        if (resumed != null) {
+            // what is left of the graph counts as found by this search
+            for (int node = 0; node < nodes.size(); node++) {
+                if (nodes.cost[node] >= ActionCosts.COST_INF || nodes.oxygenCost[node] > 0) {
+                    continue;
+                }
+                for (int i = 0; i < COEFFICIENTS.length; i++) {
+                    double heuristic = nodes.estimatedCostToGoal[node] + nodes.cost[node] / COEFFICIENTS[i];
+                    if (heuristic < bestHeuristicSoFar[i]) {
+                        bestHeuristicSoFar[i] = heuristic;
+                        bestSoFar[i] = node;
+                        if (failing && getDistFromStartSq(nodes.x[node], nodes.y[node], nodes.z[node]) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                            failing = false;
+                        }
+                    }
+                }
+            }
+        }
+        this.startNode = startNode;
+        MutableMoveResult res = arena.moveResult();
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
+        long startTime = System.currentTimeMillis();
+        Settings settings = calcContext.settings;
+        boolean slowPath = settings.slowPath.get();
+        if (slowPath) {
+            calcContext.logDebug("slowPath is on, path timeout will be " + settings.slowPathTimeoutMS.get() + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? settings.slowPathTimeoutMS.get() : failureTimeout);
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        int numEmptyChunk = 0;
+        boolean isFavoring = !favoring.isEmpty();
+        int timeCheckInterval = 1 << 6;
+        long lastPublished = startTime;
+        int pathingMaxChunkBorderFetch = settings.pathingMaxChunkBorderFetch.get(); // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = settings.minimumImprovementRepropagation.get() ? MIN_IMPROVEMENT : 0;
+        Moves[] allMoves = Moves.values();
+        SearchTrace trace = this.trace;
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
+                }
+                if (now - lastPublished >= PUBLISH_INTERVAL_MS) {
+                    publish(numNodes);
+                    lastPublished = now;
+                }
+            }
+            if (slowPath) {
+                try {
+                    // Not busy waiting, only artificially slowing the loop down
+                    //noinspection BusyWait
+                    Thread.sleep(settings.slowPathTimeDelayMS.get());
+                } catch (InterruptedException ignored) {}
+            }
+            int currentNode = openSet.removeLowest();
+            mostRecentConsidered = currentNode;
+            numNodes++;
+            int currentX = nodes.x[currentNode];
+            int currentY = nodes.y[currentNode];
+            int currentZ = nodes.z[currentNode];
+            if (trace != null) {
+                trace.expanded(currentX, currentY, currentZ, nodes.cost[currentNode]);
+            }
+            if (goal.isInGoal(currentX, currentY, currentZ)) {
+                calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                Path path = new Path(nodes, startNode, currentNode, numNodes, goal, calcContext);
+                recordWork(numNodes, numMovementsConsidered);
+                publishedBest = Optional.of(path);
+                retain(arena, currentNode);
+                return Optional.of(path);
+            }
+            for (Moves moves : allMoves) {
+                int newX = currentX + moves.xOffset;
+                int newZ = currentZ + moves.zOffset;
+                if ((newX >> 4 != currentX >> 4 || newZ >> 4 != currentZ >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                    // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+                    if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                        numEmptyChunk++;
+                    }
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.UNLOADED_CHUNK, moves, newX, currentY + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
+                    continue;
+                }
+                if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.WORLD_BORDER, moves, newX, currentY + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
+                    continue;
+                }
+                if (currentY + moves.yOffset > calcContext.worldTop || currentY + moves.yOffset < calcContext.worldBottom) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.OUT_OF_HEIGHT, moves, newX, currentY + moves.yOffset, newZ, ActionCosts.COST_INF, 0);
+                    }
+                    continue;
+                }
+                res.reset();
+                long applyStart = trace == null ? 0 : System.nanoTime();
+                moves.apply(calcContext, currentX, currentY, currentZ, res);
+                long applyNanos = trace == null ? 0 : System.nanoTime() - applyStart;
+                numMovementsConsidered++;
+                double actionCost = res.cost;
+                if (actionCost >= ActionCosts.COST_INF) {
+                    if (trace != null) {
+                        // the result may not even have a destination
+                        trace.movement(SearchTrace.Event.IMPOSSIBLE, moves, newX, currentY + moves.yOffset, newZ, actionCost, applyNanos);
+                    }
+                    continue;
+                }
+                if (res.oxygenCost + nodes.oxygenCost[currentNode] >= calcContext.breathTime) {
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.OUT_OF_BREATH, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                    }
+                    continue;
+                }
+                if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                    throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+                }
+                // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+                if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                    if (trace != null) {
+                        trace.movement(SearchTrace.Event.WORLD_BORDER, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                    }
+                    continue;
+                }
+                if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+                    throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+                }
+                if (!moves.dynamicY && res.y != currentY + moves.yOffset) {
+                    throw new IllegalStateException(moves + " " + res.y + " " + (currentY + moves.yOffset));
+                }
+                long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                if (isFavoring) {
+                    // see issue #18
+                    actionCost *= favoring.calculate(res.x, res.y, res.z);
+                }
+                // this may grow the arrays of the store, so only read them after this
+                int neighbor = nodes.getOrCreate(res.x, res.y, res.z, hashCode, goal);
+                double tentativeCost = nodes.cost[currentNode] + actionCost;
+                if (trace != null) {
+                    trace.movement(nodes.cost[neighbor] - tentativeCost > minimumImprovement ? SearchTrace.Event.IMPROVED : SearchTrace.Event.NOT_IMPROVED, moves, res.x, res.y, res.z, actionCost, applyNanos);
+                }
+                if (nodes.cost[neighbor] - tentativeCost > minimumImprovement) {
+                    nodes.previous[neighbor] = currentNode;
+                    nodes.cost[neighbor] = tentativeCost;
+                    nodes.oxygenCost[neighbor] = Math.max(0, nodes.oxygenCost[currentNode] + res.oxygenCost);
+                    nodes.combinedCost[neighbor] = tentativeCost + nodes.estimatedCostToGoal[neighbor];
+                    if (nodes.isOpen(neighbor)) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                    }
+                    // never leave a path dangling in the middle of water, best way to drown
+                    if (res.oxygenCost <= 0 || goal.isInGoal(res.x, res.y, res.z)) {
+                        for (int i = 0; i < COEFFICIENTS.length; i++) {
+                            double heuristic = nodes.estimatedCostToGoal[neighbor] + tentativeCost / COEFFICIENTS[i];
+                            if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                                bestHeuristicSoFar[i] = heuristic;
+                                bestSoFar[i] = neighbor;
+                                if (failing && getDistFromStartSq(res.x, res.y, res.z) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                    failing = false;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        recordWork(numNodes, numMovementsConsidered);
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        Automatone.LOGGER.debug(numMovementsConsidered + " movements considered");
+        Automatone.LOGGER.debug("Open set size: " + openSet.size());
+        Automatone.LOGGER.debug("Node store size: " + nodes.size());
+        Automatone.LOGGER.debug((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            calcContext.logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        publishedBest = result;
+        retain(arena, NO_NODE);
+        return result;
+    }
+
+    /**
+     * Keeps the graph of this search around for the next one, if {@link Settings#incrementalReplanning} allows it
+     */
+    private void retain(SearchArena arena, int goalNode) {
+        Settings settings = calcContext.settings;
+        if (!settings.incrementalReplanning.get() || nodes.size() > settings.incrementalReplanningMaxNodes.get()) {
+            return;
+        }
+        RetainedSearch retained = resumed;
+        if (retained == null) {
+            retained = RetainedSearch.retain(goal, calcContext, favoring, arena.detachNodeStore());
+        }
+        retained.update(goalNode);
+        this.retained = retained;
+    }
+
+    @Override
+    protected boolean mayReuseCachedPath() {
+        // a graph to pick up from would have to be disposed of, and is likely to be just as quick
+        return favoring.isEmpty() && resumed == null;
+    }
+
+    @Override
+    protected boolean hasStarted() {
+        return startNode != NO_NODE;
+    }
+
+    @Override
+    protected double bestSoFarDistFromStartSq(int coefficient) {
+        int node = bestSoFar[coefficient];
+        return node == NO_NODE ? -1 : getDistFromStartSq(nodes.x[node], nodes.y[node], nodes.z[node]);
+    }
+
+    @Override
+    protected IPath pathToBestSoFar(int coefficient, int numNodes) {
+        return new Path(nodes, startNode, bestSoFar[coefficient], numNodes, goal, calcContext);
+    }
+
+    /**
+     * Copies the best path so far and the path to the most recent node out of the nodes, for other threads to read.
+     * Must be called by the thread running the search.
+     */
+    private void publish(int numNodes) {
+        publishedBest = bestSoFar(false, numNodes);
+        int node = mostRecentConsidered;
+        publishedMostRecent = node == NO_NODE ? Optional.empty() : Optional.of(new Path(nodes, startNode, node, 0, goal, calcContext));
+    }
+
+    /**
+     * @return The best path as of the last time the search published it, a few ticks ago at most
+     */
+    @Override
+    public Optional<IPath> bestPathSoFar() {
+        return publishedBest;
+    }
+
+    @Override
+    public Optional<IPath> pathToMostRecentNodeConsidered() {
+        return publishedMostRecent;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.Arrays;
+
+/**
+ * The same data as a bunch of {@link PathNode}s, but stored as parallel primitive arrays indexed by an int node id.
+ * <p>
+ * A search using this allocates a handful of arrays that grow by doubling, instead of one object per node plus
+ * one map entry per node, which keeps big searches from churning through the young generation.
+ * <p>
+ * Node ids are handed out sequentially starting from 0, so {@link #size()} is also the next id.
+ */
+public final class PrimitiveNodeStore {
+
+    /**
+     * Used in place of a null {@link PathNode}
+     */
+    public static final int NO_NODE = -1;
+
+    /**
+     * Keep the position index at most half full, probing an int array is cheap but long probe chains are not
+     */
+    private static final int TABLE_LOAD_SHIFT = 1;
+
+    /*
+     * Same meaning as the fields of the same name in PathNode
+     */
+    public int[] x;
+    public int[] y;
+    public int[] z;
+    public double[] estimatedCostToGoal;
+    public double[] cost;
+    public double[] oxygenCost;
+    public double[] combinedCost;
+    public int[] previous;
+    public int[] heapPosition;
+
+    private int size;
+
+    /**
+     * Open addressed position to node id index, with linear probing. Empty slots are {@link #NO_NODE}.
+     */
+    private int[] table;
+    private int mask;
+
+    public PrimitiveNodeStore(int expectedSize) {
+        int capacity = HashCommon.nextPowerOfTwo(Math.max(expectedSize, 16));
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.z = new int[capacity];
+        this.estimatedCostToGoal = new double[capacity];
+        this.cost = new double[capacity];
+        this.oxygenCost = new double[capacity];
+        this.combinedCost = new double[capacity];
+        this.previous = new int[capacity];
+        this.heapPosition = new int[capacity];
+        this.table = new int[capacity << TABLE_LOAD_SHIFT];
+        Arrays.fill(this.table, NO_NODE);
+        this.mask = this.table.length - 1;
+    }
+
+    /**
+     * Finds the node at the given position, or creates it if there isn't one yet.
+     *
+     * @param x    The x position of the node
+     * @param y    The y position of the node
+     * @param z    The z position of the node
+     * @param hash The hash of the position, provided by {@link BetterBlockPos#longHash(int, int, int)}
+     * @param goal The goal, used to compute the heuristic of new nodes
+     * @return The id of the node
+     */
+    public int getOrCreate(int x, int y, int z, long hash, Goal goal) {
+        int slot = (int) HashCommon.mix(hash) & mask;
+        int id;
+        while ((id = table[slot]) != NO_NODE) {
+            if (this.x[id] == x && this.y[id] == y && this.z[id] == z) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        double heuristic = goal.heuristic(x, y, z);
+        if (Double.isNaN(heuristic)) {
+            throw new IllegalStateException(goal + " calculated implausible heuristic");
+        }
+        id = size;
+        if (id == this.x.length) {
+            grow();
+            // the table was rebuilt, find a free slot again
+            slot = (int) HashCommon.mix(hash) & mask;
+            while (table[slot] != NO_NODE) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        size++;
+        table[slot] = id;
+        this.x[id] = x;
+        this.y[id] = y;
+        this.z[id] = z;
+        this.estimatedCostToGoal[id] = heuristic;
+        this.cost[id] = ActionCosts.COST_INF;
+        this.oxygenCost[id] = 0;
+        this.combinedCost[id] = 0;
+        this.previous[id] = NO_NODE;
+        this.heapPosition[id] = -1;
+        return id;
+    }
+
+    /**
+     * @return The id of the node at the given position, or {@link #NO_NODE} if there isn't one
+     */
+    public int get(int x, int y, int z) {
+        int slot = (int) HashCommon.mix(BetterBlockPos.longHash(x, y, z)) & mask;
+        int id;
+        while ((id = table[slot]) != NO_NODE) {
+            if (this.x[id] == x && this.y[id] == y && this.z[id] == z) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_NODE;
+    }
+
+    public boolean isOpen(int id) {
+        return heapPosition[id] != -1;
+    }
+
+    /**
+     * @return The number of nodes in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every node, but keeps the allocated arrays around
+     */
+    public void clear() {
+        if (size != 0) {
+            Arrays.fill(table, NO_NODE);
+            size = 0;
+        }
+    }
+
+    /**
+     * @return The number of nodes this store can hold without growing
+     */
+    public int capacity() {
+        return x.length;
+    }
+
+    private void grow() {
+        int capacity = x.length << 1;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.z = Arrays.copyOf(this.z, capacity);
+        this.estimatedCostToGoal = Arrays.copyOf(this.estimatedCostToGoal, capacity);
+        this.cost = Arrays.copyOf(this.cost, capacity);
+        this.oxygenCost = Arrays.copyOf(this.oxygenCost, capacity);
+        this.combinedCost = Arrays.copyOf(this.combinedCost, capacity);
+        this.previous = Arrays.copyOf(this.previous, capacity);
+        this.heapPosition = Arrays.copyOf(this.heapPosition, capacity);
+        this.table = new int[capacity << TABLE_LOAD_SHIFT];
+        Arrays.fill(this.table, NO_NODE);
+        this.mask = this.table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = (int) HashCommon.mix(BetterBlockPos.longHash(this.x[id], this.y[id], this.z[id])) & mask;
+            while (table[slot] != NO_NODE) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.Settings;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.cache.WorldData;
+import baritone.pathing.calc.openset.PrimitiveBinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Arrays;
+
+import static baritone.pathing.calc.PrimitiveNodeStore.NO_NODE;
+
+/**
+ * The search graph of a finished {@link PrimitiveAStarPathFinder} calculation, kept so that the next calculation
+ * of the same bot towards the same goal can repair it instead of searching from scratch.
+ * <p>
+ * While it waits, the world reports every block change around the searched area. A repair roots the graph at the
+ * new start, drops every node that was reached through a movement that could have read a changed block along with
+ * everything reached through those, and reopens the nodes whose movements could have been affected or could lead to
+ * a dropped node. Every cost left in the graph is the cost of a path that still works, so the search goes on from
+ * there as if it had found them itself.
+ * <p>
+ * Changes made while a fresh calculation was still running are not seen, the executor reports the movements it
+ * finds broken instead, see {@link #markDirty(int, int, int)}.
+ *
+ * @see Settings#incrementalReplanning
+ */
+public final class RetainedSearch implements WorldData.BlockChangeListener {
+
+    /**
+     * Past this many changed blocks, searching from scratch is about as fast as repairing
+     */
+    private static final int MAX_DIRTY = 256;
+
+    /*
+     * How far from the positions of a movement the blocks it reads can be
+     */
+    private static final int MOVEMENT_REACH_XZ = 2;
+    private static final int MOVEMENT_REACH_DOWN = 3;
+    private static final int MOVEMENT_REACH_UP = 3;
+
+    /**
+     * How far horizontally a movement can go, parkour being the longest
+     */
+    private static final int MOVEMENT_SPAN_XZ = 4;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte KEEP = 1;
+    private static final byte DROP = 2;
+
+    /**
+     * Horizontal size of the cells dropped nodes are bucketed in to find the kept nodes next to them
+     */
+    private static final int CELL_SHIFT = 2;
+
+    final PrimitiveNodeStore nodes;
+    private final Goal goal;
+    /**
+     * The context the graph was searched with, everything its costs depend on
+     */
+    private final CalculationContext context;
+    private final Favoring favoring;
+
+    /**
+     * The node that ended the last search by being in the goal, it was never expanded
+     */
+    private int goalNode = NO_NODE;
+
+    /*
+     * Box around the nodes, grown by how far their movements can read
+     */
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+
+    private final LongOpenHashSet dirty = new LongOpenHashSet();
+    private boolean overflowed;
+    private boolean disposed;
+
+    /**
+     * Doesn't listen to block changes, see {@link #retain}
+     */
+    RetainedSearch(Goal goal, CalculationContext context, Favoring favoring, PrimitiveNodeStore nodes) {
+        this.goal = goal;
+        this.context = context;
+        this.favoring = favoring;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return A graph over the given nodes that listens to the block changes of the world until it is disposed
+     */
+    static RetainedSearch retain(Goal goal, CalculationContext context, Favoring favoring, PrimitiveNodeStore nodes) {
+        RetainedSearch retained = new RetainedSearch(goal, context, favoring, nodes);
+        context.worldData.addBlockChangeListener(retained);
+        return retained;
+    }
+
+    /**
+     * @return Whether a calculation with the given goal, context and favoring can pick up from this graph
+     */
+    public synchronized boolean canResume(Goal goal, CalculationContext context, Favoring favoring) {
+        if (disposed || overflowed) {
+            return false;
+        }
+        // the heuristic depends on the goal
+        if (!this.goal.equals(goal) || context.worldData != this.context.worldData) {
+            return false;
+        }
+        // and costs on the settings, what the bot carries and what it avoids
+        // tool sets are only replaced when the hotbar or the settings changed
+        return context.settings == this.context.settings
+                && context.toolSet == this.context.toolSet
+                && context.hasThrowaway == this.context.hasThrowaway
+                && context.hasWaterBucket == this.context.hasWaterBucket
+                && context.canSprint == this.context.canSprint
+                && favoring.equals(this.favoring);
+    }
+
+    @Override
+    public synchronized void onBlockChange(int x, int y, int z) {
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+            markDirty(x, y, z);
+        }
+    }
+
+    /**
+     * Makes the next repair treat the given block as changed, whether or not it is in the searched area
+     */
+    public synchronized void markDirty(int x, int y, int z) {
+        if (disposed || overflowed) {
+            return;
+        }
+        dirty.add(BlockPos.asLong(x, y, z));
+        if (dirty.size() > MAX_DIRTY) {
+            overflowed = true;
+            dirty.clear();
+        }
+    }
+
+    /**
+     * Stops listening to block changes, the graph can't be resumed anymore
+     */
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+            dirty.clear();
+        }
+        context.worldData.removeBlockChangeListener(this);
+    }
+
+    /**
+     * Called by the search that used the graph last, once it is done with it
+     *
+     * @param goalNode The node in the goal the search ended on, or {@link PrimitiveNodeStore#NO_NODE}
+     */
+    void update(int goalNode) {
+        int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, loZ = Integer.MAX_VALUE;
+        int hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE, hiZ = Integer.MIN_VALUE;
+        for (int node = 0; node < nodes.size(); node++) {
+            if (nodes.cost[node] < ActionCosts.COST_INF) {
+                loX = Math.min(loX, nodes.x[node]);
+                loY = Math.min(loY, nodes.y[node]);
+                loZ = Math.min(loZ, nodes.z[node]);
+                hiX = Math.max(hiX, nodes.x[node]);
+                hiY = Math.max(hiY, nodes.y[node]);
+                hiZ = Math.max(hiZ, nodes.z[node]);
+            }
+        }
+        synchronized (this) {
+            this.goalNode = goalNode;
+            int reachXZ = MOVEMENT_SPAN_XZ + MOVEMENT_REACH_XZ;
+            minX = loX - reachXZ;
+            minY = loY - MOVEMENT_REACH_DOWN;
+            minZ = loZ - reachXZ;
+            maxX = hiX + reachXZ;
+            maxY = hiY + MOVEMENT_REACH_UP;
+            maxZ = hiZ + reachXZ;
+        }
+    }
+
+    /**
+     * Roots the graph at the given start and repairs it around the changed blocks, filling the open set with the
+     * nodes to expand. Nothing is modified if the graph can't be repaired.
+     *
+     * @param startOxygenCost The oxygen cost the new start begins with
+     * @return The new start node, or {@link PrimitiveNodeStore#NO_NODE} if the graph can't be repaired
+     */
+    int repair(int startX, int startY, int startZ, double startOxygenCost, PrimitiveBinaryHeapOpenSet openSet) {
+        long[] changed;
+        synchronized (this) {
+            if (disposed || overflowed) {
+                return NO_NODE;
+            }
+            changed = dirty.toLongArray();
+            dirty.clear();
+        }
+        int root = nodes.get(startX, startY, startZ);
+        if (root == NO_NODE || nodes.cost[root] >= ActionCosts.COST_INF) {
+            return NO_NODE;
+        }
+        int[] changedX = new int[changed.length];
+        int[] changedY = new int[changed.length];
+        int[] changedZ = new int[changed.length];
+        for (int i = 0; i < changed.length; i++) {
+            changedX[i] = BlockPos.unpackLongX(changed[i]);
+            changedY[i] = BlockPos.unpackLongY(changed[i]);
+            changedZ[i] = BlockPos.unpackLongZ(changed[i]);
+        }
+        int count = nodes.size();
+        byte[] status = new byte[count];
+        boolean[] reopen = new boolean[count];
+        status[root] = KEEP;
+        int[] stack = new int[64];
+        for (int node = 0; node < count; node++) {
+            // walk up until something that is known, then everything on the way shares its fate
+            int depth = 0;
+            int current = node;
+            byte resolved;
+            while ((resolved = status[current]) == UNKNOWN) {
+                int previous = nodes.previous[current];
+                if (previous == NO_NODE) {
+                    // the old start, or a node that was never reached
+                    resolved = DROP;
+                    status[current] = DROP;
+                    break;
+                }
+                if (readsChangedBlock(previous, current, changedX, changedY, changedZ)) {
+                    // the movement may not work anymore, find out again from where it started
+                    reopen[previous] = true;
+                    resolved = DROP;
+                    status[current] = DROP;
+                    break;
+                }
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth << 1);
+                }
+                stack[depth++] = current;
+                current = previous;
+            }
+            while (depth > 0) {
+                status[stack[--depth]] = resolved;
+            }
+        }
+
+        markBorder(status, reopen);
+
+        boolean[] wasOpen = new boolean[count];
+        for (int node = 0; node < count; node++) {
+            wasOpen[node] = nodes.isOpen(node);
+            nodes.heapPosition[node] = -1;
+        }
+        double rootCost = nodes.cost[root];
+        double rootOxygenCost = nodes.oxygenCost[root];
+        int goalNode;
+        synchronized (this) {
+            goalNode = this.goalNode;
+        }
+        nodes.previous[root] = NO_NODE;
+        for (int node = 0; node < count; node++) {
+            if (status[node] != KEEP) {
+                nodes.cost[node] = ActionCosts.COST_INF;
+                nodes.oxygenCost[node] = 0;
+                nodes.combinedCost[node] = 0;
+                nodes.previous[node] = NO_NODE;
+                continue;
+            }
+            nodes.cost[node] -= rootCost;
+            nodes.oxygenCost[node] = Math.max(0, nodes.oxygenCost[node] - rootOxygenCost + startOxygenCost);
+            nodes.combinedCost[node] = nodes.cost[node] + nodes.estimatedCostToGoal[node];
+            if (node == root || node == goalNode || wasOpen[node] || reopen[node]
+                    || movesNearChangedBlock(node, changedX, changedY, changedZ)) {
+                openSet.insert(node);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Marks the kept nodes that have a movement to a dropped node for reopening, as the dropped ones may now be
+     * reached through them. This is the border of the subtrees cut off by changed blocks, and of the area behind the
+     * old start.
+     * <p>
+     * Dropped nodes are bucketed in columns of cells, and a kept node is reopened if a cell within a movement of it
+     * has a dropped node no more than a block above it, since falls can be of any height. This reopens a few nodes
+     * more than needed, never fewer.
+     */
+    private void markBorder(byte[] status, boolean[] reopen) {
+        // lowest dropped node of each cell, only for nodes that were reached
+        Long2IntOpenHashMap lowestDropped = new Long2IntOpenHashMap();
+        lowestDropped.defaultReturnValue(Integer.MAX_VALUE);
+        for (int node = 0; node < status.length; node++) {
+            if (status[node] == DROP && nodes.cost[node] < ActionCosts.COST_INF) {
+                long cell = ChunkPos.toLong(nodes.x[node] >> CELL_SHIFT, nodes.z[node] >> CELL_SHIFT);
+                if (nodes.y[node] < lowestDropped.get(cell)) {
+                    lowestDropped.put(cell, nodes.y[node]);
+                }
+            }
+        }
+        if (lowestDropped.isEmpty()) {
+            return;
+        }
+        for (int node = 0; node < status.length; node++) {
+            if (status[node] != KEEP || reopen[node]) {
+                continue;
+            }
+            int loX = (nodes.x[node] - MOVEMENT_SPAN_XZ) >> CELL_SHIFT;
+            int hiX = (nodes.x[node] + MOVEMENT_SPAN_XZ) >> CELL_SHIFT;
+            int loZ = (nodes.z[node] - MOVEMENT_SPAN_XZ) >> CELL_SHIFT;
+            int hiZ = (nodes.z[node] + MOVEMENT_SPAN_XZ) >> CELL_SHIFT;
+            // ascending, pillaring and parkour go up one block at most
+            int highest = nodes.y[node] + 1;
+            search:
+            for (int cellX = loX; cellX <= hiX; cellX++) {
+                for (int cellZ = loZ; cellZ <= hiZ; cellZ++) {
+                    if (lowestDropped.get(ChunkPos.toLong(cellX, cellZ)) <= highest) {
+                        reopen[node] = true;
+                        break search;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the movement between the two nodes could have read one of the changed blocks
+     */
+    private boolean readsChangedBlock(int from, int to, int[] changedX, int[] changedY, int[] changedZ) {
+        int loX = Math.min(nodes.x[from], nodes.x[to]) - MOVEMENT_REACH_XZ;
+        int hiX = Math.max(nodes.x[from], nodes.x[to]) + MOVEMENT_REACH_XZ;
+        int loY = Math.min(nodes.y[from], nodes.y[to]) - MOVEMENT_REACH_DOWN;
+        int hiY = Math.max(nodes.y[from], nodes.y[to]) + MOVEMENT_REACH_UP;
+        int loZ = Math.min(nodes.z[from], nodes.z[to]) - MOVEMENT_REACH_XZ;
+        int hiZ = Math.max(nodes.z[from], nodes.z[to]) + MOVEMENT_REACH_XZ;
+        for (int i = 0; i < changedX.length; i++) {
+            if (changedX[i] >= loX && changedX[i] <= hiX && changedY[i] >= loY && changedY[i] <= hiY
+                    && changedZ[i] >= loZ && changedZ[i] <= hiZ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether any movement starting from the node could read one of the changed blocks
+     */
+    private boolean movesNearChangedBlock(int node, int[] changedX, int[] changedY, int[] changedZ) {
+        int reachXZ = MOVEMENT_SPAN_XZ + MOVEMENT_REACH_XZ;
+        for (int i = 0; i < changedX.length; i++) {
+            int dy = changedY[i] - nodes.y[node];
+            if (Math.abs(changedX[i] - nodes.x[node]) <= reachXZ && Math.abs(changedZ[i] - nodes.z[node]) <= reachXZ
+                    && dy >= -MOVEMENT_REACH_DOWN && dy <= MOVEMENT_REACH_UP) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
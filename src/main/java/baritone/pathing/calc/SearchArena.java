@@ -0,0 +1,170 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.Settings;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.calc.openset.PrimitiveBinaryHeapOpenSet;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * The big data structures of a path calculation, kept around per thread so that the next calculation on the same
+ * worker can reuse them instead of allocating and growing new ones.
+ * <p>
+ * Whatever grew past {@link Settings#pathingArenaMaxNodes} is thrown away when the calculation ends, and everything is
+ * thrown away when the arena was not used for {@link Settings#pathingArenaIdleTimeoutMS}, so that one huge search or
+ * a burst of activity doesn't pin memory forever. Worker threads that stay idle long enough die along with their arena.
+ */
+final class SearchArena {
+
+    private static final ThreadLocal<SearchArena> ARENAS = ThreadLocal.withInitial(SearchArena::new);
+
+    private Long2ObjectOpenHashMap<PathNode> nodeMap;
+    private BinaryHeapOpenSet openSet;
+
+    private PrimitiveNodeStore nodeStore;
+    private PrimitiveBinaryHeapOpenSet primitiveOpenSet;
+
+    private final MutableMoveResult moveResult = new MutableMoveResult();
+
+    private SearchTrace trace;
+
+    private boolean inUse;
+    private long lastReleased;
+
+    private int defaultSize;
+    private float loadFactor;
+    private int maxNodes;
+
+    /**
+     * Grabs the arena of the current thread. Must be {@link #release() released} by the same thread once the
+     * calculation is over.
+     *
+     * @param settings The settings of the bot the calculation is for
+     * @return A cleared arena
+     */
+    static SearchArena acquire(Settings settings) {
+        SearchArena arena = ARENAS.get();
+        if (arena.inUse) {
+            // a calculation started from within another one on the same thread, don't share
+            arena = new SearchArena();
+        }
+        long now = System.currentTimeMillis();
+        if (arena.lastReleased != 0 && now - arena.lastReleased > settings.pathingArenaIdleTimeoutMS.get()) {
+            arena.dropObjectNodes();
+            arena.dropPrimitiveNodes();
+        }
+        int defaultSize = settings.pathingMapDefaultSize.get();
+        float loadFactor = settings.pathingMapLoadFactor.get();
+        if (arena.nodeMap != null && (defaultSize != arena.defaultSize || loadFactor != arena.loadFactor)) {
+            // the map can't change its load factor after the fact
+            arena.dropObjectNodes();
+        }
+        arena.defaultSize = defaultSize;
+        arena.loadFactor = loadFactor;
+        arena.maxNodes = settings.pathingArenaMaxNodes.get();
+        arena.inUse = true;
+        return arena;
+    }
+
+    /**
+     * Clears the arena for the next calculation, shrinking it if this one got too big.
+     */
+    void release() {
+        if (nodeMap != null) {
+            if (nodeMap.size() > maxNodes) {
+                dropObjectNodes();
+            } else {
+                nodeMap.clear();
+                openSet.clear();
+            }
+        }
+        if (nodeStore != null) {
+            if (nodeStore.capacity() > maxNodes) {
+                dropPrimitiveNodes();
+            } else {
+                nodeStore.clear();
+                primitiveOpenSet.clear();
+            }
+        }
+        lastReleased = System.currentTimeMillis();
+        inUse = false;
+    }
+
+    Long2ObjectOpenHashMap<PathNode> nodeMap() {
+        if (nodeMap == null) {
+            nodeMap = new Long2ObjectOpenHashMap<>(defaultSize, loadFactor);
+            openSet = new BinaryHeapOpenSet();
+        }
+        return nodeMap;
+    }
+
+    BinaryHeapOpenSet openSet() {
+        nodeMap();
+        return openSet;
+    }
+
+    PrimitiveNodeStore nodeStore() {
+        if (nodeStore == null) {
+            nodeStore = new PrimitiveNodeStore(defaultSize);
+            primitiveOpenSet = new PrimitiveBinaryHeapOpenSet(nodeStore);
+        }
+        return nodeStore;
+    }
+
+    PrimitiveBinaryHeapOpenSet primitiveOpenSet() {
+        nodeStore();
+        return primitiveOpenSet;
+    }
+
+    /**
+     * Hands the node store over to the caller, who keeps it past the end of the calculation.
+     * The arena makes itself a new one the next time it is asked for it.
+     */
+    PrimitiveNodeStore detachNodeStore() {
+        PrimitiveNodeStore store = nodeStore();
+        dropPrimitiveNodes();
+        return store;
+    }
+
+    MutableMoveResult moveResult() {
+        return moveResult;
+    }
+
+    /**
+     * @param capacity The number of events the trace should keep
+     * @return A trace to record a calculation in, which is only reused once it has been written wherever it had to be
+     */
+    SearchTrace trace(int capacity) {
+        if (trace == null || trace.capacity() != SearchTrace.roundCapacity(capacity)) {
+            trace = new SearchTrace(capacity);
+        }
+        return trace;
+    }
+
+    private void dropObjectNodes() {
+        nodeMap = null;
+        openSet = null;
+    }
+
+    private void dropPrimitiveNodes() {
+        nodeStore = null;
+        primitiveOpenSet = null;
+    }
+}
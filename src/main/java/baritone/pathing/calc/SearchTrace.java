@@ -0,0 +1,369 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.pathing.movement.Moves;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The last things a path calculation did: every node it expanded and what became of every movement out of them.
+ * <p>
+ * Events go into arrays allocated once, oldest events being overwritten when they are full, so that recording costs
+ * a few array writes. Traces can be written to a file and read back without Minecraft running, the events being
+ * indexed from the oldest one still in the trace.
+ *
+ * @see baritone.api.Settings#searchTrace
+ */
+public final class SearchTrace {
+
+    private static final int SEARCH_TRACE_MAGIC = 0x41545243;
+    private static final byte VERSION = 1;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    public enum Event {
+        /**
+         * A node was taken out of the open set, the cost is the cost of getting there
+         */
+        EXPANDED,
+        /**
+         * A movement reached its destination for less than before
+         */
+        IMPROVED,
+        /**
+         * A movement was possible, but its destination could already be reached for less
+         */
+        NOT_IMPROVED,
+        /**
+         * The cost of a movement was {@link baritone.api.pathing.movement.ActionCosts#COST_INF}
+         */
+        IMPOSSIBLE,
+        /**
+         * A movement would have run out of breath
+         */
+        OUT_OF_BREATH,
+        /**
+         * A movement would have gone past the world border
+         */
+        WORLD_BORDER,
+        /**
+         * A movement would have gone above or below the world
+         */
+        OUT_OF_HEIGHT,
+        /**
+         * A movement would have gone into a chunk that isn't loaded
+         */
+        UNLOADED_CHUNK
+    }
+
+    private static final Event[] EVENTS = Event.values();
+    private static final Moves[] MOVES = Moves.values();
+
+    private final byte[] events;
+    /**
+     * The ordinal of the movement, in {@link #moveTable}, or -1 for {@link Event#EXPANDED}
+     */
+    private final byte[] moves;
+    private final int[] x;
+    private final int[] y;
+    private final int[] z;
+    private final float[] costs;
+    /**
+     * How long the cost calculation of the movement took, 0 when it wasn't calculated
+     */
+    private final int[] nanos;
+    private final int mask;
+
+    /**
+     * What the movement ordinals stand for, which are the movements of the running game unless the trace was read
+     * from a file
+     */
+    private Moves[] moveTable = MOVES;
+
+    private long written;
+    private int startX;
+    private int startY;
+    private int startZ;
+    private String goal = "";
+    private long durationNanos;
+
+    /**
+     * @param capacity The number of events to keep, rounded up to a power of two
+     */
+    SearchTrace(int capacity) {
+        int size = roundCapacity(capacity);
+        this.events = new byte[size];
+        this.moves = new byte[size];
+        this.x = new int[size];
+        this.y = new int[size];
+        this.z = new int[size];
+        this.costs = new float[size];
+        this.nanos = new int[size];
+        this.mask = size - 1;
+    }
+
+    static int roundCapacity(int capacity) {
+        return Integer.highestOneBit(Math.max(1, Math.min(capacity, MAX_CAPACITY) - 1)) << 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Forgets every event, for a new calculation
+     */
+    void start(int startX, int startY, int startZ, String goal) {
+        this.written = 0;
+        this.startX = startX;
+        this.startY = startY;
+        this.startZ = startZ;
+        this.goal = goal;
+        this.durationNanos = 0;
+    }
+
+    void finish(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    void expanded(int x, int y, int z, double cost) {
+        record(Event.EXPANDED, -1, x, y, z, cost, 0);
+    }
+
+    /**
+     * @param x     The destination of the movement, or where it would have gone if it wasn't calculated
+     * @param nanos How long calculating its cost took, 0 if it wasn't calculated
+     */
+    void movement(Event event, Moves move, int x, int y, int z, double cost, long nanos) {
+        record(event, move.ordinal(), x, y, z, cost, nanos);
+    }
+
+    private void record(Event event, int move, int x, int y, int z, double cost, long nanos) {
+        int i = (int) written & mask;
+        this.events[i] = (byte) event.ordinal();
+        this.moves[i] = (byte) move;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+        this.costs[i] = (float) cost;
+        this.nanos[i] = (int) Math.min(nanos, Integer.MAX_VALUE);
+        written++;
+    }
+
+    /**
+     * @return The number of events in the trace, at most its capacity
+     */
+    public int size() {
+        return (int) Math.min(written, mask + 1);
+    }
+
+    /**
+     * @return The number of events that were recorded, including those that were overwritten
+     */
+    public long recorded() {
+        return written;
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException(i + " out of " + size());
+        }
+        return (int) (written - size() + i) & mask;
+    }
+
+    public Event event(int i) {
+        return EVENTS[events[index(i)]];
+    }
+
+    /**
+     * @return The movement of a movement event, null for {@link Event#EXPANDED}, or if the trace was written by a
+     * version with a movement this one doesn't have
+     */
+    public @Nullable Moves move(int i) {
+        int move = moves[index(i)];
+        return move < 0 ? null : moveTable[move];
+    }
+
+    public int x(int i) {
+        return x[index(i)];
+    }
+
+    public int y(int i) {
+        return y[index(i)];
+    }
+
+    public int z(int i) {
+        return z[index(i)];
+    }
+
+    public double cost(int i) {
+        return costs[index(i)];
+    }
+
+    public long nanos(int i) {
+        return nanos[index(i)];
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public int getStartZ() {
+        return startZ;
+    }
+
+    /**
+     * @return What the goal of the calculation looked like
+     */
+    public String getGoal() {
+        return goal;
+    }
+
+    /**
+     * @return How long the calculation took, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut, 16384), 32768))) {
+            out.writeInt(SEARCH_TRACE_MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(startX);
+            out.writeInt(startY);
+            out.writeInt(startZ);
+            out.writeUTF(goal);
+            out.writeLong(durationNanos);
+            // by name, so that traces survive movements being added
+            out.writeByte(moveTable.length);
+            for (Moves move : moveTable) {
+                out.writeUTF(move == null ? "" : move.name());
+            }
+            out.writeLong(written);
+            int size = size();
+            out.writeInt(size);
+            // a column at a time, which compresses much better
+            for (int i = 0; i < size; i++) {
+                out.writeByte(events[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeByte(moves[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(x[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(y[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(z[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeFloat(costs[index(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(nanos[index(i)]);
+            }
+        }
+    }
+
+    public static SearchTrace read(Path file) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn, 16384), 32768))) {
+            if (in.readInt() != SEARCH_TRACE_MAGIC) {
+                throw new IOException("Not a search trace");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported search trace version " + version);
+            }
+            int startX = in.readInt();
+            int startY = in.readInt();
+            int startZ = in.readInt();
+            String goal = in.readUTF();
+            long durationNanos = in.readLong();
+            Moves[] moveTable = new Moves[in.readUnsignedByte()];
+            for (int i = 0; i < moveTable.length; i++) {
+                String name = in.readUTF();
+                for (Moves move : MOVES) {
+                    if (move.name().equals(name)) {
+                        moveTable[i] = move;
+                    }
+                }
+            }
+            long written = in.readLong();
+            int size = in.readInt();
+            if (size < 0 || size > written || size > MAX_CAPACITY) {
+                throw new IOException("Corrupt search trace, " + size + " events out of " + written);
+            }
+            SearchTrace trace = new SearchTrace(size);
+            trace.start(startX, startY, startZ, goal);
+            trace.finish(durationNanos);
+            trace.moveTable = moveTable;
+            trace.written = written;
+            for (int i = 0; i < size; i++) {
+                byte event = in.readByte();
+                if (event < 0 || event >= EVENTS.length) {
+                    throw new IOException("Unknown search trace event " + event);
+                }
+                trace.events[trace.index(i)] = event;
+            }
+            for (int i = 0; i < size; i++) {
+                byte move = in.readByte();
+                if (move >= moveTable.length) {
+                    throw new IOException("Unknown search trace movement " + move);
+                }
+                trace.moves[trace.index(i)] = move;
+            }
+            for (int i = 0; i < size; i++) {
+                trace.x[trace.index(i)] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                trace.y[trace.index(i)] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                trace.z[trace.index(i)] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                trace.costs[trace.index(i)] = in.readFloat();
+            }
+            for (int i = 0; i < size; i++) {
+                trace.nanos[trace.index(i)] = in.readInt();
+            }
+            return trace;
+        }
+    }
+}
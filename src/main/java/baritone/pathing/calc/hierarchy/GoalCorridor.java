@@ -0,0 +1,157 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.hierarchy;
+
+import baritone.api.Settings;
+import baritone.api.pathing.goals.Goal;
+import baritone.pathing.movement.CalculationContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Steers a path calculation towards a far away goal along a route through the regions of the {@link SectionGraph}.
+ * <p>
+ * Before the calculation starts, {@link #plan} finds the route, or picks up the rest of the route of the previous
+ * segment. The calculation then only refines the first few regions of it: positions in the goal or in the last refined
+ * region are in this goal, and the heuristic is the lowest, over the refined regions, of the distance to the center of
+ * the region plus the estimated cost from there along the rest of the route. Without a route, this is the same as the
+ * goal it wraps.
+ *
+ * @see Settings#hierarchicalPathing
+ */
+public final class GoalCorridor implements Goal {
+
+    private final Goal goal;
+
+    /**
+     * Set once by {@link #plan}, before the calculation reads anything
+     */
+    private volatile @Nullable RegionRoute route;
+
+    /**
+     * The index of the last region of the route the calculation refines
+     */
+    private int waypoint;
+
+    public GoalCorridor(Goal goal) {
+        this.goal = goal;
+    }
+
+    /**
+     * @return The goal this is steering towards
+     */
+    public Goal getGoal() {
+        return goal;
+    }
+
+    /**
+     * Finds the route to follow, on the thread of the calculation
+     *
+     * @param previous  The corridor of the previous segment, which this one can continue along
+     * @param deadline  The {@link System#currentTimeMillis()} by which to settle for the best route so far
+     * @param cancelled Whether the calculation was cancelled, in which case there is no route
+     */
+    public void plan(int startX, int startY, int startZ, CalculationContext context, @Nullable GoalCorridor previous,
+                     long deadline, BooleanSupplier cancelled) {
+        Settings settings = context.settings;
+        RegionRoute route = null;
+        RegionRoute previousRoute = previous == null ? null : previous.route;
+        // a route that ended short of the goal is worth finding again, there is more known terrain by now
+        if (previousRoute != null && previousRoute.reachesGoal && previous.goal.equals(goal)) {
+            int index = previousRoute.indexOf(startX, startY, startZ);
+            if (index < 0) {
+                index = previousRoute.indexOf(startX, startY - 1, startZ);
+            }
+            if (index >= 0) {
+                route = previousRoute.from(index);
+            }
+        }
+        if (route == null) {
+            int maxRegions = Math.min(settings.hierarchicalPathingMaxRegions.get(), SectionGraph.MAX_ROUTE_REGIONS);
+            route = RegionRoute.find(context.worldData.sectionGraph, context.bsi, startX, startY, startZ, goal, maxRegions, deadline, cancelled);
+            if (route != null) {
+                context.baritone.logDebug("Region route of " + route.length() + " regions, " + route.expanded + " expanded"
+                        + (route.reachesGoal ? "" : ", ending short of the goal"));
+            }
+        }
+        if (route != null) {
+            waypoint = Math.min(route.length() - 1, settings.hierarchicalPathingRefineRegions.get());
+        }
+        this.route = route; // volatile write last
+    }
+
+    @Override
+    public boolean isInGoal(int x, int y, int z) {
+        if (goal.isInGoal(x, y, z)) {
+            return true;
+        }
+        RegionRoute route = this.route;
+        // the last region of a route to the goal is only the way in, and the first one is where we are
+        return route != null && waypoint > 0 && (waypoint < route.length() - 1 || !route.reachesGoal)
+                && route.contains(waypoint, x, y, z);
+    }
+
+    @Override
+    public double heuristic(int x, int y, int z) {
+        RegionRoute route = this.route;
+        if (route == null) {
+            return goal.heuristic(x, y, z);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (route.reachesGoal && waypoint == route.length() - 1) {
+            best = goal.heuristic(x, y, z);
+        }
+        for (int i = 0; i <= waypoint; i++) {
+            best = Math.min(best, SectionGraph.cost(x, y, z, route.centerX(i), route.centerY(i), route.centerZ(i)) + route.remaining[i]);
+        }
+        return best;
+    }
+
+    /**
+     * Two corridors are equal if they wrap the same goal, and steer the same way towards it
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        GoalCorridor corridor = (GoalCorridor) o;
+        return goal.equals(corridor.goal) && Objects.equals(route, corridor.route) && waypoint == corridor.waypoint;
+    }
+
+    @Override
+    public int hashCode() {
+        return (goal.hashCode() * 31 + Objects.hashCode(route)) * 31 + waypoint;
+    }
+
+    @Override
+    public String toString() {
+        RegionRoute route = this.route;
+        return String.format(
+                "GoalCorridor{goal=%s,route=%s}",
+                goal,
+                route == null ? "none" : (waypoint + 1) + "/" + route.length()
+        );
+    }
+}
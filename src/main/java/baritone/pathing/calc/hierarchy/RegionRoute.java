@@ -0,0 +1,304 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.hierarchy;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.utils.BlockStateInterface;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A path through the regions of a {@link SectionGraph}, from the region of the start to either the goal, or the
+ * known region that looked the closest to it when the goal couldn't be reached through known terrain.
+ */
+final class RegionRoute {
+
+    /**
+     * How many regions are expanded between two checks of the deadline, a power of two
+     */
+    private static final int TIME_CHECK_INTERVAL = 1 << 4;
+
+    /**
+     * The regions along the way, the start first
+     */
+    final SectionRegions[] sections;
+    final int[] regions;
+
+    /**
+     * The estimated cost from each region to the goal, through the rest of the route
+     */
+    final double[] remaining;
+
+    /**
+     * Whether the last region has a position in the goal
+     */
+    final boolean reachesGoal;
+
+    final int expanded;
+
+    private RegionRoute(SectionRegions[] sections, int[] regions, double[] remaining, boolean reachesGoal, int expanded) {
+        this.sections = sections;
+        this.regions = regions;
+        this.remaining = remaining;
+        this.reachesGoal = reachesGoal;
+        this.expanded = expanded;
+    }
+
+    int length() {
+        return regions.length;
+    }
+
+    int centerX(int i) {
+        return sections[i].centerX[regions[i]];
+    }
+
+    int centerY(int i) {
+        return sections[i].centerY[regions[i]];
+    }
+
+    int centerZ(int i) {
+        return sections[i].centerZ[regions[i]];
+    }
+
+    boolean contains(int i, int x, int y, int z) {
+        SectionRegions section = sections[i];
+        return x >> 4 == section.sectionX && y >> 4 == section.sectionY && z >> 4 == section.sectionZ
+                && section.getRegion(x & 15, y & 15, z & 15) == regions[i];
+    }
+
+    /**
+     * @return The index of the region containing the given position, or -1
+     */
+    int indexOf(int x, int y, int z) {
+        for (int i = 0; i < regions.length; i++) {
+            if (contains(i, x, y, z)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The same route, starting from the given index
+     */
+    RegionRoute from(int start) {
+        int length = regions.length - start;
+        SectionRegions[] sections = new SectionRegions[length];
+        int[] regions = new int[length];
+        double[] remaining = new double[length];
+        System.arraycopy(this.sections, start, sections, 0, length);
+        System.arraycopy(this.regions, start, regions, 0, length);
+        System.arraycopy(this.remaining, start, remaining, 0, length);
+        return new RegionRoute(sections, regions, remaining, reachesGoal, 0);
+    }
+
+    /**
+     * Two routes are equal if they go through the same regions of the same sections, a section that was forgotten and
+     * built again being a different one
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        RegionRoute route = (RegionRoute) o;
+        return reachesGoal == route.reachesGoal && Arrays.equals(regions, route.regions) && Arrays.equals(sections, route.sections);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(regions) * 31 + Boolean.hashCode(reachesGoal);
+    }
+
+    private static final class Node {
+
+        private final SectionRegions section;
+        private final int region;
+        private double cost;
+        private final double estimate;
+        private @Nullable Node previous;
+        private boolean closed;
+        private int depth;
+
+        private Node(SectionRegions section, int region, double estimate) {
+            this.section = section;
+            this.region = region;
+            this.estimate = estimate;
+        }
+
+        private int x() {
+            return section.centerX[region];
+        }
+
+        private int y() {
+            return section.centerY[region];
+        }
+
+        private int z() {
+            return section.centerZ[region];
+        }
+    }
+
+    private static final class Queued {
+
+        private final Node node;
+        private final double priority;
+
+        private Queued(Node node) {
+            this.node = node;
+            this.priority = node.cost + node.estimate;
+        }
+    }
+
+    /**
+     * A* over the regions of the graph
+     *
+     * @param maxExpanded How many regions to expand at most before settling for the closest one so far
+     * @param deadline    The {@link System#currentTimeMillis()} after which to settle for the closest one so far
+     * @param cancelled   Whether the calculation this route is for was cancelled
+     * @return The route, or null if the start isn't in any known region or the calculation was cancelled
+     */
+    static @Nullable RegionRoute find(SectionGraph graph, BlockStateInterface bsi, int startX, int startY, int startZ, Goal goal,
+                                      int maxExpanded, long deadline, BooleanSupplier cancelled) {
+        long startKey = graph.regionAt(startX, startY, startZ, bsi);
+        if (startKey == SectionGraph.NO_REGION) {
+            // probably in the middle of a jump
+            startKey = graph.regionAt(startX, startY - 1, startZ, bsi);
+        }
+        if (startKey == SectionGraph.NO_REGION) {
+            return null;
+        }
+        SectionRegions startSection = graph.getSection(SectionGraph.sectionX(startKey), SectionGraph.sectionY(startKey), SectionGraph.sectionZ(startKey), bsi);
+        if (startSection == null) {
+            return null;
+        }
+        Long2ObjectOpenHashMap<Node> nodes = new Long2ObjectOpenHashMap<>();
+        PriorityQueue<Queued> openSet = new PriorityQueue<>(Comparator.comparingDouble(q -> q.priority));
+        Node start = node(startSection, SectionGraph.region(startKey), goal);
+        start.cost = 0;
+        nodes.put(startKey, start);
+        openSet.add(new Queued(start));
+        Node best = start;
+        Node end = null;
+        int expanded = 0;
+        LongOpenHashSet edges = new LongOpenHashSet();
+        while (!openSet.isEmpty() && expanded < maxExpanded) {
+            Node current = openSet.poll().node;
+            if (current.closed) {
+                continue; // it got a better cost after being queued, and was already expanded at that cost
+            }
+            current.closed = true;
+            // building sections is what takes time, so check every few regions like the block by block search does
+            if ((expanded & (TIME_CHECK_INTERVAL - 1)) == 0) {
+                if (cancelled.getAsBoolean()) {
+                    return null;
+                }
+                if (System.currentTimeMillis() - deadline >= 0) {
+                    break;
+                }
+            }
+            expanded++;
+            if (isInGoal(current, goal)) {
+                end = current;
+                break;
+            }
+            if (current.estimate < best.estimate) {
+                best = current;
+            }
+            edges.clear();
+            graph.edges(current.section, current.region, bsi, edges);
+            for (LongIterator it = edges.iterator(); it.hasNext(); ) {
+                long key = it.nextLong();
+                Node neighbor = nodes.get(key);
+                if (neighbor == null) {
+                    SectionRegions section = graph.getSection(SectionGraph.sectionX(key), SectionGraph.sectionY(key), SectionGraph.sectionZ(key), bsi);
+                    if (section == null || SectionGraph.region(key) > section.regionCount) {
+                        continue; // forgotten and found again differently since the edge was found
+                    }
+                    neighbor = node(section, SectionGraph.region(key), goal);
+                    nodes.put(key, neighbor);
+                }
+                if (neighbor.closed) {
+                    continue;
+                }
+                double cost = current.cost + SectionGraph.cost(current.x(), current.y(), current.z(), neighbor.x(), neighbor.y(), neighbor.z());
+                if (cost < neighbor.cost) {
+                    neighbor.cost = cost;
+                    neighbor.previous = current;
+                    neighbor.depth = current.depth + 1;
+                    // no decrease key, the stale entry is skipped once this one is expanded
+                    openSet.add(new Queued(neighbor));
+                }
+            }
+        }
+        boolean reachesGoal = end != null;
+        if (end == null) {
+            end = best;
+        }
+        int length = end.depth + 1;
+        SectionRegions[] sections = new SectionRegions[length];
+        int[] regions = new int[length];
+        double[] remaining = new double[length];
+        double leftover = reachesGoal ? 0 : end.estimate;
+        Node node = end;
+        for (int i = length - 1; i >= 0; i--) {
+            sections[i] = node.section;
+            regions[i] = node.region;
+            remaining[i] = end.cost - node.cost + leftover;
+            node = node.previous;
+        }
+        return new RegionRoute(sections, regions, remaining, reachesGoal, expanded);
+    }
+
+    private static Node node(SectionRegions section, int region, Goal goal) {
+        Node node = new Node(section, region, goal.heuristic(section.centerX[region], section.centerY[region], section.centerZ[region]));
+        node.cost = Double.POSITIVE_INFINITY;
+        return node;
+    }
+
+    private static boolean isInGoal(Node node, Goal goal) {
+        if (goal.isInGoal(node.x(), node.y(), node.z())) {
+            return true;
+        }
+        SectionRegions section = node.section;
+        int baseX = section.sectionX << 4;
+        int baseY = section.sectionY << 4;
+        int baseZ = section.sectionZ << 4;
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (section.getRegion(x, y, z) == node.region && goal.isInGoal(baseX + x, baseY + y, baseZ + z)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
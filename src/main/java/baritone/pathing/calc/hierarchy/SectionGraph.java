@@ -0,0 +1,214 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.hierarchy;
+
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.cache.WorldData;
+import baritone.utils.BlockStateInterface;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The graph of the {@link SectionRegions} of a world, shared by every bot in it.
+ * <p>
+ * Regions are computed from the terrain the first time a search needs them, and forgotten when a block changes in or
+ * right next to their section, or when too many sections are remembered. Each region is a node of the graph, and
+ * there is an edge from a region to every region that can be reached by walking, jumping up one block or falling
+ * up to three blocks from one of its positions. Edges are found again every time they are asked for, only regions
+ * are worth remembering.
+ */
+public final class SectionGraph implements WorldData.BlockChangeListener {
+
+    /**
+     * How many sections are remembered at most, a bit over 4 kB each
+     */
+    private static final int MAX_SECTIONS = 2048;
+
+    /**
+     * How many regions a route search expands at most. Every expanded region pulls in the sections around it, so a
+     * search that expands more than half as many regions as there are remembered sections starts forgetting the
+     * sections it is still working with and building them again.
+     */
+    static final int MAX_ROUTE_REGIONS = MAX_SECTIONS / 2;
+
+    /**
+     * How far an edge can fall
+     */
+    private static final int MAX_FALL = 3;
+
+    /**
+     * Returned by {@link #regionAt} for positions that are in no region. Region numbers start at 1, so no
+     * {@link #key} ever has a region number of 0 and this can't collide with a real key, unlike -1 which is the key of
+     * region 255 of section (-1, -1, -1).
+     */
+    static final long NO_REGION = Long.MIN_VALUE;
+
+    private final Long2ObjectLinkedOpenHashMap<SectionRegions> sections = new Long2ObjectLinkedOpenHashMap<>();
+
+    public SectionGraph(WorldData worldData) {
+        worldData.addBlockChangeListener(this);
+    }
+
+    /**
+     * Packs a region into a single long: the section coordinates and the region number
+     */
+    static long key(int sectionX, int sectionY, int sectionZ, int region) {
+        return ((long) sectionX & 0x3FFFFF) << 42 | ((long) sectionZ & 0x3FFFFF) << 20 | ((long) sectionY & 0xFFF) << 8 | region;
+    }
+
+    static int sectionX(long key) {
+        return (int) (key >> 42);
+    }
+
+    static int sectionZ(long key) {
+        return (int) (key << 22 >> 42);
+    }
+
+    static int sectionY(long key) {
+        return (int) (key << 44 >> 52);
+    }
+
+    static int region(long key) {
+        return (int) (key & 0xFF);
+    }
+
+    /**
+     * @return The regions of the given section, or null if it isn't known
+     */
+    @Nullable SectionRegions getSection(int sectionX, int sectionY, int sectionZ, BlockStateInterface bsi) {
+        long pos = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+        synchronized (sections) {
+            SectionRegions regions = sections.getAndMoveToLast(pos);
+            if (regions != null) {
+                return regions;
+            }
+        }
+        // built without holding the lock, two searches may both build it, which is harmless
+        SectionRegions regions = SectionRegions.build(bsi, sectionX, sectionY, sectionZ);
+        if (regions != null) {
+            synchronized (sections) {
+                sections.putAndMoveToLast(pos, regions);
+                if (sections.size() > MAX_SECTIONS) {
+                    sections.removeFirst();
+                }
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * @return The key of the region the given position is in, or {@link #NO_REGION} if it is in none
+     */
+    long regionAt(int x, int y, int z, BlockStateInterface bsi) {
+        SectionRegions section = getSection(x >> 4, y >> 4, z >> 4, bsi);
+        if (section == null) {
+            return NO_REGION;
+        }
+        int region = section.getRegion(x & 15, y & 15, z & 15);
+        return region == SectionRegions.NO_REGION ? NO_REGION : key(section.sectionX, section.sectionY, section.sectionZ, region);
+    }
+
+    private boolean isPassable(int x, int y, int z, BlockStateInterface bsi) {
+        SectionRegions section = getSection(x >> 4, y >> 4, z >> 4, bsi);
+        return section != null && section.isPassable(x & 15, y & 15, z & 15);
+    }
+
+    /**
+     * Finds every region that can be reached directly from the given one
+     *
+     * @param section The section of the region
+     * @param region  The region number
+     * @param result  Filled with the keys of the reachable regions
+     */
+    void edges(SectionRegions section, int region, BlockStateInterface bsi, LongOpenHashSet result) {
+        long self = key(section.sectionX, section.sectionY, section.sectionZ, region);
+        int baseX = section.sectionX << 4;
+        int baseY = section.sectionY << 4;
+        int baseZ = section.sectionZ << 4;
+        for (int ly = 0; ly < 16; ly++) {
+            for (int lz = 0; lz < 16; lz++) {
+                for (int lx = 0; lx < 16; lx++) {
+                    if (section.getRegion(lx, ly, lz) != region) {
+                        continue;
+                    }
+                    int x = baseX + lx;
+                    int y = baseY + ly;
+                    int z = baseZ + lz;
+                    boolean jumpRoom = isPassable(x, y + 2, z, bsi);
+                    for (int dir = 0; dir < 4; dir++) {
+                        int nx = x + (dir == 0 ? 1 : dir == 1 ? -1 : 0);
+                        int nz = z + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+                        add(result, self, regionAt(nx, y, nz, bsi));
+                        if (jumpRoom) {
+                            add(result, self, regionAt(nx, y + 1, nz, bsi));
+                        }
+                        if (!isPassable(nx, y, nz, bsi) || !isPassable(nx, y + 1, nz, bsi)) {
+                            continue;
+                        }
+                        // walk off the edge, and land on whatever is first below
+                        for (int fall = 1; fall <= MAX_FALL; fall++) {
+                            long landing = regionAt(nx, y - fall, nz, bsi);
+                            if (landing != NO_REGION) {
+                                add(result, self, landing);
+                                break;
+                            }
+                            if (!isPassable(nx, y - fall, nz, bsi)) {
+                                break;
+                            }
+                        }
+                    }
+                    // swimming up and down, only ever across a section border since it is one region otherwise
+                    if (ly == 15) {
+                        add(result, self, regionAt(x, y + 1, z, bsi));
+                    }
+                    if (ly == 0) {
+                        add(result, self, regionAt(x, y - 1, z, bsi));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void add(LongOpenHashSet result, long self, long key) {
+        if (key != NO_REGION && key != self) {
+            result.add(key);
+        }
+    }
+
+    /**
+     * The cost of going between the centers of two regions, on the same scale as goal heuristics
+     */
+    static double cost(int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+        return GoalBlock.calculate(toX - fromX, toY - fromY, toZ - fromZ);
+    }
+
+    @Override
+    public void onBlockChange(int x, int y, int z) {
+        // a block is the floor of the section above it and the headroom of the section below it
+        synchronized (sections) {
+            if (sections.isEmpty()) {
+                return;
+            }
+            for (int dy = -2; dy <= 1; dy++) {
+                sections.remove(ChunkSectionPos.asLong(x >> 4, (y + dy) >> 4, z >> 4));
+            }
+        }
+    }
+}
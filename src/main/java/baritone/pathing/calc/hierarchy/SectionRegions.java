@@ -0,0 +1,226 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.hierarchy;
+
+import baritone.cache.ChunkPacker;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.PathingBlockType;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The places an entity can stand in a 16x16x16 chunk section, grouped into regions that can be walked between
+ * without leaving the section.
+ * <p>
+ * A position is standable when it and the block above can be walked through and the block below can be walked on,
+ * or when it is still water. Standable positions next to each other, one block up or down when there is room to
+ * jump, are in the same region. Falls and anything that needs breaking or placing blocks are left out, this is only
+ * meant to tell roughly which way to go.
+ */
+final class SectionRegions {
+
+    /**
+     * Value of {@link #regionOf} for positions that can't be stood in. Regions are numbered from 1.
+     */
+    static final int NO_REGION = 0;
+
+    /**
+     * Regions are stored in a byte, positions past this many regions are left out
+     */
+    static final int MAX_REGIONS = 255;
+
+    private static final int AIR = PathingBlockType.AIR.getRawBits();
+    private static final int WATER = PathingBlockType.WATER.getRawBits();
+    private static final int SOLID = PathingBlockType.SOLID.getRawBits();
+
+    final int sectionX;
+    final int sectionY;
+    final int sectionZ;
+
+    /**
+     * The region of each position of the section, by {@link #index(int, int, int)}
+     */
+    private final byte[] regionOf;
+
+    /**
+     * One bit per position of the section, set when it can be walked or fallen through
+     */
+    private final long[] passable;
+
+    final int regionCount;
+
+    /*
+     * A position of each region close to its middle, in world coordinates, by region number
+     */
+    final int[] centerX;
+    final int[] centerY;
+    final int[] centerZ;
+
+    private SectionRegions(int sectionX, int sectionY, int sectionZ, byte[] regionOf, long[] passable, int regionCount, int[] centerX, int[] centerY, int[] centerZ) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.regionOf = regionOf;
+        this.passable = passable;
+        this.regionCount = regionCount;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+    }
+
+    static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    /**
+     * @param x The x coordinate in the section, from 0 to 15
+     * @param y The y coordinate in the section, from 0 to 15
+     * @param z The z coordinate in the section, from 0 to 15
+     */
+    int getRegion(int x, int y, int z) {
+        return regionOf[index(x, y, z)] & 0xFF;
+    }
+
+    boolean isPassable(int x, int y, int z) {
+        int index = index(x, y, z);
+        return (passable[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Reads the section through the given block state interface, which may be a snapshot or fall back to the cache
+     *
+     * @return The regions of the section, or null if its chunk isn't known at all
+     */
+    static @Nullable SectionRegions build(BlockStateInterface bsi, int sectionX, int sectionY, int sectionZ) {
+        int baseX = sectionX << 4;
+        int baseY = sectionY << 4;
+        int baseZ = sectionZ << 4;
+        if (!bsi.isLoaded(baseX, baseZ)) {
+            return null;
+        }
+        // from one block below the section to two above, for the floor and the headroom of the edges
+        byte[] types = new byte[16 * 16 * 19];
+        for (int y = -1; y < 18; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    types[typeIndex(x, y, z)] = (byte) ChunkPacker.getPathingBlockType(bsi.get0(baseX + x, baseY + y, baseZ + z)).getRawBits();
+                }
+            }
+        }
+        boolean[] standable = new boolean[4096];
+        long[] passable = new long[64];
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int type = types[typeIndex(x, y, z)];
+                    if (type != AIR && type != WATER) {
+                        continue;
+                    }
+                    int index = index(x, y, z);
+                    passable[index >> 6] |= 1L << index;
+                    int above = types[typeIndex(x, y + 1, z)];
+                    if ((above == AIR || above == WATER) && (type == WATER || types[typeIndex(x, y - 1, z)] == SOLID)) {
+                        standable[index] = true;
+                    }
+                }
+            }
+        }
+
+        byte[] regionOf = new byte[4096];
+        int[] queue = new int[4096];
+        int regionCount = 0;
+        int[] centerX = new int[MAX_REGIONS + 1];
+        int[] centerY = new int[MAX_REGIONS + 1];
+        int[] centerZ = new int[MAX_REGIONS + 1];
+        for (int seed = 0; seed < 4096 && regionCount < MAX_REGIONS; seed++) {
+            if (!standable[seed] || regionOf[seed] != 0) {
+                continue;
+            }
+            int region = ++regionCount;
+            regionOf[seed] = (byte) region;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            long sumX = 0, sumY = 0, sumZ = 0;
+            while (head < tail) {
+                int index = queue[head++];
+                int x = index & 15;
+                int z = (index >> 4) & 15;
+                int y = index >> 8;
+                sumX += x;
+                sumY += y;
+                sumZ += z;
+                boolean jumpRoom = isAirOrWater(types[typeIndex(x, y + 2, z)]);
+                for (int dir = 0; dir < 4; dir++) {
+                    int nx = x + (dir == 0 ? 1 : dir == 1 ? -1 : 0);
+                    int nz = z + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+                    if (nx < 0 || nx > 15 || nz < 0 || nz > 15) {
+                        continue;
+                    }
+                    tail = visit(standable, regionOf, queue, tail, region, nx, y, nz);
+                    if (y < 15 && jumpRoom) {
+                        tail = visit(standable, regionOf, queue, tail, region, nx, y + 1, nz);
+                    }
+                    if (y > 0 && isAirOrWater(types[typeIndex(nx, y + 1, nz)])) {
+                        tail = visit(standable, regionOf, queue, tail, region, nx, y - 1, nz);
+                    }
+                }
+                // standing on top of each other only happens in water, swimming up and down
+                if (y < 15) {
+                    tail = visit(standable, regionOf, queue, tail, region, x, y + 1, z);
+                }
+                if (y > 0) {
+                    tail = visit(standable, regionOf, queue, tail, region, x, y - 1, z);
+                }
+            }
+            // the position of the region closest to its average
+            double avgX = (double) sumX / tail, avgY = (double) sumY / tail, avgZ = (double) sumZ / tail;
+            int best = seed;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < tail; i++) {
+                int index = queue[i];
+                double dx = (index & 15) - avgX, dy = (index >> 8) - avgY, dz = ((index >> 4) & 15) - avgZ;
+                double dist = dx * dx + dy * dy + dz * dz;
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = index;
+                }
+            }
+            centerX[region] = baseX + (best & 15);
+            centerY[region] = baseY + (best >> 8);
+            centerZ[region] = baseZ + ((best >> 4) & 15);
+        }
+        return new SectionRegions(sectionX, sectionY, sectionZ, regionOf, passable, regionCount, centerX, centerY, centerZ);
+    }
+
+    private static int visit(boolean[] standable, byte[] regionOf, int[] queue, int tail, int region, int x, int y, int z) {
+        int index = index(x, y, z);
+        if (standable[index] && regionOf[index] == 0) {
+            regionOf[index] = (byte) region;
+            queue[tail++] = index;
+        }
+        return tail;
+    }
+
+    private static boolean isAirOrWater(int type) {
+        return type == AIR || type == WATER;
+    }
+
+    private static int typeIndex(int x, int y, int z) {
+        return ((y + 1) << 8) | (z << 4) | x;
+    }
+}
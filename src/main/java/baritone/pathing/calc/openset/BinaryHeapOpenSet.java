@@ -130,4 +130,12 @@ public final class BinaryHeapOpenSet implements IOpenSet {
         } while ((smallerChild <<= 1) <= size);
         return result;
     }
+
+    /**
+     * Empties this heap, keeping the backing array
+     */
+    public void clear() {
+        Arrays.fill(array, 1, size + 1, null);
+        size = 0;
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.PrimitiveNodeStore;
+
+import java.util.Arrays;
+
+/**
+ * The same thing as {@link BinaryHeapOpenSet}, but over node ids of a {@link PrimitiveNodeStore}
+ */
+public final class PrimitiveBinaryHeapOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final PrimitiveNodeStore nodes;
+
+    /**
+     * The array backing the heap, holding node ids
+     */
+    private int[] array;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public PrimitiveBinaryHeapOpenSet(PrimitiveNodeStore nodes) {
+        this(nodes, INITIAL_CAPACITY);
+    }
+
+    public PrimitiveBinaryHeapOpenSet(PrimitiveNodeStore nodes, int size) {
+        this.nodes = nodes;
+        this.size = 0;
+        this.array = new int[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(int id) {
+        if (size >= array.length - 1) {
+            array = Arrays.copyOf(array, array.length << 1);
+        }
+        size++;
+        nodes.heapPosition[id] = size;
+        array[size] = id;
+        update(id);
+    }
+
+    public void update(int id) {
+        // the arrays of the store never change during a heap operation, grab them once
+        int[] heapPosition = nodes.heapPosition;
+        double[] combinedCost = nodes.combinedCost;
+        int index = heapPosition[id];
+        int parentInd = index >>> 1;
+        double cost = combinedCost[id];
+        int parentNode = array[parentInd];
+        while (index > 1 && combinedCost[parentNode] > cost) {
+            array[index] = parentNode;
+            array[parentInd] = id;
+            heapPosition[id] = parentInd;
+            heapPosition[parentNode] = index;
+            index = parentInd;
+            parentInd = index >>> 1;
+            parentNode = array[parentInd];
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        int[] heapPosition = nodes.heapPosition;
+        double[] combinedCost = nodes.combinedCost;
+        int result = array[1];
+        int val = array[size];
+        array[1] = val;
+        heapPosition[val] = 1;
+        size--;
+        heapPosition[result] = -1;
+        if (size < 2) {
+            return result;
+        }
+        int index = 1;
+        int smallerChild = 2;
+        double cost = combinedCost[val];
+        do {
+            int smallerChildNode = array[smallerChild];
+            double smallerChildCost = combinedCost[smallerChildNode];
+            if (smallerChild < size) {
+                int rightChildNode = array[smallerChild + 1];
+                double rightChildCost = combinedCost[rightChildNode];
+                if (smallerChildCost > rightChildCost) {
+                    smallerChild++;
+                    smallerChildCost = rightChildCost;
+                    smallerChildNode = rightChildNode;
+                }
+            }
+            if (cost <= smallerChildCost) {
+                break;
+            }
+            array[index] = smallerChildNode;
+            array[smallerChild] = val;
+            heapPosition[val] = smallerChild;
+            heapPosition[smallerChildNode] = index;
+            index = smallerChild;
+        } while ((smallerChild <<= 1) <= size);
+        return result;
+    }
+
+    /**
+     * Empties this heap, keeping the backing array
+     */
+    public void clear() {
+        size = 0;
+    }
+}
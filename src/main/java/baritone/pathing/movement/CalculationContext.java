@@ -20,27 +20,35 @@ package baritone.pathing.movement;
 import baritone.Automatone;
 import baritone.Baritone;
 import baritone.api.IBaritone;
+import baritone.api.Settings;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.behavior.InventoryBehavior;
 import baritone.cache.WorldData;
+import baritone.cache.WorldSnapshot;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.SnapshotBlockStateInterface;
 import baritone.utils.ToolSet;
 import baritone.utils.accessor.ILivingEntityAccessor;
+import baritone.utils.pathing.BetterWorldBorder;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.entity.EntityDimensions;
 import net.minecraft.entity.EntityPose;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.tag.FluidTags;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
+import net.minecraft.world.border.WorldBorder;
 import org.jetbrains.annotations.Nullable;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
@@ -53,11 +61,28 @@ public class CalculationContext {
 
     private static final ItemStack STACK_BUCKET_WATER = new ItemStack(Items.WATER_BUCKET);
 
+    /**
+     * {@link net.minecraft.entity.Entity#getMaxAir()}
+     */
+    private static final int PLAYER_MAX_AIR = 300;
+
     public final boolean safeForThreadedUse;
     public final IBaritone baritone;
+    /**
+     * The settings of the bot, as they were when this context was created
+     */
+    public final Settings settings;
+    /**
+     * The world the calculation is in, null for {@linkplain #CalculationContext(Settings, BlockView, WorldSnapshot) contexts made without one}
+     */
     public final World world;
     public final WorldData worldData;
     public final BlockStateInterface bsi;
+    public final PrecomputedData precomputedData;
+    /**
+     * The chunks this context reads from, or null if it reads the live world
+     */
+    private final @Nullable WorldSnapshot snapshot;
     public final @Nullable ToolSet toolSet;
     public final boolean hasWaterBucket;
     public final boolean hasThrowaway;
@@ -81,6 +106,7 @@ public class CalculationContext {
     public final double walkOnWaterOnePenalty;
     public final int worldBottom;
     public final int worldTop;
+    public final BetterWorldBorder worldBorder;
     public final int width;
     /**The extra space required on each side of the entity for free movement; 0 in the case of a normal size player*/
     public final int requiredSideSpace;
@@ -100,55 +126,202 @@ public class CalculationContext {
     public CalculationContext(IBaritone baritone, boolean forUseOnAnotherThread) {
         this.safeForThreadedUse = forUseOnAnotherThread;
         this.baritone = baritone;
+        Settings settings = baritone.settings().snapshot();
+        this.settings = settings;
         LivingEntity entity = baritone.getPlayerContext().entity();
         this.player = entity instanceof PlayerEntity ? (PlayerEntity) entity : null;
         this.world = baritone.getPlayerContext().world();
         this.worldData = (WorldData) baritone.getWorldProvider().getCurrentWorld();
-        this.bsi = new BlockStateInterface(world);
-        this.toolSet = player == null ? null : new ToolSet(player);
-        this.hasThrowaway = baritone.settings().allowPlace.get() && ((Baritone) baritone).getInventoryBehavior().hasGenericThrowaway();
-        this.hasWaterBucket = player != null && baritone.settings().allowWaterBucketFall.get() && PlayerInventory.isValidHotbarIndex(InventoryBehavior.getSlotWithStack(player.getInventory(), Automatone.WATER_BUCKETS)) && !world.getDimension().isUltrawarm();
-        this.canSprint = player != null && baritone.settings().allowSprint.get() && player.getHungerManager().getFoodLevel() > 6;
-        this.placeBlockCost = baritone.settings().blockPlacementPenalty.get();
-        this.allowBreak = baritone.settings().allowBreak.get();
-        this.allowParkour = baritone.settings().allowParkour.get();
-        this.allowParkourPlace = baritone.settings().allowParkourPlace.get();
-        this.allowJumpAt256 = baritone.settings().allowJumpAt256.get();
-        this.allowParkourAscend = baritone.settings().allowParkourAscend.get();
-        this.assumeWalkOnWater = baritone.settings().assumeWalkOnWater.get();
-        this.allowDiagonalDescend = baritone.settings().allowDiagonalDescend.get();
-        this.allowDiagonalAscend = baritone.settings().allowDiagonalAscend.get();
-        this.allowDownward = baritone.settings().allowDownward.get();
-        this.maxFallHeightNoWater = baritone.settings().maxFallHeightNoWater.get();
-        this.maxFallHeightBucket = baritone.settings().maxFallHeightBucket.get();
+        if (forUseOnAnotherThread && settings.pathingChunkSnapshots.get() && world instanceof ServerWorld) {
+            int radius = settings.pathingSnapshotRadius.get();
+            if (radius < 1) {
+                radius = ((ServerWorld) world).getServer().getPlayerManager().getViewDistance();
+            }
+            this.snapshot = worldData.chunkSnapshots.capture(world, entity, radius);
+            this.bsi = new SnapshotBlockStateInterface(world, snapshot);
+        } else {
+            this.snapshot = null;
+            this.bsi = new BlockStateInterface(world);
+        }
+        this.precomputedData = PrecomputedData.get(settings);
+        this.toolSet = ((Baritone) baritone).getToolSet();
+        this.hasThrowaway = settings.allowPlace.get() && ((Baritone) baritone).getInventoryBehavior().hasGenericThrowaway();
+        this.hasWaterBucket = player != null && settings.allowWaterBucketFall.get() && PlayerInventory.isValidHotbarIndex(InventoryBehavior.getSlotWithStack(player.getInventory(), Automatone.WATER_BUCKETS)) && !world.getDimension().isUltrawarm();
+        this.canSprint = player != null && settings.allowSprint.get() && player.getHungerManager().getFoodLevel() > 6;
+        this.placeBlockCost = settings.blockPlacementPenalty.get();
+        this.allowBreak = settings.allowBreak.get();
+        this.allowParkour = settings.allowParkour.get();
+        this.allowParkourPlace = settings.allowParkourPlace.get();
+        this.allowJumpAt256 = settings.allowJumpAt256.get();
+        this.allowParkourAscend = settings.allowParkourAscend.get();
+        this.assumeWalkOnWater = settings.assumeWalkOnWater.get();
+        this.allowDiagonalDescend = settings.allowDiagonalDescend.get();
+        this.allowDiagonalAscend = settings.allowDiagonalAscend.get();
+        this.allowDownward = settings.allowDownward.get();
+        this.maxFallHeightNoWater = settings.maxFallHeightNoWater.get();
+        this.maxFallHeightBucket = settings.maxFallHeightBucket.get();
         int depth = EnchantmentHelper.getDepthStrider(entity);
         if (depth > 3) {
             depth = 3;
         }
         float mult = depth / 3.0F;
         this.waterWalkSpeed = ActionCosts.WALK_ONE_IN_WATER_COST * (1 - mult) + ActionCosts.WALK_ONE_BLOCK_COST * mult;
-        this.breakBlockAdditionalCost = baritone.settings().blockBreakAdditionalPenalty.get();
-        this.backtrackCostFavoringCoefficient = baritone.settings().backtrackCostFavoringCoefficient.get();
-        this.jumpPenalty = baritone.settings().jumpPenalty.get();
-        this.walkOnWaterOnePenalty = baritone.settings().walkOnWaterOnePenalty.get();
+        this.breakBlockAdditionalCost = settings.blockBreakAdditionalPenalty.get();
+        this.backtrackCostFavoringCoefficient = settings.backtrackCostFavoringCoefficient.get();
+        this.jumpPenalty = settings.jumpPenalty.get();
+        this.walkOnWaterOnePenalty = settings.walkOnWaterOnePenalty.get();
         // why cache these things here, why not let the movements just get directly from settings?
         // because if some movements are calculated one way and others are calculated another way,
         // then you get a wildly inconsistent path that isn't optimal for either scenario.
         this.worldTop = world.getTopY();
         this.worldBottom = world.getBottomY();
+        this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
         EntityDimensions dimensions = entity.getDimensions(EntityPose.STANDING);
         this.width = MathHelper.ceil(dimensions.width);
         // Note: if width is less than 1 (but not negative), we get side space of 0
         this.requiredSideSpace = getRequiredSideSpace(dimensions);
         this.height = MathHelper.ceil(dimensions.height);
         this.blockPos = new BlockPos.Mutable();
-        this.allowSwimming = baritone.settings().allowSwimming.get();
-        this.breathTime = baritone.settings().ignoreBreath.get() ? Integer.MAX_VALUE : entity.getMaxAir();
+        this.allowSwimming = settings.allowSwimming.get();
+        this.breathTime = settings.ignoreBreath.get() ? Integer.MAX_VALUE : entity.getMaxAir();
         this.startingBreathTime = entity.getAir();
         this.airIncreaseOnLand = ((ILivingEntityAccessor) entity).automatone$getNextAirOnLand(0);
         this.airDecreaseInWater = breathTime - ((ILivingEntityAccessor) entity).automatone$getNextAirUnderwater(breathTime);
     }
 
+    /**
+     * A context for a player without any item or enchantment, over a snapshot that isn't backed by a world. Only for
+     * the benchmarks, which run without a server, nothing else should make a context that isn't tied to a bot.
+     * <p>
+     * Only {@link #world}, {@link #worldData} and {@link #baritone} are left null, nothing that calculates movement
+     * costs reads them.
+     *
+     * @param heightLimits The height limits the snapshot was taken with
+     */
+    CalculationContext(Settings settings, BlockView heightLimits, WorldSnapshot snapshot) {
+        this.safeForThreadedUse = true;
+        this.baritone = null;
+        this.settings = settings.snapshot();
+        this.player = null;
+        this.world = null;
+        this.worldData = null;
+        this.snapshot = snapshot;
+        this.bsi = new SnapshotBlockStateInterface(heightLimits, snapshot);
+        this.precomputedData = PrecomputedData.get(this.settings);
+        this.toolSet = null;
+        this.hasThrowaway = false;
+        this.hasWaterBucket = false;
+        this.canSprint = this.settings.allowSprint.get();
+        this.placeBlockCost = this.settings.blockPlacementPenalty.get();
+        this.allowBreak = this.settings.allowBreak.get();
+        this.allowParkour = this.settings.allowParkour.get();
+        this.allowParkourPlace = this.settings.allowParkourPlace.get();
+        this.allowJumpAt256 = this.settings.allowJumpAt256.get();
+        this.allowParkourAscend = this.settings.allowParkourAscend.get();
+        this.assumeWalkOnWater = this.settings.assumeWalkOnWater.get();
+        this.allowDiagonalDescend = this.settings.allowDiagonalDescend.get();
+        this.allowDiagonalAscend = this.settings.allowDiagonalAscend.get();
+        this.allowDownward = this.settings.allowDownward.get();
+        this.maxFallHeightNoWater = this.settings.maxFallHeightNoWater.get();
+        this.maxFallHeightBucket = this.settings.maxFallHeightBucket.get();
+        this.waterWalkSpeed = ActionCosts.WALK_ONE_IN_WATER_COST;
+        this.breakBlockAdditionalCost = this.settings.blockBreakAdditionalPenalty.get();
+        this.backtrackCostFavoringCoefficient = this.settings.backtrackCostFavoringCoefficient.get();
+        this.jumpPenalty = this.settings.jumpPenalty.get();
+        this.walkOnWaterOnePenalty = this.settings.walkOnWaterOnePenalty.get();
+        this.worldTop = heightLimits.getTopY();
+        this.worldBottom = heightLimits.getBottomY();
+        this.worldBorder = new BetterWorldBorder(new WorldBorder());
+        EntityDimensions dimensions = EntityType.PLAYER.getDimensions();
+        this.width = MathHelper.ceil(dimensions.width);
+        this.requiredSideSpace = getRequiredSideSpace(dimensions);
+        this.height = MathHelper.ceil(dimensions.height);
+        this.blockPos = new BlockPos.Mutable();
+        this.allowSwimming = this.settings.allowSwimming.get();
+        this.breathTime = this.settings.ignoreBreath.get() ? Integer.MAX_VALUE : PLAYER_MAX_AIR;
+        this.startingBreathTime = PLAYER_MAX_AIR;
+        // what LivingEntity does without respiration
+        this.airIncreaseOnLand = 4;
+        this.airDecreaseInWater = 1;
+    }
+
+    /**
+     * Copies a context for another thread of the same calculation, sharing everything but the block lookups and the
+     * scratch position, which movement cost calculations write to
+     *
+     * @see #fork()
+     */
+    protected CalculationContext(CalculationContext base) {
+        this.safeForThreadedUse = base.safeForThreadedUse;
+        this.baritone = base.baritone;
+        this.settings = base.settings;
+        this.player = base.player;
+        this.world = base.world;
+        this.worldData = base.worldData;
+        this.snapshot = base.snapshot;
+        if (snapshot == null) {
+            this.bsi = new BlockStateInterface(world);
+        } else if (world != null) {
+            this.bsi = new SnapshotBlockStateInterface(world, snapshot);
+        } else {
+            // a context made without a world, the wrapper has the same height limits
+            this.bsi = new SnapshotBlockStateInterface(base.bsi.access, snapshot);
+        }
+        this.precomputedData = base.precomputedData;
+        this.toolSet = base.toolSet;
+        this.hasThrowaway = base.hasThrowaway;
+        this.hasWaterBucket = base.hasWaterBucket;
+        this.canSprint = base.canSprint;
+        this.placeBlockCost = base.placeBlockCost;
+        this.allowBreak = base.allowBreak;
+        this.allowParkour = base.allowParkour;
+        this.allowParkourPlace = base.allowParkourPlace;
+        this.allowJumpAt256 = base.allowJumpAt256;
+        this.allowParkourAscend = base.allowParkourAscend;
+        this.assumeWalkOnWater = base.assumeWalkOnWater;
+        this.allowDiagonalDescend = base.allowDiagonalDescend;
+        this.allowDiagonalAscend = base.allowDiagonalAscend;
+        this.allowDownward = base.allowDownward;
+        this.maxFallHeightNoWater = base.maxFallHeightNoWater;
+        this.maxFallHeightBucket = base.maxFallHeightBucket;
+        this.waterWalkSpeed = base.waterWalkSpeed;
+        this.breakBlockAdditionalCost = base.breakBlockAdditionalCost;
+        this.backtrackCostFavoringCoefficient = base.backtrackCostFavoringCoefficient;
+        this.jumpPenalty = base.jumpPenalty;
+        this.walkOnWaterOnePenalty = base.walkOnWaterOnePenalty;
+        this.worldTop = base.worldTop;
+        this.worldBottom = base.worldBottom;
+        this.worldBorder = base.worldBorder;
+        this.width = base.width;
+        this.requiredSideSpace = base.requiredSideSpace;
+        this.height = base.height;
+        this.blockPos = new BlockPos.Mutable();
+        this.allowSwimming = base.allowSwimming;
+        this.breathTime = base.breathTime;
+        this.startingBreathTime = base.startingBreathTime;
+        this.airIncreaseOnLand = base.airIncreaseOnLand;
+        this.airDecreaseInWater = base.airDecreaseInWater;
+    }
+
+    /**
+     * @return Whether {@link #fork()} gives a context that calculates the exact same costs as this one
+     */
+    public boolean canFork() {
+        // subclasses override cost functions, which a plain copy would lose
+        return getClass() == CalculationContext.class;
+    }
+
+    /**
+     * @return A copy of this context that can calculate movement costs on another thread, at the same time as this one
+     * @throws UnsupportedOperationException if this context {@linkplain #canFork() can't be forked}
+     */
+    public CalculationContext fork() {
+        if (!canFork()) {
+            throw new UnsupportedOperationException(getClass().getName() + " can't be forked");
+        }
+        return new CalculationContext(this);
+    }
+
     public static int getRequiredSideSpace(EntityDimensions dimensions) {
         return MathHelper.ceil((dimensions.width - 1) * 0.5f);
     }
@@ -157,6 +330,17 @@ public class CalculationContext {
         return baritone;
     }
 
+    /**
+     * Logs to the bot, or only to the console for contexts made without one
+     */
+    public void logDebug(String message) {
+        if (baritone != null) {
+            baritone.logDebug(message);
+        } else {
+            Automatone.LOGGER.debug(message);
+        }
+    }
+
     public BlockState get(int x, int y, int z) {
         return bsi.get0(x, y, z); // laughs maniacally
     }
@@ -210,6 +394,9 @@ public class CalculationContext {
     }
 
     public boolean isProtected(int x, int y, int z) {
+        if (this.snapshot != null) {
+            return this.snapshot.isProtected(x, z);
+        }
         this.blockPos.set(x, y, z);
         return this.player != null && !world.canPlayerModifyAt(this.player, this.blockPos);
     }
@@ -34,9 +34,7 @@ import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import net.minecraft.block.*;
 import net.minecraft.block.enums.SlabType;
-import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.ai.pathing.NavigationType;
-import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.fluid.FlowableFluid;
 import net.minecraft.fluid.Fluid;
@@ -52,10 +50,14 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.BlockView;
+import net.minecraft.world.EmptyBlockView;
 
 import java.util.Optional;
 
 import static baritone.pathing.movement.Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP;
+import static baritone.pathing.movement.MovementHelper.Ternary.MAYBE;
+import static baritone.pathing.movement.MovementHelper.Ternary.NO;
+import static baritone.pathing.movement.MovementHelper.Ternary.YES;
 
 /**
  * Static helpers for cost calculation
@@ -101,9 +103,27 @@ public interface MovementHelper extends ActionCosts {
     }
 
     static boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, BlockState state, Settings settings) {
+        Ternary canWalkThrough = canWalkThroughBlockState(state, settings);
+        if (canWalkThrough == YES) {
+            return true;
+        }
+        if (canWalkThrough == NO) {
+            return false;
+        }
+        return canWalkThroughPosition(bsi, x, y, z, state, settings);
+    }
+
+    /**
+     * The part of {@link #canWalkThrough(BlockStateInterface, int, int, int, BlockState, Settings)} that only depends
+     * on the block state, so that it can be precomputed.
+     *
+     * @return {@link Ternary#MAYBE} if the answer depends on the position of the block
+     * @see PrecomputedData
+     */
+    static Ternary canWalkThroughBlockState(BlockState state, Settings settings) {
         Block block = state.getBlock();
         if (block instanceof AirBlock) { // early return for most common case
-            return true;
+            return YES;
         }
         if (block instanceof AbstractFireBlock
                 || block == Blocks.TRIPWIRE
@@ -117,16 +137,42 @@ public interface MovementHelper extends ActionCosts {
                 || block instanceof TrapdoorBlock
                 || block == Blocks.HONEY_BLOCK
                 || block == Blocks.END_ROD) {
-            return false;
+            return NO;
         }
         if (settings.blocksToAvoid.get().contains(block)) {
-            return false;
+            return NO;
         }
         if (block instanceof DoorBlock || block instanceof FenceGateBlock) {
             // Because there's no nice method in vanilla to check if a door is openable or not, we just have to assume
             // that all wooden doors are openable and vice versa.
-            return block instanceof FenceGateBlock || DoorBlock.isWoodenDoor(state);
+            return block instanceof FenceGateBlock || DoorBlock.isWoodenDoor(state) ? YES : NO;
+        }
+        if (block instanceof CarpetBlock || block instanceof SnowBlock) {
+            return MAYBE;
+        }
+        FluidState fluidState = state.getFluidState();
+        if (!fluidState.isEmpty()) {
+            if (possiblyFlowing(state)) {
+                return NO; // Don't walk through flowing liquids
+            }
+            if (fluidState.getFluid() instanceof WaterFluid && settings.assumeWalkOnWater.get()) {
+                return NO;
+            }
+            // still liquids, it depends on the neighbours
+            return MAYBE;
         }
+        // every block that overrides isPassable with anything more complicated than a "return true;" or "return false;"
+        // has already been accounted for above
+        // therefore it's safe to not construct a blockpos from our x, y, z ints and instead just pass null
+        return state.canPathfindThrough(EmptyBlockView.INSTANCE, BlockPos.ORIGIN, NavigationType.LAND) ? YES : NO; // workaround for future compatibility =P
+    }
+
+    /**
+     * The part of {@link #canWalkThrough(BlockStateInterface, int, int, int, BlockState, Settings)} that depends on the
+     * position of the block, only called when {@link #canWalkThroughBlockState(BlockState, Settings)} is not sure.
+     */
+    static boolean canWalkThroughPosition(BlockStateInterface bsi, int x, int y, int z, BlockState state, Settings settings) {
+        Block block = state.getBlock();
         if (block instanceof CarpetBlock) {
             return canWalkOn(bsi, x, y - 1, z, settings);
         }
@@ -177,11 +223,7 @@ public interface MovementHelper extends ActionCosts {
      * @return Whether or not the block at the specified position
      */
     static boolean fullyPassable(CalculationContext context, int x, int y, int z) {
-        return fullyPassable(
-                context.bsi.access,
-                context.bsi.isPassableBlockPos.set(x, y, z),
-                context.bsi.get0(x, y, z)
-        );
+        return context.precomputedData.fullyPassable(context.bsi.get0(x, y, z));
     }
 
     static boolean fullyPassable(IEntityContext ctx, BlockPos pos) {
@@ -319,24 +361,65 @@ public interface MovementHelper extends ActionCosts {
      * @return Whether or not the specified block can be walked on
      */
     static boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, BlockState state, Settings settings) {
+        Ternary canWalkOn = canWalkOnBlockState(state, settings);
+        if (canWalkOn == YES) {
+            return true;
+        }
+        if (canWalkOn == NO) {
+            return false;
+        }
+        return canWalkOnPosition(bsi, x, y, z, state, settings);
+    }
+
+    /**
+     * The part of {@link #canWalkOn(BlockStateInterface, int, int, int, BlockState, Settings)} that only depends
+     * on the block state, so that it can be precomputed.
+     *
+     * @return {@link Ternary#MAYBE} if the answer depends on the position of the block
+     * @see PrecomputedData
+     */
+    static Ternary canWalkOnBlockState(BlockState state, Settings settings) {
         Block block = state.getBlock();
         if (block instanceof AirBlock || block == Blocks.MAGMA_BLOCK || block == Blocks.BUBBLE_COLUMN || block == Blocks.HONEY_BLOCK) {
             // early return for most common case (air)
             // plus magma, which is a normal cube but it hurts you
-            return false;
+            return NO;
         }
         if (isBlockNormalCube(state)) {
-            return true;
+            return YES;
         }
         if (state.isIn(BlockTags.CLIMBABLE)) { // TODO reconsider this
-            return true;
+            return YES;
         }
         if (block == Blocks.FARMLAND || block == Blocks.DIRT_PATH) {
-            return true;
+            return YES;
         }
         if (block == Blocks.ENDER_CHEST || block == Blocks.CHEST || block == Blocks.TRAPPED_CHEST) {
-            return true;
+            return YES;
+        }
+        if (isWater(state)) {
+            return MAYBE;
+        }
+        if (settings.assumeWalkOnLava.get() && isLava(state)) {
+            return MAYBE;
+        }
+        if (block == Blocks.GLASS || block instanceof StainedGlassBlock) {
+            return YES;
+        }
+        if (block instanceof SlabBlock) {
+            if (!settings.allowWalkOnBottomSlab.get()) {
+                return state.get(SlabBlock.TYPE) != SlabType.BOTTOM ? YES : NO;
+            }
+            return YES;
         }
+        return block instanceof StairsBlock ? YES : NO;
+    }
+
+    /**
+     * The part of {@link #canWalkOn(BlockStateInterface, int, int, int, BlockState, Settings)} that depends on the
+     * position of the block, only called when {@link #canWalkOnBlockState(BlockState, Settings)} is not sure.
+     */
+    static boolean canWalkOnPosition(BlockStateInterface bsi, int x, int y, int z, BlockState state, Settings settings) {
         if (isWater(state)) {
             // since this is called literally millions of times per second, the benefit of not allocating millions of useless "pos.up()"
             // BlockPos s that we'd just garbage collect immediately is actually noticeable. I don't even think its a decrease in readability
@@ -353,19 +436,7 @@ public interface MovementHelper extends ActionCosts {
             // if assumeWalkOnWater is off, we can only walk on water if there is water above it
             return isWater(upState) ^ settings.assumeWalkOnWater.get();
         }
-        if (settings.assumeWalkOnLava.get() && isLava(state) && !isFlowing(x, y, z, state, bsi)) {
-            return true;
-        }
-        if (block == Blocks.GLASS || block instanceof StainedGlassBlock) {
-            return true;
-        }
-        if (block instanceof SlabBlock) {
-            if (!settings.allowWalkOnBottomSlab.get()) {
-                return state.get(SlabBlock.TYPE) != SlabType.BOTTOM;
-            }
-            return true;
-        }
-        return block instanceof StairsBlock;
+        return settings.assumeWalkOnLava.get() && isLava(state) && !isFlowing(x, y, z, state, bsi);
     }
 
     static boolean canWalkOn(IEntityContext ctx, BetterBlockPos pos, BlockState state) {
@@ -408,15 +479,15 @@ public interface MovementHelper extends ActionCosts {
     }
 
     static double getMiningDurationTicks(CalculationContext context, int x, int y, int z, BlockState state, boolean includeFalling) {
-        if (!canWalkThrough(context.bsi, x, y, z, state, context.baritone.settings())) {
-            if (!state.getFluidState().isEmpty()) {
+        if (!context.precomputedData.canWalkThrough(context.bsi, x, y, z, state)) {
+            if (context.precomputedData.isLiquid(state)) {
                 return COST_INF;
             }
             double mult = context.breakCostMultiplierAt(x, y, z, state);
             if (mult >= COST_INF) {
                 return COST_INF;
             }
-            if (avoidBreaking(context.bsi, x, y, z, state, context.baritone.settings())) {
+            if (avoidBreaking(context.bsi, x, y, z, state, context.settings)) {
                 return COST_INF;
             }
             if (context.toolSet == null) {
@@ -431,7 +502,7 @@ public interface MovementHelper extends ActionCosts {
             result *= mult;
             if (includeFalling) {
                 BlockState above = context.get(x, y + 1, z);
-                if (above.getBlock() instanceof FallingBlock) {
+                if (context.precomputedData.isFalling(above)) {
                     result += getMiningDurationTicks(context, x, y + 1, z, above, true);
                 }
             }
@@ -453,9 +524,9 @@ public interface MovementHelper extends ActionCosts {
      * @param b   the blockstate to mine
      */
     static void switchToBestToolFor(IEntityContext ctx, BlockState b) {
-        LivingEntity entity = ctx.entity();
-        if (entity instanceof PlayerEntity) {
-            switchToBestToolFor(ctx, b, new ToolSet((PlayerEntity) entity), ctx.baritone().settings().preferSilkTouch.get());
+        ToolSet toolSet = ((Baritone) ctx.baritone()).getToolSet();
+        if (toolSet != null) {
+            switchToBestToolFor(ctx, b, toolSet, ctx.baritone().settings().preferSilkTouch.get());
         }
     }
 
@@ -624,6 +695,10 @@ public interface MovementHelper extends ActionCosts {
         READY_TO_PLACE, ATTEMPTING, NO_OPTION;
     }
 
+    enum Ternary {
+        YES, NO, MAYBE;
+    }
+
     static boolean isTransparent(Block b) {
 
         return b == Blocks.AIR ||
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.api.Settings;
+import baritone.utils.BlockStateInterface;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FallingBlock;
+import net.minecraft.tag.Tag;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EmptyBlockView;
+import org.jetbrains.annotations.Nullable;
+
+
+import static baritone.pathing.movement.MovementHelper.Ternary.MAYBE;
+import static baritone.pathing.movement.MovementHelper.Ternary.YES;
+
+/**
+ * The answers of the {@link MovementHelper} checks that only depend on the block state, packed as bit flags in a table
+ * indexed by the raw id of the state. Only the states for which the answer depends on the position of the block
+ * (liquids, snow, carpets...) go through the slow path.
+ * <p>
+ * Entries are filled in the first time a state is looked at. The table only depends on the few settings that
+ * {@link MovementHelper#canWalkThroughBlockState} and {@link MovementHelper#canWalkOnBlockState} read, and is only
+ * started over when one of those changes.
+ */
+public final class PrecomputedData {
+
+    private static final int COMPLETED = 1;
+    private static final int CAN_WALK_THROUGH = 1 << 1;
+    private static final int CAN_WALK_THROUGH_SPECIAL = 1 << 2;
+    private static final int CAN_WALK_ON = 1 << 3;
+    private static final int CAN_WALK_ON_SPECIAL = 1 << 4;
+    private static final int FULLY_PASSABLE = 1 << 5;
+    private static final int AVOID_WALKING_INTO = 1 << 6;
+    private static final int LIQUID = 1 << 7;
+    private static final int FALLING = 1 << 8;
+
+    /**
+     * The last table handed out, contexts are almost always made from the same settings as the previous one
+     */
+    private static volatile @Nullable PrecomputedData latest;
+
+    /**
+     * Also read by the checks that depend on the position, which aren't in the table
+     */
+    private final Settings settings;
+    private final int changeCount;
+    private final int[] data;
+
+    // what the table was filled from
+    private final Tag<Block> blocksToAvoid;
+    private final boolean assumeWalkOnWater;
+    private final boolean assumeWalkOnLava;
+    private final boolean allowWalkOnBottomSlab;
+
+    private PrecomputedData(Settings settings, int changeCount, int[] data) {
+        this.settings = settings;
+        this.changeCount = changeCount;
+        this.data = data;
+        this.blocksToAvoid = settings.blocksToAvoid.get();
+        this.assumeWalkOnWater = settings.assumeWalkOnWater.get();
+        this.assumeWalkOnLava = settings.assumeWalkOnLava.get();
+        this.allowWalkOnBottomSlab = settings.allowWalkOnBottomSlab.get();
+    }
+
+    /**
+     * @return The table for the given settings, up to date with their current values
+     */
+    public static PrecomputedData get(Settings settings) {
+        int changeCount = Settings.changeCount();
+        PrecomputedData latest = PrecomputedData.latest;
+        if (latest != null && latest.settings == settings && latest.changeCount == changeCount) {
+            return latest;
+        }
+        // racing threads may both make one, the loser's is simply used once
+        int[] data = latest != null && latest.isFilledFrom(settings) ? latest.data : new int[Block.STATE_IDS.size()];
+        PrecomputedData fresh = new PrecomputedData(settings, changeCount, data);
+        PrecomputedData.latest = fresh;
+        return fresh;
+    }
+
+    private boolean isFilledFrom(Settings settings) {
+        return blocksToAvoid.equals(settings.blocksToAvoid.get())
+                && assumeWalkOnWater == settings.assumeWalkOnWater.get()
+                && assumeWalkOnLava == settings.assumeWalkOnLava.get()
+                && allowWalkOnBottomSlab == settings.allowWalkOnBottomSlab.get();
+    }
+
+    private int getFlags(BlockState state) {
+        int id = Block.getRawIdFromState(state);
+        if (id < 0 || id >= data.length) {
+            return compute(state); // registered after the table was made, don't bother
+        }
+        int flags = data[id];
+        if (flags == 0) {
+            // racing threads compute the same flags, no need to synchronize
+            flags = compute(state);
+            data[id] = flags;
+        }
+        return flags;
+    }
+
+    private int compute(BlockState state) {
+        int flags = COMPLETED;
+        MovementHelper.Ternary canWalkThrough = MovementHelper.canWalkThroughBlockState(state, settings);
+        if (canWalkThrough == YES) {
+            flags |= CAN_WALK_THROUGH;
+        } else if (canWalkThrough == MAYBE) {
+            flags |= CAN_WALK_THROUGH_SPECIAL;
+        }
+        MovementHelper.Ternary canWalkOn = MovementHelper.canWalkOnBlockState(state, settings);
+        if (canWalkOn == YES) {
+            flags |= CAN_WALK_ON;
+        } else if (canWalkOn == MAYBE) {
+            flags |= CAN_WALK_ON_SPECIAL;
+        }
+        if (MovementHelper.fullyPassable(EmptyBlockView.INSTANCE, BlockPos.ORIGIN, state)) {
+            flags |= FULLY_PASSABLE;
+        }
+        if (MovementHelper.avoidWalkingInto(state)) {
+            flags |= AVOID_WALKING_INTO;
+        }
+        if (MovementHelper.isLiquid(state)) {
+            flags |= LIQUID;
+        }
+        if (state.getBlock() instanceof FallingBlock) {
+            flags |= FALLING;
+        }
+        return flags;
+    }
+
+    public boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        int flags = getFlags(state);
+        if ((flags & CAN_WALK_THROUGH_SPECIAL) != 0) {
+            return MovementHelper.canWalkThroughPosition(bsi, x, y, z, state, settings);
+        }
+        return (flags & CAN_WALK_THROUGH) != 0;
+    }
+
+    public boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z) {
+        return canWalkThrough(bsi, x, y, z, bsi.get0(x, y, z));
+    }
+
+    public boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        int flags = getFlags(state);
+        if ((flags & CAN_WALK_ON_SPECIAL) != 0) {
+            return MovementHelper.canWalkOnPosition(bsi, x, y, z, state, settings);
+        }
+        return (flags & CAN_WALK_ON) != 0;
+    }
+
+    public boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z) {
+        return canWalkOn(bsi, x, y, z, bsi.get0(x, y, z));
+    }
+
+    public boolean fullyPassable(BlockState state) {
+        return (getFlags(state) & FULLY_PASSABLE) != 0;
+    }
+
+    public boolean avoidWalkingInto(BlockState state) {
+        return (getFlags(state) & AVOID_WALKING_INTO) != 0;
+    }
+
+    public boolean isLiquid(BlockState state) {
+        return (getFlags(state) & LIQUID) != 0;
+    }
+
+    public boolean isFalling(BlockState state) {
+        return (getFlags(state) & FALLING) != 0;
+    }
+}
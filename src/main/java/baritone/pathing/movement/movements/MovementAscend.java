@@ -108,7 +108,7 @@ public class MovementAscend extends Movement {
         int placeZ = destZ + diffZ * context.requiredSideSpace;
         BlockState toPlace = context.get(placeX, y, placeZ);
         double additionalPlacementCost = 0;
-        if (!MovementHelper.canWalkOn(context.bsi, placeX, y, placeZ, toPlace, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkOn(context.bsi, placeX, y, placeZ, toPlace)) {
             // TODO maybe check if we really can place or mine at that distance, for really large entities
             additionalPlacementCost = context.costOfPlacingAt(placeX, y, placeZ, toPlace);
             if (additionalPlacementCost >= COST_INF) {
@@ -148,7 +148,7 @@ public class MovementAscend extends Movement {
                 int y1 = y + context.height;
                 int z1 = z + dz;
                 BlockState aboveHead = context.get(x1, y1, z1); // used lower down anyway
-                if (context.get(x1, y1 + 1, z1).getBlock() instanceof FallingBlock && (MovementHelper.canWalkThrough(context.bsi, x1, y1 - 1, z1, context.baritone.settings()) || !(aboveHead.getBlock() instanceof FallingBlock))) {//it would fall on us and possibly suffocate us
+                if (context.get(x1, y1 + 1, z1).getBlock() instanceof FallingBlock && (context.precomputedData.canWalkThrough(context.bsi, x1, y1 - 1, z1) || !(aboveHead.getBlock() instanceof FallingBlock))) {//it would fall on us and possibly suffocate us
                     // HOWEVER, we assume that we're standing in the start position
                     // that means that src and src.up(1) are both traversable
                     // maybe they aren't now, but they will be by the time this starts
@@ -135,7 +135,7 @@ public class MovementDescend extends Movement {
         //C, D, etc determine the length of the fall
 
         BlockState below = context.get(destX, y - 2, destZ);
-        if (!MovementHelper.canWalkOn(context.bsi, destX, y - 2, destZ, below, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkOn(context.bsi, destX, y - 2, destZ, below)) {
             dynamicFallCost(context, x, y, z, destX, destZ, frontBreak, below, res);
             res.oxygenCost += context.oxygenCost(WALK_OFF_BLOCK_COST + frontBreak, context.get(x, y+context.height-1, z));
             return;
@@ -172,7 +172,7 @@ public class MovementDescend extends Movement {
             // and potentially replace the water we're going to fall into
             return false;
         }
-        if (!MovementHelper.canWalkThrough(context.bsi, destX, y - 2, destZ, below, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkThrough(context.bsi, destX, y - 2, destZ, below)) {
             return false;
         }
         double costSoFar = 0;
@@ -189,7 +189,7 @@ public class MovementDescend extends Movement {
             double fallCost = FALL_N_BLOCKS_COST[unprotectedFallHeight] + costSoFar;
             double tentativeCost = WALK_OFF_BLOCK_COST + fallCost + frontBreak;
             if (MovementHelper.isWater(ontoBlock)) {
-                if (!MovementHelper.canWalkThrough(context.bsi, destX, newY, destZ, ontoBlock, context.baritone.settings())) {
+                if (!context.precomputedData.canWalkThrough(context.bsi, destX, newY, destZ, ontoBlock)) {
                     return false;
                 }
                 if (context.assumeWalkOnWater) {
@@ -198,7 +198,7 @@ public class MovementDescend extends Movement {
                 if (MovementHelper.isFlowing(destX, newY, destZ, ontoBlock, context.bsi)) {
                     return false; // TODO flowing check required here?
                 }
-                if (!MovementHelper.canWalkOn(context.bsi, destX, newY - 1, destZ, context.baritone.settings())) {
+                if (!context.precomputedData.canWalkOn(context.bsi, destX, newY - 1, destZ)) {
                     // we could punch right through the water into something else
                     return false;
                 }
@@ -219,10 +219,10 @@ public class MovementDescend extends Movement {
                 effectiveStartHeight = newY;
                 continue;
             }
-            if (MovementHelper.canWalkThrough(context.bsi, destX, newY, destZ, ontoBlock, context.baritone.settings())) {
+            if (context.precomputedData.canWalkThrough(context.bsi, destX, newY, destZ, ontoBlock)) {
                 continue;
             }
-            if (!MovementHelper.canWalkOn(context.bsi, destX, newY, destZ, ontoBlock, context.baritone.settings())) {
+            if (!context.precomputedData.canWalkOn(context.bsi, destX, newY, destZ, ontoBlock)) {
                 return false;
             }
             if (MovementHelper.isBottomSlab(ontoBlock)) {
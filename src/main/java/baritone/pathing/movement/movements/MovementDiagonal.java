@@ -135,7 +135,7 @@ public class MovementDiagonal extends Movement {
     }
 
     public static void cost(CalculationContext context, int x, int y, int z, int destX, int destZ, MutableMoveResult res) {
-        if (!MovementHelper.canWalkThrough(context.bsi, destX, y + 1, destZ, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkThrough(context.bsi, destX, y + 1, destZ)) {
             return;
         }
         if (context.width > 1 || context.height > 2) {    // TODO handle larger entities
@@ -145,17 +145,17 @@ public class MovementDiagonal extends Movement {
         boolean ascend = false;
         BlockState destWalkOn;
         boolean descend = false;
-        if (!MovementHelper.canWalkThrough(context.bsi, destX, y, destZ, destInto, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkThrough(context.bsi, destX, y, destZ, destInto)) {
             ascend = true;
-            if (!context.allowDiagonalAscend || !MovementHelper.canWalkThrough(context.bsi, x, y + 2, z, context.baritone.settings()) || !MovementHelper.canWalkOn(context.bsi, destX, y, destZ, destInto, context.baritone.settings()) || !MovementHelper.canWalkThrough(context.bsi, destX, y + 2, destZ, context.baritone.settings())) {
+            if (!context.allowDiagonalAscend || !context.precomputedData.canWalkThrough(context.bsi, x, y + 2, z) || !context.precomputedData.canWalkOn(context.bsi, destX, y, destZ, destInto) || !context.precomputedData.canWalkThrough(context.bsi, destX, y + 2, destZ)) {
                 return;
             }
             destWalkOn = destInto;
         } else {
             destWalkOn = context.get(destX, y - 1, destZ);
-            if (!MovementHelper.canWalkOn(context.bsi, destX, y - 1, destZ, destWalkOn, context.baritone.settings())) {
+            if (!context.precomputedData.canWalkOn(context.bsi, destX, y - 1, destZ, destWalkOn)) {
                 descend = true;
-                if (!context.allowDiagonalDescend || !MovementHelper.canWalkOn(context.bsi, destX, y - 2, destZ, context.baritone.settings()) || !MovementHelper.canWalkThrough(context.bsi, destX, y - 1, destZ, destWalkOn, context.baritone.settings())) {
+                if (!context.allowDiagonalDescend || !context.precomputedData.canWalkOn(context.bsi, destX, y - 2, destZ) || !context.precomputedData.canWalkThrough(context.bsi, destX, y - 1, destZ, destWalkOn)) {
                     return;
                 }
             }
@@ -196,17 +196,17 @@ public class MovementDiagonal extends Movement {
         BlockState diagonalA = context.get(x, y, destZ);
         BlockState diagonalB = context.get(destX, y, z);
         if (ascend) {
-            boolean ATop = smol || MovementHelper.canWalkThrough(context.bsi, x, y + 2, destZ, context.baritone.settings());
-            boolean AMid = MovementHelper.canWalkThrough(context.bsi, x, y + 1, destZ, context.baritone.settings());
-            boolean ALow = MovementHelper.canWalkThrough(context.bsi, x, y, destZ, diagonalA, context.baritone.settings());
-            boolean BTop = smol || MovementHelper.canWalkThrough(context.bsi, destX, y + 2, z, context.baritone.settings());
-            boolean BMid = MovementHelper.canWalkThrough(context.bsi, destX, y + 1, z, context.baritone.settings());
-            boolean BLow = MovementHelper.canWalkThrough(context.bsi, destX, y, z, diagonalB, context.baritone.settings());
+            boolean ATop = smol || context.precomputedData.canWalkThrough(context.bsi, x, y + 2, destZ);
+            boolean AMid = context.precomputedData.canWalkThrough(context.bsi, x, y + 1, destZ);
+            boolean ALow = context.precomputedData.canWalkThrough(context.bsi, x, y, destZ, diagonalA);
+            boolean BTop = smol || context.precomputedData.canWalkThrough(context.bsi, destX, y + 2, z);
+            boolean BMid = context.precomputedData.canWalkThrough(context.bsi, destX, y + 1, z);
+            boolean BLow = context.precomputedData.canWalkThrough(context.bsi, destX, y, z, diagonalB);
             if ((!(ATop && AMid && ALow) && !(BTop && BMid && BLow)) // no option
-                    || MovementHelper.avoidWalkingInto(diagonalA) // bad
-                    || MovementHelper.avoidWalkingInto(diagonalB) // bad
-                    || (ATop && AMid && MovementHelper.canWalkOn(context.bsi, x, y, destZ, diagonalA, context.baritone.settings())) // we could just ascend
-                    || (BTop && BMid && MovementHelper.canWalkOn(context.bsi, destX, y, z, diagonalB, context.baritone.settings())) // we could just ascend
+                    || context.precomputedData.avoidWalkingInto(diagonalA) // bad
+                    || context.precomputedData.avoidWalkingInto(diagonalB) // bad
+                    || (ATop && AMid && context.precomputedData.canWalkOn(context.bsi, x, y, destZ, diagonalA)) // we could just ascend
+                    || (BTop && BMid && context.precomputedData.canWalkOn(context.bsi, destX, y, z, diagonalB)) // we could just ascend
                     || (!ATop && AMid && ALow) // head bonk A
                     || (!BTop && BMid && BLow)) { // head bonk B
                 return;
@@ -233,7 +233,7 @@ public class MovementDiagonal extends Movement {
             }
         }
         BlockState diagonalUpB = context.get(destX, y + 1, z);
-        if (optionA == 0 && ((MovementHelper.avoidWalkingInto(diagonalB) && diagonalB.getBlock() != Blocks.WATER) || (!smol && MovementHelper.avoidWalkingInto(diagonalUpB)))) {
+        if (optionA == 0 && ((context.precomputedData.avoidWalkingInto(diagonalB) && diagonalB.getBlock() != Blocks.WATER) || (!smol && context.precomputedData.avoidWalkingInto(diagonalUpB)))) {
             // at this point we're done calculating optionA, so we can check if it's actually possible to edge around in that direction
             return;
         }
@@ -244,7 +244,7 @@ public class MovementDiagonal extends Movement {
                 return;
             }
         }
-        if (optionB == 0 && ((MovementHelper.avoidWalkingInto(diagonalA) && diagonalA.getBlock() != Blocks.WATER) || (!smol && MovementHelper.avoidWalkingInto(diagonalUpA)))) {
+        if (optionB == 0 && ((context.precomputedData.avoidWalkingInto(diagonalA) && diagonalA.getBlock() != Blocks.WATER) || (!smol && context.precomputedData.avoidWalkingInto(diagonalUpA)))) {
             // and now that option B is fully calculated, see if we can edge around that way
             return;
         }
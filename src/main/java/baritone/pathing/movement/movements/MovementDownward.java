@@ -102,7 +102,7 @@ public class MovementDownward extends Movement {
         if (!context.allowDownward) {
             return;
         }
-        if (!MovementHelper.canWalkOn(context.bsi, x, y - 2, z, context.baritone.settings())) {
+        if (!context.precomputedData.canWalkOn(context.bsi, x, y - 2, z)) {
             return;
         }
         BlockState downBlock = context.get(x, y - 1, z);
@@ -140,7 +140,7 @@ public class MovementTraverse extends Movement {
         int checkedX = destX + checkedXShift;
         int checkedZ = destZ + checkedZShift;
 
-        if (MovementHelper.canWalkOn(context.bsi, destX, y - 1, destZ, destOn, context.baritone.settings())) {//this is a walk, not a bridge
+        if (context.precomputedData.canWalkOn(context.bsi, destX, y - 1, destZ, destOn)) {//this is a walk, not a bridge
             double WC = 0;
             boolean water = false;
             BlockState destHeadState = context.get(destX, y + context.height - 1, destZ);
@@ -246,9 +246,8 @@ public class MovementTraverse extends Movement {
                     }
                 }
                 // now that we've checked all possible directions to side place, we actually need to backplace
-                // none of the vanilla impls do a blocking or thread unsafe call, so passing the world directly should be fine
-                // also none of the full cubes actually use the pos, so we should be fine not creating a real BlockPos for this
-                if (!srcOn.getMaterial().isReplaceable() && !srcOn.isFullCube(context.world, BlockPos.ORIGIN)) {
+                // none of the full cubes actually use the world or the pos, so we should be fine not creating a real BlockPos for this
+                if (!srcOn.getMaterial().isReplaceable() && !srcOn.isFullCube(context.bsi.access, BlockPos.ORIGIN)) {
                     // If srcOn is currently replaceable, we will have a proper block when we stand on it
                     return; // can't sneak and backplace against eg. soul sand or half slabs (regardless of whether it's top half or bottom half) =/
                 }
@@ -26,6 +26,7 @@ import baritone.api.pathing.movement.IMovement;
 import baritone.api.pathing.movement.MovementStatus;
 import baritone.api.pathing.path.IPathExecutor;
 import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.IBaritoneMetrics.CancelReason;
 import baritone.api.utils.IEntityContext;
 import baritone.api.utils.RotationUtils;
 import baritone.api.utils.VecUtils;
@@ -37,13 +38,16 @@ import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.movement.movements.*;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.type.VarInt;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.Pair;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static baritone.api.pathing.movement.MovementStatus.*;
 
@@ -66,17 +70,41 @@ public class PathExecutor implements IPathExecutor {
      */
     private static final double MAX_TICKS_AWAY = 200;
 
+    /*
+     * What a sync packet says about a path segment, see writeToPacket
+     */
+    public static final byte SYNC_NONE = 0;
+    public static final byte SYNC_FULL = 1;
+    public static final byte SYNC_DELTA = 2;
+    public static final byte SYNC_UNCHANGED = 3;
+    /**
+     * The client already has this segment, as its planned next segment
+     */
+    public static final byte SYNC_FROM_NEXT = 4;
+
+    private static final AtomicInteger NEXT_SYNC_ID = new AtomicInteger();
+
     private final IPath path;
     private int pathPosition;
     private int ticksAway;
     private int ticksOnCurrent;
     private Double currentMovementOriginalCostEstimate;
     private Integer costEstimateIndex;
+    private boolean futureCostsVerified;
     private boolean failed;
     private boolean recalcBP = true;
     private HashSet<BlockPos> toBreak = new HashSet<>();
     private HashSet<BlockPos> toPlace = new HashSet<>();
     private HashSet<BlockPos> toWalkInto = new HashSet<>();
+    /**
+     * Incremented every time toBreak, toPlace and toWalkInto get recalculated
+     */
+    private int overlayVersion;
+
+    /**
+     * Identifies this segment in sync packets
+     */
+    private final int syncId = NEXT_SYNC_ID.incrementAndGet() & Integer.MAX_VALUE;
 
     private final PathingBehavior behavior;
     private final IEntityContext ctx;
@@ -130,7 +158,7 @@ public class PathExecutor implements IPathExecutor {
             Automatone.LOGGER.warn("FAR AWAY FROM PATH FOR " + ticksAway + " TICKS. Current distance: " + status.getLeft() + ". Threshold: " + MAX_DIST_FROM_PATH);
             if (ticksAway > MAX_TICKS_AWAY) {
                 logDebug("Too far away from path for too long, cancelling path");
-                cancel();
+                cancel(CancelReason.OFF_PATH);
                 return false;
             }
         } else {
@@ -138,12 +166,14 @@ public class PathExecutor implements IPathExecutor {
         }
         if (possiblyOffPath(status, MAX_MAX_DIST_FROM_PATH)) { // ok, stop right away, we're way too far.
             logDebug("too far from path");
-            cancel();
+            cancel(CancelReason.OFF_PATH);
             return false;
         }
         //long start = System.nanoTime() / 1000000L;
         BlockStateInterface bsi = new BlockStateInterface(ctx);
-        for (int i = pathPosition - 10; i < pathPosition + 10; i++) {
+        // the movements about to be executed are always kept up to date, the rest can wait for a tick with time to spare
+        boolean wholeWindow = behavior.baritone.tryExpensiveWork();
+        for (int i = wholeWindow ? pathPosition - 10 : pathPosition; i < pathPosition + (wholeWindow ? 10 : 3); i++) {
             if (i < 0 || i >= path.movements().size()) {
                 continue;
             }
@@ -175,6 +205,7 @@ public class PathExecutor implements IPathExecutor {
             toBreak = newBreak;
             toPlace = newPlace;
             toWalkInto = newWalkInto;
+            overlayVersion++;
             recalcBP = false;
         }
         /*long end = System.nanoTime() / 1000000L;
@@ -197,10 +228,17 @@ public class PathExecutor implements IPathExecutor {
             costEstimateIndex = pathPosition;
             // do this only once, when the movement starts, and deliberately get the cost as cached when this path was calculated, not the cost as it is right now
             currentMovementOriginalCostEstimate = movement.getCost();
+            futureCostsVerified = false;
+        }
+        if (!futureCostsVerified && baritone.tryExpensiveWork()) {
+            // also only once per movement, but this one can wait until a tick has time to spare
+            futureCostsVerified = true;
             for (int i = 1; i < baritone.settings().costVerificationLookahead.get() && pathPosition + i < path.length() - 1; i++) {
-                if (((Movement) path.movements().get(pathPosition + i)).calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF && canCancel) {
+                Movement future = (Movement) path.movements().get(pathPosition + i);
+                if (future.calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF && canCancel) {
                     logDebug("Something has changed in the world and a future movement has become impossible. Cancelling.");
-                    cancel();
+                    behavior.onMovementInvalidated(future);
+                    cancel(CancelReason.MOVEMENT_IMPOSSIBLE);
                     return true;
                 }
             }
@@ -208,14 +246,16 @@ public class PathExecutor implements IPathExecutor {
         double currentCost = movement.recalculateCost(behavior.secretInternalGetCalculationContext());
         if (currentCost >= ActionCosts.COST_INF && canCancel) {
             logDebug("Something has changed in the world and this movement has become impossible. Cancelling.");
-            cancel();
+            behavior.onMovementInvalidated(movement);
+            cancel(CancelReason.MOVEMENT_IMPOSSIBLE);
             return true;
         }
         if (!movement.calculatedWhileLoaded() && currentCost - currentMovementOriginalCostEstimate > baritone.settings().maxCostIncrease.get() && canCancel) {
             // don't do this if the movement was calculated while loaded
             // that means that this isn't a cache error, it's just part of the path interfering with a later part
             logDebug("Original cost " + currentMovementOriginalCostEstimate + " current cost " + currentCost + ". Cancelling.");
-            cancel();
+            behavior.onMovementInvalidated(movement);
+            cancel(CancelReason.COST_INCREASE);
             return true;
         }
         if (shouldPause()) {
@@ -226,7 +266,7 @@ public class PathExecutor implements IPathExecutor {
         MovementStatus movementStatus = movement.update();
         if (movementStatus == UNREACHABLE || movementStatus == FAILED) {
             logDebug("Movement returns status " + movementStatus);
-            cancel();
+            cancel(CancelReason.MOVEMENT_FAILED);
             return true;
         }
         if (movementStatus == SUCCESS) {
@@ -244,7 +284,7 @@ public class PathExecutor implements IPathExecutor {
                 // ticksOnCurrent is greater than recalculateCost + 100
                 // this is why we cache cost at the beginning, and don't recalculate for this comparison every tick
                 logDebug("This movement has taken too long (" + ticksOnCurrent + " ticks, expected " + currentMovementOriginalCostEstimate + "). Cancelling.");
-                cancel();
+                cancel(CancelReason.MOVEMENT_TIMEOUT);
                 return true;
             }
         }
@@ -569,7 +609,8 @@ public class PathExecutor implements IPathExecutor {
         behavior.baritone.getInputOverrideHandler().clearAllKeys();
     }
 
-    private void cancel() {
+    private void cancel(CancelReason reason) {
+        behavior.baritone.getMetrics().recordCancellation(reason);
         clearKeys();
         behavior.baritone.getInputOverrideHandler().getBlockBreakHelper().stopBreakingBlock();
         pathPosition = path.length() + 3;
@@ -593,6 +634,7 @@ public class PathExecutor implements IPathExecutor {
             ret.pathPosition = pathPosition;
             ret.currentMovementOriginalCostEstimate = currentMovementOriginalCostEstimate;
             ret.costEstimateIndex = costEstimateIndex;
+            ret.futureCostsVerified = futureCostsVerified;
             ret.ticksOnCurrent = ticksOnCurrent;
             return ret;
         }).orElseGet(this::cutIfTooLong); // dont actually call cutIfTooLong every tick if we won't actually use it, use a method reference
@@ -612,6 +654,7 @@ public class PathExecutor implements IPathExecutor {
             if (costEstimateIndex != null) {
                 ret.costEstimateIndex = costEstimateIndex - cutoffAmt;
             }
+            ret.futureCostsVerified = futureCostsVerified;
             ret.ticksOnCurrent = ticksOnCurrent;
             return ret;
         }
@@ -647,23 +690,105 @@ public class PathExecutor implements IPathExecutor {
         return sprintNextTick;
     }
 
-    public static void writeToPacket(PathExecutor p, PacketByteBuf buf) {
+    /**
+     * Writes the difference between what a client already knows of a segment slot and the current state of that slot.
+     * <p>
+     * Full segments are only sent when the segment itself changes, with positions packed as varints relative to
+     * the segment start. Otherwise, only the path position and (if they changed) the highlighted blocks are sent.
+     *
+     * @param p         The executor in that slot, may be null
+     * @param buf       The buffer to write into
+     * @param sent      What the recipient knows of that slot, updated by this method
+     * @param otherSlot What the recipient knows of the planned next segment, if this is the current slot
+     */
+    public static void writeToPacket(@Nullable PathExecutor p, PacketByteBuf buf, SyncState sent, @Nullable SyncState otherSlot) {
         if (p == null) {
-            buf.writeInt(-1);
-            return;
+            buf.writeByte(SYNC_NONE);
+        } else if (p.syncId == sent.id) {
+            if (p.pathPosition == sent.position && p.overlayVersion == sent.overlayVersion) {
+                buf.writeByte(SYNC_UNCHANGED);
+            } else {
+                buf.writeByte(SYNC_DELTA);
+                p.writeDelta(buf, p.overlayVersion != sent.overlayVersion);
+            }
+        } else if (otherSlot != null && p.syncId == otherSlot.id) {
+            buf.writeByte(SYNC_FROM_NEXT);
+            p.writeDelta(buf, true);
+        } else {
+            buf.writeByte(SYNC_FULL);
+            p.writeFull(buf);
+        }
+        sent.update(p);
+    }
+
+    private void writeFull(PacketByteBuf buf) {
+        List<BetterBlockPos> positions = path.positions();
+        BlockPos origin = path.getSrc();
+        buf.writeVarInt(syncId);
+        buf.writeVarInt(pathPosition);
+        buf.writeBlockPos(origin);
+        buf.writeVarInt(positions.size());
+        BlockPos prev = origin;
+        for (BlockPos pos : positions) {
+            // consecutive positions are almost always adjacent, so this is usually 3 bytes per position
+            writeRelative(buf, prev, pos);
+            prev = pos;
+        }
+        writeOverlays(buf, origin);
+    }
+
+    private void writeDelta(PacketByteBuf buf, boolean overlays) {
+        buf.writeVarInt(syncId);
+        buf.writeVarInt(pathPosition);
+        buf.writeBoolean(overlays);
+        if (overlays) {
+            writeOverlays(buf, path.getSrc());
         }
-        buf.writeInt(p.pathPosition);
-        writePositions(p.getPath().positions(), buf);
-        writePositions(p.toBreak(), buf);
-        writePositions(p.toPlace(), buf);
-        writePositions(p.toWalkInto(), buf);
     }
 
-    private static void writePositions(Collection<? extends BlockPos> positions, PacketByteBuf buf) {
+    private void writeOverlays(PacketByteBuf buf, BlockPos origin) {
+        writePositions(toBreak, origin, buf);
+        writePositions(toPlace, origin, buf);
+        writePositions(toWalkInto, origin, buf);
+    }
+
+    private static void writePositions(Collection<? extends BlockPos> positions, BlockPos origin, PacketByteBuf buf) {
         buf.writeVarInt(positions.size());
 
         for (BlockPos position : positions) {
-            buf.writeBlockPos(position);
+            writeRelative(buf, origin, position);
+        }
+    }
+
+    private static void writeRelative(PacketByteBuf buf, BlockPos origin, BlockPos pos) {
+        buf.writeVarInt(VarInt.zigZagEncode(pos.getX() - origin.getX()));
+        buf.writeVarInt(VarInt.zigZagEncode(pos.getY() - origin.getY()));
+        buf.writeVarInt(VarInt.zigZagEncode(pos.getZ() - origin.getZ()));
+    }
+
+    /**
+     * What a single recipient was last sent about a segment slot
+     */
+    public static final class SyncState {
+        private int id = -1;
+        private int position;
+        private int overlayVersion;
+
+        private void update(@Nullable PathExecutor p) {
+            if (p == null) {
+                this.id = -1;
+            } else {
+                this.id = p.syncId;
+                this.position = p.pathPosition;
+                this.overlayVersion = p.overlayVersion;
+            }
+        }
+
+        public boolean isUpToDate(@Nullable PathExecutor p) {
+            if (p == null) {
+                return this.id == -1;
+            }
+            return this.id == p.syncId && this.position == p.pathPosition && this.overlayVersion == p.overlayVersion;
         }
     }
 }
@@ -75,6 +75,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.stream.Collectors;
@@ -560,7 +561,9 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                 return false;
             }
         }
-        recalcNearby(bcc);
+        if (baritone.tryExpensiveWork()) {
+            recalcNearby(bcc);
+        }
         if (incorrectPositions.isEmpty()) {
             fullRecalc(bcc);
         }
@@ -726,6 +729,25 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             return primary.heuristic(x, y, z);
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            JankyGoalComposite goal = (JankyGoalComposite) o;
+            return Objects.equals(primary, goal.primary)
+                    && Objects.equals(fallback, goal.fallback);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(primary, fallback);
+        }
+
         @Override
         public String toString() {
             return "JankyComposite Primary: " + primary + " Fallback: " + fallback;
@@ -810,6 +832,27 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             // prioritize lower y coordinates
             return this.y * 100 + super.heuristic(x, y, z);
         }
+
+        @Override
+        public double getHeuristicOffset() {
+            return this.y * 100;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!super.equals(o)) {
+                return false;
+            }
+
+            GoalAdjacent goal = (GoalAdjacent) o;
+            return allowSameLevel == goal.allowSameLevel
+                    && Objects.equals(no, goal.no);
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode() * 31 + Objects.hash(no, allowSameLevel);
+        }
     }
 
     public static class GoalPlace extends GoalBlock {
@@ -822,6 +865,11 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             // prioritize lower y coordinates
             return this.y * 100 + super.heuristic(x, y, z);
         }
+
+        @Override
+        public double getHeuristicOffset() {
+            return this.y * 100;
+        }
     }
 
     @Override
@@ -974,7 +1022,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                 // it should be a real block
                 // is it already that block?
                 if (valid(bsi.get0(x, y, z), sch, false)) {
-                    return baritone.settings().breakCorrectBlockPenaltyMultiplier.get();
+                    return settings.breakCorrectBlockPenaltyMultiplier.get();
                 } else {
                     // can break if it's wrong
                     // would be great to return less than 1 here, but that would actually make the cost calculation messed up
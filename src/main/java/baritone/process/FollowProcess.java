@@ -25,13 +25,13 @@ import baritone.api.pathing.goals.GoalXZ;
 import baritone.api.process.IFollowProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
+import baritone.cache.WorldData;
 import baritone.utils.BaritoneProcessHelper;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Follow an entity
@@ -80,11 +80,8 @@ public final class FollowProcess extends BaritoneProcessHelper implements IFollo
     }
 
     private void scanWorld() {
-        cache = ctx.worldEntitiesStream()
-                .filter(this::followable)
-                .filter(this.filter)
-                .distinct()
-                .collect(Collectors.toList());
+        WorldData worldData = (WorldData) ctx.worldData();
+        cache = worldData.entityQueries.matching(ctx.world(), entity -> followable(entity) && this.filter.test(entity));
     }
 
     @Override
@@ -26,14 +26,14 @@ import baritone.api.process.PathingCommandType;
 import baritone.api.utils.*;
 import baritone.api.utils.input.Input;
 import baritone.cache.CachedChunk;
-import baritone.cache.WorldScanner;
+import baritone.cache.WorldData;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.utils.BaritoneProcessHelper;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.NotificationHelper;
+import baritone.utils.PathingScheduler;
 import net.minecraft.block.*;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.ItemStack;
@@ -111,11 +111,17 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         updateLoucaSystem();
         int mineGoalUpdateInterval = baritone.settings().mineGoalUpdateInterval.get();
         List<BlockPos> curr = new ArrayList<>(knownOreLocations);
-        if (mineGoalUpdateInterval != 0 && tickCount++ % mineGoalUpdateInterval == 0) { // big brain
+        // a rescan that is due waits for a tick with time to spare
+        if (mineGoalUpdateInterval != 0 && tickCount % mineGoalUpdateInterval == 0 && baritone.tryExpensiveWork()) { // big brain
+            tickCount++;
             CalculationContext context = new CalculationContext(baritone, true);
-            Automatone.getExecutor().execute(() -> rescan(curr, context));
+            // entities may only be looked up from the server thread
+            List<BlockPos> dropped = droppedItemsScan();
+            Automatone.getScheduler().submit(baritone, "mine rescan", PathingScheduler.Priority.NORMAL, () -> rescan(curr, context, dropped));
+        } else if (mineGoalUpdateInterval != 0 && tickCount % mineGoalUpdateInterval != 0) {
+            tickCount++;
         }
-        if (baritone.settings().legitMine.get()) {
+        if (baritone.settings().legitMine.get() && baritone.tryExpensiveWork()) {
             addNearby();
         }
         Optional<BlockPos> shaft = curr.stream()
@@ -228,14 +234,13 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         return new PathingCommand(branchPointRunaway, PathingCommandType.REVALIDATE_GOAL_AND_PATH);
     }
 
-    private void rescan(List<BlockPos> already, CalculationContext context) {
+    private void rescan(List<BlockPos> already, CalculationContext context, List<BlockPos> dropped) {
         if (filter == null) {
             return;
         }
         if (baritone.settings().legitMine.get()) {
             return;
         }
-        List<BlockPos> dropped = droppedItemsScan();
         List<BlockPos> locs = searchWorld(context, filter, ORE_LOCATIONS_COUNT, already, blacklist, dropped);
         locs.addAll(dropped);
         if (locs.isEmpty()) {
@@ -314,6 +319,11 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             return x == this.x && (y == this.y || y == this.y - 1 || y == this.y - 2) && z == this.z;
         }
 
+        @Override
+        public int getReach() {
+            return 2;
+        }
+
         @Override
         public double heuristic(int x, int y, int z) {
             int xDiff = x - this.x;
@@ -328,15 +338,10 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             return Collections.emptyList();
         }
         List<BlockPos> ret = new ArrayList<>();
-        // TODO probably don't iterate all entities
-        for (Entity entity : ctx.world().iterateEntities()) {
-            if (entity instanceof ItemEntity) {
-                ItemEntity ei = (ItemEntity) entity;
-                // PERF: getStack() calls the data tracker, which is kinda slow
-                if (filter.has(ei.getStack())) {
-                    ret.add(entity.getBlockPos());
-                }
-            }
+        WorldData worldData = (WorldData) ctx.worldData();
+        // PERF: getStack() calls the data tracker, which is kinda slow
+        for (ItemEntity item : worldData.entityQueries.itemsNear(ctx.world(), ctx.feetPos(), baritone.settings().entityScanRadius.get(), ei -> filter.has(ei.getStack()))) {
+            ret.add(item.getBlockPos());
         }
         ret.addAll(anticipatedDrops.keySet());
         return ret;
@@ -353,7 +358,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
                 // maxRegionDistanceSq 2 means adjacent directly or adjacent diagonally; nothing further than that
                 locs.addAll(ctx.worldData.getCachedWorld().getLocationsOf(
                         BlockUtils.blockToString(block),
-                        ctx.baritone.settings().maxCachedWorldScanCount.get(),
+                        ctx.settings.maxCachedWorldScanCount.get(),
                         pf.x,
                         pf.z,
                         2
@@ -365,14 +370,15 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
 
         locs = prune(ctx, locs, filter, max, blacklist, dropped);
 
-        if (!untracked.isEmpty() || (ctx.baritone.settings().extendCacheOnThreshold.get() && locs.size() < max)) {
-            locs.addAll(WorldScanner.INSTANCE.scanChunkRadius(
-                    ctx.getBaritone().getPlayerContext(),
+        if (!untracked.isEmpty() || (ctx.settings.extendCacheOnThreshold.get() && locs.size() < max)) {
+            // shared with every other bot looking for the same blocks in this world
+            locs.addAll(ctx.worldData.blockIndex.nearest(
+                    ctx.baritone.getPlayerContext().world(),
                     filter,
+                    ctx.baritone.getPlayerContext().feetPos(),
                     max,
-                    10,
                     32
-            )); // maxSearchRadius is NOT sq
+            ));
         }
 
         locs.addAll(alreadyKnown);
@@ -425,14 +431,14 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
                 .filter(pos -> MineProcess.plausibleToBreak(ctx, pos))
 
                 .filter(pos -> {
-                    if (ctx.getBaritone().settings().allowOnlyExposedOres.get()) {
+                    if (ctx.settings.allowOnlyExposedOres.get()) {
                         return isNextToAir(ctx, pos);
                     } else {
                         return true;
                     }
                 })
 
-                .filter(pos -> pos.getY() >= ctx.getBaritone().settings().minYLevelWhileMining.get())
+                .filter(pos -> pos.getY() >= ctx.settings.minYLevelWhileMining.get())
 
                 .filter(pos -> !blacklist.contains(pos))
 
@@ -446,7 +452,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
     }
 
     public static boolean isNextToAir(CalculationContext ctx, BlockPos pos) {
-        int radius = ctx.getBaritone().settings().allowOnlyExposedOresDistance.get();
+        int radius = ctx.settings.allowOnlyExposedOresDistance.get();
         for (int dx = -radius; dx <= radius; dx++) {
             for (int dy = -radius; dy <= radius; dy++) {
                 for (int dz = -radius; dz <= radius; dz++) {
@@ -490,7 +496,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         this.branchPointRunaway = null;
         this.anticipatedDrops = new HashMap<>();
         if (filter != null) {
-            rescan(new ArrayList<>(), new CalculationContext(baritone));
+            rescan(new ArrayList<>(), new CalculationContext(baritone), droppedItemsScan());
         }
     }
 
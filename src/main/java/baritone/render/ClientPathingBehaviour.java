@@ -21,6 +21,9 @@ import baritone.api.IBaritone;
 import baritone.api.behavior.IPathingBehavior;
 import baritone.api.pathing.calc.IPathFinder;
 import baritone.api.pathing.goals.Goal;
+import baritone.behavior.PathingBehavior;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.Entity;
 import net.minecraft.network.PacketByteBuf;
@@ -31,6 +34,10 @@ public class ClientPathingBehaviour {
     public final Entity entity;
     private RenderedPath current;
     private RenderedPath next;
+    /**
+     * Whether a resync was asked for and no packet came in without missing a segment since
+     */
+    private boolean resyncRequested;
 
     public ClientPathingBehaviour(Entity entity) {
         this.entity = entity;
@@ -66,7 +73,17 @@ public class ClientPathingBehaviour {
     }
 
     public void readFromPacket(PacketByteBuf buf) {
-        this.current = RenderedPath.fromPacket(buf);
-        this.next = RenderedPath.fromPacket(buf);
+        RenderedPath previousNext = this.next;
+        boolean[] missed = new boolean[1];
+        this.current = RenderedPath.fromPacket(buf, this.current, previousNext, () -> missed[0] = true);
+        this.next = RenderedPath.fromPacket(buf, previousNext, null, () -> missed[0] = true);
+        if (!missed[0]) {
+            this.resyncRequested = false;
+        } else if (!this.resyncRequested) {
+            this.resyncRequested = true;
+            PacketByteBuf request = PacketByteBufs.create();
+            request.writeVarInt(this.entity.getId());
+            ClientPlayNetworking.send(PathingBehavior.RESYNC_PACKET_ID, request);
+        }
     }
 }
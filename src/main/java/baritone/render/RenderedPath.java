@@ -17,6 +17,8 @@
 
 package baritone.render;
 
+import baritone.pathing.path.PathExecutor;
+import baritone.utils.type.VarInt;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.Nullable;
@@ -26,13 +28,17 @@ import java.util.Collection;
 import java.util.List;
 
 public class RenderedPath {
+    private final int syncId;
+    private final BlockPos origin;
     private final int position;
     private final List<BlockPos> pathPositions;
     private final List<BlockPos> toBreak;
     private final List<BlockPos> toPlace;
     private final List<BlockPos> toWalkInto;
 
-    private RenderedPath(int position, @Nullable List<BlockPos> pathPositions, @Nullable List<BlockPos> toBreak, @Nullable List<BlockPos> toPlace, @Nullable List<BlockPos> toWalkInto) {
+    private RenderedPath(int syncId, BlockPos origin, int position, @Nullable List<BlockPos> pathPositions, @Nullable List<BlockPos> toBreak, @Nullable List<BlockPos> toPlace, @Nullable List<BlockPos> toWalkInto) {
+        this.syncId = syncId;
+        this.origin = origin;
         this.position = position;
         this.pathPositions = pathPositions;
         this.toBreak = toBreak;
@@ -60,24 +66,89 @@ public class RenderedPath {
         return this.toWalkInto;
     }
 
-    public static @Nullable RenderedPath fromPacket(PacketByteBuf buf) {
-        int position = buf.readInt();
-        if (position == -1) return null;
-        List<BlockPos> pathPositions = readPositions(buf);
-        List<BlockPos> toBreak = readPositions(buf);
-        List<BlockPos> toPlace = readPositions(buf);
-        List<BlockPos> toWalkInto = readPositions(buf);
-        return new RenderedPath(position, pathPositions, toBreak, toPlace, toWalkInto);
+    /**
+     * Reads a segment slot written by {@link PathExecutor#writeToPacket}
+     *
+     * @param buf      The buffer to read from
+     * @param previous What this slot contained before this packet
+     * @param next     What the next segment slot contained before this packet
+     * @param onMissed Called when the packet builds on a segment this client doesn't have, which the server has to
+     *                 send again in full
+     * @return The new contents of this slot
+     */
+    public static @Nullable RenderedPath fromPacket(PacketByteBuf buf, @Nullable RenderedPath previous, @Nullable RenderedPath next, Runnable onMissed) {
+        byte mode = buf.readByte();
+        switch (mode) {
+            case PathExecutor.SYNC_NONE:
+                return null;
+            case PathExecutor.SYNC_UNCHANGED:
+                return previous;
+            case PathExecutor.SYNC_DELTA:
+                return readDelta(buf, previous, onMissed);
+            case PathExecutor.SYNC_FROM_NEXT:
+                return readDelta(buf, next, onMissed);
+            case PathExecutor.SYNC_FULL:
+                return readFull(buf);
+            default:
+                throw new IllegalStateException("Unknown path sync mode " + mode);
+        }
+    }
+
+    private static RenderedPath readFull(PacketByteBuf buf) {
+        int syncId = buf.readVarInt();
+        int position = buf.readVarInt();
+        BlockPos origin = buf.readBlockPos();
+        int length = buf.readVarInt();
+        List<BlockPos> pathPositions = new ArrayList<>(length);
+        BlockPos prev = origin;
+        for (int i = 0; i < length; i++) {
+            prev = readRelative(buf, prev);
+            pathPositions.add(prev);
+        }
+        List<BlockPos> toBreak = readPositions(buf, origin);
+        List<BlockPos> toPlace = readPositions(buf, origin);
+        List<BlockPos> toWalkInto = readPositions(buf, origin);
+        return new RenderedPath(syncId, origin, position, pathPositions, toBreak, toPlace, toWalkInto);
     }
 
-    private static List<BlockPos> readPositions(PacketByteBuf buf) {
+    private static @Nullable RenderedPath readDelta(PacketByteBuf buf, @Nullable RenderedPath base, Runnable onMissed) {
+        int syncId = buf.readVarInt();
+        int position = buf.readVarInt();
+        boolean hasOverlays = buf.readBoolean();
+        if (base == null || base.syncId != syncId) {
+            // we somehow missed the full segment, skip the rest and ask for it again
+            if (hasOverlays) {
+                for (int i = 0; i < 3; i++) {
+                    readPositions(buf, BlockPos.ORIGIN);
+                }
+            }
+            onMissed.run();
+            return null;
+        }
+        if (hasOverlays) {
+            List<BlockPos> toBreak = readPositions(buf, base.origin);
+            List<BlockPos> toPlace = readPositions(buf, base.origin);
+            List<BlockPos> toWalkInto = readPositions(buf, base.origin);
+            return new RenderedPath(syncId, base.origin, position, base.pathPositions, toBreak, toPlace, toWalkInto);
+        }
+        return new RenderedPath(syncId, base.origin, position, base.pathPositions, base.toBreak, base.toPlace, base.toWalkInto);
+    }
+
+    private static List<BlockPos> readPositions(PacketByteBuf buf, BlockPos origin) {
         int length = buf.readVarInt();
         List<BlockPos> ret = new ArrayList<>(length);
 
         for (int i = 0; i < length; i++) {
-            ret.add(new BlockPos(buf.readBlockPos()));
+            ret.add(readRelative(buf, origin));
         }
 
         return ret;
     }
+
+    private static BlockPos readRelative(PacketByteBuf buf, BlockPos origin) {
+        int x = VarInt.zigZagDecode(buf.readVarInt());
+        int y = VarInt.zigZagDecode(buf.readVarInt());
+        int z = VarInt.zigZagDecode(buf.readVarInt());
+        return origin.add(x, y, z);
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.api.utils.IBaritoneMetrics;
+import baritone.api.utils.PathCalculationResult;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters that can be written from the server thread and the pathing threads at once. Everything recorded on the
+ * metrics of a bot is also recorded on the metrics of its world.
+ */
+public final class BaritoneMetrics implements IBaritoneMetrics {
+
+    private static final PathCalculationResult.Type[] RESULT_TYPES = PathCalculationResult.Type.values();
+    private static final CancelReason[] CANCEL_REASONS = CancelReason.values();
+
+    private final @Nullable BaritoneMetrics parent;
+
+    private final LongAdder[] searches = adders(RESULT_TYPES.length);
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder movementsConsidered = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder firstSegments = new LongAdder();
+    private final LongAdder firstSegmentNanos = new LongAdder();
+    private final LongAdder[] cancellations = adders(CANCEL_REASONS.length);
+    private final LongAdder executorTickNanos = new LongAdder();
+    private final LongAdder processTickNanos = new LongAdder();
+    private final LongAdder syncBytes = new LongAdder();
+    private final LongAdder tickNanos = new LongAdder();
+    private final LongAdder deferrals = new LongAdder();
+
+    /**
+     * @param parent The metrics to also record everything on, or null for the metrics of a world
+     */
+    public BaritoneMetrics(@Nullable BaritoneMetrics parent) {
+        this.parent = parent;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    public void recordSearch(PathCalculationResult.Type type, int nodesExpanded, int movementsConsidered, long nanos) {
+        this.searches[type.ordinal()].increment();
+        this.nodesExpanded.add(nodesExpanded);
+        this.movementsConsidered.add(movementsConsidered);
+        this.searchNanos.add(nanos);
+        if (parent != null) {
+            parent.recordSearch(type, nodesExpanded, movementsConsidered, nanos);
+        }
+    }
+
+    public void recordFirstSegment(long nanos) {
+        this.firstSegments.increment();
+        this.firstSegmentNanos.add(nanos);
+        if (parent != null) {
+            parent.recordFirstSegment(nanos);
+        }
+    }
+
+    public void recordCancellation(CancelReason reason) {
+        this.cancellations[reason.ordinal()].increment();
+        if (parent != null) {
+            parent.recordCancellation(reason);
+        }
+    }
+
+    public void recordExecutorTick(long nanos) {
+        this.executorTickNanos.add(nanos);
+        if (parent != null) {
+            parent.recordExecutorTick(nanos);
+        }
+    }
+
+    public void recordProcessTick(long nanos) {
+        this.processTickNanos.add(nanos);
+        if (parent != null) {
+            parent.recordProcessTick(nanos);
+        }
+    }
+
+    public void recordSync(int bytes) {
+        this.syncBytes.add(bytes);
+        if (parent != null) {
+            parent.recordSync(bytes);
+        }
+    }
+
+    public void recordTick(long nanos) {
+        this.tickNanos.add(nanos);
+        if (parent != null) {
+            parent.recordTick(nanos);
+        }
+    }
+
+    public void recordDeferral() {
+        this.deferrals.increment();
+        if (parent != null) {
+            parent.recordDeferral();
+        }
+    }
+
+    @Override
+    public long getSearchCount() {
+        return sum(searches);
+    }
+
+    @Override
+    public long getSearchCount(PathCalculationResult.Type type) {
+        return searches[type.ordinal()].sum();
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return nodesExpanded.sum();
+    }
+
+    @Override
+    public long getMovementsConsidered() {
+        return movementsConsidered.sum();
+    }
+
+    @Override
+    public long getSearchNanos() {
+        return searchNanos.sum();
+    }
+
+    @Override
+    public long getFirstSegmentCount() {
+        return firstSegments.sum();
+    }
+
+    @Override
+    public long getFirstSegmentNanos() {
+        return firstSegmentNanos.sum();
+    }
+
+    @Override
+    public long getCancellations() {
+        return sum(cancellations);
+    }
+
+    @Override
+    public long getCancellations(CancelReason reason) {
+        return cancellations[reason.ordinal()].sum();
+    }
+
+    @Override
+    public long getExecutorTickNanos() {
+        return executorTickNanos.sum();
+    }
+
+    @Override
+    public long getProcessTickNanos() {
+        return processTickNanos.sum();
+    }
+
+    @Override
+    public long getSyncBytes() {
+        return syncBytes.sum();
+    }
+
+    @Override
+    public long getTickNanos() {
+        return tickNanos.sum();
+    }
+
+    @Override
+    public long getDeferrals() {
+        return deferrals.sum();
+    }
+}
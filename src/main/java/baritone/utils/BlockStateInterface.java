@@ -17,7 +17,12 @@
 
 package baritone.utils;
 
+import baritone.api.BaritoneAPI;
+import baritone.api.cache.IWorldProvider;
 import baritone.api.utils.IEntityContext;
+import baritone.cache.CachedChunk;
+import baritone.cache.CachedWorld;
+import baritone.cache.WorldData;
 import baritone.utils.accessor.ServerChunkManagerAccessor;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -28,6 +33,7 @@ import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Wraps get for chuck caching capability
@@ -43,17 +49,43 @@ public class BlockStateInterface {
 
     private WorldChunk prev = null;
 
-    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    /**
+     * Where blocks of unloaded chunks are read from, null when {@link baritone.api.Settings#chunkCaching} is off
+     */
+    private final @Nullable CachedWorld cachedWorld;
+    private CachedChunk prevCached = null;
+    /**
+     * The last chunk that wasn't cached, the area around a path is asked about over and over whether it is known or not
+     */
+    private int prevUncachedX = Integer.MAX_VALUE;
+    private int prevUncachedZ = Integer.MAX_VALUE;
+
+    protected static final BlockState AIR = Blocks.AIR.getDefaultState();
 
     public BlockStateInterface(IEntityContext ctx) {
         this(ctx.world());
     }
 
     public BlockStateInterface(World world) {
+        this(
+                world,
+                (ServerChunkManagerAccessor) world.getChunkManager(),
+                BaritoneAPI.getGlobalSettings().chunkCaching.get()
+                        ? ((WorldData) IWorldProvider.KEY.get(world).getCurrentWorld()).cachedWorld
+                        : null
+        );
+    }
+
+    /**
+     * @param world    The world the blocks are in, only its height limits are read
+     * @param provider The loaded chunks, may only be null if every method using it is overridden
+     */
+    protected BlockStateInterface(BlockView world, @Nullable ServerChunkManagerAccessor provider, @Nullable CachedWorld cachedWorld) {
         this.world = world;
-        this.provider = (ServerChunkManagerAccessor) world.getChunkManager();
+        this.provider = provider;
         this.isPassableBlockPos = new BlockPos.Mutable();
         this.access = new BlockStateInterfaceAccessWrapper(this);
+        this.cachedWorld = cachedWorld;
     }
 
     public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
@@ -90,7 +122,43 @@ public class BlockStateInterface {
             prev = chunk;
             return getFromChunk(this.world, chunk, x, y, z);
         }
-        return AIR;
+        return getFromCache(x, y, z);
+    }
+
+    /**
+     * @return The simplified block from the cache, for chunks that are not loaded
+     * @see CachedChunk#getBlock(int, int, int)
+     */
+    protected BlockState getFromCache(int x, int y, int z) {
+        CachedChunk cached = getCachedChunk(x, z);
+        return cached == null ? AIR : cached.getBlock(x, y, z);
+    }
+
+    protected boolean isCached(int x, int z) {
+        return getCachedChunk(x, z) != null;
+    }
+
+    private @Nullable CachedChunk getCachedChunk(int x, int z) {
+        if (cachedWorld == null) {
+            return null;
+        }
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        CachedChunk cached = prevCached;
+        if (cached != null && cached.x == chunkX && cached.z == chunkZ) {
+            return cached;
+        }
+        if (chunkX == prevUncachedX && chunkZ == prevUncachedZ) {
+            return null;
+        }
+        cached = cachedWorld.getChunk(chunkX, chunkZ);
+        if (cached != null) {
+            prevCached = cached;
+        } else {
+            prevUncachedX = chunkX;
+            prevUncachedZ = chunkZ;
+        }
+        return cached;
     }
 
     public boolean isLoaded(int x, int z) {
@@ -103,7 +171,8 @@ public class BlockStateInterface {
             prev = prevChunk;
             return true;
         }
-        return false;
+        // cached chunks are known terrain too, just a bit less precise
+        return isCached(x, z);
     }
 
     // get the block at x,y,z from this chunk WITHOUT creating a single blockpos object
@@ -19,12 +19,14 @@ package baritone.utils;
 
 import baritone.Baritone;
 import baritone.api.event.listener.AbstractGameEventListener;
+import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.calc.IPathingControlManager;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.process.IBaritoneProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
 import baritone.behavior.PathingBehavior;
+import baritone.pathing.calc.hierarchy.GoalCorridor;
 import baritone.pathing.path.PathExecutor;
 import net.minecraft.util.math.BlockPos;
 
@@ -158,7 +160,7 @@ public class PathingControlManager implements IPathingControlManager {
             if (newGoal.isInGoal(current.getPath().getDest())) {
                 return false;
             }
-            return !newGoal.toString().equals(current.getPath().getGoal().toString());
+            return !newGoal.equals(intendedGoal(current.getPath()));
         }
         return false;
     }
@@ -166,7 +168,7 @@ public class PathingControlManager implements IPathingControlManager {
     public boolean revalidateGoal(Goal newGoal) {
         PathExecutor current = baritone.getPathingBehavior().getCurrent();
         if (current != null) {
-            Goal intended = current.getPath().getGoal();
+            Goal intended = intendedGoal(current.getPath());
             BlockPos end = current.getPath().getDest();
             if (intended.isInGoal(end) && !newGoal.isInGoal(end)) {
                 // this path used to end in the goal
@@ -178,6 +180,14 @@ public class PathingControlManager implements IPathingControlManager {
     }
 
 
+    /**
+     * @return The goal the path was calculated for, rather than the waypoints it was steered through
+     */
+    private static Goal intendedGoal(IPath path) {
+        Goal goal = path.getGoal();
+        return goal instanceof GoalCorridor ? ((GoalCorridor) goal).getGoal() : goal;
+    }
+
     public PathingCommand executeProcesses() {
         for (IBaritoneProcess process : processes) {
             if (process.isActive()) {
@@ -197,7 +207,9 @@ public class PathingControlManager implements IPathingControlManager {
         while (iterator.hasNext()) {
             IBaritoneProcess proc = iterator.next();
 
+            long start = System.nanoTime();
             PathingCommand exec = proc.onTick(Objects.equals(proc, inControlLastTick) && baritone.getPathingBehavior().calcFailedLastTick(), baritone.getPathingBehavior().isSafeToCancel());
+            baritone.getMetrics().recordProcessTick(System.nanoTime() - start);
             if (exec == null) {
                 if (proc.isActive()) {
                     throw new IllegalStateException(proc.displayName() + " actively returned null PathingCommand");
@@ -0,0 +1,272 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.Automatone;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded scheduler for path calculations and world scans, shared by every Automatone instance.
+ *
+ * <p>Work is queued per owner (usually a {@link baritone.Baritone} instance) and owners are served round-robin,
+ * so one bot requesting a lot of work cannot starve the others. Within the same owner, a new request of a given
+ * kind replaces any request of that kind that has not started yet, since the older one would be stale by the time it runs.
+ * {@link Priority#URGENT} requests (a bot standing still waiting for its first segment) are always served
+ * before {@link Priority#NORMAL} ones (plan-ahead segments, rescans).
+ */
+public final class PathingScheduler {
+
+    public enum Priority {
+        URGENT,
+        NORMAL
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int workerCount;
+
+    private final Object lock = new Object();
+    private final Map<Object, OwnerQueue> owners = new HashMap<>();
+    /**
+     * One ring of owners with pending work per priority, indexed by ordinal
+     */
+    private final ArrayDeque<OwnerQueue>[] rings;
+
+    private int queueDepth;
+    private long submitted;
+    private long started;
+    private long dropped;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    @SuppressWarnings("unchecked")
+    public PathingScheduler(int workerCount) {
+        if (workerCount < 1) {
+            workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        this.workerCount = workerCount;
+        AtomicInteger threadCounter = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "Automatone Worker " + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.rings = new ArrayDeque[Priority.values().length];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Queues a task to be run on a worker thread.
+     *
+     * @param owner    The object on behalf of which the task runs, used for fairness
+     * @param kind     A key identifying the kind of work. A pending task of the same owner and kind is dropped.
+     * @param priority The priority of the task
+     * @param task     The task itself
+     */
+    public void submit(Object owner, String kind, Priority priority, Runnable task) {
+        synchronized (lock) {
+            OwnerQueue queue = owners.computeIfAbsent(owner, OwnerQueue::new);
+            Request stale = queue.pendingByKind.remove(kind);
+            if (stale != null) {
+                removePending(queue, stale);
+                dropped++;
+            }
+            Request request = new Request(kind, priority, task, System.nanoTime());
+            ArrayDeque<Request> pending = queue.pending[priority.ordinal()];
+            if (pending.isEmpty()) {
+                rings[priority.ordinal()].addLast(queue);
+            }
+            pending.addLast(request);
+            queue.pendingByKind.put(kind, request);
+            queueDepth++;
+            submitted++;
+        }
+        // one drain per request, a dropped request simply makes a later drain find nothing to do
+        executor.execute(this::runNext);
+    }
+
+    /**
+     * Drops every pending task of the given owner, for example when the owner is removed from the world.
+     *
+     * @param owner The owner to forget about
+     */
+    public void dropAll(Object owner) {
+        synchronized (lock) {
+            OwnerQueue queue = owners.remove(owner);
+            if (queue == null) {
+                return;
+            }
+            for (int i = 0; i < rings.length; i++) {
+                if (!queue.pending[i].isEmpty()) {
+                    rings[i].remove(queue);
+                    queueDepth -= queue.pending[i].size();
+                    dropped += queue.pending[i].size();
+                    queue.pending[i].clear();
+                }
+            }
+            queue.pendingByKind.clear();
+        }
+    }
+
+    private void removePending(OwnerQueue queue, Request request) {
+        ArrayDeque<Request> pending = queue.pending[request.priority.ordinal()];
+        pending.remove(request);
+        if (pending.isEmpty()) {
+            rings[request.priority.ordinal()].remove(queue);
+        }
+        queueDepth--;
+    }
+
+    private Request poll() {
+        synchronized (lock) {
+            for (int priority = 0; priority < rings.length; priority++) {
+                OwnerQueue queue = rings[priority].pollFirst();
+                if (queue == null) {
+                    continue;
+                }
+                Request request = queue.pending[priority].pollFirst();
+                if (!queue.pending[priority].isEmpty()) {
+                    rings[priority].addLast(queue); // back of the line
+                }
+                queue.pendingByKind.remove(request.kind, request);
+                if (queue.isEmpty()) {
+                    owners.remove(queue.owner);
+                }
+                queueDepth--;
+                started++;
+                long wait = System.nanoTime() - request.submitTime;
+                totalWaitNanos += wait;
+                maxWaitNanos = Math.max(maxWaitNanos, wait);
+                return request;
+            }
+            return null;
+        }
+    }
+
+    private void runNext() {
+        Request request = poll();
+        if (request == null) {
+            return;
+        }
+        try {
+            request.task.run();
+        } catch (Throwable t) {
+            Automatone.LOGGER.error("Uncaught exception in Automatone worker ({})", request.kind, t);
+        }
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * @return The number of tasks waiting for a worker
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queueDepth;
+        }
+    }
+
+    /**
+     * @return The number of tasks currently running
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        synchronized (lock) {
+            return submitted;
+        }
+    }
+
+    /**
+     * @return The number of tasks that were replaced by a newer request before they could start
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    /**
+     * @return The average time between submission and start of a task, in nanoseconds
+     */
+    public long getAverageWaitNanos() {
+        synchronized (lock) {
+            return started == 0 ? 0 : totalWaitNanos / started;
+        }
+    }
+
+    /**
+     * @return The longest time a task waited before starting, in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        synchronized (lock) {
+            return maxWaitNanos;
+        }
+    }
+
+    private static final class OwnerQueue {
+        private final Object owner;
+        private final ArrayDeque<Request>[] pending;
+        private final Map<String, Request> pendingByKind = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private OwnerQueue(Object owner) {
+            this.owner = owner;
+            this.pending = new ArrayDeque[Priority.values().length];
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = new ArrayDeque<>();
+            }
+        }
+
+        private boolean isEmpty() {
+            return pendingByKind.isEmpty();
+        }
+    }
+
+    private static final class Request {
+        private final String kind;
+        private final Priority priority;
+        private final Runnable task;
+        private final long submitTime;
+
+        private Request(String kind, Priority priority, Runnable task, long submitTime) {
+            this.kind = kind;
+            this.priority = priority;
+            this.task = task;
+            this.submitTime = submitTime;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.cache.ChunkSnapshot;
+import baritone.cache.WorldSnapshot;
+import net.minecraft.block.BlockState;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+
+/**
+ * A {@link BlockStateInterface} that reads from a {@link WorldSnapshot} instead of the live world,
+ * making it safe to use from a worker thread.
+ */
+public final class SnapshotBlockStateInterface extends BlockStateInterface {
+
+    private final WorldSnapshot snapshot;
+
+    private ChunkSnapshot prev = null;
+
+    public SnapshotBlockStateInterface(World world, WorldSnapshot snapshot) {
+        super(world);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * A snapshot that isn't backed by a world, without the cache to fall back on outside of it
+     *
+     * @param heightLimits The height limits the snapshot was taken with
+     */
+    public SnapshotBlockStateInterface(BlockView heightLimits, WorldSnapshot snapshot) {
+        super(heightLimits, null, null);
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
+        return snapshot.getChunk(blockX >> 4, blockZ >> 4) != null;
+    }
+
+    @Override
+    public BlockState get0(int x, int y, int z) {
+        if (this.world.isOutOfHeightLimit(y)) return AIR;
+
+        ChunkSnapshot cached = prev;
+        // same idea as in BlockStateInterface, skip the map lookup when staying in the same chunk
+        if (cached == null || cached.x != x >> 4 || cached.z != z >> 4) {
+            cached = snapshot.getChunk(x >> 4, z >> 4);
+            if (cached == null) {
+                return getFromCache(x, y, z);
+            }
+            prev = cached;
+        }
+        return cached.get(this.world.getSectionIndex(y), x, y, z);
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        ChunkSnapshot cached = prev;
+        if (cached != null && cached.x == x >> 4 && cached.z == z >> 4) {
+            return true;
+        }
+        cached = snapshot.getChunk(x >> 4, z >> 4);
+        if (cached != null) {
+            prev = cached;
+            return true;
+        }
+        return isCached(x, z);
+    }
+}
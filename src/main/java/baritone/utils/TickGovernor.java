@@ -0,0 +1,92 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.api.BaritoneAPI;
+import baritone.api.Settings;
+
+/**
+ * Keeps the time every Automatone instance spends in a server tick under {@link Settings#tickBudgetMS}, by putting
+ * off expensive work that can wait once the budget of the tick is spent.
+ * <p>
+ * Whenever work had to be put off in a tick, instances that did theirs recently wait a tick longer for their next
+ * turn, and the wait shrinks back once the budget suffices again. Under load, the work of every instance is thereby
+ * done in turns, and no instance waits longer than {@link Settings#tickBudgetMaxDeferTicks}.
+ * <p>
+ * Only used from the server thread.
+ */
+public final class TickGovernor {
+
+    private long tick;
+    private long budgetNanos;
+    private int maxDeferTicks;
+    private long spentThisTick;
+    private boolean deferredThisTick;
+
+    /**
+     * How many ticks an instance has to have waited since its last expensive work to be allowed more
+     */
+    private int minWait = 1;
+
+    public void startTick() {
+        if (deferredThisTick) {
+            minWait = Math.min(minWait + 1, Math.max(1, maxDeferTicks));
+        } else if (spentThisTick < budgetNanos) {
+            minWait = Math.max(1, minWait - 1);
+        }
+        Settings settings = BaritoneAPI.getGlobalSettings();
+        budgetNanos = (long) (settings.tickBudgetMS.get() * 1_000_000L);
+        maxDeferTicks = settings.tickBudgetMaxDeferTicks.get();
+        spentThisTick = 0;
+        deferredThisTick = false;
+        tick++;
+    }
+
+    /**
+     * Records how long an instance took to tick
+     */
+    public void spend(long nanos) {
+        spentThisTick += nanos;
+    }
+
+    /**
+     * @return Whether the instance may do expensive work that can wait this tick. If it may not, it should try again
+     * in a later tick.
+     */
+    public boolean tryExpensiveWork(Account account) {
+        if (budgetNanos <= 0 || account.lastWorkTick == tick) {
+            account.lastWorkTick = tick;
+            return true;
+        }
+        long waited = tick - account.lastWorkTick;
+        if (waited > maxDeferTicks || (spentThisTick < budgetNanos && waited >= minWait)) {
+            account.lastWorkTick = tick;
+            return true;
+        }
+        deferredThisTick = true;
+        return false;
+    }
+
+    /**
+     * The turn of one instance
+     */
+    public static final class Account {
+
+        private long lastWorkTick = Long.MIN_VALUE / 2;
+    }
+}
@@ -18,6 +18,7 @@
 package baritone.utils;
 
 import baritone.api.IBaritone;
+import baritone.api.Settings;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.enchantment.EnchantmentHelper;
@@ -25,47 +26,89 @@ import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.effect.StatusEffectInstance;
 import net.minecraft.entity.effect.StatusEffects;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.SwordItem;
 import net.minecraft.item.ToolItem;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
+import java.util.Arrays;
 
 /**
  * A cached list of the best tools on the hotbar for any block
+ * <p>
+ * A tool set is only good for the hotbar, status effects and settings it was made with, {@link #refresh()} tells
+ * whether any of them changed since. It can be used from several threads at once.
  *
  * @author Avery, Brady, leijurv
+ * @see baritone.Baritone#getToolSet()
  */
 public class ToolSet {
 
-    /**
-     * A cache mapping a {@link Block} to how long it will take to break
-     * with this toolset, given the optimum tool is used.
-     */
-    private final Map<Block, Double> breakStrengthCache;
+    private static final int HOTBAR_SIZE = 9;
 
     /**
-     * My buddy leijurv owned me so we have this to not create a new lambda instance.
+     * How fast each block state can be broken with this toolset, given the optimum tool is used,
+     * indexed by raw state id and {@link Double#NaN} until calculated
      */
-    private final Function<Block, Double> backendCalculation;
+    private final double[] breakStrengthCache;
 
     private final PlayerEntity player;
-    private final IBaritone baritone;
+    private final Settings settings;
+    private final int settingsChangeCount;
+    private final double potionAmplifier;
+    private final int selectedSlot;
+    /**
+     * Copies of the hotbar stacks, which calculations use so that they don't depend on the live inventory
+     */
+    private final ItemStack[] hotbar = new ItemStack[HOTBAR_SIZE];
+    private final int[] efficiencyLevels = new int[HOTBAR_SIZE];
+    private final boolean[] silkTouch = new boolean[HOTBAR_SIZE];
 
     public ToolSet(PlayerEntity player) {
-        this.breakStrengthCache = new HashMap<>();
+        this(player, IBaritone.KEY.get(player).settings());
+    }
+
+    public ToolSet(PlayerEntity player, Settings settings) {
         this.player = player;
-        this.baritone = IBaritone.KEY.get(player);
+        this.settings = settings;
+        this.settingsChangeCount = Settings.changeCount();
+        this.potionAmplifier = settings.considerPotionEffects.get() ? potionAmplifier() : 1;
+        PlayerInventory inventory = player.getInventory();
+        this.selectedSlot = inventory.selectedSlot;
+        for (int i = 0; i < HOTBAR_SIZE; i++) {
+            ItemStack stack = inventory.getStack(i).copy();
+            this.hotbar[i] = stack;
+            this.efficiencyLevels[i] = EnchantmentHelper.getLevel(Enchantments.EFFICIENCY, stack);
+            this.silkTouch[i] = hasSilkTouch(stack);
+        }
+        this.breakStrengthCache = new double[Block.STATE_IDS.size()];
+        Arrays.fill(this.breakStrengthCache, Double.NaN);
+    }
 
-        if (baritone.settings().considerPotionEffects.get()) {
-            double amplifier = potionAmplifier();
-            Function<Double, Double> amplify = x -> amplifier * x;
-            backendCalculation = amplify.compose(this::getBestDestructionTime);
-        } else {
-            backendCalculation = this::getBestDestructionTime;
+    /**
+     * Must be called on the server thread
+     *
+     * @return This toolset if the hotbar, the status effects and the settings are the same as when it was made,
+     * a new one otherwise
+     */
+    public ToolSet refresh() {
+        return isUpToDate() ? this : new ToolSet(player, settings);
+    }
+
+    private boolean isUpToDate() {
+        if (Settings.changeCount() != settingsChangeCount) {
+            return false;
+        }
+        PlayerInventory inventory = player.getInventory();
+        if (settings.disableAutoTool.get() && inventory.selectedSlot != selectedSlot) {
+            return false;
+        }
+        for (int i = 0; i < HOTBAR_SIZE; i++) {
+            if (!ItemStack.areEqual(hotbar[i], inventory.getStack(i))) {
+                return false;
+            }
         }
+        return !settings.considerPotionEffects.get() || potionAmplifier() == potionAmplifier;
     }
 
     /**
@@ -75,7 +118,17 @@ public class ToolSet {
      * @return the speed of how fast we'll mine it. 1/(time in ticks)
      */
     public double getStrVsBlock(BlockState state) {
-        return breakStrengthCache.computeIfAbsent(state.getBlock(), backendCalculation);
+        int id = Block.getRawIdFromState(state);
+        if (id < 0 || id >= breakStrengthCache.length) {
+            return getBestDestructionTime(state.getBlock()) * potionAmplifier;
+        }
+        double strength = breakStrengthCache[id];
+        if (Double.isNaN(strength)) {
+            // racing threads compute the same strength, no need to synchronize
+            strength = getBestDestructionTime(state.getBlock()) * potionAmplifier;
+            breakStrengthCache[id] = strength;
+        }
+        return strength;
     }
 
     /**
@@ -110,8 +163,8 @@ public class ToolSet {
         If we actually want know what efficiency our held item has instead of the best one
         possible, this lets us make pathing depend on the actual tool to be used (if auto tool is disabled)
         */
-        if (baritone.settings().disableAutoTool.get() && pathingCalculation) {
-            return player.getInventory().selectedSlot;
+        if (settings.disableAutoTool.get() && pathingCalculation) {
+            return selectedSlot;
         }
 
         int best = 0;
@@ -119,17 +172,17 @@ public class ToolSet {
         int lowestCost = Integer.MIN_VALUE;
         boolean bestSilkTouch = false;
         BlockState blockState = b.getDefaultState();
-        for (int i = 0; i < 9; i++) {
-            ItemStack itemStack = player.getInventory().getStack(i);
-            if (!baritone.settings().useSwordToMine.get() && itemStack.getItem() instanceof SwordItem) {
+        for (int i = 0; i < HOTBAR_SIZE; i++) {
+            ItemStack itemStack = hotbar[i];
+            if (!settings.useSwordToMine.get() && itemStack.getItem() instanceof SwordItem) {
                 continue;
             }
 
-            if (baritone.settings().itemSaver.get() && itemStack.getDamage() >= itemStack.getMaxDamage() && itemStack.getMaxDamage() > 1) {
+            if (settings.itemSaver.get() && itemStack.getDamage() >= itemStack.getMaxDamage() && itemStack.getMaxDamage() > 1) {
                 continue;
             }
-            double speed = calculateSpeedVsBlock(itemStack, blockState);
-            boolean silkTouch = hasSilkTouch(itemStack);
+            double speed = calculateSpeedVsBlock(itemStack, blockState, efficiencyLevels[i]);
+            boolean silkTouch = this.silkTouch[i];
             if (speed > highestSpeed) {
                 highestSpeed = speed;
                 best = i;
@@ -156,12 +209,12 @@ public class ToolSet {
      * @return A double containing the destruction ticks with the best tool
      */
     private double getBestDestructionTime(Block b) {
-        ItemStack stack = player.getInventory().getStack(getBestSlot(b, false, true));
-        return calculateSpeedVsBlock(stack, b.getDefaultState()) * avoidanceMultiplier(b);
+        int slot = getBestSlot(b, false, true);
+        return calculateSpeedVsBlock(hotbar[slot], b.getDefaultState(), efficiencyLevels[slot]) * avoidanceMultiplier(b);
     }
 
     private double avoidanceMultiplier(Block b) {
-        return baritone.settings().blocksToAvoidBreaking.get().contains(b) ? 0.1 : 1;
+        return settings.blocksToAvoidBreaking.get().contains(b) ? 0.1 : 1;
     }
 
     /**
@@ -173,6 +226,10 @@ public class ToolSet {
      * @return how long it would take in ticks
      */
     public static double calculateSpeedVsBlock(ItemStack item, BlockState state) {
+        return calculateSpeedVsBlock(item, state, EnchantmentHelper.getLevel(Enchantments.EFFICIENCY, item));
+    }
+
+    private static double calculateSpeedVsBlock(ItemStack item, BlockState state, int effLevel) {
         float hardness = state.getHardness(null, null);
         if (hardness < 0) {
             return -1;
@@ -180,7 +237,6 @@ public class ToolSet {
 
         float speed = item.getMiningSpeedMultiplier(state);
         if (speed > 1) {
-            int effLevel = EnchantmentHelper.getLevel(Enchantments.EFFICIENCY, item);
             if (effLevel > 0 && !item.isEmpty()) {
                 speed += effLevel * effLevel + 1;
             }
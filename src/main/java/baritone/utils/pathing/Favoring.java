@@ -19,37 +19,141 @@ package baritone.utils.pathing;
 
 import baritone.api.pathing.calc.Avoidance;
 import baritone.api.pathing.calc.IPath;
-import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.IEntityContext;
 import baritone.pathing.movement.CalculationContext;
-import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 
+import java.util.List;
+
+/**
+ * Cost multipliers for the positions of a path calculation: favoring the previous path (backtracking), and avoiding
+ * the spheres of {@link Avoidance}s around mobs and such.
+ * <p>
+ * Avoidances are not rasterized, they are bucketed by the chunk sections their sphere touches and evaluated on
+ * demand, so building one of these is linear in the number of avoidances whatever their radius.
+ * Not thread safe, a favoring belongs to the one calculation it was made for.
+ */
 public final class Favoring {
 
-    private final Long2DoubleOpenHashMap favorings;
+    private static final Avoidance[] NO_AVOIDANCES = new Avoidance[0];
+
+    /**
+     * Positions of the previous path, as {@link BlockPos#asLong(int, int, int)}
+     */
+    private final LongOpenHashSet backtrack;
+    private final double backtrackCoefficient;
+
+    /**
+     * Avoidances touching each chunk section, by {@link ChunkSectionPos#asLong(int, int, int)}
+     */
+    private final Long2ObjectOpenHashMap<Avoidance[]> avoidances;
+
+    /**
+     * The avoidances as they were given, to compare favorings
+     */
+    private final List<Avoidance> avoided;
+
+    // lookups come in bursts around the same node, remember the last section
+    private long lastSection = Long.MAX_VALUE;
+    private Avoidance[] lastAvoidances = NO_AVOIDANCES;
 
     public Favoring(IEntityContext ctx, IPath previous, CalculationContext context) {
-        this(previous, context);
-        for (Avoidance avoid : ctx.listAvoidedAreas()) {
-            avoid.applySpherical(favorings);
-        }
-        ctx.logDebug("Favoring size: " + favorings.size());
+        this(previous, context, ctx.listAvoidedAreas());
+        ctx.logDebug("Favoring: " + backtrack.size() + " backtrack positions, avoidances in " + avoidances.size() + " sections");
     }
 
     public Favoring(IPath previous, CalculationContext context) { // create one just from previous path, no mob avoidances
-        favorings = new Long2DoubleOpenHashMap();
-        favorings.defaultReturnValue(1.0D);
-        double coeff = context.backtrackCostFavoringCoefficient;
-        if (coeff != 1D && previous != null) {
-            previous.positions().forEach(pos -> favorings.put(BetterBlockPos.longHash(pos), coeff));
+        this(previous, context, List.of());
+    }
+
+    Favoring(IPath previous, CalculationContext context, List<Avoidance> avoided) {
+        this.backtrack = new LongOpenHashSet();
+        this.backtrackCoefficient = context.backtrackCostFavoringCoefficient;
+        if (backtrackCoefficient != 1D && previous != null) {
+            previous.positions().forEach(pos -> backtrack.add(pos.asLong()));
+        }
+        this.avoidances = new Long2ObjectOpenHashMap<>();
+        this.avoided = List.copyOf(avoided);
+        for (Avoidance avoid : avoided) {
+            int radius = avoid.getRadius();
+            int minX = (avoid.getCenterX() - radius) >> 4;
+            int maxX = (avoid.getCenterX() + radius) >> 4;
+            int minY = (avoid.getCenterY() - radius) >> 4;
+            int maxY = (avoid.getCenterY() + radius) >> 4;
+            int minZ = (avoid.getCenterZ() - radius) >> 4;
+            int maxZ = (avoid.getCenterZ() + radius) >> 4;
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        add(ChunkSectionPos.asLong(x, y, z), avoid);
+                    }
+                }
+            }
         }
     }
 
+    private void add(long section, Avoidance avoid) {
+        Avoidance[] existing = avoidances.get(section);
+        if (existing == null) {
+            avoidances.put(section, new Avoidance[]{avoid});
+        } else {
+            Avoidance[] grown = new Avoidance[existing.length + 1];
+            System.arraycopy(existing, 0, grown, 0, existing.length);
+            grown[existing.length] = avoid;
+            avoidances.put(section, grown);
+        }
+    }
+
+    /**
+     * Favorings are equal when they give the same multiplier everywhere, for the same reasons
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Favoring favoring = (Favoring) o;
+        return Double.compare(backtrackCoefficient, favoring.backtrackCoefficient) == 0
+                && backtrack.equals(favoring.backtrack)
+                && avoided.equals(favoring.avoided);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * backtrack.hashCode() + avoided.hashCode();
+    }
+
     public boolean isEmpty() {
-        return favorings.isEmpty();
+        return backtrack.isEmpty() && avoidances.isEmpty();
     }
 
-    public double calculate(long hash) {
-        return favorings.get(hash);
+    public double calculate(int x, int y, int z) {
+        double result = 1.0D;
+        if (!backtrack.isEmpty() && backtrack.contains(BlockPos.asLong(x, y, z))) {
+            result = backtrackCoefficient;
+        }
+        if (!avoidances.isEmpty()) {
+            long section = ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4);
+            Avoidance[] candidates;
+            if (section == lastSection) {
+                candidates = lastAvoidances;
+            } else {
+                candidates = avoidances.getOrDefault(section, NO_AVOIDANCES);
+                lastSection = section;
+                lastAvoidances = candidates;
+            }
+            for (Avoidance avoid : candidates) {
+                if (avoid.contains(x, y, z)) {
+                    result *= avoid.getCoefficient();
+                }
+            }
+        }
+        return result;
     }
 }
@@ -28,9 +28,13 @@ public enum PathingBlockType {
     AVOID(0b10),
     SOLID(0b11);
 
+    private static final PathingBlockType[] BY_RAW_BITS = {AIR, WATER, AVOID, SOLID};
+
+    private final int rawBits;
     private final boolean[] bits;
 
     PathingBlockType(int bits) {
+        this.rawBits = bits;
         this.bits = new boolean[]{
                 (bits & 0b10) != 0,
                 (bits & 0b01) != 0
@@ -41,7 +45,18 @@ public enum PathingBlockType {
         return this.bits;
     }
 
+    /**
+     * @return The two bits of this type packed in the lowest bits of an int
+     */
+    public final int getRawBits() {
+        return this.rawBits;
+    }
+
     public static PathingBlockType fromBits(boolean b1, boolean b2) {
         return b1 ? b2 ? SOLID : AVOID : b2 ? WATER : AIR;
     }
+
+    public static PathingBlockType fromRawBits(int bits) {
+        return BY_RAW_BITS[bits & 0b11];
+    }
 }
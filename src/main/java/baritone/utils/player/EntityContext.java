@@ -24,18 +24,17 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.IEntityContext;
 import baritone.api.utils.IPlayerController;
 import baritone.api.utils.RayTraceUtils;
+import baritone.api.utils.Rotation;
+import baritone.cache.WorldData;
 import baritone.utils.accessor.ServerChunkManagerAccessor;
 import net.minecraft.block.SlabBlock;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.entity.mob.EndermanEntity;
 import net.minecraft.entity.mob.MobEntity;
-import net.minecraft.entity.mob.SpiderEntity;
-import net.minecraft.entity.mob.ZombifiedPiglinEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.WorldChunk;
 import org.jetbrains.annotations.Nullable;
@@ -44,13 +43,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 public class EntityContext implements IEntityContext {
 
     private final LivingEntity entity;
     private @Nullable Supplier<List<Avoidance>> avoidanceFinder;
 
+    /**
+     * What the entity looks like this tick, replaced as soon as it moves or turns
+     */
+    private volatile Snapshot snapshot;
+
     public EntityContext(LivingEntity entity) {
         this.entity = entity;
     }
@@ -82,13 +85,35 @@ public class EntityContext implements IEntityContext {
         return BaritoneAPI.getProvider().getBaritone(this.entity).getPlayerContext().worldData();
     }
 
+    private Snapshot snapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null || !snapshot.isUpToDate(this.entity)) {
+            this.snapshot = snapshot = new Snapshot(this.entity);
+        }
+        return snapshot;
+    }
+
     @Override
     public HitResult objectMouseOver() {
-        return RayTraceUtils.rayTraceTowards(entity(), entityRotations(), playerController().getBlockReachDistance());
+        Snapshot snapshot = snapshot();
+        HitResult result = snapshot.objectMouseOver;
+        if (result == null) {
+            snapshot.objectMouseOver = result = RayTraceUtils.rayTraceTowards(entity(), entityRotations(), playerController().getBlockReachDistance());
+        }
+        return result;
     }
 
     @Override
     public BetterBlockPos feetPos() {
+        Snapshot snapshot = snapshot();
+        BetterBlockPos feet = snapshot.feetPos;
+        if (feet == null) {
+            snapshot.feetPos = feet = computeFeetPos();
+        }
+        return feet;
+    }
+
+    private BetterBlockPos computeFeetPos() {
         // TODO find a better way to deal with soul sand!!!!!
         double x = entity().getX();
         double z = entity().getZ();
@@ -105,12 +130,24 @@ public class EntityContext implements IEntityContext {
         return feet;
     }
 
-    private Stream<Entity> streamHostileEntities() {
-        return this.worldEntitiesStream()
-                .filter(entity -> entity instanceof MobEntity)
-                .filter(entity -> (!(entity instanceof SpiderEntity)) || entity.getBrightnessAtEyes() < 0.5)
-                .filter(entity -> !(entity instanceof ZombifiedPiglinEntity) || ((ZombifiedPiglinEntity) entity).getAttacker() != null)
-                .filter(entity -> !(entity instanceof EndermanEntity) || ((EndermanEntity) entity).isAngry());
+    @Override
+    public Vec3d headPos() {
+        Snapshot snapshot = snapshot();
+        Vec3d head = snapshot.headPos;
+        if (head == null) {
+            snapshot.headPos = head = IEntityContext.super.headPos();
+        }
+        return head;
+    }
+
+    @Override
+    public Rotation entityRotations() {
+        Snapshot snapshot = snapshot();
+        Rotation rotation = snapshot.rotation;
+        if (rotation == null) {
+            snapshot.rotation = rotation = new Rotation(snapshot.yaw, snapshot.pitch);
+        }
+        return rotation;
     }
 
     @Override
@@ -132,13 +169,58 @@ public class EntityContext implements IEntityContext {
         double mobCoeff = baritone().settings().mobAvoidanceCoefficient.get();
 
         if (mobCoeff != 1.0D) {
-            streamHostileEntities().forEach(entity -> res.add(new Avoidance(
-                    entity.getBlockPos(),
-                    mobCoeff,
-                    baritone().settings().mobAvoidanceRadius.get()
-            )));
+            int radius = baritone().settings().mobAvoidanceRadius.get();
+            WorldData worldData = (WorldData) worldData();
+            for (MobEntity mob : worldData.entityQueries.hostilesNear(world(), entity.getBlockPos(), baritone().settings().entityScanRadius.get())) {
+                res.add(new Avoidance(mob.getBlockPos(), mobCoeff, radius));
+            }
         }
 
         return res;
     }
+
+    /**
+     * The position and rotation of the entity in a given tick, along with what was worked out from them so far.
+     * What is worked out from blocks, like the ray trace, doesn't see the blocks that change later in the same tick.
+     * <p>
+     * Lazy fields may be worked out twice by threads racing for them, which is harmless since they end up the same.
+     */
+    private static final class Snapshot {
+
+        private final World world;
+        private final long time;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float yaw;
+        private final float pitch;
+        private final float eyeHeight;
+
+        private BetterBlockPos feetPos;
+        private Vec3d headPos;
+        private Rotation rotation;
+        private HitResult objectMouseOver;
+
+        private Snapshot(LivingEntity entity) {
+            this.world = entity.world;
+            this.time = entity.world.getTime();
+            this.x = entity.getX();
+            this.y = entity.getY();
+            this.z = entity.getZ();
+            this.yaw = entity.getYaw();
+            this.pitch = entity.getPitch();
+            this.eyeHeight = entity.getStandingEyeHeight();
+        }
+
+        private boolean isUpToDate(LivingEntity entity) {
+            return entity.world == this.world
+                    && this.world.getTime() == this.time
+                    && entity.getX() == this.x
+                    && entity.getY() == this.y
+                    && entity.getZ() == this.z
+                    && entity.getYaw() == this.yaw
+                    && entity.getPitch() == this.pitch
+                    && entity.getStandingEyeHeight() == this.eyeHeight;
+        }
+    }
 }
@@ -67,6 +67,20 @@ public final class VarInt {
         return bytes.toByteArray();
     }
 
+    /**
+     * Maps signed integers to unsigned ones so that small negative numbers also get a small varint encoding.
+     *
+     * @param value The signed value
+     * @return The zigzag encoded value
+     */
+    public static int zigZagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int zigZagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
     public static VarInt read(byte[] bytes) {
         return read(bytes, 0);
     }
@@ -0,0 +1,109 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.PrimitiveBinaryHeapOpenSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveNodeStoreTest {
+
+    // can't use an existing goal, see OpenSetsTest
+    private static final Goal GOAL = new Goal() {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return 0;
+        }
+    };
+
+    private static int getOrCreate(PrimitiveNodeStore nodes, int x, int y, int z) {
+        return nodes.getOrCreate(x, y, z, BetterBlockPos.longHash(x, y, z), GOAL);
+    }
+
+    @Test
+    public void testSamePositionSameNode() {
+        PrimitiveNodeStore nodes = new PrimitiveNodeStore(16);
+        int count = 0;
+        for (int x = -10; x < 10; x++) {
+            for (int y = 0; y < 5; y++) {
+                for (int z = -10; z < 10; z++) {
+                    assertEquals(count++, getOrCreate(nodes, x, y, z));
+                }
+            }
+        }
+        assertEquals(count, nodes.size());
+        assertTrue(nodes.capacity() >= count);
+        // every position must still resolve to its original id after all the growing
+        int expected = 0;
+        for (int x = -10; x < 10; x++) {
+            for (int y = 0; y < 5; y++) {
+                for (int z = -10; z < 10; z++) {
+                    int id = getOrCreate(nodes, x, y, z);
+                    assertEquals(expected++, id);
+                    assertEquals(x, nodes.x[id]);
+                    assertEquals(y, nodes.y[id]);
+                    assertEquals(z, nodes.z[id]);
+                    assertEquals(id, nodes.get(x, y, z));
+                }
+            }
+        }
+        assertEquals(PrimitiveNodeStore.NO_NODE, nodes.get(100, 100, 100));
+        assertEquals(count, nodes.size());
+        int capacity = nodes.capacity();
+        nodes.clear();
+        assertEquals(0, nodes.size());
+        assertEquals(capacity, nodes.capacity());
+        assertEquals(0, getOrCreate(nodes, 5, 5, 5));
+    }
+
+    @Test
+    public void testHeapOrder() {
+        Random random = new Random(42);
+        PrimitiveNodeStore nodes = new PrimitiveNodeStore(16);
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes, 4);
+        int size = 1000;
+        double[] costs = new double[size];
+        for (int i = 0; i < size; i++) {
+            int id = getOrCreate(nodes, i, 0, 0);
+            nodes.combinedCost[id] = costs[i] = random.nextDouble();
+            openSet.insert(id);
+        }
+        for (int i = 0; i < size; i += 3) {
+            nodes.combinedCost[i] = costs[i] *= random.nextDouble();
+            openSet.update(i);
+        }
+        Arrays.sort(costs);
+        for (int i = 0; i < size; i++) {
+            int id = openSet.removeLowest();
+            assertEquals(costs[i], nodes.combinedCost[id], 0);
+            assertFalse(nodes.isOpen(id));
+        }
+        assertTrue(openSet.isEmpty());
+    }
+}
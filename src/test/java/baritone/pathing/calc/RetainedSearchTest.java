@@ -0,0 +1,236 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.PrimitiveBinaryHeapOpenSet;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import org.junit.Test;
+
+import static baritone.pathing.calc.PrimitiveNodeStore.NO_NODE;
+import static org.junit.Assert.*;
+
+public class RetainedSearchTest {
+
+    private static final int LENGTH = 20;
+    private static final int BRANCH_AT = 5;
+    private static final int BRANCH_LENGTH = 10;
+
+    // can't use an existing goal, see OpenSetsTest
+    private static final Goal GOAL = new Goal() {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return LENGTH - x;
+        }
+    };
+
+    /**
+     * A finished search from (0, 0, 0): a line of nodes up to (20, 0, 0), and a branch from (5, 0, 0) going
+     * towards +z. Every movement costs 1, the end of both is still open.
+     */
+    private static RetainedSearch retainedSearch() {
+        PrimitiveNodeStore nodes = new PrimitiveNodeStore(16);
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        int previous = NO_NODE;
+        for (int x = 0; x <= LENGTH; x++) {
+            previous = reach(nodes, x, 0, 0, previous);
+        }
+        openSet.insert(previous);
+        previous = nodes.get(BRANCH_AT, 0, 0);
+        for (int z = 1; z <= BRANCH_LENGTH; z++) {
+            previous = reach(nodes, BRANCH_AT, 0, z, previous);
+        }
+        openSet.insert(previous);
+        RetainedSearch retained = new RetainedSearch(GOAL, null, null, nodes);
+        retained.update(NO_NODE);
+        return retained;
+    }
+
+    private static int reach(PrimitiveNodeStore nodes, int x, int y, int z, int previous) {
+        int node = nodes.getOrCreate(x, y, z, BetterBlockPos.longHash(x, y, z), GOAL);
+        nodes.cost[node] = previous == NO_NODE ? 0 : nodes.cost[previous] + 1;
+        nodes.combinedCost[node] = nodes.cost[node] + nodes.estimatedCostToGoal[node];
+        nodes.previous[node] = previous;
+        return node;
+    }
+
+    private static IntOpenHashSet drain(PrimitiveBinaryHeapOpenSet openSet) {
+        IntOpenHashSet ret = new IntOpenHashSet();
+        while (!openSet.isEmpty()) {
+            ret.add(openSet.removeLowest());
+        }
+        return ret;
+    }
+
+    private static void assertKept(PrimitiveNodeStore nodes, int node, double cost) {
+        assertEquals(cost, nodes.cost[node], 0);
+        assertEquals(cost + nodes.estimatedCostToGoal[node], nodes.combinedCost[node], 0);
+    }
+
+    private static void assertDropped(PrimitiveNodeStore nodes, int node) {
+        assertTrue(nodes.cost[node] >= ActionCosts.COST_INF);
+        assertEquals(NO_NODE, nodes.previous[node]);
+    }
+
+    @Test
+    public void reroot() {
+        RetainedSearch retained = retainedSearch();
+        PrimitiveNodeStore nodes = retained.nodes;
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        int root = retained.repair(BRANCH_AT, 0, 0, 0, openSet);
+        assertEquals(nodes.get(BRANCH_AT, 0, 0), root);
+        assertEquals(NO_NODE, nodes.previous[root]);
+        for (int x = 0; x < BRANCH_AT; x++) {
+            // behind the new start, not reachable through the kept part of the tree
+            assertDropped(nodes, nodes.get(x, 0, 0));
+        }
+        for (int x = BRANCH_AT; x <= LENGTH; x++) {
+            assertKept(nodes, nodes.get(x, 0, 0), x - BRANCH_AT);
+        }
+        for (int z = 1; z <= BRANCH_LENGTH; z++) {
+            int node = nodes.get(BRANCH_AT, 0, z);
+            assertKept(nodes, node, z);
+            assertEquals(z == 1 ? root : nodes.get(BRANCH_AT, 0, z - 1), nodes.previous[node]);
+        }
+        // nothing changed, only the new start, what was open already and what is next to the dropped nodes behind
+        // the new start need expanding
+        IntOpenHashSet open = drain(openSet);
+        assertTrue(open.contains(root));
+        assertTrue(open.contains(nodes.get(LENGTH, 0, 0)));
+        assertTrue(open.contains(nodes.get(BRANCH_AT, 0, BRANCH_LENGTH)));
+        assertTrue(open.contains(nodes.get(BRANCH_AT + 1, 0, 0)));
+        assertTrue(open.contains(nodes.get(BRANCH_AT, 0, 1)));
+        assertFalse(open.contains(nodes.get(LENGTH - 1, 0, 0)));
+    }
+
+    @Test
+    public void changedBlockDropsSubtree() {
+        RetainedSearch retained = retainedSearch();
+        PrimitiveNodeStore nodes = retained.nodes;
+        int changedX = 14;
+        retained.onBlockChange(changedX, 0, 0);
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        int start = 2;
+        int root = retained.repair(start, 0, 0, 0, openSet);
+        assertEquals(nodes.get(start, 0, 0), root);
+        // the movements into 12 and past it read the changed block, they and everything after them are gone
+        int firstDropped = changedX - 2;
+        for (int x = start; x < firstDropped; x++) {
+            assertKept(nodes, nodes.get(x, 0, 0), x - start);
+        }
+        for (int x = firstDropped; x <= LENGTH; x++) {
+            assertDropped(nodes, nodes.get(x, 0, 0));
+        }
+        // the branch doesn't come near it
+        for (int z = 1; z <= BRANCH_LENGTH; z++) {
+            assertKept(nodes, nodes.get(BRANCH_AT, 0, z), BRANCH_AT - start + z);
+        }
+        IntOpenHashSet open = drain(openSet);
+        // the last kept node has to find its way forward again
+        int lastKept = nodes.get(firstDropped - 1, 0, 0);
+        assertTrue(open.contains(lastKept));
+        assertTrue(open.contains(root));
+        assertTrue(open.contains(nodes.get(BRANCH_AT, 0, BRANCH_LENGTH)));
+        for (int node : open) {
+            assertTrue(nodes.cost[node] < ActionCosts.COST_INF);
+        }
+        // and with the cost of the path that is left
+        assertKept(nodes, lastKept, firstDropped - 1 - start);
+    }
+
+    @Test
+    public void detourThroughKeptNeighbour() {
+        // two parallel lines from (0, 0, 0), the second one going around through z = 4, both open at their end
+        PrimitiveNodeStore nodes = new PrimitiveNodeStore(16);
+        PrimitiveBinaryHeapOpenSet searched = new PrimitiveBinaryHeapOpenSet(nodes);
+        int previous = NO_NODE;
+        for (int x = 0; x <= LENGTH; x++) {
+            previous = reach(nodes, x, 0, 0, previous);
+        }
+        searched.insert(previous);
+        previous = nodes.get(0, 0, 0);
+        for (int z = 1; z <= 4; z++) {
+            previous = reach(nodes, 0, 0, z, previous);
+        }
+        for (int x = 1; x <= LENGTH; x++) {
+            previous = reach(nodes, x, 0, 4, previous);
+        }
+        searched.insert(previous);
+        RetainedSearch retained = new RetainedSearch(GOAL, null, null, nodes);
+        retained.update(NO_NODE);
+        retained.onBlockChange(10, 0, 0);
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        retained.repair(0, 0, 0, 0, openSet);
+        for (int x = 8; x <= LENGTH; x++) {
+            assertDropped(nodes, nodes.get(x, 0, 0));
+        }
+        IntOpenHashSet open = drain(openSet);
+        // too far from the changed block for any of its movements to read it, but it can get to the end of the first
+        // line, which can't be reached through the cut anymore if the change blocked it
+        int detour = nodes.get(LENGTH - 1, 0, 4);
+        assertKept(nodes, detour, 4 + LENGTH - 1);
+        assertTrue(open.contains(detour));
+        // nowhere near what was dropped
+        assertFalse(open.contains(nodes.get(2, 0, 4)));
+    }
+
+    @Test
+    public void changeOutsideIsIgnored() {
+        RetainedSearch retained = retainedSearch();
+        PrimitiveNodeStore nodes = retained.nodes;
+        retained.onBlockChange(LENGTH + 100, 0, 0);
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        assertEquals(nodes.get(0, 0, 0), retained.repair(0, 0, 0, 0, openSet));
+        for (int x = 0; x <= LENGTH; x++) {
+            assertKept(nodes, nodes.get(x, 0, 0), x);
+        }
+    }
+
+    @Test
+    public void startOutsideTree() {
+        RetainedSearch retained = retainedSearch();
+        PrimitiveNodeStore nodes = retained.nodes;
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(nodes);
+        assertEquals(NO_NODE, retained.repair(LENGTH + 5, 0, 0, 0, openSet));
+        assertTrue(openSet.isEmpty());
+        // left as it was, the caller searches from scratch
+        for (int x = 0; x <= LENGTH; x++) {
+            int node = nodes.get(x, 0, 0);
+            assertKept(nodes, node, x);
+            assertEquals(x == 0 ? NO_NODE : nodes.get(x - 1, 0, 0), nodes.previous[node]);
+        }
+    }
+
+    @Test
+    public void tooManyChanges() {
+        RetainedSearch retained = retainedSearch();
+        for (int i = 0; i < 300; i++) {
+            retained.markDirty(i, 50, 0);
+        }
+        PrimitiveBinaryHeapOpenSet openSet = new PrimitiveBinaryHeapOpenSet(retained.nodes);
+        assertEquals(NO_NODE, retained.repair(0, 0, 0, 0, openSet));
+        assertTrue(openSet.isEmpty());
+    }
+}
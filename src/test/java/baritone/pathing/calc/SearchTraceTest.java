@@ -0,0 +1,82 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.pathing.movement.Moves;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SearchTraceTest {
+
+    @Test
+    public void keepsNewestEvents() {
+        SearchTrace trace = new SearchTrace(8);
+        trace.start(0, 64, 0, "goal");
+        for (int i = 0; i < 20; i++) {
+            trace.expanded(i, 64, 0, i);
+        }
+        assertEquals(8, trace.size());
+        assertEquals(20, trace.recorded());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(12 + i, trace.x(i));
+        }
+    }
+
+    @Test
+    public void survivesFile() throws IOException {
+        SearchTrace trace = new SearchTrace(4);
+        trace.start(1, 2, 3, "GoalBlock{x=4,y=5,z=6}");
+        trace.expanded(1, 2, 3, 0);
+        trace.movement(SearchTrace.Event.IMPOSSIBLE, Moves.PILLAR, 1, 3, 3, 1000000, 120);
+        trace.movement(SearchTrace.Event.UNLOADED_CHUNK, Moves.TRAVERSE_NORTH, 1, 2, 2, 1000000, 0);
+        trace.expanded(1, 2, 2, 4.63);
+        trace.movement(SearchTrace.Event.IMPROVED, Moves.TRAVERSE_SOUTH, 1, 2, 3, 4.63, 80);
+        trace.finish(5000);
+        Path file = Files.createTempFile("search", ".trace");
+        try {
+            trace.write(file);
+            SearchTrace read = SearchTrace.read(file);
+            assertEquals(1, read.getStartX());
+            assertEquals(2, read.getStartY());
+            assertEquals(3, read.getStartZ());
+            assertEquals("GoalBlock{x=4,y=5,z=6}", read.getGoal());
+            assertEquals(5000, read.getDurationNanos());
+            assertEquals(trace.size(), read.size());
+            assertEquals(trace.recorded(), read.recorded());
+            for (int i = 0; i < trace.size(); i++) {
+                assertEquals(trace.event(i), read.event(i));
+                assertEquals(trace.move(i), read.move(i));
+                assertEquals(trace.x(i), read.x(i));
+                assertEquals(trace.y(i), read.y(i));
+                assertEquals(trace.z(i), read.z(i));
+                assertEquals(trace.cost(i), read.cost(i), 0);
+                assertEquals(trace.nanos(i), read.nanos(i));
+            }
+            assertEquals(SearchTrace.Event.IMPOSSIBLE, read.event(0));
+            assertNull(read.move(2));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.goals;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.goals.GoalComposite;
+import baritone.api.pathing.goals.GoalGetToBlock;
+import baritone.api.pathing.goals.GoalNear;
+import baritone.api.pathing.goals.GoalTwoBlocks;
+import baritone.api.pathing.goals.GoalXZ;
+import baritone.api.pathing.goals.GoalYLevel;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class GoalCompositeTest {
+
+    @Test
+    public void indexedIsInGoal() {
+        Random random = new Random(4242);
+        Goal[] goals = new Goal[300];
+        for (int i = 0; i < goals.length; i++) {
+            BlockPos pos = new BlockPos(random.nextInt(64) - 32, random.nextInt(32) - 16, random.nextInt(64) - 32);
+            switch (i % 4) {
+                case 0:
+                    goals[i] = new GoalBlock(pos);
+                    break;
+                case 1:
+                    goals[i] = new GoalGetToBlock(pos);
+                    break;
+                case 2:
+                    goals[i] = new GoalTwoBlocks(pos);
+                    break;
+                default:
+                    goals[i] = new GoalNear(pos, 3);
+                    break;
+            }
+        }
+        GoalComposite composite = new GoalComposite(goals);
+        for (int x = -40; x <= 40; x++) {
+            for (int y = -24; y <= 24; y++) {
+                for (int z = -40; z <= 40; z++) {
+                    boolean expected = false;
+                    for (Goal goal : goals) {
+                        if (goal.isInGoal(x, y, z)) {
+                            expected = true;
+                            break;
+                        }
+                    }
+                    assertEquals(x + "," + y + "," + z, expected, composite.isInGoal(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void indexedHeuristic() {
+        Random random = new Random(2424);
+        Goal[] goals = new Goal[300];
+        for (int i = 0; i < goals.length; i++) {
+            BlockPos pos = new BlockPos(random.nextInt(512) - 256, random.nextInt(128) - 64, random.nextInt(512) - 256);
+            switch (i % 6) {
+                case 0:
+                    goals[i] = new GoalBlock(pos);
+                    break;
+                case 1:
+                    goals[i] = new GoalGetToBlock(pos);
+                    break;
+                case 2:
+                    goals[i] = new GoalTwoBlocks(pos);
+                    break;
+                case 3:
+                    goals[i] = new GoalNear(pos, random.nextInt(8));
+                    break;
+                case 4:
+                    // far from everything else, so that the unindexed goals don't always win
+                    goals[i] = i % 12 == 4 ? new GoalXZ(pos.getX() * 8, pos.getZ() * 8) : new GoalYLevel(pos.getY() * 8);
+                    break;
+                default:
+                    goals[i] = new GoalBlock(pos.getX() / 16, pos.getY(), pos.getZ() / 16);
+                    break;
+            }
+        }
+        GoalComposite composite = new GoalComposite(goals);
+        for (int i = 0; i < 20000; i++) {
+            // mostly among the goals, sometimes far outside of them
+            int spread = i % 10 == 0 ? 4096 : 640;
+            int x = random.nextInt(spread) - spread / 2;
+            int y = random.nextInt(384) - 192;
+            int z = random.nextInt(spread) - spread / 2;
+            double expected = Double.MAX_VALUE;
+            for (Goal goal : goals) {
+                expected = Math.min(expected, goal.heuristic(x, y, z));
+            }
+            assertEquals(x + "," + y + "," + z, expected, composite.heuristic(x, y, z), 0);
+        }
+    }
+
+    @Test
+    public void equalityIgnoresOrder() {
+        Goal a = new GoalBlock(1, 2, 3);
+        Goal b = new GoalGetToBlock(new BlockPos(1, 2, 3));
+        Goal c = new GoalTwoBlocks(4, 5, 6);
+        assertEquals(new GoalComposite(a, b, c), new GoalComposite(c, a, b));
+        assertEquals(new GoalComposite(a, b, c).hashCode(), new GoalComposite(c, a, b).hashCode());
+        assertNotEquals(new GoalComposite(a, b, c), new GoalComposite(a, b, b));
+        assertNotEquals(new GoalComposite(a, a, b), new GoalComposite(a, b, b));
+        assertNotEquals(new GoalComposite(a, b), new GoalComposite(a, b, c));
+    }
+}
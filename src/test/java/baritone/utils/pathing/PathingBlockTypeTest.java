@@ -30,4 +30,13 @@ public class PathingBlockTypeTest {
             assertTrue(type == PathingBlockType.fromBits(bits[0], bits[1]));
         }
     }
+
+    @Test
+    public void testRawBits() {
+        for (PathingBlockType type : PathingBlockType.values()) {
+            boolean[] bits = type.getBits();
+            assertTrue(type.getRawBits() == ((bits[0] ? 0b10 : 0) | (bits[1] ? 0b01 : 0)));
+            assertTrue(type == PathingBlockType.fromRawBits(type.getRawBits()));
+        }
+    }
 }